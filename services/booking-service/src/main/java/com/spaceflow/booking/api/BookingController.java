@@ -1,12 +1,25 @@
 package com.spaceflow.booking.api;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spaceflow.booking.dto.AvailabilitySearchResponse;
+import com.spaceflow.booking.dto.BatchBookingRequest;
+import com.spaceflow.booking.dto.BatchBookingResponse;
 import com.spaceflow.booking.dto.Booking;
+import com.spaceflow.booking.dto.BookingChangesResponse;
+import com.spaceflow.booking.dto.BookingPage;
 import com.spaceflow.booking.dto.BookingRequest;
 import com.spaceflow.booking.dto.BookingUpdateRequest;
+import com.spaceflow.booking.dto.WaitlistEntry;
+import com.spaceflow.booking.service.AvailabilitySearchService;
+import com.spaceflow.booking.service.BookingService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -14,52 +27,140 @@ import java.util.List;
 @RequestMapping("/api/v1")
 public class BookingController {
 
+    private final BookingService bookingService;
+    private final AvailabilitySearchService availabilitySearchService;
+    private final IdempotencyCache idempotencyCache;
+    private final ObjectMapper objectMapper;
+
+    public BookingController(BookingService bookingService, AvailabilitySearchService availabilitySearchService,
+                             IdempotencyCache idempotencyCache, ObjectMapper objectMapper) {
+        this.bookingService = bookingService;
+        this.availabilitySearchService = availabilitySearchService;
+        this.idempotencyCache = idempotencyCache;
+        this.objectMapper = objectMapper;
+    }
+
     @PostMapping("/bookings")
-    public ResponseEntity<Booking> createBooking(@Valid @RequestBody BookingRequest request) {
-        // TODO: Implement booking creation logic
-        // TODO: Validate availability and check for conflicts
-        // TODO: Generate unique booking ID
-        // TODO: Store booking
+    public ResponseEntity<Booking> createBooking(
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody BookingRequest request) {
+        return idempotencyCache.execute(idempotencyKey, fingerprint("POST /bookings", request), () -> {
+            Booking booking = bookingService.createBooking(request);
+            return ResponseEntity.status(HttpStatus.CREATED).eTag(eTagOf(booking)).body(booking);
+        });
+    }
 
-        Booking booking = new Booking();
-        return ResponseEntity.status(HttpStatus.CREATED).body(booking);
+    @PostMapping("/bookings:batch")
+    public ResponseEntity<BatchBookingResponse> createBookings(@Valid @RequestBody BatchBookingRequest request) {
+        BatchBookingResponse response = new BatchBookingResponse(bookingService.createBookings(request.getBookings()));
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     @GetMapping("/bookings")
     public ResponseEntity<BookingsResponse> getBookings(
             @RequestParam String spaceId,
             @RequestParam String startTime,
-            @RequestParam String endTime) {
-        // TODO: Implement booking retrieval logic
-        // TODO: Query bookings for the specified space and time window
-
+            @RequestParam String endTime,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         BookingsResponse response = new BookingsResponse();
+        if (cursor == null && limit == null) {
+            response.setBookings(bookingService.getBookings(spaceId, startTime, endTime));
+        } else {
+            BookingPage page = bookingService.getBookings(spaceId, startTime, endTime, cursor, limit);
+            response.setBookings(page.getBookings());
+            response.setNextCursor(page.getNextCursor());
+        }
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Streams the same bookings as newline-delimited JSON, one page at a time, so large windows
+     * never have to be held in memory. The first page is read up front so invalid parameters
+     * still produce a regular error response.
+     */
+    @GetMapping(value = "/bookings", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBookings(
+            @RequestParam String spaceId,
+            @RequestParam String startTime,
+            @RequestParam String endTime,
+            @RequestParam(required = false) String cursor) {
+        BookingPage first = bookingService.getBookings(spaceId, startTime, endTime, cursor, null);
+        StreamingResponseBody body = out -> {
+            BookingPage page = first;
+            while (true) {
+                for (Booking booking : page.getBookings()) {
+                    out.write(objectMapper.writeValueAsBytes(booking));
+                    out.write('\n');
+                }
+                out.flush();
+                if (page.getNextCursor() == null) {
+                    return;
+                }
+                page = bookingService.getBookings(spaceId, startTime, endTime, page.getNextCursor(), null);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/bookings/changes")
+    public ResponseEntity<BookingChangesResponse> getBookingChanges(
+            @RequestParam(defaultValue = "0") long fromOffset,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(bookingService.getChanges(fromOffset, limit));
+    }
+
     @PatchMapping("/bookings/{bookingId}")
     public ResponseEntity<Booking> updateBooking(
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @PathVariable String bookingId,
             @Valid @RequestBody BookingUpdateRequest request) {
-        // TODO: Implement booking modification logic
-        // TODO: Validate booking exists
-        // TODO: Check for conflicts with modified parameters
-        // TODO: Update booking
-
-        Booking booking = new Booking();
-        return ResponseEntity.ok(booking);
+        Long expectedVersion = ifMatch != null ? versionOf(ifMatch) : request.getVersion();
+        String operation = "PATCH /bookings/" + bookingId + " " + expectedVersion;
+        return idempotencyCache.execute(idempotencyKey, fingerprint(operation, request), () -> {
+            Booking booking = bookingService.updateBooking(bookingId, request, expectedVersion);
+            return ResponseEntity.ok().eTag(eTagOf(booking)).body(booking);
+        });
     }
 
     @DeleteMapping("/bookings/{bookingId}")
-    public ResponseEntity<CancelBookingResponse> cancelBooking(@PathVariable String bookingId) {
-        // TODO: Implement booking cancellation logic
-        // TODO: Validate booking exists and is in valid state
-        // TODO: Cancel booking
-
-        CancelBookingResponse response = new CancelBookingResponse();
-        response.setBookingId(bookingId);
-        response.setStatus("canceled");
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CancelBookingResponse> cancelBooking(
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @PathVariable String bookingId) {
+        Long expectedVersion = ifMatch != null ? versionOf(ifMatch) : null;
+        String operation = "DELETE /bookings/" + bookingId + " " + expectedVersion;
+        return idempotencyCache.execute(idempotencyKey, operation, () -> {
+            Booking canceled = bookingService.cancelBooking(bookingId, expectedVersion);
+
+            CancelBookingResponse response = new CancelBookingResponse();
+            response.setBookingId(canceled.getBookingId());
+            response.setStatus(canceled.getStatus());
+            return ResponseEntity.ok().eTag(eTagOf(canceled)).body(response);
+        });
+    }
+
+    @PostMapping("/bookings/{bookingId}/check-in")
+    public ResponseEntity<Booking> checkIn(@PathVariable String bookingId) {
+        Booking booking = bookingService.checkIn(bookingId);
+        return ResponseEntity.ok().eTag(eTagOf(booking)).body(booking);
+    }
+
+    @PostMapping("/waitlist")
+    public ResponseEntity<WaitlistEntry> joinWaitlist(@Valid @RequestBody BookingRequest request) {
+        WaitlistEntry entry = bookingService.joinWaitlist(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(entry);
+    }
+
+    @GetMapping("/waitlist/{entryId}")
+    public ResponseEntity<WaitlistEntry> getWaitlistEntry(@PathVariable String entryId) {
+        return ResponseEntity.ok(bookingService.getWaitlistEntry(entryId));
+    }
+
+    @DeleteMapping("/waitlist/{entryId}")
+    public ResponseEntity<WaitlistEntry> withdrawWaitlistEntry(@PathVariable String entryId) {
+        return ResponseEntity.ok(bookingService.withdrawWaitlistEntry(entryId));
     }
 
     @GetMapping("/spaces/{spaceId}/availability")
@@ -67,17 +168,59 @@ public class BookingController {
             @PathVariable String spaceId,
             @RequestParam String startTime,
             @RequestParam String endTime) {
-        // TODO: Implement availability check logic
-        // TODO: Check for conflicting bookings
-        // TODO: Return availability status
-
         com.spaceflow.booking.dto.AvailabilityResponse response =
-            new com.spaceflow.booking.dto.AvailabilityResponse();
+            bookingService.checkAvailability(spaceId, startTime, endTime);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/spaces/availability")
+    public ResponseEntity<AvailabilitySearchResponse> searchAvailability(
+            @RequestParam List<String> spaceIds,
+            @RequestParam String startTime,
+            @RequestParam String endTime,
+            @RequestParam(defaultValue = "false") boolean includeUnavailable,
+            @RequestParam(required = false) Integer limit) {
+        AvailabilitySearchResponse response =
+            availabilitySearchService.search(spaceIds, startTime, endTime, includeUnavailable, limit);
+        return ResponseEntity.ok(response);
+    }
+
+    private static String eTagOf(Booking booking) {
+        return "\"" + booking.getVersion() + "\"";
+    }
+
+    /**
+     * Parses the booking version from an If-Match header. {@code *} matches any version.
+     */
+    private static Long versionOf(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid If-Match header: expected a booking version ETag");
+        }
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            return operation + " " + objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize request", ex);
+        }
+    }
+
     public static class BookingsResponse {
         private List<Booking> bookings;
+        private String nextCursor;
 
         public List<Booking> getBookings() {
             return bookings;
@@ -86,6 +229,14 @@ public class BookingController {
         public void setBookings(List<Booking> bookings) {
             this.bookings = bookings;
         }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        public void setNextCursor(String nextCursor) {
+            this.nextCursor = nextCursor;
+        }
     }
 
     public static class CancelBookingResponse {
@@ -0,0 +1,160 @@
+package com.spaceflow.booking.api;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the responses of write requests sent with an {@code Idempotency-Key} header so
+ * that client retries replay the original response instead of running the operation again.
+ *
+ * Stored responses are bounded both by count (oldest evicted first) and by age, counted from
+ * when the response was stored. Keys whose request is still running are held apart and never
+ * evicted, since forgetting them would let a retry run the operation a second time; there are
+ * at most as many as requests in progress. A retry that arrives while the original request is
+ * still running waits for it rather than executing in parallel.
+ * Only successful responses are kept; if the operation fails the key is released so the client
+ * can retry. Reusing a key for a different request is rejected.
+ */
+@Component
+public class IdempotencyCache {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    /** Completed entries in the order they completed; guarded by {@link #inFlight}. */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    /** Entries whose original request is still running. */
+    private final Map<String, Entry> inFlight = new HashMap<>();
+
+    @Autowired
+    public IdempotencyCache(@Value("${booking.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${booking.idempotency.ttl-minutes:1440}") long ttlMinutes) {
+        this(maxEntries, Duration.ofMinutes(ttlMinutes), System::nanoTime);
+    }
+
+    IdempotencyCache(int maxEntries, Duration ttl, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Runs {@code action} once per key. {@code fingerprint} identifies the request (operation
+     * and body) so that a key reused for a different request can be detected. A null key runs
+     * the action without caching.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(String key, String fingerprint, Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        Entry entry;
+        boolean owner = false;
+        synchronized (inFlight) {
+            evictExpired(clock.getAsLong());
+            entry = inFlight.get(key);
+            if (entry == null) {
+                entry = entries.get(key);
+            }
+            if (entry == null) {
+                entry = new Entry(fingerprint);
+                inFlight.put(key, entry);
+                owner = true;
+            }
+        }
+        if (!entry.fingerprint.equals(fingerprint)) {
+            throw new IllegalArgumentException(HEADER + " was already used for a different request");
+        }
+
+        if (owner) {
+            try {
+                ResponseEntity<T> response = action.get();
+                store(key, entry);
+                entry.response.complete(response);
+                return response;
+            } catch (Throwable ex) {
+                // Errors too: requests waiting on this entry must never be left hanging.
+                synchronized (inFlight) {
+                    inFlight.remove(key, entry);
+                }
+                entry.response.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+
+        ResponseEntity<?> original;
+        try {
+            original = entry.response.join();
+        } catch (CompletionException ex) {
+            // The original attempt failed; surface the same error to requests that waited on it.
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+        return (ResponseEntity<T>) ResponseEntity.status(original.getStatusCode())
+                .headers(original.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(original.getBody());
+    }
+
+    /**
+     * Moves a completed entry to the bounded store, evicting the oldest stored response if it
+     * is full.
+     */
+    private void store(String key, Entry entry) {
+        synchronized (inFlight) {
+            inFlight.remove(key, entry);
+            entry.storedAt = clock.getAsLong();
+            entries.put(key, entry);
+            if (entries.size() > maxEntries) {
+                Iterator<Entry> eldest = entries.values().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (now - entry.storedAt < ttlNanos) {
+                // Insertion order: everything after this entry is younger.
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+        private long storedAt;
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
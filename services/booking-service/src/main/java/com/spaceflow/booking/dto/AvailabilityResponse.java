@@ -9,6 +9,8 @@ public class AvailabilityResponse {
     private OffsetDateTime startTime;
     private OffsetDateTime endTime;
     private List<ConflictingBooking> conflictingBookings;
+    private Integer capacity;
+    private Integer remainingCapacity;
 
     public Boolean getAvailable() {
         return available;
@@ -50,6 +52,22 @@ public class AvailabilityResponse {
         this.conflictingBookings = conflictingBookings;
     }
 
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
+    public Integer getRemainingCapacity() {
+        return remainingCapacity;
+    }
+
+    public void setRemainingCapacity(Integer remainingCapacity) {
+        this.remainingCapacity = remainingCapacity;
+    }
+
     public static class ConflictingBooking {
         private String bookingId;
         private OffsetDateTime startTime;
@@ -0,0 +1,34 @@
+package com.spaceflow.booking.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public class AvailabilitySearchResponse {
+    private OffsetDateTime startTime;
+    private OffsetDateTime endTime;
+    private List<AvailabilityResponse> candidates;
+
+    public OffsetDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(OffsetDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public OffsetDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(OffsetDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public List<AvailabilityResponse> getCandidates() {
+        return candidates;
+    }
+
+    public void setCandidates(List<AvailabilityResponse> candidates) {
+        this.candidates = candidates;
+    }
+}
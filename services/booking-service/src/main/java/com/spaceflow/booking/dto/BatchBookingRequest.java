@@ -0,0 +1,20 @@
+package com.spaceflow.booking.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+public class BatchBookingRequest {
+
+    @NotEmpty
+    @Valid
+    private List<BookingRequest> bookings;
+
+    public List<BookingRequest> getBookings() {
+        return bookings;
+    }
+
+    public void setBookings(List<BookingRequest> bookings) {
+        this.bookings = bookings;
+    }
+}
@@ -0,0 +1,22 @@
+package com.spaceflow.booking.dto;
+
+import java.util.List;
+
+public class BatchBookingResponse {
+    private List<Booking> bookings;
+
+    public BatchBookingResponse() {
+    }
+
+    public BatchBookingResponse(List<Booking> bookings) {
+        this.bookings = bookings;
+    }
+
+    public List<Booking> getBookings() {
+        return bookings;
+    }
+
+    public void setBookings(List<Booking> bookings) {
+        this.bookings = bookings;
+    }
+}
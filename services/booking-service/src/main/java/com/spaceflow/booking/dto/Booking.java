@@ -11,9 +11,31 @@ public class Booking {
     private String purpose;
     private Integer attendeeCount;
     private String status;
+    private Long version;
+    private RecurrenceRule recurrence;
+    private OffsetDateTime checkedInAt;
     private OffsetDateTime createdAt;
     private OffsetDateTime updatedAt;
 
+    public Booking() {
+    }
+
+    public Booking(Booking source) {
+        this.bookingId = source.bookingId;
+        this.spaceId = source.spaceId;
+        this.ownerReference = source.ownerReference;
+        this.startTime = source.startTime;
+        this.endTime = source.endTime;
+        this.purpose = source.purpose;
+        this.attendeeCount = source.attendeeCount;
+        this.status = source.status;
+        this.version = source.version;
+        this.recurrence = source.recurrence;
+        this.checkedInAt = source.checkedInAt;
+        this.createdAt = source.createdAt;
+        this.updatedAt = source.updatedAt;
+    }
+
     public String getBookingId() {
         return bookingId;
     }
@@ -78,6 +100,22 @@ public class Booking {
         this.status = status;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public RecurrenceRule getRecurrence() {
+        return recurrence;
+    }
+
+    public void setRecurrence(RecurrenceRule recurrence) {
+        this.recurrence = recurrence;
+    }
+
     public OffsetDateTime getCreatedAt() {
         return createdAt;
     }
@@ -93,6 +131,14 @@ public class Booking {
     public void setUpdatedAt(OffsetDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public OffsetDateTime getCheckedInAt() {
+        return checkedInAt;
+    }
+
+    public void setCheckedInAt(OffsetDateTime checkedInAt) {
+        this.checkedInAt = checkedInAt;
+    }
 }
 
 
@@ -0,0 +1,57 @@
+package com.spaceflow.booking.dto;
+
+import java.time.OffsetDateTime;
+
+public class BookingChange {
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String CANCELED = "canceled";
+    public static final String RELEASED = "released";
+
+    private long offset;
+    private String type;
+    private OffsetDateTime occurredAt;
+    private Booking booking;
+
+    public BookingChange() {
+    }
+
+    public BookingChange(long offset, String type, OffsetDateTime occurredAt, Booking booking) {
+        this.offset = offset;
+        this.type = type;
+        this.occurredAt = occurredAt;
+        this.booking = booking;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public OffsetDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(OffsetDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+
+    public Booking getBooking() {
+        return booking;
+    }
+
+    public void setBooking(Booking booking) {
+        this.booking = booking;
+    }
+}
@@ -0,0 +1,52 @@
+package com.spaceflow.booking.dto;
+
+import java.util.List;
+
+public class BookingChangesResponse {
+    private String streamId;
+    private List<BookingChange> changes;
+    private long nextOffset;
+    private long earliestOffset;
+
+    public BookingChangesResponse() {
+    }
+
+    public BookingChangesResponse(String streamId, List<BookingChange> changes, long nextOffset, long earliestOffset) {
+        this.streamId = streamId;
+        this.changes = changes;
+        this.nextOffset = nextOffset;
+        this.earliestOffset = earliestOffset;
+    }
+
+    public String getStreamId() {
+        return streamId;
+    }
+
+    public void setStreamId(String streamId) {
+        this.streamId = streamId;
+    }
+
+    public List<BookingChange> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<BookingChange> changes) {
+        this.changes = changes;
+    }
+
+    public long getNextOffset() {
+        return nextOffset;
+    }
+
+    public void setNextOffset(long nextOffset) {
+        this.nextOffset = nextOffset;
+    }
+
+    public long getEarliestOffset() {
+        return earliestOffset;
+    }
+
+    public void setEarliestOffset(long earliestOffset) {
+        this.earliestOffset = earliestOffset;
+    }
+}
@@ -0,0 +1,32 @@
+package com.spaceflow.booking.dto;
+
+import java.util.List;
+
+public class BookingPage {
+    private List<Booking> bookings;
+    private String nextCursor;
+
+    public BookingPage() {
+    }
+
+    public BookingPage(List<Booking> bookings, String nextCursor) {
+        this.bookings = bookings;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Booking> getBookings() {
+        return bookings;
+    }
+
+    public void setBookings(List<Booking> bookings) {
+        this.bookings = bookings;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -1,5 +1,6 @@
 package com.spaceflow.booking.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.time.OffsetDateTime;
@@ -18,6 +19,9 @@ public class BookingRequest {
     private String purpose;
     private Integer attendeeCount;
 
+    @Valid
+    private RecurrenceRule recurrence;
+
     public String getSpaceId() {
         return spaceId;
     }
@@ -57,6 +61,14 @@ public class BookingRequest {
     public void setAttendeeCount(Integer attendeeCount) {
         this.attendeeCount = attendeeCount;
     }
+
+    public RecurrenceRule getRecurrence() {
+        return recurrence;
+    }
+
+    public void setRecurrence(RecurrenceRule recurrence) {
+        this.recurrence = recurrence;
+    }
 }
 
 
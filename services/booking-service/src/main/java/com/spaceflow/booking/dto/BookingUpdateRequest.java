@@ -8,6 +8,7 @@ public class BookingUpdateRequest {
     private OffsetDateTime endTime;
     private String purpose;
     private Integer attendeeCount;
+    private Long version;
 
     public String getSpaceId() {
         return spaceId;
@@ -48,6 +49,14 @@ public class BookingUpdateRequest {
     public void setAttendeeCount(Integer attendeeCount) {
         this.attendeeCount = attendeeCount;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
 
 
@@ -21,10 +21,19 @@ public class ConflictErrorResponse extends ErrorResponse {
     }
 
     public static class ConflictingBooking {
+        private Integer requestIndex;
         private String bookingId;
         private java.time.OffsetDateTime startTime;
         private java.time.OffsetDateTime endTime;
 
+        public Integer getRequestIndex() {
+            return requestIndex;
+        }
+
+        public void setRequestIndex(Integer requestIndex) {
+            this.requestIndex = requestIndex;
+        }
+
         public String getBookingId() {
             return bookingId;
         }
@@ -0,0 +1,53 @@
+package com.spaceflow.booking.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import java.time.OffsetDateTime;
+
+public class RecurrenceRule {
+
+    @NotBlank
+    @Pattern(regexp = "daily|weekly", message = "recurrence.frequency must be one of: daily, weekly")
+    private String frequency;
+
+    @Min(1)
+    private Integer interval;
+
+    private OffsetDateTime until;
+
+    @Min(1)
+    private Integer count;
+
+    public String getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(String frequency) {
+        this.frequency = frequency;
+    }
+
+    public Integer getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Integer interval) {
+        this.interval = interval;
+    }
+
+    public OffsetDateTime getUntil() {
+        return until;
+    }
+
+    public void setUntil(OffsetDateTime until) {
+        this.until = until;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+}
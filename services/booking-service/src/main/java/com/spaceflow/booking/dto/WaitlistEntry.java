@@ -0,0 +1,112 @@
+package com.spaceflow.booking.dto;
+
+import java.time.OffsetDateTime;
+
+public class WaitlistEntry {
+    private String entryId;
+    private String spaceId;
+    private OffsetDateTime startTime;
+    private OffsetDateTime endTime;
+    private String purpose;
+    private Integer attendeeCount;
+    private String status;
+    private String bookingId;
+    private OffsetDateTime createdAt;
+    private OffsetDateTime updatedAt;
+
+    public WaitlistEntry() {
+    }
+
+    public WaitlistEntry(WaitlistEntry source) {
+        this.entryId = source.entryId;
+        this.spaceId = source.spaceId;
+        this.startTime = source.startTime;
+        this.endTime = source.endTime;
+        this.purpose = source.purpose;
+        this.attendeeCount = source.attendeeCount;
+        this.status = source.status;
+        this.bookingId = source.bookingId;
+        this.createdAt = source.createdAt;
+        this.updatedAt = source.updatedAt;
+    }
+
+    public String getEntryId() {
+        return entryId;
+    }
+
+    public void setEntryId(String entryId) {
+        this.entryId = entryId;
+    }
+
+    public String getSpaceId() {
+        return spaceId;
+    }
+
+    public void setSpaceId(String spaceId) {
+        this.spaceId = spaceId;
+    }
+
+    public OffsetDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(OffsetDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public OffsetDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(OffsetDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public String getPurpose() {
+        return purpose;
+    }
+
+    public void setPurpose(String purpose) {
+        this.purpose = purpose;
+    }
+
+    public Integer getAttendeeCount() {
+        return attendeeCount;
+    }
+
+    public void setAttendeeCount(Integer attendeeCount) {
+        this.attendeeCount = attendeeCount;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getBookingId() {
+        return bookingId;
+    }
+
+    public void setBookingId(String bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(OffsetDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public OffsetDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(OffsetDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
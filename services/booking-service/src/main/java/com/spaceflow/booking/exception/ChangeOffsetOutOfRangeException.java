@@ -0,0 +1,7 @@
+package com.spaceflow.booking.exception;
+
+public class ChangeOffsetOutOfRangeException extends RuntimeException {
+    public ChangeOffsetOutOfRangeException(String message) {
+        super(message);
+    }
+}
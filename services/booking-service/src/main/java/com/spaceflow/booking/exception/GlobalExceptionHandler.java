@@ -40,6 +40,12 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    @ExceptionHandler(WaitlistEntryNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleWaitlistEntryNotFoundException(WaitlistEntryNotFoundException ex) {
+        ErrorResponse error = new ErrorResponse("waitlist_entry_not_found", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
     @ExceptionHandler(SpaceNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleSpaceNotFoundException(SpaceNotFoundException ex) {
         ErrorResponse error = new ErrorResponse("space_not_found", ex.getMessage());
@@ -59,6 +65,12 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(error);
     }
 
+    @ExceptionHandler(ChangeOffsetOutOfRangeException.class)
+    public ResponseEntity<ErrorResponse> handleChangeOffsetOutOfRangeException(ChangeOffsetOutOfRangeException ex) {
+        ErrorResponse error = new ErrorResponse("offset_out_of_range", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.GONE).body(error);
+    }
+
     @ExceptionHandler(PermissionDeniedException.class)
     public ResponseEntity<ErrorResponse> handlePermissionDeniedException(PermissionDeniedException ex) {
         ErrorResponse error = new ErrorResponse("permission_denied", ex.getMessage());
@@ -0,0 +1,140 @@
+package com.spaceflow.booking.index;
+
+import com.spaceflow.booking.dto.Booking;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent load per shared space, weighted by attendee count, for capacity-aware admission.
+ *
+ * Only bookings in shared (capacity-limited) spaces are added. A single booking adds its weight
+ * to the space's {@link LoadTree}. A recurring series is never expanded: it is stored once,
+ * keyed by its overall span, and its occurrences inside a queried window are found
+ * arithmetically through its {@link SeriesSchedule}. Adding or removing any booking is therefore
+ * logarithmic in the number of bookings, however long a series is. The peak load over a window
+ * sweeps the series occurrences inside it and asks the tree for the peak between their edges.
+ *
+ * Like {@link ConflictIndex}, per-space data must be accessed under that space's stripe lock.
+ */
+@Component
+public class CapacityIndex {
+
+    private final Map<String, SpaceLoad> loadBySpace = new ConcurrentHashMap<>();
+
+    public void add(Booking booking) {
+        SpaceLoad load = loadBySpace.computeIfAbsent(booking.getSpaceId(), spaceId -> new SpaceLoad());
+        int weight = weightOf(booking);
+        SeriesSchedule schedule = SeriesSchedule.of(booking);
+        if (schedule.count() == 1) {
+            load.singles.add(schedule.spanStart(), schedule.spanEnd(), weight);
+        } else {
+            load.series.insert(schedule.spanStart(), schedule.spanEnd(), booking.getBookingId(),
+                    new Series(schedule, weight));
+        }
+    }
+
+    public void remove(Booking booking) {
+        SpaceLoad load = loadBySpace.get(booking.getSpaceId());
+        if (load == null) {
+            return;
+        }
+        SeriesSchedule schedule = SeriesSchedule.of(booking);
+        if (schedule.count() == 1) {
+            load.singles.add(schedule.spanStart(), schedule.spanEnd(), -weightOf(booking));
+        } else {
+            load.series.remove(schedule.spanStart(), booking.getBookingId());
+        }
+        if (load.singles.isEmpty() && load.series.isEmpty()) {
+            loadBySpace.remove(booking.getSpaceId());
+        }
+    }
+
+    /**
+     * Drops all load recorded for a space.
+     */
+    public void clear(String spaceId) {
+        loadBySpace.remove(spaceId);
+    }
+
+    /**
+     * Highest load already booked at any instant in [start, end).
+     */
+    public int peakLoad(String spaceId, long start, long end) {
+        SpaceLoad load = loadBySpace.get(spaceId);
+        return load == null ? 0 : load.max(start, end);
+    }
+
+    /**
+     * Highest load already booked during any occurrence of {@code candidate}.
+     */
+    public int peakLoad(Booking candidate) {
+        SpaceLoad load = loadBySpace.get(candidate.getSpaceId());
+        SeriesSchedule schedule = SeriesSchedule.of(candidate);
+        // Checked here because every admission to a shared space asks for its peak load first.
+        if (schedule.spanStart() < LoadTree.MIN_TIME || schedule.spanEnd() > LoadTree.MAX_TIME) {
+            throw new IllegalArgumentException("Bookings in shared spaces must lie within the supported time range");
+        }
+        if (load == null) {
+            return 0;
+        }
+        int peak = 0;
+        for (long occurrence = 0; occurrence < schedule.count(); occurrence++) {
+            peak = Math.max(peak, load.max(schedule.startOf(occurrence), schedule.endOf(occurrence)));
+        }
+        return peak;
+    }
+
+    /**
+     * Load a booking puts on its space: its attendee count, or 1 if none was given.
+     */
+    public static int weightOf(Booking booking) {
+        Integer attendees = booking.getAttendeeCount();
+        return attendees == null ? 1 : Math.max(1, attendees);
+    }
+
+    private record Series(SeriesSchedule schedule, int weight) {
+    }
+
+    private static final class SpaceLoad {
+        private final LoadTree singles = new LoadTree();
+        private final IntervalTree<Series> series = new IntervalTree<>();
+
+        private int max(long start, long end) {
+            List<Series> overlapping = new ArrayList<>();
+            series.findOverlapping(start, end, overlapping);
+            if (overlapping.isEmpty()) {
+                return singles.max(start, end);
+            }
+            // Edges of the series occurrences inside the window: {time, load change}.
+            List<long[]> edges = new ArrayList<>();
+            for (Series candidate : overlapping) {
+                SeriesSchedule schedule = candidate.schedule();
+                schedule.forEachOverlapping(start, end, occurrence -> {
+                    edges.add(new long[] {Math.max(start, schedule.startOf(occurrence)), candidate.weight()});
+                    edges.add(new long[] {Math.min(end, schedule.endOf(occurrence)), -candidate.weight()});
+                });
+            }
+            // Intervals are half-open, so at equal times the ending occurrences go first.
+            edges.sort(Comparator.<long[]>comparingLong(edge -> edge[0]).thenComparingLong(edge -> edge[1]));
+            int peak = 0;
+            int seriesLoad = 0;
+            long from = start;
+            for (long[] edge : edges) {
+                if (edge[0] > from) {
+                    peak = Math.max(peak, seriesLoad + singles.max(from, edge[0]));
+                    from = edge[0];
+                }
+                seriesLoad += (int) edge[1];
+            }
+            if (end > from) {
+                peak = Math.max(peak, seriesLoad + singles.max(from, end));
+            }
+            return peak;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.spaceflow.booking.index;
+
+import com.spaceflow.booking.dto.Booking;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory conflict index holding, per space, one {@link IntervalTree} of single bookings
+ * and one of recurring series keyed by their overall span.
+ *
+ * Availability checks, conflict detection on create/update and windowed booking retrieval
+ * all go through this index, so none of them scan the full booking set. Series are stored
+ * once; the occurrences overlapping a window are derived with {@link SeriesSchedule}
+ * arithmetic and materialized only for that window.
+ *
+ * The space map itself is concurrent, but each space's trees are not: callers must hold the
+ * space's stripe from {@code SpaceLockStripes} (read lock for queries, write lock for changes).
+ */
+@Component
+public class ConflictIndex {
+
+    private static final Comparator<Booking> BY_START = Comparator
+            .comparingLong(ConflictIndex::startOf)
+            .thenComparing(Booking::getBookingId);
+
+    private final Map<String, SpaceEntries> entriesBySpace = new ConcurrentHashMap<>();
+
+    public void add(Booking booking) {
+        SpaceEntries entries = entriesBySpace.computeIfAbsent(booking.getSpaceId(), spaceId -> new SpaceEntries());
+        if (booking.getRecurrence() == null) {
+            entries.singles.insert(startOf(booking), endOf(booking), booking.getBookingId(), booking);
+        } else {
+            SeriesSchedule schedule = SeriesSchedule.of(booking);
+            entries.series.insert(schedule.spanStart(), schedule.spanEnd(), booking.getBookingId(),
+                    new SeriesEntry(booking, schedule));
+        }
+    }
+
+    public void remove(Booking booking) {
+        SpaceEntries entries = entriesBySpace.get(booking.getSpaceId());
+        if (entries == null) {
+            return;
+        }
+        if (booking.getRecurrence() == null) {
+            entries.singles.remove(startOf(booking), booking.getBookingId());
+        } else {
+            entries.series.remove(startOf(booking), booking.getBookingId());
+        }
+        if (entries.singles.isEmpty() && entries.series.isEmpty()) {
+            entriesBySpace.remove(booking.getSpaceId());
+        }
+    }
+
+    /**
+     * Returns the active bookings and series occurrences of a space that overlap [start, end),
+     * ordered by start time.
+     */
+    public List<Booking> findOverlapping(String spaceId, long start, long end) {
+        List<Booking> result = new ArrayList<>();
+        SpaceEntries entries = entriesBySpace.get(spaceId);
+        if (entries == null) {
+            return result;
+        }
+        entries.singles.findOverlapping(start, end, result);
+        List<SeriesEntry> series = new ArrayList<>();
+        entries.series.findOverlapping(start, end, series);
+        if (!series.isEmpty()) {
+            for (SeriesEntry entry : series) {
+                entry.schedule.forEachOverlapping(start, end, occurrence -> result.add(entry.occurrence(occurrence)));
+            }
+            result.sort(BY_START);
+        }
+        return result;
+    }
+
+    /**
+     * One page of {@link #findOverlapping}: at most {@code limit} bookings and occurrences whose
+     * (start, bookingId) key comes after (afterStart, afterId). A null {@code afterId} returns
+     * the first page. Only the requested page is materialized.
+     */
+    public List<Booking> findOverlappingAfter(String spaceId, long start, long end,
+                                              long afterStart, String afterId, int limit) {
+        List<Booking> result = new ArrayList<>();
+        SpaceEntries entries = entriesBySpace.get(spaceId);
+        if (entries == null) {
+            return result;
+        }
+        entries.singles.findOverlappingAfter(start, end, afterStart, afterId, limit, result);
+        List<SeriesEntry> series = new ArrayList<>();
+        entries.series.findOverlapping(start, end, series);
+        if (series.isEmpty()) {
+            return result;
+        }
+        for (SeriesEntry entry : series) {
+            SeriesSchedule schedule = entry.schedule;
+            long first = schedule.firstOverlapping(start, end);
+            if (first < 0) {
+                continue;
+            }
+            if (afterId != null) {
+                long resume = schedule.firstStartingFrom(afterStart);
+                if (resume < schedule.count() && schedule.startOf(resume) == afterStart
+                        && entry.series.getBookingId().compareTo(afterId) <= 0) {
+                    resume++;
+                }
+                first = Math.max(first, resume);
+            }
+            for (long occurrence = first, added = 0;
+                 occurrence < schedule.count() && schedule.startOf(occurrence) < end && added < limit;
+                 occurrence++, added++) {
+                result.add(entry.occurrence(occurrence));
+            }
+        }
+        result.sort(BY_START);
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    public boolean hasOverlap(String spaceId, long start, long end) {
+        SpaceEntries entries = entriesBySpace.get(spaceId);
+        return entries != null && (entries.singles.hasOverlap(start, end) || hasSeriesOverlap(entries, start, end));
+    }
+
+    /**
+     * Like {@link #hasOverlap} but only considers recurring series.
+     */
+    public boolean hasSeriesOverlap(String spaceId, long start, long end) {
+        SpaceEntries entries = entriesBySpace.get(spaceId);
+        return entries != null && hasSeriesOverlap(entries, start, end);
+    }
+
+    /**
+     * Returns every indexed booking or occurrence that overlaps any occurrence of
+     * {@code candidate}, ignoring entries with the candidate's own booking id.
+     */
+    public List<Booking> findConflicts(Booking candidate) {
+        List<Booking> conflicts = new ArrayList<>();
+        SpaceEntries entries = entriesBySpace.get(candidate.getSpaceId());
+        if (entries == null) {
+            return conflicts;
+        }
+        SeriesSchedule schedule = SeriesSchedule.of(candidate);
+        String ignoredId = candidate.getBookingId();
+
+        List<Booking> singles = new ArrayList<>();
+        entries.singles.findOverlapping(schedule.spanStart(), schedule.spanEnd(), singles);
+        for (Booking single : singles) {
+            if (!single.getBookingId().equals(ignoredId) && schedule.overlaps(startOf(single), endOf(single))) {
+                conflicts.add(single);
+            }
+        }
+
+        List<SeriesEntry> series = new ArrayList<>();
+        entries.series.findOverlapping(schedule.spanStart(), schedule.spanEnd(), series);
+        for (SeriesEntry entry : series) {
+            if (entry.series.getBookingId().equals(ignoredId)) {
+                continue;
+            }
+            // Walk the candidate's occurrences inside the shared span and collect each distinct
+            // occurrence of the other series that they hit.
+            long from = Math.max(schedule.spanStart(), entry.schedule.spanStart());
+            long to = Math.min(schedule.spanEnd(), entry.schedule.spanEnd());
+            TreeMap<Long, Booking> hits = new TreeMap<>();
+            schedule.forEachOverlapping(from, to, own -> entry.schedule.forEachOverlapping(
+                    schedule.startOf(own), schedule.endOf(own),
+                    other -> hits.computeIfAbsent(other, entry::occurrence)));
+            conflicts.addAll(hits.values());
+        }
+
+        conflicts.sort(BY_START);
+        return conflicts;
+    }
+
+    public static long startOf(Booking booking) {
+        return booking.getStartTime().toInstant().toEpochMilli();
+    }
+
+    public static long endOf(Booking booking) {
+        return booking.getEndTime().toInstant().toEpochMilli();
+    }
+
+    private static boolean hasSeriesOverlap(SpaceEntries entries, long start, long end) {
+        List<SeriesEntry> series = new ArrayList<>();
+        entries.series.findOverlapping(start, end, series);
+        for (SeriesEntry entry : series) {
+            if (entry.schedule.overlaps(start, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class SpaceEntries {
+        private final IntervalTree<Booking> singles = new IntervalTree<>();
+        private final IntervalTree<SeriesEntry> series = new IntervalTree<>();
+    }
+
+    private static final class SeriesEntry {
+        private final Booking series;
+        private final SeriesSchedule schedule;
+
+        private SeriesEntry(Booking series, SeriesSchedule schedule) {
+            this.series = series;
+            this.schedule = schedule;
+        }
+
+        private Booking occurrence(long index) {
+            Booking occurrence = new Booking(series);
+            Duration offset = Duration.ofMillis(schedule.startOf(index) - schedule.spanStart());
+            occurrence.setStartTime(series.getStartTime().plus(offset));
+            occurrence.setEndTime(series.getEndTime().plus(offset));
+            return occurrence;
+        }
+    }
+}
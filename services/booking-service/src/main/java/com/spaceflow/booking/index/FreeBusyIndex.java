@@ -0,0 +1,230 @@
+package com.spaceflow.booking.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-space, per-day free/busy bitsets at 15-minute slot resolution.
+ *
+ * Slots are aligned to UTC. A slot's bit is set while at least one active booking overlaps
+ * any part of it. Bookings are added and removed with range operations on the day's
+ * {@link BitSet}; only slots covered by more than one booking (the shared edge slots of
+ * back-to-back bookings, or overlaps in shared spaces) carry a reference count, so cost does
+ * not grow with the length of a booking within a day.
+ *
+ * A booking spanning more than {@code booking.search.max-indexed-days} days is not expanded
+ * into the bitsets at all; the space is then reported as not screenable and callers fall back
+ * to the {@link ConflictIndex}. This bounds the memory and work a single booking can cost.
+ *
+ * Writes must hold the space's stripe lock. Each write replaces the day's slots with an
+ * updated copy, so {@link #screen} can read many spaces without taking their locks.
+ */
+@Component
+public class FreeBusyIndex {
+
+    public static final long SLOT_MILLIS = 15 * 60 * 1000L;
+    public static final int SLOTS_PER_DAY = 96;
+
+    private final Map<String, SpaceSlots> spaces = new ConcurrentHashMap<>();
+    private final long maxIndexedSlots;
+
+    public FreeBusyIndex(@Value("${booking.search.max-indexed-days:7}") int maxIndexedDays) {
+        this.maxIndexedSlots = (long) maxIndexedDays * SLOTS_PER_DAY;
+    }
+
+    public void add(String spaceId, long start, long end) {
+        SpaceSlots space = spaces.computeIfAbsent(spaceId, id -> new SpaceSlots());
+        long firstSlot = slotOf(start);
+        long endSlot = slotOf(end - 1) + 1;
+        if (endSlot - firstSlot > maxIndexedSlots) {
+            space.unindexed++;
+            return;
+        }
+        for (long day = Math.floorDiv(firstSlot, SLOTS_PER_DAY); day * SLOTS_PER_DAY < endSlot; day++) {
+            DaySlots current = space.days.get(day);
+            DaySlots updated = current != null ? current.copy() : new DaySlots();
+            updated.add(fromInDay(day, firstSlot), toInDay(day, endSlot));
+            space.days.put(day, updated);
+        }
+    }
+
+    public void remove(String spaceId, long start, long end) {
+        SpaceSlots space = spaces.get(spaceId);
+        if (space == null) {
+            return;
+        }
+        long firstSlot = slotOf(start);
+        long endSlot = slotOf(end - 1) + 1;
+        if (endSlot - firstSlot > maxIndexedSlots) {
+            space.unindexed--;
+        } else {
+            for (long day = Math.floorDiv(firstSlot, SLOTS_PER_DAY); day * SLOTS_PER_DAY < endSlot; day++) {
+                DaySlots current = space.days.get(day);
+                if (current == null) {
+                    continue;
+                }
+                DaySlots updated = current.copy();
+                updated.remove(fromInDay(day, firstSlot), toInDay(day, endSlot));
+                if (updated.busy.isEmpty()) {
+                    space.days.remove(day);
+                } else {
+                    space.days.put(day, updated);
+                }
+            }
+        }
+        if (space.days.isEmpty() && space.unindexed == 0) {
+            spaces.remove(spaceId);
+        }
+    }
+
+    /**
+     * Returns true if any slot in [fromSlot, toSlot) is busy for the space.
+     */
+    public boolean anyBusy(String spaceId, long fromSlot, long toSlot) {
+        SpaceSlots space = spaces.get(spaceId);
+        return space != null && fromSlot < toSlot && space.intersects(new WindowMasks(fromSlot, toSlot));
+    }
+
+    /**
+     * Screens many spaces against one window in a single pass: the window is turned into one
+     * mask per day, and each space's day bitsets are ANDed with those masks. Positions refer to
+     * {@code spaceIds}.
+     *
+     * @param fromSlot     first slot touched by the window
+     * @param toSlot       end (exclusive) of the slots touched by the window
+     * @param fullFromSlot first slot lying entirely inside the window
+     * @param fullToSlot   end (exclusive) of the slots lying entirely inside the window
+     */
+    public Screen screen(List<String> spaceIds, long fromSlot, long toSlot, long fullFromSlot, long fullToSlot) {
+        WindowMasks touched = new WindowMasks(fromSlot, toSlot);
+        WindowMasks inside = fullFromSlot < fullToSlot ? new WindowMasks(fullFromSlot, fullToSlot) : null;
+        BitSet busy = new BitSet(spaceIds.size());
+        BitSet taken = new BitSet(spaceIds.size());
+        for (int i = 0; i < spaceIds.size(); i++) {
+            SpaceSlots space = spaces.get(spaceIds.get(i));
+            if (space == null) {
+                continue;
+            }
+            if (space.unindexed > 0 || space.intersects(touched)) {
+                busy.set(i);
+                if (space.unindexed == 0 && inside != null && space.intersects(inside)) {
+                    taken.set(i);
+                }
+            }
+        }
+        return new Screen(busy, taken);
+    }
+
+    /**
+     * Counts consecutive free slots walking away from {@code slot} in {@code direction}
+     * (-1 or +1), starting at {@code slot} itself and stopping after {@code max} slots.
+     */
+    public int freeRun(String spaceId, long slot, int direction, int max) {
+        int run = 0;
+        while (run < max && !anyBusy(spaceId, slot, slot + 1)) {
+            run++;
+            slot += direction;
+        }
+        return run;
+    }
+
+    public static long slotOf(long epochMillis) {
+        return Math.floorDiv(epochMillis, SLOT_MILLIS);
+    }
+
+    private static int fromInDay(long day, long firstSlot) {
+        return (int) Math.max(0, firstSlot - day * SLOTS_PER_DAY);
+    }
+
+    private static int toInDay(long day, long endSlot) {
+        return (int) Math.min(SLOTS_PER_DAY, endSlot - day * SLOTS_PER_DAY);
+    }
+
+    /**
+     * Result of {@link #screen}: {@code busy} marks spaces with a busy slot touching the window
+     * or with bookings too long to index, which need an exact check; {@code taken} marks spaces
+     * with a busy slot entirely inside the window, which certainly conflict.
+     */
+    public record Screen(BitSet busy, BitSet taken) {
+    }
+
+    private static final class SpaceSlots {
+        private final Map<Long, DaySlots> days = new ConcurrentHashMap<>();
+        /** Bookings of the space too long to index; written under the space's lock. */
+        private volatile int unindexed;
+
+        private boolean intersects(WindowMasks window) {
+            for (int i = 0; i < window.masks.length; i++) {
+                DaySlots slots = days.get(window.firstDay + i);
+                if (slots != null && slots.busy.intersects(window.masks[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /** One slot mask per UTC day touched by a window of slots. */
+    private static final class WindowMasks {
+        private final long firstDay;
+        private final BitSet[] masks;
+
+        private WindowMasks(long fromSlot, long toSlot) {
+            this.firstDay = Math.floorDiv(fromSlot, SLOTS_PER_DAY);
+            long lastDay = Math.floorDiv(toSlot - 1, SLOTS_PER_DAY);
+            this.masks = new BitSet[(int) (lastDay - firstDay + 1)];
+            for (int i = 0; i < masks.length; i++) {
+                masks[i] = new BitSet(SLOTS_PER_DAY);
+                masks[i].set(fromInDay(firstDay + i, fromSlot), toInDay(firstDay + i, toSlot));
+            }
+        }
+    }
+
+    private static final class DaySlots {
+        private final BitSet busy;
+        /** Slots covered by more than one booking. */
+        private final BitSet shared;
+        /** Bookings beyond the first covering each shared slot; null until a slot is shared. */
+        private int[] extra;
+
+        private DaySlots() {
+            this(new BitSet(SLOTS_PER_DAY), new BitSet(SLOTS_PER_DAY), null);
+        }
+
+        private DaySlots(BitSet busy, BitSet shared, int[] extra) {
+            this.busy = busy;
+            this.shared = shared;
+            this.extra = extra;
+        }
+
+        private DaySlots copy() {
+            return new DaySlots((BitSet) busy.clone(), (BitSet) shared.clone(), extra != null ? extra.clone() : null);
+        }
+
+        private void add(int from, int to) {
+            for (int slot = busy.nextSetBit(from); slot >= 0 && slot < to; slot = busy.nextSetBit(slot + 1)) {
+                if (extra == null) {
+                    extra = new int[SLOTS_PER_DAY];
+                }
+                extra[slot]++;
+                shared.set(slot);
+            }
+            busy.set(from, to);
+        }
+
+        private void remove(int from, int to) {
+            busy.clear(from, to);
+            for (int slot = shared.nextSetBit(from); slot >= 0 && slot < to; slot = shared.nextSetBit(slot + 1)) {
+                busy.set(slot);
+                if (--extra[slot] == 0) {
+                    shared.clear(slot);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.spaceflow.booking.index;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Augmented interval tree over half-open intervals [start, end) expressed in epoch millis.
+ *
+ * Nodes are ordered by (start, id) and kept height-balanced (AVL), and every node records
+ * the maximum end of its subtree. Overlap queries prune any subtree whose maximum end is
+ * not after the query start, so a lookup costs O(log n + k) for k matches.
+ *
+ * NOTE: This class is not thread-safe. Callers are responsible for guarding access.
+ */
+public class IntervalTree<T> {
+
+    private Node<T> root;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void insert(long start, long end, String id, T value) {
+        if (end <= start) {
+            throw new IllegalArgumentException("Interval end must be after start");
+        }
+        root = insert(root, new Node<>(start, end, id, value));
+        size++;
+    }
+
+    /**
+     * Removes the interval identified by (start, id).
+     *
+     * @return true if an interval was removed
+     */
+    public boolean remove(long start, String id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    /**
+     * Appends to {@code out}, in start order, every value whose interval overlaps [start, end).
+     */
+    public void findOverlapping(long start, long end, List<T> out) {
+        visitOverlapping(root, start, end, out::add);
+    }
+
+    /**
+     * Keyset variant of {@link #findOverlapping}: appends, in (start, id) order, the values
+     * overlapping [start, end) whose key comes after (afterStart, afterId), stopping once
+     * {@code out} holds {@code limit} values. A null {@code afterId} starts from the beginning.
+     */
+    public void findOverlappingAfter(long start, long end, long afterStart, String afterId, int limit, List<T> out) {
+        visitOverlappingAfter(root, start, end, afterStart, afterId, limit, out);
+    }
+
+    public boolean hasOverlap(long start, long end) {
+        Node<T> node = root;
+        while (node != null) {
+            if (node.start < end && node.end > start) {
+                return true;
+            }
+            // If the left subtree reaches past the query start it must contain an overlap
+            // whenever any overlap exists, because all of its starts precede ours.
+            if (node.left != null && node.left.maxEnd > start) {
+                node = node.left;
+            } else if (node.start < end) {
+                node = node.right;
+            } else {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    public void forEach(Consumer<T> action) {
+        forEach(root, action);
+    }
+
+    private void visitOverlapping(Node<T> node, long start, long end, Consumer<T> action) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        visitOverlapping(node.left, start, end, action);
+        if (node.start >= end) {
+            return;
+        }
+        if (node.end > start) {
+            action.accept(node.value);
+        }
+        visitOverlapping(node.right, start, end, action);
+    }
+
+    private void visitOverlappingAfter(Node<T> node, long start, long end, long afterStart, String afterId,
+                                       int limit, List<T> out) {
+        if (node == null || node.maxEnd <= start || out.size() >= limit) {
+            return;
+        }
+        // Everything left of a node at or before the cursor is before the cursor too.
+        if (afterId != null && compare(afterStart, afterId, node) >= 0) {
+            visitOverlappingAfter(node.right, start, end, afterStart, afterId, limit, out);
+            return;
+        }
+        visitOverlappingAfter(node.left, start, end, afterStart, afterId, limit, out);
+        if (node.start >= end || out.size() >= limit) {
+            return;
+        }
+        if (node.end > start) {
+            out.add(node.value);
+        }
+        visitOverlappingAfter(node.right, start, end, afterStart, afterId, limit, out);
+    }
+
+    private void forEach(Node<T> node, Consumer<T> action) {
+        if (node == null) {
+            return;
+        }
+        forEach(node.left, action);
+        action.accept(node.value);
+        forEach(node.right, action);
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return rebalance(node);
+    }
+
+    private Node<T> remove(Node<T> node, long start, String id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node<T> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return rebalance(node);
+    }
+
+    private Node<T> removeMin(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+
+    private static int compare(long start, String id, Node<?> node) {
+        int cmp = Long.compare(start, node.start);
+        return cmp != 0 ? cmp : id.compareTo(node.id);
+    }
+
+    private Node<T> rebalance(Node<T> node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node<?> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static final class Node<T> {
+        private final long start;
+        private final long end;
+        private final String id;
+        private final T value;
+        private long maxEnd;
+        private int height = 1;
+        private Node<T> left;
+        private Node<T> right;
+
+        private Node(long start, long end, String id, T value) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+}
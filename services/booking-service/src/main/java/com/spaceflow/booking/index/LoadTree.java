@@ -0,0 +1,95 @@
+package com.spaceflow.booking.index;
+
+/**
+ * Sparse segment tree over time (epoch millis) answering "maximum summed load over [start, end)"
+ * with range additions, both in O(log T) for the fixed time domain T.
+ *
+ * Each node stores the load added to its whole range and the maximum load within it, so a
+ * booking is added or removed by adding its weight (or minus its weight) to the O(log T) nodes
+ * that cover its interval. Nodes are created on demand and dropped again once they carry no
+ * load, so memory follows the number of stored intervals rather than the size of the domain.
+ *
+ * NOTE: This class is not thread-safe. Callers are responsible for guarding access.
+ */
+public class LoadTree {
+
+    /** Supported domain, roughly the years 1830 to 2109. */
+    public static final long MIN_TIME = -(1L << 42);
+    public static final long MAX_TIME = 1L << 42;
+
+    private Node root;
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Adds {@code delta} to the load at every instant in [start, end).
+     */
+    public void add(long start, long end, int delta) {
+        if (start < MIN_TIME || end > MAX_TIME || end <= start) {
+            throw new IllegalArgumentException("Interval is outside the supported time range");
+        }
+        root = add(root, MIN_TIME, MAX_TIME, start, end, delta);
+    }
+
+    /**
+     * Returns the highest load at any instant in [start, end), or 0 if nothing overlaps.
+     */
+    public int max(long start, long end) {
+        long from = Math.max(start, MIN_TIME);
+        long to = Math.min(end, MAX_TIME);
+        return from < to ? max(root, MIN_TIME, MAX_TIME, from, to) : 0;
+    }
+
+    private static Node add(Node node, long lo, long hi, long start, long end, int delta) {
+        if (end <= lo || hi <= start) {
+            return node;
+        }
+        if (node == null) {
+            node = new Node();
+        }
+        if (start <= lo && hi <= end) {
+            node.add += delta;
+            node.max += delta;
+        } else {
+            long mid = (lo + hi) >> 1;
+            node.left = add(node.left, lo, mid, start, end, delta);
+            node.right = add(node.right, mid, hi, start, end, delta);
+            node.max = node.add + Math.max(maxOf(node.left), maxOf(node.right));
+        }
+        // Removals exactly undo additions on the same nodes, so an unloaded leaf can go.
+        return node.add == 0 && node.left == null && node.right == null ? null : node;
+    }
+
+    /** Caller guarantees that [lo, hi) intersects [start, end). */
+    private static int max(Node node, long lo, long hi, long start, long end) {
+        if (node == null) {
+            return 0;
+        }
+        if (start <= lo && hi <= end) {
+            return node.max;
+        }
+        long mid = (lo + hi) >> 1;
+        // Only children that intersect the query may contribute; others are not "load 0" here.
+        int best = Integer.MIN_VALUE;
+        if (start < mid) {
+            best = max(node.left, lo, mid, start, end);
+        }
+        if (mid < end) {
+            best = Math.max(best, max(node.right, mid, hi, start, end));
+        }
+        return node.add + best;
+    }
+
+    private static int maxOf(Node node) {
+        return node == null ? 0 : node.max;
+    }
+
+    private static final class Node {
+        private int add;
+        private int max;
+        private Node left;
+        private Node right;
+    }
+}
@@ -0,0 +1,133 @@
+package com.spaceflow.booking.index;
+
+import com.spaceflow.booking.dto.Booking;
+import com.spaceflow.booking.dto.RecurrenceRule;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Arithmetic view of a booking's occurrences.
+ *
+ * Occurrence k spans [firstStart + k * period, firstStart + k * period + duration) for
+ * 0 <= k < count. A single booking is a schedule with one occurrence. Because occurrences
+ * are evenly spaced, the ones overlapping a window are found with two divisions, so a
+ * series is never expanded beyond the window being looked at.
+ *
+ * Occurrences repeat at a fixed UTC offset (the offset of the booking's start time).
+ */
+public final class SeriesSchedule {
+
+    public static final String DAILY = "daily";
+    public static final String WEEKLY = "weekly";
+
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private final long firstStart;
+    private final long duration;
+    private final long period;
+    private final long count;
+
+    private SeriesSchedule(long firstStart, long duration, long period, long count) {
+        this.firstStart = firstStart;
+        this.duration = duration;
+        this.period = period;
+        this.count = count;
+    }
+
+    public static SeriesSchedule of(Booking booking) {
+        long start = ConflictIndex.startOf(booking);
+        long duration = ConflictIndex.endOf(booking) - start;
+        RecurrenceRule rule = booking.getRecurrence();
+        if (rule == null) {
+            return new SeriesSchedule(start, duration, duration, 1);
+        }
+
+        long period = periodOf(rule);
+        if (duration > period) {
+            throw new IllegalArgumentException("Recurring booking must not last longer than its repeat interval");
+        }
+        long count = Long.MAX_VALUE;
+        if (rule.getCount() != null) {
+            count = rule.getCount();
+        }
+        if (rule.getUntil() != null) {
+            long until = rule.getUntil().toInstant().toEpochMilli();
+            if (until < start) {
+                throw new IllegalArgumentException("recurrence.until must not be before startTime");
+            }
+            count = Math.min(count, (until - start) / period + 1);
+        }
+        if (count == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("recurrence requires either until or count");
+        }
+        return new SeriesSchedule(start, duration, period, count);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long startOf(long occurrence) {
+        return firstStart + occurrence * period;
+    }
+
+    public long endOf(long occurrence) {
+        return startOf(occurrence) + duration;
+    }
+
+    public long spanStart() {
+        return firstStart;
+    }
+
+    public long spanEnd() {
+        return endOf(count - 1);
+    }
+
+    /**
+     * Index of the first occurrence overlapping [start, end), or -1 if there is none.
+     */
+    public long firstOverlapping(long start, long end) {
+        // Occurrence k overlaps iff startOf(k) < end and startOf(k) + duration > start.
+        long first = Math.max(0, Math.floorDiv(start - duration - firstStart, period) + 1);
+        return first < count && startOf(first) < end ? first : -1;
+    }
+
+    /**
+     * Index of the first occurrence starting at or after {@code time}, or {@link #count()} if
+     * there is none.
+     */
+    public long firstStartingFrom(long time) {
+        if (time <= firstStart) {
+            return 0;
+        }
+        return Math.min(count, Math.floorDiv(time - firstStart - 1, period) + 1);
+    }
+
+    public boolean overlaps(long start, long end) {
+        return firstOverlapping(start, end) >= 0;
+    }
+
+    /**
+     * Passes the index of every occurrence overlapping [start, end) to {@code action}, in order.
+     */
+    public void forEachOverlapping(long start, long end, LongConsumer action) {
+        long occurrence = firstOverlapping(start, end);
+        if (occurrence < 0) {
+            return;
+        }
+        for (; occurrence < count && startOf(occurrence) < end; occurrence++) {
+            action.accept(occurrence);
+        }
+    }
+
+    private static long periodOf(RecurrenceRule rule) {
+        long interval = rule.getInterval() != null ? rule.getInterval() : 1;
+        if (DAILY.equals(rule.getFrequency())) {
+            return interval * DAY_MILLIS;
+        }
+        if (WEEKLY.equals(rule.getFrequency())) {
+            return interval * 7 * DAY_MILLIS;
+        }
+        throw new IllegalArgumentException("recurrence.frequency must be one of: daily, weekly");
+    }
+}
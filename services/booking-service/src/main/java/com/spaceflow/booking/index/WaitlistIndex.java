@@ -0,0 +1,82 @@
+package com.spaceflow.booking.index;
+
+import com.spaceflow.booking.dto.WaitlistEntry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-space index of waiting waitlist entries, one {@link IntervalTree} per space.
+ *
+ * When a booking frees an interval, the entries overlapping it are looked up through the tree
+ * instead of scanning the whole waitlist, and returned in the order they joined so the
+ * longest-waiting compatible entry is promoted first.
+ *
+ * Like {@link ConflictIndex}, per-space data must be accessed under that space's stripe lock.
+ */
+@Component
+public class WaitlistIndex {
+
+    private static final Comparator<Waiter> BY_ARRIVAL = Comparator.comparingLong(waiter -> waiter.sequence);
+
+    private final Map<String, IntervalTree<Waiter>> waitersBySpace = new ConcurrentHashMap<>();
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    public void add(WaitlistEntry entry) {
+        long sequence = nextSequence.getAndIncrement();
+        waitersBySpace.computeIfAbsent(entry.getSpaceId(), spaceId -> new IntervalTree<>())
+                .insert(startOf(entry), endOf(entry), entry.getEntryId(), new Waiter(entry, sequence));
+    }
+
+    public void remove(WaitlistEntry entry) {
+        IntervalTree<Waiter> waiters = waitersBySpace.get(entry.getSpaceId());
+        if (waiters == null) {
+            return;
+        }
+        waiters.remove(startOf(entry), entry.getEntryId());
+        if (waiters.isEmpty()) {
+            waitersBySpace.remove(entry.getSpaceId());
+        }
+    }
+
+    /**
+     * Returns the waiting entries of a space that overlap [start, end), oldest first.
+     */
+    public List<WaitlistEntry> findOverlapping(String spaceId, long start, long end) {
+        List<WaitlistEntry> result = new ArrayList<>();
+        IntervalTree<Waiter> waiters = waitersBySpace.get(spaceId);
+        if (waiters == null) {
+            return result;
+        }
+        List<Waiter> overlapping = new ArrayList<>();
+        waiters.findOverlapping(start, end, overlapping);
+        overlapping.sort(BY_ARRIVAL);
+        for (Waiter waiter : overlapping) {
+            result.add(waiter.entry);
+        }
+        return result;
+    }
+
+    private static long startOf(WaitlistEntry entry) {
+        return entry.getStartTime().toInstant().toEpochMilli();
+    }
+
+    private static long endOf(WaitlistEntry entry) {
+        return entry.getEndTime().toInstant().toEpochMilli();
+    }
+
+    private static final class Waiter {
+        private final WaitlistEntry entry;
+        private final long sequence;
+
+        private Waiter(WaitlistEntry entry, long sequence) {
+            this.entry = entry;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.spaceflow.booking.schedule;
+
+import com.spaceflow.booking.dto.Booking;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Releases bookings that nobody checked in to.
+ *
+ * Every active single booking is tracked with a grace deadline (start plus grace period) in a
+ * {@link TimingWheel}, and one periodic task advances the wheel each tick instead of keeping a
+ * timer task per booking. At most one entry is kept per booking: tracking a new state of a
+ * booking (an update or a check-in) replaces its entry, and releasing it removes the entry. On
+ * expiry a booking is still released only if it is the stored state and the
+ * {@link OccupancyProbe} reports its space vacant since before it started.
+ *
+ * A tick asks the occupancy service about all the spaces of the bookings expiring in it at
+ * once, so a tick costs one bulk lookup however many bookings expire, rather than one blocking
+ * request per booking.
+ *
+ * Recurring series and bookings shorter than the grace period are not tracked. No-show release
+ * is off unless {@code booking.no-show.grace-minutes} is set, and it refuses to start without
+ * {@code booking.no-show.occupancy-url}, which would release every booking not checked in.
+ */
+@Component
+public class NoShowScheduler implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(NoShowScheduler.class);
+
+    private final long graceMillis;
+    private final OccupancyProbe occupancyProbe;
+    private final LongSupplier clock;
+    private final TimingWheel<Booking> wheel;
+    /** Pending wheel entry per booking id; guarded by {@link #wheel}. */
+    private final Map<String, TimingWheel.Entry<Booking>> entries = new HashMap<>();
+    private volatile Predicate<Booking> pending = booking -> false;
+    private volatile Consumer<Booking> release = booking -> { };
+    private ScheduledExecutorService ticker;
+
+    @Autowired
+    public NoShowScheduler(@Value("${booking.no-show.grace-minutes:0}") long graceMinutes,
+                           @Value("${booking.no-show.tick-ms:1000}") long tickMillis,
+                           OccupancyProbe occupancyProbe) {
+        this(TimeUnit.MINUTES.toMillis(graceMinutes), tickMillis, occupancyProbe, System::currentTimeMillis);
+        if (isEnabled() && !occupancyProbe.isConfigured()) {
+            throw new IllegalStateException("booking.no-show.grace-minutes requires booking.no-show.occupancy-url; "
+                    + "without it every booking that is not checked in would be released");
+        }
+        if (isEnabled()) {
+            ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "booking-no-show");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    NoShowScheduler(long graceMillis, long tickMillis, OccupancyProbe occupancyProbe, LongSupplier clock) {
+        this.graceMillis = graceMillis;
+        this.occupancyProbe = occupancyProbe;
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(tickMillis, clock.getAsLong());
+    }
+
+    public boolean isEnabled() {
+        return graceMillis > 0;
+    }
+
+    /**
+     * Sets how expired bookings are handled: {@code pending} tells whether the booking is still
+     * the stored, unchecked-in state, and {@code release} releases it.
+     */
+    public void setHandlers(Predicate<Booking> pending, Consumer<Booking> release) {
+        this.pending = pending;
+        this.release = release;
+    }
+
+    /**
+     * Tracks a stored booking state until its grace deadline, replacing any earlier state of
+     * the same booking.
+     */
+    public void track(Booking booking) {
+        if (!isEnabled()) {
+            return;
+        }
+        long deadline = booking.getStartTime().toInstant().toEpochMilli() + graceMillis;
+        long end = booking.getEndTime().toInstant().toEpochMilli();
+        boolean eligible = booking.getRecurrence() == null && booking.getCheckedInAt() == null
+                && deadline < end && end > clock.getAsLong();
+        synchronized (wheel) {
+            untrack(booking.getBookingId());
+            if (eligible) {
+                entries.put(booking.getBookingId(), wheel.schedule(deadline, booking));
+            }
+        }
+    }
+
+    /**
+     * Stops tracking a booking that was canceled or released.
+     */
+    public void untrack(Booking booking) {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (wheel) {
+            untrack(booking.getBookingId());
+        }
+    }
+
+    /**
+     * Number of bookings waiting for their grace deadline.
+     */
+    int trackedCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    void tick() {
+        long now = clock.getAsLong();
+        List<Booking> expired = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advance(now, booking -> {
+                entries.remove(booking.getBookingId());
+                expired.add(booking);
+            });
+        }
+        // Check the cheap local state before asking the occupancy service.
+        List<Booking> candidates = new ArrayList<>();
+        Set<String> spaceIds = new HashSet<>();
+        for (Booking booking : expired) {
+            try {
+                if (pending.test(booking)) {
+                    candidates.add(booking);
+                    spaceIds.add(booking.getSpaceId());
+                }
+            } catch (RuntimeException ex) {
+                // An exception would cancel the periodic task; log it and carry on with the rest.
+                logger.warn("Failed to check no-show booking {}", booking.getBookingId(), ex);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Map<String, Long> vacantSince;
+        try {
+            vacantSince = occupancyProbe.vacantSince(spaceIds);
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to look up occupancy of {} spaces; keeping their bookings", spaceIds.size(), ex);
+            return;
+        }
+        for (Booking booking : candidates) {
+            Long since = vacantSince.get(booking.getSpaceId());
+            if (since == null || since > booking.getStartTime().toInstant().toEpochMilli()) {
+                continue;
+            }
+            try {
+                release.accept(booking);
+            } catch (RuntimeException ex) {
+                logger.warn("Failed to release no-show booking {}", booking.getBookingId(), ex);
+            }
+        }
+    }
+
+    private void untrack(String bookingId) {
+        TimingWheel.Entry<Booking> entry = entries.remove(bookingId);
+        if (entry != null) {
+            wheel.cancel(entry);
+        }
+    }
+}
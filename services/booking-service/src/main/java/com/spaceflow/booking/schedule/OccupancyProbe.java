@@ -0,0 +1,96 @@
+package com.spaceflow.booking.schedule;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Asks the occupancy service which spaces are not in use, so that a booking whose attendees
+ * showed up without checking in is not released as a no-show.
+ *
+ * Spaces are looked up in bulk through the occupancy service's current-state endpoint, one
+ * request per {@value #MAX_SPACES_PER_REQUEST} spaces. Without a configured URL there is no
+ * evidence either way and only check-ins count.
+ */
+@Component
+public class OccupancyProbe {
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyProbe.class);
+
+    private static final String OCCUPIED = "occupied";
+    private static final int MAX_SPACES_PER_REQUEST = 200;
+
+    private final String baseUrl;
+    private final RestTemplate restTemplate;
+
+    public OccupancyProbe(@Value("${booking.no-show.occupancy-url:}") String baseUrl,
+                          @Value("${booking.no-show.occupancy-timeout-ms:2000}") int timeoutMillis) {
+        this.baseUrl = baseUrl == null || baseUrl.isBlank() ? null : baseUrl;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMillis);
+        requestFactory.setReadTimeout(timeoutMillis);
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    public boolean isConfigured() {
+        return baseUrl != null;
+    }
+
+    /**
+     * Returns, for each of {@code spaceIds} that is not currently occupied, the epoch millis
+     * since which it has had its current status, or {@link Long#MIN_VALUE} if it has never been
+     * observed. Occupied spaces are left out, and so are spaces whose state could not be
+     * fetched; releasing a booking that is in use is worse than keeping an empty one.
+     */
+    public Map<String, Long> vacantSince(Collection<String> spaceIds) {
+        Map<String, Long> vacant = new HashMap<>();
+        List<String> ids = new ArrayList<>(spaceIds);
+        for (int from = 0; from < ids.size(); from += MAX_SPACES_PER_REQUEST) {
+            List<String> batch = ids.subList(from, Math.min(ids.size(), from + MAX_SPACES_PER_REQUEST));
+            if (baseUrl == null) {
+                batch.forEach(spaceId -> vacant.put(spaceId, Long.MIN_VALUE));
+                continue;
+            }
+            URI uri = UriComponentsBuilder.fromHttpUrl(baseUrl)
+                    .path("/api/v1/occupancy/current")
+                    .queryParam("spaceIds", String.join(",", batch))
+                    .encode()
+                    .build()
+                    .toUri();
+            try {
+                JsonNode response = restTemplate.getForObject(uri, JsonNode.class);
+                if (response == null) {
+                    continue;
+                }
+                batch.forEach(spaceId -> vacant.put(spaceId, Long.MIN_VALUE));
+                for (JsonNode space : response.path("spaces")) {
+                    String spaceId = space.path("spaceId").asText();
+                    if (OCCUPIED.equals(space.path("occupancyStatus").asText())) {
+                        vacant.remove(spaceId);
+                    } else if (vacant.containsKey(spaceId)) {
+                        vacant.put(spaceId, OffsetDateTime.parse(space.path("since").asText()).toInstant().toEpochMilli());
+                    }
+                }
+            } catch (RestClientException | DateTimeParseException ex) {
+                logger.warn("Occupancy lookup for {} spaces failed; keeping their bookings", batch.size(), ex);
+                batch.forEach(vacant::remove);
+            }
+        }
+        return vacant;
+    }
+}
@@ -0,0 +1,175 @@
+package com.spaceflow.booking.schedule;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel holding deadlines at a fixed tick resolution.
+ *
+ * Level 0 has one bucket per tick for the next 64 ticks, level 1 one bucket per 64 ticks, and
+ * so on. A deadline is filed in the level of the highest 6-bit group in which its tick differs
+ * from the current tick. When the clock crosses a bucket boundary of a higher level, that
+ * bucket is cascaded: its entries are re-filed and land in lower levels. Scheduling is O(1),
+ * and each tick costs O(1) plus the entries that expire or cascade, independent of how many
+ * deadlines are pending; every entry cascades at most once per level.
+ *
+ * Buckets are intrusive doubly linked lists, so an entry returned by {@link #schedule} can be
+ * cancelled in O(1) wherever it currently sits. Entries of the same tick expire in no
+ * particular order.
+ *
+ * NOTE: This class is not thread-safe. Callers are responsible for guarding access.
+ */
+public class TimingWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int WHEEL_SIZE = 1 << BITS;
+    private static final int MASK = WHEEL_SIZE - 1;
+    /** Enough levels to cover every non-negative long tick. */
+    private static final int LEVELS = (Long.SIZE + BITS - 1) / BITS;
+
+    private final long tickMillis;
+    @SuppressWarnings("unchecked")
+    private final Entry<T>[][] buckets = new Entry[LEVELS][];
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = Math.max(0, startMillis) / tickMillis;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules {@code value} to expire on the first tick at or after {@code deadlineMillis}.
+     * Deadlines that have already passed expire on the next tick.
+     *
+     * @return the entry, for {@link #cancel}
+     */
+    public Entry<T> schedule(long deadlineMillis, T value) {
+        long tick = Math.max(0, deadlineMillis) / tickMillis;
+        if (Math.max(0, deadlineMillis) % tickMillis != 0) {
+            tick++;
+        }
+        Entry<T> entry = new Entry<>(Math.max(tick, currentTick + 1), value);
+        file(entry);
+        size++;
+        return entry;
+    }
+
+    /**
+     * Removes a scheduled entry.
+     *
+     * @return false if the entry has already expired or been cancelled
+     */
+    public boolean cancel(Entry<T> entry) {
+        if (!entry.filed) {
+            return false;
+        }
+        Entry<T>[] wheel = buckets[entry.level];
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            wheel[entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        unfile(entry);
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the clock forward to {@code nowMillis}, handing every expired value to {@code expired}
+     * in deadline order (tick by tick).
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        long targetTick = Math.max(0, nowMillis) / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Cascade top-down, so entries of a higher level can still reach this tick's bucket.
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+            Entry<T> due = take(0, (int) (currentTick & MASK));
+            while (due != null) {
+                Entry<T> next = due.next;
+                unfile(due);
+                size--;
+                expired.accept(due.value);
+                due = next;
+            }
+        }
+    }
+
+    private void cascade(int level) {
+        Entry<T> entry = take(level, (int) ((currentTick >>> (BITS * level)) & MASK));
+        while (entry != null) {
+            Entry<T> next = entry.next;
+            file(entry);
+            entry = next;
+        }
+    }
+
+    private void file(Entry<T> entry) {
+        // Level = highest 6-bit group in which the deadline differs from the current tick.
+        long diff = entry.tick ^ currentTick;
+        int level = diff == 0 ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(diff)) / BITS;
+        int slot = (int) ((entry.tick >>> (BITS * level)) & MASK);
+        if (buckets[level] == null) {
+            @SuppressWarnings("unchecked")
+            Entry<T>[] wheel = new Entry[WHEEL_SIZE];
+            buckets[level] = wheel;
+        }
+        Entry<T> head = buckets[level][slot];
+        entry.prev = null;
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        buckets[level][slot] = entry;
+        entry.level = level;
+        entry.slot = slot;
+        entry.filed = true;
+    }
+
+    private void unfile(Entry<T> entry) {
+        entry.prev = null;
+        entry.next = null;
+        entry.filed = false;
+    }
+
+    private Entry<T> take(int level, int slot) {
+        if (buckets[level] == null) {
+            return null;
+        }
+        Entry<T> head = buckets[level][slot];
+        buckets[level][slot] = null;
+        return head;
+    }
+
+    /**
+     * A scheduled value.
+     */
+    public static final class Entry<T> {
+        private final long tick;
+        private final T value;
+        private Entry<T> prev;
+        private Entry<T> next;
+        private int level;
+        private int slot;
+        private boolean filed;
+
+        private Entry(long tick, T value) {
+            this.tick = tick;
+            this.value = value;
+        }
+    }
+}
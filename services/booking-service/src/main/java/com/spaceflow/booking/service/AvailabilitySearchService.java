@@ -0,0 +1,191 @@
+package com.spaceflow.booking.service;
+
+import com.spaceflow.booking.dto.AvailabilityResponse;
+import com.spaceflow.booking.dto.AvailabilitySearchResponse;
+import com.spaceflow.booking.index.CapacityIndex;
+import com.spaceflow.booking.index.ConflictIndex;
+import com.spaceflow.booking.index.FreeBusyIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Answers "which of these spaces are free between start and end" in a single call.
+ *
+ * All spaces are first screened together with the {@link FreeBusyIndex} bitsets, which yields
+ * two bitsets over the requested spaces:
+ * - no busy slot in the window: the space is free, no tree lookup needed
+ * - a busy slot fully inside the window: the space is taken, no tree lookup needed
+ * - only the partially covered edge slots are busy, or the space holds bookings too long for
+ *   the bitsets: the {@link ConflictIndex} decides exactly
+ *
+ * The screen reads the bitsets without taking space locks, so it reflects the bookings at
+ * the moment it ran; a space freed between the screen and its exact check is reported free.
+ *
+ * Recurring series are not kept in the bitsets, so a space that looks free is also checked
+ * against its series arithmetically before it is reported.
+ *
+ * Shared spaces skip the bitsets: they are free while the peak load in the {@link CapacityIndex}
+ * is below their capacity, and report their remaining capacity instead of slack.
+ *
+ * Results carry the same meaning as {@code GET /spaces/{spaceId}/availability}. Free spaces
+ * are ranked first, by how much free time surrounds the window (less fragmentation), then
+ * by space identifier so that the order is deterministic.
+ */
+@Service
+public class AvailabilitySearchService {
+
+    /** Free slack is measured up to two hours on each side of the requested window. */
+    private static final int MAX_SLACK_SLOTS = 8;
+
+    private final ConflictIndex conflictIndex;
+    private final FreeBusyIndex freeBusyIndex;
+    private final CapacityIndex capacityIndex;
+    private final SpaceCatalog spaceCatalog;
+    private final SpaceLockStripes spaceLocks;
+    private final int maxSpaces;
+
+    public AvailabilitySearchService(ConflictIndex conflictIndex,
+                                     FreeBusyIndex freeBusyIndex,
+                                     CapacityIndex capacityIndex,
+                                     SpaceCatalog spaceCatalog,
+                                     SpaceLockStripes spaceLocks,
+                                     @Value("${booking.search.max-spaces:1000}") int maxSpaces) {
+        this.conflictIndex = conflictIndex;
+        this.freeBusyIndex = freeBusyIndex;
+        this.capacityIndex = capacityIndex;
+        this.spaceCatalog = spaceCatalog;
+        this.spaceLocks = spaceLocks;
+        this.maxSpaces = maxSpaces;
+    }
+
+    public AvailabilitySearchResponse search(List<String> spaceIds,
+                                             String startTime,
+                                             String endTime,
+                                             boolean includeUnavailable,
+                                             Integer limit) {
+        OffsetDateTime start = BookingTimes.parse("startTime", startTime);
+        OffsetDateTime end = BookingTimes.parse("endTime", endTime);
+        BookingTimes.validatePeriod(start, end);
+        if (spaceIds.size() > maxSpaces) {
+            throw new IllegalArgumentException("At most " + maxSpaces + " spaces can be searched at once");
+        }
+        spaceIds.forEach(spaceCatalog::requireKnown);
+
+        long startMillis = BookingTimes.toMillis(start);
+        long endMillis = BookingTimes.toMillis(end);
+        long firstSlot = FreeBusyIndex.slotOf(startMillis);
+        long lastSlot = FreeBusyIndex.slotOf(endMillis - 1);
+        // Slots entirely covered by the window; a busy one there is a certain conflict.
+        long firstFullSlot = startMillis % FreeBusyIndex.SLOT_MILLIS == 0 ? firstSlot : firstSlot + 1;
+        long lastFullSlotExclusive = endMillis % FreeBusyIndex.SLOT_MILLIS == 0 ? lastSlot + 1 : lastSlot;
+
+        List<String> spaces = new ArrayList<>(new LinkedHashSet<>(spaceIds));
+        FreeBusyIndex.Screen screen = freeBusyIndex.screen(spaces, firstSlot, lastSlot + 1, firstFullSlot,
+                lastFullSlotExclusive);
+        List<Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < spaces.size(); i++) {
+            String spaceId = spaces.get(i);
+            Integer capacity = spaceCatalog.capacityOf(spaceId);
+            boolean screenedFree = !screen.busy().get(i);
+            boolean certainlyTaken = screen.taken().get(i);
+            Candidate candidate = spaceLocks.withReadLock(spaceId, () -> {
+                if (capacity != null) {
+                    return sharedCandidate(spaceId, capacity, startMillis, endMillis, includeUnavailable);
+                }
+                if (screenedFree && !conflictIndex.hasSeriesOverlap(spaceId, startMillis, endMillis)) {
+                    int slack = freeBusyIndex.freeRun(spaceId, firstSlot - 1, -1, MAX_SLACK_SLOTS)
+                            + freeBusyIndex.freeRun(spaceId, lastSlot + 1, 1, MAX_SLACK_SLOTS);
+                    return new Candidate(spaceId, true, slack);
+                }
+                if (!certainlyTaken && !conflictIndex.hasOverlap(spaceId, startMillis, endMillis)) {
+                    return new Candidate(spaceId, true, 0);
+                }
+                if (!includeUnavailable) {
+                    return null;
+                }
+                List<AvailabilityResponse.ConflictingBooking> conflicts = conflictIndex
+                        .findOverlapping(spaceId, startMillis, endMillis).stream()
+                        .map(BookingService::toAvailabilityConflict)
+                        .collect(Collectors.toList());
+                if (conflicts.isEmpty()) {
+                    // Freed since the screen.
+                    return new Candidate(spaceId, true, 0);
+                }
+                Candidate taken = new Candidate(spaceId, false, 0);
+                taken.conflicts = conflicts;
+                return taken;
+            });
+            if (candidate != null) {
+                candidates.add(candidate);
+            }
+        }
+
+        candidates.sort(Comparator
+                .comparing((Candidate c) -> !c.available)
+                .thenComparing(c -> -c.slack)
+                .thenComparing(c -> c.spaceId));
+        if (limit != null && limit > 0 && candidates.size() > limit) {
+            candidates = candidates.subList(0, limit);
+        }
+
+        AvailabilitySearchResponse response = new AvailabilitySearchResponse();
+        response.setStartTime(start);
+        response.setEndTime(end);
+        response.setCandidates(candidates.stream()
+                .map(candidate -> candidate.toResponse(start, end))
+                .collect(Collectors.toList()));
+        return response;
+    }
+
+    private Candidate sharedCandidate(String spaceId, int capacity, long startMillis, long endMillis,
+                                      boolean includeUnavailable) {
+        int peakLoad = capacityIndex.peakLoad(spaceId, startMillis, endMillis);
+        Candidate candidate = new Candidate(spaceId, peakLoad < capacity, 0);
+        candidate.capacity = capacity;
+        candidate.remainingCapacity = Math.max(0, capacity - peakLoad);
+        if (candidate.available) {
+            return candidate;
+        }
+        if (!includeUnavailable) {
+            return null;
+        }
+        candidate.conflicts = conflictIndex.findOverlapping(spaceId, startMillis, endMillis).stream()
+                .map(BookingService::toAvailabilityConflict)
+                .collect(Collectors.toList());
+        return candidate;
+    }
+
+    private static final class Candidate {
+        private final String spaceId;
+        private final boolean available;
+        private final int slack;
+        private Integer capacity;
+        private Integer remainingCapacity;
+        private List<AvailabilityResponse.ConflictingBooking> conflicts = List.of();
+
+        private Candidate(String spaceId, boolean available, int slack) {
+            this.spaceId = spaceId;
+            this.available = available;
+            this.slack = slack;
+        }
+
+        private AvailabilityResponse toResponse(OffsetDateTime start, OffsetDateTime end) {
+            AvailabilityResponse response = new AvailabilityResponse();
+            response.setSpaceId(spaceId);
+            response.setStartTime(start);
+            response.setEndTime(end);
+            response.setAvailable(available);
+            response.setConflictingBookings(conflicts);
+            response.setCapacity(capacity);
+            response.setRemainingCapacity(remainingCapacity);
+            return response;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.spaceflow.booking.service;
+
+import com.spaceflow.booking.dto.Booking;
+import com.spaceflow.booking.index.ConflictIndex;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for paged booking retrieval: the (startTime, bookingId) key of the
+ * last booking returned, encoded as URL-safe base64 so clients treat it as a token.
+ */
+final class BookingCursor {
+
+    private final long start;
+    private final String bookingId;
+
+    private BookingCursor(long start, String bookingId) {
+        this.start = start;
+        this.bookingId = bookingId;
+    }
+
+    long start() {
+        return start;
+    }
+
+    String bookingId() {
+        return bookingId;
+    }
+
+    static String encode(Booking last) {
+        String key = ConflictIndex.startOf(last) + ":" + last.getBookingId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static BookingCursor decode(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = key.indexOf(':');
+            if (separator <= 0 || separator == key.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new BookingCursor(Long.parseLong(key.substring(0, separator)), key.substring(separator + 1));
+        } catch (IllegalArgumentException ex) {
+            // Also covers malformed base64 and NumberFormatException.
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
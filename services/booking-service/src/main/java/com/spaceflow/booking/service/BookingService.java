@@ -0,0 +1,840 @@
+package com.spaceflow.booking.service;
+
+import com.spaceflow.booking.dto.AvailabilityResponse;
+import com.spaceflow.booking.dto.Booking;
+import com.spaceflow.booking.dto.BookingChange;
+import com.spaceflow.booking.dto.BookingChangesResponse;
+import com.spaceflow.booking.dto.BookingPage;
+import com.spaceflow.booking.dto.BookingRequest;
+import com.spaceflow.booking.dto.BookingUpdateRequest;
+import com.spaceflow.booking.dto.ConflictErrorResponse;
+import com.spaceflow.booking.dto.WaitlistEntry;
+import com.spaceflow.booking.exception.BookingConflictException;
+import com.spaceflow.booking.exception.BookingNotFoundException;
+import com.spaceflow.booking.exception.BookingStateException;
+import com.spaceflow.booking.exception.WaitlistEntryNotFoundException;
+import com.spaceflow.booking.index.CapacityIndex;
+import com.spaceflow.booking.index.ConflictIndex;
+import com.spaceflow.booking.index.FreeBusyIndex;
+import com.spaceflow.booking.index.SeriesSchedule;
+import com.spaceflow.booking.index.WaitlistIndex;
+import com.spaceflow.booking.schedule.NoShowScheduler;
+import com.spaceflow.booking.store.BookingChangeLog;
+import com.spaceflow.booking.store.BookingJournal;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Core booking logic: creation, modification, cancellation, retrieval and availability.
+ *
+ * Bookings are held in memory. Stored {@link Booking} instances are never mutated once
+ * indexed; modifications replace them with a fresh copy so the conflict index stays consistent.
+ * Every new booking state is appended to the {@link BookingJournal} under the space lock and
+ * forced to disk before it is published to the maps, indexes and {@link BookingChangeLog}
+ * feed, still under that lock: if the journal cannot be written the caller gets an error and
+ * nothing of the write becomes visible. Writers of different spaces still share one fsync;
+ * writers of the same space wait for each other's. On startup the journal is replayed and the
+ * indexes and feed are rebuilt from the recovered bookings. The feed is ordered per booking.
+ *
+ * Waitlist: a request for a taken slot can wait in the space's {@link WaitlistIndex}. Whenever
+ * a cancellation or update frees an interval, the waiting entries overlapping it are promoted
+ * to bookings, oldest first, while the same space lock is still held. Entry states are
+ * journaled like bookings, so waiters survive a restart.
+ * A booking with a recurrence rule is stored once as a series and expanded only within the
+ * window being queried.
+ *
+ * Space ids are checked against the {@link SpaceCatalog}. Shared spaces admit overlapping
+ * bookings as long as the summed attendee count never exceeds the space's capacity; the peak
+ * load is read from the {@link CapacityIndex}. All other spaces are exclusive: any overlap is a
+ * conflict. When a catalog reload turns a space shared or exclusive, its capacity index entries
+ * are rebuilt under the space lock before the new catalog version becomes visible to writers.
+ *
+ * No-shows: every stored single booking that is not checked in is tracked by the
+ * {@link NoShowScheduler}. If it is still the stored state when its grace deadline passes and
+ * nobody was observed in the space, it is released with status {@value #STATUS_NO_SHOW}, which
+ * frees the slot and promotes waiters like a cancellation does.
+ *
+ * Concurrency: every check-then-write runs under the write stripe of the affected space(s)
+ * from {@link SpaceLockStripes}, so two overlapping requests for the same space cannot both
+ * pass the conflict check, while requests for different spaces do not contend. Operations on
+ * an existing booking re-read it after locking and retry if it moved in the meantime.
+ */
+@Service
+public class BookingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingService.class);
+
+    public static final String STATUS_ACTIVE = "active";
+    public static final String STATUS_CANCELED = "canceled";
+    public static final String STATUS_NO_SHOW = "no_show";
+    public static final String WAITLIST_WAITING = "waiting";
+    public static final String WAITLIST_PROMOTED = "promoted";
+    public static final String WAITLIST_WITHDRAWN = "withdrawn";
+
+    private final ConflictIndex conflictIndex;
+    private final FreeBusyIndex freeBusyIndex;
+    private final WaitlistIndex waitlistIndex;
+    private final CapacityIndex capacityIndex;
+    private final SpaceCatalog spaceCatalog;
+    private final NoShowScheduler noShowScheduler;
+    private final SpaceLockStripes spaceLocks;
+    private final BookingJournal journal;
+    private final BookingChangeLog changeLog;
+    private final int maxBatchSize;
+    private final int maxOccurrences;
+    private final int maxPageSize;
+    private final int maxChangeBatchSize;
+    private final Map<String, Booking> bookingsById = new ConcurrentHashMap<>();
+    private final Map<String, WaitlistEntry> waitlistById = new ConcurrentHashMap<>();
+    /**
+     * Held shared from a journal append until its state is published, and exclusively while a
+     * snapshot reads the state, so a snapshot never misses a record of a log segment it replaces.
+     */
+    private final ReadWriteLock publishGate = new ReentrantReadWriteLock();
+
+    public BookingService(ConflictIndex conflictIndex,
+                          FreeBusyIndex freeBusyIndex,
+                          WaitlistIndex waitlistIndex,
+                          CapacityIndex capacityIndex,
+                          SpaceCatalog spaceCatalog,
+                          NoShowScheduler noShowScheduler,
+                          SpaceLockStripes spaceLocks,
+                          BookingJournal journal,
+                          BookingChangeLog changeLog,
+                          @Value("${booking.batch.max-size:500}") int maxBatchSize,
+                          @Value("${booking.recurrence.max-occurrences:1000}") int maxOccurrences,
+                          @Value("${booking.query.max-page-size:1000}") int maxPageSize,
+                          @Value("${booking.changes.max-batch-size:1000}") int maxChangeBatchSize) {
+        this.conflictIndex = conflictIndex;
+        this.freeBusyIndex = freeBusyIndex;
+        this.waitlistIndex = waitlistIndex;
+        this.capacityIndex = capacityIndex;
+        this.spaceCatalog = spaceCatalog;
+        this.noShowScheduler = noShowScheduler;
+        this.spaceLocks = spaceLocks;
+        this.journal = journal;
+        this.changeLog = changeLog;
+        this.maxBatchSize = maxBatchSize;
+        this.maxOccurrences = maxOccurrences;
+        this.maxPageSize = maxPageSize;
+        this.maxChangeBatchSize = maxChangeBatchSize;
+        spaceCatalog.setChangeHandler(this::applyCatalogChange);
+        noShowScheduler.setHandlers(this::awaitingCheckIn, this::releaseNoShow);
+    }
+
+    /**
+     * Rebuilds the booking map, the indexes and the change feed from the journal. Records are
+     * replayed in write order, so the last state seen for a booking id wins.
+     */
+    @PostConstruct
+    public void recover() {
+        long started = System.nanoTime();
+        long records = journal.recover(new BookingJournal.RecoverySink() {
+            @Override
+            public void open(String streamId, long firstOffset) {
+                changeLog.open(streamId, firstOffset);
+            }
+
+            @Override
+            public void state(Booking booking) {
+                bookingsById.put(booking.getBookingId(), booking);
+            }
+
+            @Override
+            public void change(BookingChange change) {
+                state(change.getBooking());
+                changeLog.publish(change);
+            }
+
+            @Override
+            public void waitlist(WaitlistEntry entry) {
+                waitlistById.put(entry.getEntryId(), entry);
+            }
+        });
+        for (Booking booking : bookingsById.values()) {
+            if (STATUS_ACTIVE.equals(booking.getStatus())) {
+                index(booking);
+                noShowScheduler.track(booking);
+            }
+        }
+        // Re-queue waiters oldest first, which is the order they are promoted in.
+        waitlistById.values().stream()
+                .filter(entry -> WAITLIST_WAITING.equals(entry.getStatus()))
+                .sorted(Comparator.comparing(WaitlistEntry::getCreatedAt))
+                .forEach(waitlistIndex::add);
+        if (journal.isEnabled()) {
+            logger.info("Recovered {} bookings and {} waitlist entries from {} journal records in {} ms",
+                    bookingsById.size(), waitlistById.size(), records, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    public Booking createBooking(BookingRequest request) {
+        spaceCatalog.requireKnown(request.getSpaceId());
+        Booking booking = newBooking(request);
+        validateSchedule(booking);
+        return snapshotIfDue(spaceLocks.withWriteLock(booking.getSpaceId(), () -> {
+            ensureNoConflicts(booking);
+            commit(BookingChange.CREATED, List.of(booking), () -> store(booking));
+            return booking;
+        }));
+    }
+
+    /**
+     * Creates all requested bookings or none of them.
+     *
+     * Every item is checked against existing bookings and against the other items of the
+     * batch while the stripes of all involved spaces are held. All conflicts are collected
+     * (tagged with the offending item's index) before the batch is rejected, so callers can
+     * fix every slot in one round trip.
+     */
+    public List<Booking> createBookings(List<BookingRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxBatchSize + " bookings");
+        }
+        List<Booking> bookings = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            spaceCatalog.requireKnown(requests.get(i).getSpaceId());
+            Booking booking = newBooking(requests.get(i));
+            try {
+                validateSchedule(booking);
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("bookings[" + i + "]: " + ex.getMessage());
+            }
+            bookings.add(booking);
+        }
+        Set<String> spaceIds = bookings.stream().map(Booking::getSpaceId).collect(Collectors.toSet());
+        return snapshotIfDue(spaceLocks.withWriteLocks(spaceIds, () -> insertAll(bookings)));
+    }
+
+    /**
+     * Applies a partial update with compare-and-set semantics.
+     *
+     * The new state is built and validated from a snapshot of the booking without holding any
+     * lock; the space lock only covers the final check that the booking is still at the version
+     * the update was based on, the conflict check and the swap. If {@code expectedVersion} is
+     * given and the booking is at another version, the update is rejected as stale; otherwise a
+     * concurrent modification simply causes the update to be rebuilt on the newer state.
+     */
+    public Booking updateBooking(String bookingId, BookingUpdateRequest request, Long expectedVersion) {
+        spaceCatalog.requireKnown(request.getSpaceId());
+        while (true) {
+            Booking existing = findActiveBooking(bookingId);
+            checkVersion(existing, expectedVersion);
+            Booking updated = applyUpdate(existing, request);
+            Booking stored = spaceLocks.withWriteLocks(existing.getSpaceId(), updated.getSpaceId(), () -> {
+                if (bookingsById.get(bookingId) != existing) {
+                    return null;
+                }
+                // Take the old state out first so it does not count against the new one's capacity.
+                unindex(existing);
+                try {
+                    ensureNoConflicts(updated);
+                } catch (BookingConflictException ex) {
+                    index(existing);
+                    throw ex;
+                }
+                try {
+                    commit(BookingChange.UPDATED, List.of(updated), () -> store(updated));
+                } catch (RuntimeException ex) {
+                    index(existing);
+                    throw ex;
+                }
+                promoteWaiters(existing);
+                return updated;
+            });
+            if (stored != null) {
+                return snapshotIfDue(stored);
+            }
+        }
+    }
+
+    public Booking cancelBooking(String bookingId, Long expectedVersion) {
+        while (true) {
+            Booking existing = findActiveBooking(bookingId);
+            checkVersion(existing, expectedVersion);
+            Booking canceled = spaceLocks.withWriteLock(existing.getSpaceId(), () ->
+                    bookingsById.get(bookingId) == existing ? applyCancel(existing) : null);
+            if (canceled != null) {
+                return snapshotIfDue(canceled);
+            }
+        }
+    }
+
+    /**
+     * Records that the attendees arrived, which exempts the booking from no-show release.
+     * Checking in again returns the booking unchanged.
+     */
+    public Booking checkIn(String bookingId) {
+        while (true) {
+            Booking existing = findActiveBooking(bookingId);
+            if (existing.getCheckedInAt() != null) {
+                return existing;
+            }
+            if (existing.getRecurrence() != null) {
+                throw new BookingStateException("Recurring bookings cannot be checked in");
+            }
+            OffsetDateTime now = OffsetDateTime.now();
+            if (!now.isBefore(existing.getEndTime())) {
+                throw new BookingStateException("Booking " + bookingId + " has already ended");
+            }
+            Booking checkedIn = new Booking(existing);
+            checkedIn.setCheckedInAt(now);
+            checkedIn.setVersion(existing.getVersion() + 1);
+            checkedIn.setUpdatedAt(now);
+            Booking stored = spaceLocks.withWriteLock(existing.getSpaceId(), () -> {
+                if (bookingsById.get(bookingId) != existing) {
+                    return null;
+                }
+                commit(BookingChange.UPDATED, List.of(checkedIn), () -> {
+                    unindex(existing);
+                    store(checkedIn);
+                });
+                return checkedIn;
+            });
+            if (stored != null) {
+                return snapshotIfDue(stored);
+            }
+        }
+    }
+
+    /**
+     * Puts a request for a taken slot on the space's waitlist. If the slot is free already, the
+     * booking is created straight away and the entry is returned as promoted.
+     */
+    public WaitlistEntry joinWaitlist(BookingRequest request) {
+        if (request.getRecurrence() != null) {
+            throw new IllegalArgumentException("Recurring bookings cannot be waitlisted");
+        }
+        BookingTimes.validatePeriod(request.getStartTime(), request.getEndTime());
+        spaceCatalog.requireKnown(request.getSpaceId());
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setEntryId(UUID.randomUUID().toString());
+        entry.setSpaceId(request.getSpaceId());
+        entry.setStartTime(request.getStartTime());
+        entry.setEndTime(request.getEndTime());
+        entry.setPurpose(request.getPurpose());
+        entry.setAttendeeCount(request.getAttendeeCount());
+        entry.setStatus(WAITLIST_WAITING);
+        entry.setCreatedAt(OffsetDateTime.now());
+
+        return snapshotIfDue(spaceLocks.withWriteLock(entry.getSpaceId(), () -> {
+            Booking booking = newBooking(request);
+            if (fits(booking)) {
+                WaitlistEntry promoted = promoted(entry, booking);
+                commit(promoted, booking, () -> {
+                    store(booking);
+                    waitlistById.put(promoted.getEntryId(), promoted);
+                });
+                return promoted;
+            }
+            commit(entry, null, () -> {
+                waitlistById.put(entry.getEntryId(), entry);
+                waitlistIndex.add(entry);
+            });
+            return entry;
+        }));
+    }
+
+    public WaitlistEntry getWaitlistEntry(String entryId) {
+        WaitlistEntry entry = waitlistById.get(entryId);
+        if (entry == null) {
+            throw new WaitlistEntryNotFoundException("Waitlist entry not found: " + entryId);
+        }
+        return entry;
+    }
+
+    public WaitlistEntry withdrawWaitlistEntry(String entryId) {
+        while (true) {
+            WaitlistEntry existing = getWaitlistEntry(entryId);
+            if (!WAITLIST_WAITING.equals(existing.getStatus())) {
+                throw new BookingStateException("Waitlist entry " + entryId + " is already " + existing.getStatus());
+            }
+            WaitlistEntry withdrawn = spaceLocks.withWriteLock(existing.getSpaceId(), () -> {
+                if (waitlistById.get(entryId) != existing) {
+                    return null;
+                }
+                WaitlistEntry updated = new WaitlistEntry(existing);
+                updated.setStatus(WAITLIST_WITHDRAWN);
+                updated.setUpdatedAt(OffsetDateTime.now());
+                commit(updated, null, () -> {
+                    waitlistIndex.remove(existing);
+                    waitlistById.put(entryId, updated);
+                });
+                return updated;
+            });
+            if (withdrawn != null) {
+                return snapshotIfDue(withdrawn);
+            }
+        }
+    }
+
+    /**
+     * Returns the bookings of a space overlapping the window, with recurring series expanded
+     * into the occurrences that fall inside it.
+     */
+    public List<Booking> getBookings(String spaceId, String startTime, String endTime) {
+        OffsetDateTime start = BookingTimes.parse("startTime", startTime);
+        OffsetDateTime end = BookingTimes.parse("endTime", endTime);
+        BookingTimes.validatePeriod(start, end);
+        long startMillis = BookingTimes.toMillis(start);
+        long endMillis = BookingTimes.toMillis(end);
+        return spaceLocks.withReadLock(spaceId, () -> conflictIndex.findOverlapping(spaceId, startMillis, endMillis));
+    }
+
+    /**
+     * Returns one page of {@link #getBookings(String, String, String)}, ordered by
+     * (startTime, bookingId). {@code cursor} is the {@code nextCursor} of the previous page, or
+     * null for the first; a missing limit means the maximum page size. The returned
+     * {@code nextCursor} is null on the last page.
+     *
+     * Each page is read under its own read lock. Because pages resume from a key rather than
+     * an offset, bookings created or canceled between pages never cause skips or duplicates
+     * among the others.
+     */
+    public BookingPage getBookings(String spaceId, String startTime, String endTime, String cursor, Integer limit) {
+        OffsetDateTime start = BookingTimes.parse("startTime", startTime);
+        OffsetDateTime end = BookingTimes.parse("endTime", endTime);
+        BookingTimes.validatePeriod(start, end);
+        int pageSize = limit != null ? limit : maxPageSize;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        BookingCursor after = cursor != null ? BookingCursor.decode(cursor) : null;
+
+        long startMillis = BookingTimes.toMillis(start);
+        long endMillis = BookingTimes.toMillis(end);
+        // Read one extra booking to learn whether another page follows.
+        List<Booking> bookings = spaceLocks.withReadLock(spaceId, () -> conflictIndex.findOverlappingAfter(
+                spaceId, startMillis, endMillis,
+                after != null ? after.start() : 0, after != null ? after.bookingId() : null, pageSize + 1));
+        if (bookings.size() <= pageSize) {
+            return new BookingPage(bookings, null);
+        }
+        List<Booking> page = new ArrayList<>(bookings.subList(0, pageSize));
+        return new BookingPage(page, BookingCursor.encode(page.get(pageSize - 1)));
+    }
+
+    /**
+     * Reads a batch of the booking change feed starting at {@code fromOffset}.
+     */
+    public BookingChangesResponse getChanges(long fromOffset, Integer limit) {
+        int batchSize = limit != null ? limit : maxChangeBatchSize;
+        if (batchSize < 1 || batchSize > maxChangeBatchSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxChangeBatchSize);
+        }
+        return changeLog.read(fromOffset, batchSize);
+    }
+
+    public AvailabilityResponse checkAvailability(String spaceId, String startTime, String endTime) {
+        spaceCatalog.requireKnown(spaceId);
+        OffsetDateTime start = BookingTimes.parse("startTime", startTime);
+        OffsetDateTime end = BookingTimes.parse("endTime", endTime);
+        BookingTimes.validatePeriod(start, end);
+
+        long startMillis = BookingTimes.toMillis(start);
+        long endMillis = BookingTimes.toMillis(end);
+        Integer capacity = spaceCatalog.capacityOf(spaceId);
+        int[] peakLoad = new int[1];
+        List<Booking> overlapping = spaceLocks.withReadLock(spaceId, () -> {
+            if (capacity != null) {
+                peakLoad[0] = capacityIndex.peakLoad(spaceId, startMillis, endMillis);
+            }
+            return conflictIndex.findOverlapping(spaceId, startMillis, endMillis);
+        });
+
+        AvailabilityResponse response = new AvailabilityResponse();
+        response.setSpaceId(spaceId);
+        response.setStartTime(start);
+        response.setEndTime(end);
+        boolean available = capacity != null ? peakLoad[0] < capacity : overlapping.isEmpty();
+        response.setAvailable(available);
+        if (capacity != null) {
+            response.setCapacity(capacity);
+            response.setRemainingCapacity(Math.max(0, capacity - peakLoad[0]));
+        }
+        // In a shared space overlapping bookings only count as conflicts once it is full.
+        response.setConflictingBookings(available && capacity != null ? List.of() : overlapping.stream()
+                .map(BookingService::toAvailabilityConflict)
+                .collect(Collectors.toList()));
+        return response;
+    }
+
+    private List<Booking> insertAll(List<Booking> bookings) {
+        // Items already accepted from this batch, indexed like real bookings.
+        ConflictIndex pending = new ConflictIndex();
+        // Accepted items in shared spaces are loaded into the capacity index while the batch is
+        // checked, so later items see their load, and taken out again before storing.
+        List<Booking> loaded = new ArrayList<>();
+        List<ConflictErrorResponse.ConflictingBooking> conflicts = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < bookings.size(); i++) {
+                Booking booking = bookings.get(i);
+                Integer capacity = spaceCatalog.capacityOf(booking.getSpaceId());
+                boolean conflicting = capacity != null
+                        ? exceedsCapacity(booking, capacity)
+                        : !conflictIndex.findConflicts(booking).isEmpty() || !pending.findConflicts(booking).isEmpty();
+                if (conflicting) {
+                    for (Booking existing : conflictIndex.findConflicts(booking)) {
+                        ConflictErrorResponse.ConflictingBooking conflict = toConflict(existing);
+                        conflict.setRequestIndex(i);
+                        conflicts.add(conflict);
+                    }
+                    for (Booking other : pending.findConflicts(booking)) {
+                        ConflictErrorResponse.ConflictingBooking conflict = toConflict(other);
+                        conflict.setRequestIndex(i);
+                        conflict.setBookingId(null);
+                        conflicts.add(conflict);
+                    }
+                } else if (capacity != null) {
+                    capacityIndex.add(booking);
+                    loaded.add(booking);
+                }
+                pending.add(booking);
+            }
+        } finally {
+            loaded.forEach(capacityIndex::remove);
+        }
+
+        if (!conflicts.isEmpty()) {
+            throw new BookingConflictException(
+                    "Batch rejected: " + conflicts.size() + " conflict(s) detected, no bookings were created",
+                    conflicts);
+        }
+        commit(BookingChange.CREATED, bookings, () -> bookings.forEach(this::store));
+        return bookings;
+    }
+
+    private Booking applyUpdate(Booking existing, BookingUpdateRequest request) {
+        Booking updated = new Booking(existing);
+        if (request.getSpaceId() != null) {
+            updated.setSpaceId(request.getSpaceId());
+        }
+        if (request.getStartTime() != null) {
+            updated.setStartTime(request.getStartTime());
+        }
+        if (request.getEndTime() != null) {
+            updated.setEndTime(request.getEndTime());
+        }
+        if (request.getPurpose() != null) {
+            updated.setPurpose(request.getPurpose());
+        }
+        if (request.getAttendeeCount() != null) {
+            updated.setAttendeeCount(request.getAttendeeCount());
+        }
+        // A check-in is for a place and time; moving the booking needs a new one.
+        if (!updated.getSpaceId().equals(existing.getSpaceId())
+                || !updated.getStartTime().isEqual(existing.getStartTime())) {
+            updated.setCheckedInAt(null);
+        }
+        validateSchedule(updated);
+        updated.setVersion(existing.getVersion() + 1);
+        updated.setUpdatedAt(OffsetDateTime.now());
+        return updated;
+    }
+
+    private Booking applyCancel(Booking existing) {
+        return applyRelease(existing, STATUS_CANCELED, BookingChange.CANCELED);
+    }
+
+    /**
+     * Ends an active booking with {@code status}, freeing its slot for waiters.
+     */
+    private Booking applyRelease(Booking existing, String status, String changeType) {
+        Booking released = new Booking(existing);
+        released.setStatus(status);
+        released.setVersion(existing.getVersion() + 1);
+        released.setUpdatedAt(OffsetDateTime.now());
+
+        commit(changeType, List.of(released), () -> {
+            unindex(existing);
+            noShowScheduler.untrack(existing);
+            bookingsById.put(released.getBookingId(), released);
+        });
+        promoteWaiters(existing);
+        return released;
+    }
+
+    private boolean awaitingCheckIn(Booking tracked) {
+        return bookingsById.get(tracked.getBookingId()) == tracked;
+    }
+
+    private void releaseNoShow(Booking tracked) {
+        Booking released = spaceLocks.withWriteLock(tracked.getSpaceId(), () -> awaitingCheckIn(tracked)
+                ? applyRelease(tracked, STATUS_NO_SHOW, BookingChange.RELEASED)
+                : null);
+        if (released != null) {
+            snapshotIfDue(released);
+            logger.info("Released booking {} of space {} as a no-show", released.getBookingId(), released.getSpaceId());
+        }
+    }
+
+    /**
+     * Promotes, oldest first, every waiting entry that overlaps the time {@code freed} no longer
+     * occupies and now fits without conflicts. Caller must hold the write lock of its space.
+     *
+     * The write that freed the time is already durable, so a journal failure here only stops
+     * the promotion: the remaining entries keep waiting and the caller still succeeds.
+     */
+    private void promoteWaiters(Booking freed) {
+        SeriesSchedule schedule = SeriesSchedule.of(freed);
+        for (WaitlistEntry entry : waitlistIndex.findOverlapping(freed.getSpaceId(),
+                schedule.spanStart(), schedule.spanEnd())) {
+            Booking booking = newBooking(entry);
+            if (fits(booking)) {
+                WaitlistEntry promoted = promoted(entry, booking);
+                try {
+                    commit(promoted, booking, () -> {
+                        waitlistIndex.remove(entry);
+                        store(booking);
+                        waitlistById.put(promoted.getEntryId(), promoted);
+                    });
+                } catch (RuntimeException ex) {
+                    logger.error("Failed to promote waitlist entry {} of space {}", entry.getEntryId(),
+                            entry.getSpaceId(), ex);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static WaitlistEntry promoted(WaitlistEntry entry, Booking booking) {
+        WaitlistEntry promoted = new WaitlistEntry(entry);
+        promoted.setStatus(WAITLIST_PROMOTED);
+        promoted.setBookingId(booking.getBookingId());
+        promoted.setUpdatedAt(booking.getCreatedAt());
+        return promoted;
+    }
+
+    private void ensureNoConflicts(Booking candidate) {
+        Integer capacity = spaceCatalog.capacityOf(candidate.getSpaceId());
+        if (capacity != null && !exceedsCapacity(candidate, capacity)) {
+            return;
+        }
+        List<ConflictErrorResponse.ConflictingBooking> conflicts = conflictIndex.findConflicts(candidate).stream()
+                .map(BookingService::toConflict)
+                .collect(Collectors.toList());
+        if (capacity != null) {
+            throw new BookingConflictException("Space " + candidate.getSpaceId()
+                    + " would exceed its capacity of " + capacity + " during the requested time period", conflicts);
+        }
+        if (!conflicts.isEmpty()) {
+            throw new BookingConflictException(
+                    "Space " + candidate.getSpaceId() + " is already booked during the requested time period",
+                    conflicts);
+        }
+    }
+
+    /**
+     * Whether {@code candidate} can be stored as is. Caller must hold the write lock of its space.
+     */
+    private boolean fits(Booking candidate) {
+        Integer capacity = spaceCatalog.capacityOf(candidate.getSpaceId());
+        return capacity != null ? !exceedsCapacity(candidate, capacity) : conflictIndex.findConflicts(candidate).isEmpty();
+    }
+
+    private boolean exceedsCapacity(Booking candidate, int capacity) {
+        return capacityIndex.peakLoad(candidate) + CapacityIndex.weightOf(candidate) > capacity;
+    }
+
+    private void validateSchedule(Booking booking) {
+        BookingTimes.validatePeriod(booking.getStartTime(), booking.getEndTime());
+        if (booking.getRecurrence() != null && SeriesSchedule.of(booking).count() > maxOccurrences) {
+            throw new IllegalArgumentException("A recurring booking may have at most " + maxOccurrences + " occurrences");
+        }
+    }
+
+    /**
+     * Starts a journal snapshot if one is due. Called after the space lock is released.
+     */
+    private <T> T snapshotIfDue(T result) {
+        journal.snapshotIfDue(() -> {
+            publishGate.writeLock().lock();
+            try {
+                return new BookingJournal.State(new ArrayList<>(bookingsById.values()),
+                        new ArrayList<>(waitlistById.values()));
+            } finally {
+                publishGate.writeLock().unlock();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Appends {@code states} to the journal as changes of {@code changeType}, waits until they
+     * are on disk and only then runs {@code publish} to make them visible and adds the changes
+     * to the feed. Caller must hold the write locks of their spaces; if the journal fails the
+     * exception propagates, nothing is published and the feed skips the offsets the changes took.
+     */
+    private void commit(String changeType, List<Booking> states, Runnable publish) {
+        publishGate.readLock().lock();
+        try {
+            List<BookingChange> changes = journal.append(changeType, states);
+            try {
+                journal.sync();
+            } catch (RuntimeException ex) {
+                changes.forEach(change -> changeLog.skip(change.getOffset()));
+                throw ex;
+            }
+            publish.run();
+            changes.forEach(changeLog::publish);
+        } finally {
+            publishGate.readLock().unlock();
+        }
+    }
+
+    /**
+     * Like {@link #commit(String, List, Runnable)} for a waitlist entry state, written in one
+     * record with the booking created from the entry if there is one.
+     */
+    private void commit(WaitlistEntry entry, Booking booking, Runnable publish) {
+        publishGate.readLock().lock();
+        try {
+            BookingChange change = null;
+            if (booking != null) {
+                change = journal.append(BookingChange.CREATED, booking, entry);
+            } else {
+                journal.append(entry);
+            }
+            try {
+                journal.sync();
+            } catch (RuntimeException ex) {
+                if (change != null) {
+                    changeLog.skip(change.getOffset());
+                }
+                throw ex;
+            }
+            publish.run();
+            if (change != null) {
+                changeLog.publish(change);
+            }
+        } finally {
+            publishGate.readLock().unlock();
+        }
+    }
+
+    /**
+     * Publishes a booking state that is already in the journal.
+     */
+    private void store(Booking booking) {
+        bookingsById.put(booking.getBookingId(), booking);
+        index(booking);
+        noShowScheduler.track(booking);
+    }
+
+    /**
+     * Publishes a new catalog version while holding the stripes of the spaces whose type changed,
+     * and rebuilds their capacity load from the active bookings so it matches the new type.
+     */
+    private void applyCatalogChange(Set<String> retypedSpaceIds, Runnable publish) {
+        spaceLocks.withWriteLocks(retypedSpaceIds, () -> {
+            retypedSpaceIds.forEach(capacityIndex::clear);
+            publish.run();
+            for (Booking booking : bookingsById.values()) {
+                if (STATUS_ACTIVE.equals(booking.getStatus()) && retypedSpaceIds.contains(booking.getSpaceId())
+                        && spaceCatalog.capacityOf(booking.getSpaceId()) != null) {
+                    capacityIndex.add(booking);
+                }
+            }
+            return null;
+        });
+    }
+
+    private void index(Booking booking) {
+        conflictIndex.add(booking);
+        if (spaceCatalog.capacityOf(booking.getSpaceId()) != null) {
+            capacityIndex.add(booking);
+        }
+        // Series stay out of the slot bitsets; they are resolved arithmetically on lookup.
+        if (booking.getRecurrence() == null) {
+            freeBusyIndex.add(booking.getSpaceId(), ConflictIndex.startOf(booking), ConflictIndex.endOf(booking));
+        }
+    }
+
+    private void unindex(Booking booking) {
+        conflictIndex.remove(booking);
+        if (spaceCatalog.capacityOf(booking.getSpaceId()) != null) {
+            capacityIndex.remove(booking);
+        }
+        if (booking.getRecurrence() == null) {
+            freeBusyIndex.remove(booking.getSpaceId(), ConflictIndex.startOf(booking), ConflictIndex.endOf(booking));
+        }
+    }
+
+    private static void checkVersion(Booking booking, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(booking.getVersion())) {
+            throw new BookingStateException("Booking " + booking.getBookingId() + " is at version "
+                    + booking.getVersion() + ", not the expected version " + expectedVersion);
+        }
+    }
+
+    private Booking findActiveBooking(String bookingId) {
+        Booking booking = bookingsById.get(bookingId);
+        if (booking == null) {
+            throw new BookingNotFoundException("Booking not found: " + bookingId);
+        }
+        if (STATUS_CANCELED.equals(booking.getStatus())) {
+            throw new BookingStateException("Booking " + bookingId + " is already canceled");
+        }
+        if (STATUS_NO_SHOW.equals(booking.getStatus())) {
+            throw new BookingStateException("Booking " + bookingId + " was released as a no-show");
+        }
+        return booking;
+    }
+
+    private static Booking newBooking(BookingRequest request) {
+        Booking booking = new Booking();
+        booking.setBookingId(UUID.randomUUID().toString());
+        booking.setSpaceId(request.getSpaceId());
+        booking.setStartTime(request.getStartTime());
+        booking.setEndTime(request.getEndTime());
+        booking.setPurpose(request.getPurpose());
+        booking.setAttendeeCount(request.getAttendeeCount());
+        booking.setRecurrence(request.getRecurrence());
+        booking.setStatus(STATUS_ACTIVE);
+        booking.setVersion(1L);
+        booking.setCreatedAt(OffsetDateTime.now());
+        return booking;
+    }
+
+    private static Booking newBooking(WaitlistEntry entry) {
+        BookingRequest request = new BookingRequest();
+        request.setSpaceId(entry.getSpaceId());
+        request.setStartTime(entry.getStartTime());
+        request.setEndTime(entry.getEndTime());
+        request.setPurpose(entry.getPurpose());
+        request.setAttendeeCount(entry.getAttendeeCount());
+        return newBooking(request);
+    }
+
+    private static ConflictErrorResponse.ConflictingBooking toConflict(Booking booking) {
+        ConflictErrorResponse.ConflictingBooking conflict = new ConflictErrorResponse.ConflictingBooking();
+        conflict.setBookingId(booking.getBookingId());
+        conflict.setStartTime(booking.getStartTime());
+        conflict.setEndTime(booking.getEndTime());
+        return conflict;
+    }
+
+    static AvailabilityResponse.ConflictingBooking toAvailabilityConflict(Booking booking) {
+        AvailabilityResponse.ConflictingBooking conflict = new AvailabilityResponse.ConflictingBooking();
+        conflict.setBookingId(booking.getBookingId());
+        conflict.setStartTime(booking.getStartTime());
+        conflict.setEndTime(booking.getEndTime());
+        return conflict;
+    }
+}
@@ -0,0 +1,31 @@
+package com.spaceflow.booking.service;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parsing and validation helpers for the ISO 8601 time parameters accepted by the API.
+ */
+final class BookingTimes {
+
+    private BookingTimes() {
+    }
+
+    static OffsetDateTime parse(String name, String value) {
+        try {
+            return OffsetDateTime.parse(value);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": expected ISO 8601 date-time");
+        }
+    }
+
+    static void validatePeriod(OffsetDateTime start, OffsetDateTime end) {
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("startTime must be before endTime");
+        }
+    }
+
+    static long toMillis(OffsetDateTime time) {
+        return time.toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,221 @@
+package com.spaceflow.booking.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.spaceflow.booking.dto.Space;
+import com.spaceflow.booking.exception.SpaceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Space metadata (capacity, building, floor, type), read on every booking and availability call.
+ *
+ * The catalog is loaded from a JSON file of the form
+ * {@code {"version": 3, "spaces": [{"spaceId": "zone-a", "capacity": 40, "type": "shared", ...}]}}
+ * into an immutable map. A reload builds a complete new map and swaps it in with one volatile
+ * write, so readers never lock, always see a single consistent version, and pay one hash lookup.
+ * The file is polled, and only a higher version replaces the current one, so re-reading an
+ * unchanged or older file is a no-op.
+ *
+ * Spaces of type {@value #TYPE_SHARED} admit overlapping bookings up to their capacity; all other
+ * types are exclusive. When a reload changes whether a space is shared, the {@link ChangeHandler}
+ * publishes the new version while the booking indexes of that space are rebuilt.
+ *
+ * Without a configured file the catalog is empty and any space id is accepted as exclusive.
+ */
+@Component
+public class SpaceCatalog implements DisposableBean {
+
+    public static final String TYPE_SHARED = "shared";
+
+    private static final Logger logger = LoggerFactory.getLogger(SpaceCatalog.class);
+
+    private static final ObjectReader READER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .readerFor(CatalogFile.class);
+
+    private final Path file;
+    private final boolean allowUnknownSpaces;
+    private volatile Snapshot snapshot = new Snapshot(0, Map.of());
+    private volatile ChangeHandler changeHandler = (retypedSpaceIds, publish) -> publish.run();
+    private ScheduledExecutorService poller;
+
+    public SpaceCatalog(@Value("${booking.catalog.file:}") String file,
+                        @Value("${booking.catalog.reload-interval-ms:5000}") long reloadIntervalMillis,
+                        @Value("${booking.catalog.allow-unknown-spaces:false}") boolean allowUnknownSpaces) {
+        this.file = file == null || file.isBlank() ? null : Paths.get(file);
+        this.allowUnknownSpaces = allowUnknownSpaces || this.file == null;
+        if (this.file == null) {
+            return;
+        }
+        try {
+            reload();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to load space catalog from " + this.file, ex);
+        }
+        if (reloadIntervalMillis > 0) {
+            poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "space-catalog-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            poller.scheduleWithFixedDelay(this::reloadQuietly, reloadIntervalMillis, reloadIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public long version() {
+        return snapshot.version;
+    }
+
+    /**
+     * Returns the space, or null if it is not in the catalog. The instance is shared by all
+     * readers and must not be modified.
+     */
+    public Space find(String spaceId) {
+        return snapshot.spaces.get(spaceId);
+    }
+
+    /**
+     * Rejects space ids that are not in the catalog, unless unknown spaces are allowed.
+     */
+    public void requireKnown(String spaceId) {
+        if (!allowUnknownSpaces && spaceId != null && !snapshot.spaces.containsKey(spaceId)) {
+            throw new SpaceNotFoundException("Space not found: " + spaceId);
+        }
+    }
+
+    /**
+     * Returns the capacity of a shared space, or null if the space is exclusive.
+     */
+    public Integer capacityOf(String spaceId) {
+        Space space = snapshot.spaces.get(spaceId);
+        return space != null && isShared(space) ? space.getCapacity() : null;
+    }
+
+    public void setChangeHandler(ChangeHandler changeHandler) {
+        this.changeHandler = changeHandler;
+    }
+
+    /**
+     * Reads the catalog file and applies it if its version is newer than the current one.
+     *
+     * @return true if a new version was applied
+     */
+    public synchronized boolean reload() throws IOException {
+        CatalogFile document = READER.readValue(file.toFile());
+        Snapshot current = snapshot;
+        if (document.getVersion() <= current.version) {
+            return false;
+        }
+        Snapshot next = new Snapshot(document.getVersion(), index(document.getSpaces()));
+
+        Set<String> retyped = new HashSet<>();
+        Set<String> spaceIds = new HashSet<>(current.spaces.keySet());
+        spaceIds.addAll(next.spaces.keySet());
+        for (String spaceId : spaceIds) {
+            if (isShared(current.spaces.get(spaceId)) != isShared(next.spaces.get(spaceId))) {
+                retyped.add(spaceId);
+            }
+        }
+        changeHandler.apply(retyped, () -> snapshot = next);
+        logger.info("Loaded space catalog version {} with {} spaces", next.version, next.spaces.size());
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (IOException | RuntimeException ex) {
+            // Keep serving the last good version; the next poll retries.
+            logger.warn("Failed to reload space catalog from {}", file, ex);
+        }
+    }
+
+    private static Map<String, Space> index(List<Space> spaces) {
+        Map<String, Space> bySpaceId = new HashMap<>();
+        for (Space space : spaces == null ? List.<Space>of() : spaces) {
+            String spaceId = space.getSpaceId();
+            if (spaceId == null || spaceId.isBlank()) {
+                throw new IllegalArgumentException("Invalid space catalog: space without spaceId");
+            }
+            if (space.getCapacity() != null && space.getCapacity() < 1) {
+                throw new IllegalArgumentException("Invalid space catalog: capacity of " + spaceId + " must be positive");
+            }
+            if (isShared(space) && space.getCapacity() == null) {
+                throw new IllegalArgumentException("Invalid space catalog: shared space " + spaceId + " needs a capacity");
+            }
+            if (bySpaceId.put(spaceId, space) != null) {
+                throw new IllegalArgumentException("Invalid space catalog: duplicate space " + spaceId);
+            }
+        }
+        return Map.copyOf(bySpaceId);
+    }
+
+    private static boolean isShared(Space space) {
+        return space != null && TYPE_SHARED.equals(space.getType());
+    }
+
+    /**
+     * Applies a new catalog version. Implementations must call {@code publish} exactly once and
+     * may hold whatever locks the spaces in {@code retypedSpaceIds} need while doing so.
+     */
+    @FunctionalInterface
+    public interface ChangeHandler {
+        void apply(Set<String> retypedSpaceIds, Runnable publish);
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final Map<String, Space> spaces;
+
+        private Snapshot(long version, Map<String, Space> spaces) {
+            this.version = version;
+            this.spaces = spaces;
+        }
+    }
+
+    private static final class CatalogFile {
+        private long version;
+        private List<Space> spaces;
+
+        public long getVersion() {
+            return version;
+        }
+
+        public void setVersion(long version) {
+            this.version = version;
+        }
+
+        public List<Space> getSpaces() {
+            return spaces;
+        }
+
+        public void setSpaces(List<Space> spaces) {
+            this.spaces = spaces;
+        }
+    }
+}
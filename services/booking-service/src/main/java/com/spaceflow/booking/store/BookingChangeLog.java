@@ -0,0 +1,113 @@
+package com.spaceflow.booking.store;
+
+import com.spaceflow.booking.dto.BookingChange;
+import com.spaceflow.booking.dto.BookingChangesResponse;
+import com.spaceflow.booking.exception.ChangeOffsetOutOfRangeException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Append-only feed of booking changes (outbox) for downstream consumers such as analytics.
+ *
+ * The feed is derived from the {@link BookingJournal}: every create, update and cancel gets a
+ * dense, increasing offset when it is appended to the journal under the space lock, and is
+ * published here only after the journal has forced it to disk, so consumers never see a change
+ * that is not durable. Changes to the same booking appear in the order they were applied.
+ * Writers of different spaces may publish out of offset order; only the gap-free prefix is
+ * readable. A write whose journal sync fails {@link #skip}s its offsets instead, so the feed
+ * reads past them rather than stopping there. Consumers pull batches from an offset and
+ * continue from {@code nextOffset}.
+ *
+ * The feed keeps the most recent {@code booking.changes.retention} changes in a ring buffer.
+ * On startup it is rebuilt from the changes logged since the last journal snapshot, and the
+ * {@code streamId} and offsets continue where they left off. Consumers that see a different
+ * stream id (the store directory was replaced, or the service runs without one) or an
+ * out-of-range offset must resynchronize from {@code GET /bookings}.
+ */
+@Component
+public class BookingChangeLog {
+
+    private final BookingChange[] ring;
+    private String streamId = UUID.randomUUID().toString();
+    /** First offset held by this instance. */
+    private long firstOffset;
+    /** End of the gap-free prefix of published changes. */
+    private long nextOffset;
+    /** End of all published changes. */
+    private long publishedEnd;
+
+    public BookingChangeLog(@Value("${booking.changes.retention:100000}") int retention) {
+        if (retention < 1) {
+            throw new IllegalArgumentException("booking.changes.retention must be positive");
+        }
+        this.ring = new BookingChange[retention];
+    }
+
+    /**
+     * Continues the stream {@code streamId} at {@code firstOffset}, dropping anything published so far.
+     */
+    public synchronized void open(String streamId, long firstOffset) {
+        Arrays.fill(ring, null);
+        this.streamId = streamId;
+        this.firstOffset = firstOffset;
+        this.nextOffset = firstOffset;
+        this.publishedEnd = firstOffset;
+    }
+
+    public synchronized void publish(BookingChange change) {
+        fill(change);
+    }
+
+    /**
+     * Marks an offset whose change never became durable as read past, so the changes after it
+     * become readable.
+     */
+    public synchronized void skip(long offset) {
+        fill(new BookingChange(offset, null, null, null));
+    }
+
+    /**
+     * Stores a change or a skipped offset, marked by its missing type, and advances the end of
+     * the gap-free prefix. Caller holds the monitor.
+     */
+    private void fill(BookingChange change) {
+        long offset = change.getOffset();
+        ring[(int) (offset % ring.length)] = change;
+        publishedEnd = Math.max(publishedEnd, offset + 1);
+        while (nextOffset < publishedEnd) {
+            BookingChange next = ring[(int) (nextOffset % ring.length)];
+            if (next == null || next.getOffset() != nextOffset) {
+                break;
+            }
+            nextOffset++;
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} changes starting at {@code fromOffset}. Reading at the current
+     * end of the feed returns an empty batch.
+     *
+     * @throws ChangeOffsetOutOfRangeException if the offset has been evicted or lies beyond the end
+     */
+    public synchronized BookingChangesResponse read(long fromOffset, int limit) {
+        long earliest = Math.max(firstOffset, publishedEnd - ring.length);
+        if (fromOffset < earliest || fromOffset > nextOffset) {
+            throw new ChangeOffsetOutOfRangeException("Offset " + fromOffset + " is not available; stream "
+                    + streamId + " holds offsets " + earliest + " to " + nextOffset);
+        }
+        long to = Math.min(nextOffset, fromOffset + limit);
+        List<BookingChange> changes = new ArrayList<>((int) (to - fromOffset));
+        for (long offset = fromOffset; offset < to; offset++) {
+            BookingChange change = ring[(int) (offset % ring.length)];
+            if (change.getType() != null) {
+                changes.add(change);
+            }
+        }
+        return new BookingChangesResponse(streamId, changes, to, earliest);
+    }
+}
@@ -0,0 +1,578 @@
+package com.spaceflow.booking.store;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.spaceflow.booking.dto.Booking;
+import com.spaceflow.booking.dto.BookingChange;
+import com.spaceflow.booking.dto.WaitlistEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Durable booking store: an append-only write-ahead log plus periodic snapshots.
+ *
+ * Every stored booking state (create, update, cancel) and waitlist entry state (join,
+ * withdraw, promote) is appended as one JSON line; a promotion writes the new booking and the
+ * promoted entry in the same line, so recovery never sees one without the other. The
+ * journal is also the source of the {@link BookingChangeLog} feed: each append is assigned the
+ * next feed offset in the same critical section that queues its bytes, so offsets follow the
+ * order of the log, and recovery derives them again from the snapshot header and the position
+ * of each record. Appends only copy bytes into an in-memory buffer; a single flusher thread writes the buffer through
+ * a {@link FileChannel} and calls {@code force} once per batch (group commit), and writers
+ * wait for that with {@link #sync()} before publishing what they wrote. Once a write to the
+ * log fails, every later {@link #sync()} fails too.
+ *
+ * Files in the store directory:
+ * - {@code wal-<n>.log}: log segments, replayed in order
+ * - {@code snapshot-<n>.jsonl}: full state as of the start of segment n, headed by the feed
+ *   offset of the first record in segment n
+ * - {@code stream.id}: the feed's stream id, created on first start and kept across restarts
+ *
+ * Recovery loads the newest snapshot and replays the segments from n onwards. Records are
+ * whole booking and entry states, so replaying a record twice is harmless. A torn last line left by a
+ * crash is ignored. Changes older than the newest snapshot are no longer in the feed after a
+ * restart.
+ *
+ * When {@code booking.store.directory} is blank the journal is disabled and all operations
+ * are no-ops apart from assigning offsets, which keeps the service purely in-memory (as in tests).
+ */
+@Component
+public class BookingJournal implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingJournal.class);
+
+    private static final String WAL_PREFIX = "wal-";
+    private static final String WAL_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".jsonl";
+    private static final String STREAM_ID_FILE = "stream.id";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE);
+    private static final ObjectReader READER = MAPPER.readerFor(JournalRecord.class);
+    private static final ObjectWriter WRITER = MAPPER.writerFor(JournalRecord.class);
+
+    private final Path directory;
+    private final long lingerMillis;
+    private final long snapshotThreshold;
+
+    /** Guards the pending buffer, sequence numbers and feed offsets. */
+    private final Object bufferLock = new Object();
+    /** Guards the active channel; always taken before {@link #bufferLock}. */
+    private final Object ioLock = new Object();
+
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long appendedSequence;
+    private long durableSequence;
+    private long nextOffset;
+    private long recordsSinceSnapshot;
+    private IOException failure;
+    private volatile boolean running;
+
+    private FileChannel channel;
+    private long segment;
+    private Thread flusher;
+    private ExecutorService snapshotExecutor;
+    private final AtomicBoolean snapshotInProgress = new AtomicBoolean();
+
+    public BookingJournal(@Value("${booking.store.directory:}") String directory,
+                          @Value("${booking.store.flush-linger-ms:2}") long lingerMillis,
+                          @Value("${booking.store.snapshot-every:100000}") long snapshotThreshold) {
+        this.directory = directory == null || directory.isBlank() ? null : Paths.get(directory);
+        this.lingerMillis = lingerMillis;
+        this.snapshotThreshold = snapshotThreshold;
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Replays the newest snapshot and all later log records into {@code sink}, then opens a
+     * fresh log segment for appends. Must be called once before the first append.
+     *
+     * @return number of records replayed
+     */
+    public long recover(RecoverySink sink) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        try {
+            Files.createDirectories(directory);
+            long snapshotSegment = latest(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            long replayed = 0;
+            if (snapshotSegment >= 0) {
+                replayed += replay(file(SNAPSHOT_PREFIX, snapshotSegment, SNAPSHOT_SUFFIX), sink);
+            }
+            sink.open(streamId(), nextOffset);
+            long lastSegment = Math.max(snapshotSegment, 0);
+            for (long walSegment : segments(WAL_PREFIX, WAL_SUFFIX)) {
+                if (walSegment >= Math.max(snapshotSegment, 0)) {
+                    long records = replay(file(WAL_PREFIX, walSegment, WAL_SUFFIX), sink);
+                    replayed += records;
+                    recordsSinceSnapshot += records;
+                }
+                lastSegment = Math.max(lastSegment, walSegment);
+            }
+            // Always start a new segment so a torn tail is never appended to.
+            segment = lastSegment + 1;
+            channel = openSegment(segment);
+            startFlusher();
+            return replayed;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to recover booking store from " + directory, ex);
+        }
+    }
+
+    /**
+     * Queues a booking state for the log. The record is durable once {@link #sync()} returns;
+     * only then may the returned change be published to the feed.
+     */
+    public BookingChange append(String type, Booking booking) {
+        return append(type, booking, null);
+    }
+
+    /**
+     * Queues a booking state together with the state of the waitlist entry it was created
+     * from, if any, as a single record.
+     */
+    public BookingChange append(String type, Booking booking, WaitlistEntry waitlistEntry) {
+        OffsetDateTime occurredAt = OffsetDateTime.now();
+        byte[] line = isEnabled() ? encode(JournalRecord.change(type, occurredAt, booking, waitlistEntry)) : null;
+        synchronized (bufferLock) {
+            queue(line);
+            return new BookingChange(nextOffset++, type, occurredAt, booking);
+        }
+    }
+
+    /**
+     * Queues several booking states as consecutive records. All of them are encoded before any
+     * is queued, so a state that cannot be encoded leaves no record and reserves no offset.
+     */
+    public List<BookingChange> append(String type, List<Booking> bookings) {
+        OffsetDateTime occurredAt = OffsetDateTime.now();
+        List<byte[]> lines = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            lines.add(isEnabled() ? encode(JournalRecord.change(type, occurredAt, booking, null)) : null);
+        }
+        List<BookingChange> changes = new ArrayList<>(bookings.size());
+        synchronized (bufferLock) {
+            for (int i = 0; i < bookings.size(); i++) {
+                queue(lines.get(i));
+                changes.add(new BookingChange(nextOffset++, type, occurredAt, bookings.get(i)));
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Queues a waitlist entry state that does not come with a booking change.
+     */
+    public void append(WaitlistEntry waitlistEntry) {
+        if (!isEnabled()) {
+            return;
+        }
+        byte[] line = encode(JournalRecord.state(waitlistEntry));
+        synchronized (bufferLock) {
+            queue(line);
+        }
+    }
+
+    /**
+     * Adds one encoded record to the pending buffer. Caller must hold {@link #bufferLock}.
+     */
+    private void queue(byte[] line) {
+        if (line == null) {
+            return;
+        }
+        pending.write(line, 0, line.length);
+        pending.write('\n');
+        appendedSequence++;
+        recordsSinceSnapshot++;
+        bufferLock.notifyAll();
+    }
+
+    /**
+     * Blocks until every record appended before this call has been forced to disk.
+     */
+    public void sync() {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (bufferLock) {
+            long target = appendedSequence;
+            while (durableSequence < target && failure == null) {
+                try {
+                    bufferLock.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for booking log flush", ex);
+                }
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("Booking log is not writable", failure);
+            }
+        }
+    }
+
+    /**
+     * Starts a background snapshot of {@code state} when enough records have accumulated since
+     * the last one. The supplier is invoked after the log has been rotated, so it must return
+     * the current state at that moment; records racing with it are replayed from the new segment.
+     */
+    public void snapshotIfDue(Supplier<State> state) {
+        if (!isEnabled() || snapshotThreshold <= 0) {
+            return;
+        }
+        synchronized (bufferLock) {
+            if (recordsSinceSnapshot < snapshotThreshold) {
+                return;
+            }
+        }
+        if (snapshotInProgress.compareAndSet(false, true)) {
+            snapshotExecutor.execute(() -> {
+                try {
+                    snapshot(state);
+                } catch (RuntimeException ex) {
+                    logger.error("Booking snapshot failed", ex);
+                } finally {
+                    snapshotInProgress.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Rotates the log and writes a snapshot covering everything before the new segment, then
+     * deletes the files it supersedes.
+     */
+    public void snapshot(Supplier<State> state) {
+        if (!isEnabled()) {
+            return;
+        }
+        long[] cut = rotate();
+        long snapshotSegment = cut[0];
+        State current = state.get();
+        Path target = file(SNAPSHOT_PREFIX, snapshotSegment, SNAPSHOT_SUFFIX);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteArrayOutputStream chunk = new ByteArrayOutputStream(1 << 20);
+                chunk.write(encode(JournalRecord.header(cut[1])));
+                chunk.write('\n');
+                for (Booking booking : current.bookings()) {
+                    chunk.write(encode(JournalRecord.state(booking)));
+                    chunk.write('\n');
+                    if (chunk.size() >= 1 << 20) {
+                        writeFully(out, chunk);
+                    }
+                }
+                for (WaitlistEntry entry : current.waitlist()) {
+                    chunk.write(encode(JournalRecord.state(entry)));
+                    chunk.write('\n');
+                    if (chunk.size() >= 1 << 20) {
+                        writeFully(out, chunk);
+                    }
+                }
+                writeFully(out, chunk);
+                out.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            deleteOlderThan(snapshotSegment);
+            logger.info("Wrote booking snapshot {} with {} bookings and {} waitlist entries", target.getFileName(),
+                    current.bookings().size(), current.waitlist().size());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to write booking snapshot " + target, ex);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (!isEnabled() || channel == null) {
+            return;
+        }
+        running = false;
+        synchronized (bufferLock) {
+            bufferLock.notifyAll();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        snapshotExecutor.shutdown();
+        synchronized (ioLock) {
+            flushPending();
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                logger.warn("Failed to close booking log", ex);
+            }
+        }
+    }
+
+    private void startFlusher() {
+        running = true;
+        snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booking-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher = new Thread(this::flushLoop, "booking-wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    private void flushLoop() {
+        while (running) {
+            synchronized (bufferLock) {
+                while (running && pending.size() == 0) {
+                    try {
+                        bufferLock.wait();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+            if (lingerMillis > 0) {
+                // Let concurrent writers join the batch before paying for the fsync.
+                try {
+                    Thread.sleep(lingerMillis);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            synchronized (ioLock) {
+                flushPending();
+            }
+        }
+    }
+
+    /**
+     * Writes and forces the pending buffer to the active segment. Caller must hold {@link #ioLock}.
+     *
+     * @return feed offset of the first record appended after the written batch
+     */
+    private long flushPending() {
+        ByteArrayOutputStream batch;
+        long batchSequence;
+        long batchEndOffset;
+        synchronized (bufferLock) {
+            batchEndOffset = nextOffset;
+            if (pending.size() == 0) {
+                return batchEndOffset;
+            }
+            batch = pending;
+            batchSequence = appendedSequence;
+            pending = new ByteArrayOutputStream(Math.max(batch.size(), 4096));
+        }
+        try {
+            writeFully(channel, batch);
+            channel.force(false);
+            synchronized (bufferLock) {
+                durableSequence = batchSequence;
+                bufferLock.notifyAll();
+            }
+        } catch (IOException ex) {
+            logger.error("Failed to write booking log segment {}", segment, ex);
+            synchronized (bufferLock) {
+                failure = ex;
+                bufferLock.notifyAll();
+            }
+        }
+        return batchEndOffset;
+    }
+
+    /**
+     * Starts a new segment.
+     *
+     * @return the new segment number and the feed offset of its first record
+     */
+    private long[] rotate() {
+        synchronized (ioLock) {
+            long firstOffset = flushPending();
+            try {
+                channel.close();
+                segment++;
+                channel = openSegment(segment);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to rotate booking log", ex);
+            }
+            synchronized (bufferLock) {
+                recordsSinceSnapshot = 0;
+            }
+            return new long[] {segment, firstOffset};
+        }
+    }
+
+    private long replay(Path path, RecoverySink sink) throws IOException {
+        long records = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                JournalRecord record;
+                try {
+                    record = READER.readValue(line);
+                } catch (IOException ex) {
+                    if (reader.readLine() == null) {
+                        logger.warn("Ignoring torn record at end of {}", path.getFileName());
+                        break;
+                    }
+                    throw ex;
+                }
+                if (record.getNextOffset() != null) {
+                    nextOffset = record.getNextOffset();
+                } else {
+                    if (record.getType() != null) {
+                        sink.change(new BookingChange(nextOffset++, record.getType(), record.getOccurredAt(),
+                                record.getBooking()));
+                    } else if (record.getBooking() != null) {
+                        sink.state(record.getBooking());
+                    }
+                    if (record.getWaitlistEntry() != null) {
+                        sink.waitlist(record.getWaitlistEntry());
+                    }
+                    records++;
+                }
+            }
+        }
+        return records;
+    }
+
+    private String streamId() throws IOException {
+        Path path = directory.resolve(STREAM_ID_FILE);
+        if (Files.exists(path)) {
+            return Files.readString(path, StandardCharsets.UTF_8).trim();
+        }
+        String streamId = UUID.randomUUID().toString();
+        Path temp = directory.resolve(STREAM_ID_FILE + ".tmp");
+        Files.writeString(temp, streamId, StandardCharsets.UTF_8);
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return streamId;
+    }
+
+    private static byte[] encode(JournalRecord record) {
+        try {
+            return WRITER.writeValueAsBytes(record);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(file(WAL_PREFIX, number, WAL_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void deleteOlderThan(long snapshotSegment) throws IOException {
+        for (long number : segments(WAL_PREFIX, WAL_SUFFIX)) {
+            if (number < snapshotSegment) {
+                Files.deleteIfExists(file(WAL_PREFIX, number, WAL_SUFFIX));
+            }
+        }
+        for (long number : segments(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (number < snapshotSegment) {
+                Files.deleteIfExists(file(SNAPSHOT_PREFIX, number, SNAPSHOT_SUFFIX));
+            }
+        }
+    }
+
+    private long latest(String prefix, String suffix) throws IOException {
+        List<Long> numbers = segments(prefix, suffix);
+        return numbers.isEmpty() ? -1 : numbers.get(numbers.size() - 1);
+    }
+
+    private List<Long> segments(String prefix, String suffix) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .forEach(name -> numbers.add(Long.parseLong(
+                            name.substring(prefix.length(), name.length() - suffix.length()))));
+        }
+        numbers.sort(Long::compare);
+        return numbers;
+    }
+
+    private Path file(String prefix, long number, String suffix) {
+        return directory.resolve(prefix + String.format("%012d", number) + suffix);
+    }
+
+    private static void writeFully(FileChannel out, ByteArrayOutputStream bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        bytes.reset();
+    }
+
+    /**
+     * Receives the journal's contents during {@link #recover}. Callbacks default to ignoring
+     * what they are given.
+     */
+    public interface RecoverySink {
+
+        /**
+         * Called once, after the snapshot and before the first change, with the feed's stream id
+         * and the offset of the first change that follows.
+         */
+        default void open(String streamId, long firstOffset) {
+        }
+
+        /** A booking state from the snapshot. */
+        default void state(Booking booking) {
+        }
+
+        /** A logged change, in offset order. */
+        default void change(BookingChange change) {
+        }
+
+        /** A waitlist entry state, from the snapshot or the log. */
+        default void waitlist(WaitlistEntry entry) {
+        }
+    }
+
+    /**
+     * Everything a snapshot holds.
+     */
+    public record State(Collection<Booking> bookings, Collection<WaitlistEntry> waitlist) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.spaceflow.booking.store;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.spaceflow.booking.dto.Booking;
+import com.spaceflow.booking.dto.WaitlistEntry;
+
+import java.time.OffsetDateTime;
+
+/**
+ * One line of the booking journal. Log segments hold changes ({@code type}, {@code occurredAt}
+ * and the new booking state), waitlist entry states, or both at once when a waiter is promoted;
+ * a snapshot starts with a header carrying {@code nextOffset} and then holds one plain booking
+ * or waitlist entry state per line. Change offsets are not stored: they follow from the header
+ * and the position of the change in the log.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+class JournalRecord {
+
+    private Long nextOffset;
+    private String type;
+    private OffsetDateTime occurredAt;
+    private Booking booking;
+    private WaitlistEntry waitlistEntry;
+
+    public JournalRecord() {
+    }
+
+    static JournalRecord header(long nextOffset) {
+        JournalRecord record = new JournalRecord();
+        record.setNextOffset(nextOffset);
+        return record;
+    }
+
+    static JournalRecord state(Booking booking) {
+        JournalRecord record = new JournalRecord();
+        record.setBooking(booking);
+        return record;
+    }
+
+    static JournalRecord state(WaitlistEntry waitlistEntry) {
+        JournalRecord record = new JournalRecord();
+        record.setWaitlistEntry(waitlistEntry);
+        return record;
+    }
+
+    static JournalRecord change(String type, OffsetDateTime occurredAt, Booking booking, WaitlistEntry waitlistEntry) {
+        JournalRecord record = state(booking);
+        record.setType(type);
+        record.setOccurredAt(occurredAt);
+        record.setWaitlistEntry(waitlistEntry);
+        return record;
+    }
+
+    public Long getNextOffset() {
+        return nextOffset;
+    }
+
+    public void setNextOffset(Long nextOffset) {
+        this.nextOffset = nextOffset;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public OffsetDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(OffsetDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+
+    public Booking getBooking() {
+        return booking;
+    }
+
+    public void setBooking(Booking booking) {
+        this.booking = booking;
+    }
+
+    public WaitlistEntry getWaitlistEntry() {
+        return waitlistEntry;
+    }
+
+    public void setWaitlistEntry(WaitlistEntry waitlistEntry) {
+        this.waitlistEntry = waitlistEntry;
+    }
+}
@@ -1,20 +1,47 @@
 package com.spaceflow.booking.api;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spaceflow.booking.dto.BatchBookingRequest;
 import com.spaceflow.booking.dto.BookingRequest;
 import com.spaceflow.booking.dto.BookingUpdateRequest;
+import com.spaceflow.booking.dto.RecurrenceRule;
+import com.spaceflow.booking.index.CapacityIndex;
+import com.spaceflow.booking.index.ConflictIndex;
+import com.spaceflow.booking.index.FreeBusyIndex;
+import com.spaceflow.booking.index.WaitlistIndex;
+import com.spaceflow.booking.schedule.NoShowScheduler;
+import com.spaceflow.booking.schedule.OccupancyProbe;
+import com.spaceflow.booking.service.AvailabilitySearchService;
+import com.spaceflow.booking.service.BookingService;
+import com.spaceflow.booking.service.SpaceCatalog;
+import com.spaceflow.booking.service.SpaceLockStripes;
+import com.spaceflow.booking.store.BookingChangeLog;
+import com.spaceflow.booking.store.BookingJournal;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(BookingController.class)
+@WebMvcTest(controllers = BookingController.class, properties = {
+        "booking.catalog.file=src/test/resources/space-catalog.json",
+        "booking.catalog.allow-unknown-spaces=true"})
+@Import({BookingService.class, AvailabilitySearchService.class, ConflictIndex.class, FreeBusyIndex.class,
+        WaitlistIndex.class, CapacityIndex.class, SpaceCatalog.class, NoShowScheduler.class, OccupancyProbe.class,
+        SpaceLockStripes.class,
+        BookingJournal.class, BookingChangeLog.class, IdempotencyCache.class})
 class BookingControllerTest {
 
     @Autowired
@@ -26,7 +53,7 @@ class BookingControllerTest {
     @Test
     void createBooking_ShouldReturn201() throws Exception {
         BookingRequest request = new BookingRequest();
-        request.setSpaceId("space-123");
+        request.setSpaceId(uniqueSpaceId());
         request.setStartTime(OffsetDateTime.now().plusHours(1));
         request.setEndTime(OffsetDateTime.now().plusHours(2));
 
@@ -34,8 +61,46 @@ class BookingControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isCreated())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
-        // TODO: Verify booking response structure when business logic is implemented
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.bookingId").isNotEmpty())
+                .andExpect(jsonPath("$.spaceId").value(request.getSpaceId()))
+                .andExpect(jsonPath("$.status").value("active"));
+    }
+
+    @Test
+    void createBooking_WithOverlappingBooking_ShouldReturn409() throws Exception {
+        String spaceId = uniqueSpaceId();
+        OffsetDateTime start = OffsetDateTime.now().plusHours(1);
+        String existingId = createBooking(spaceId, start, start.plusHours(1));
+
+        BookingRequest request = new BookingRequest();
+        request.setSpaceId(spaceId);
+        request.setStartTime(start.plusMinutes(30));
+        request.setEndTime(start.plusMinutes(90));
+
+        mockMvc.perform(post("/api/v1/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("conflict_detected"))
+                .andExpect(jsonPath("$.conflictingBookings[0].bookingId").value(existingId));
+    }
+
+    @Test
+    void createBooking_AdjacentToExistingBooking_ShouldReturn201() throws Exception {
+        String spaceId = uniqueSpaceId();
+        OffsetDateTime start = OffsetDateTime.now().plusHours(1);
+        createBooking(spaceId, start, start.plusHours(1));
+
+        BookingRequest request = new BookingRequest();
+        request.setSpaceId(spaceId);
+        request.setStartTime(start.plusHours(1));
+        request.setEndTime(start.plusHours(2));
+
+        mockMvc.perform(post("/api/v1/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
     }
 
     @Test
@@ -51,19 +116,232 @@ class BookingControllerTest {
         // TODO: Verify specific validation error messages when validation is enabled
     }
 
+    @Test
+    void createBookings_Batch_ShouldReturn201WithAllBookings() throws Exception {
+        String spaceId = uniqueSpaceId();
+        OffsetDateTime start = OffsetDateTime.now().plusDays(1);
+        BatchBookingRequest request = new BatchBookingRequest();
+        request.setBookings(List.of(
+                bookingRequest(spaceId, start, start.plusHours(1)),
+                bookingRequest(spaceId, start.plusDays(7), start.plusDays(7).plusHours(1))));
+
+        mockMvc.perform(post("/api/v1/bookings:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.bookings.length()").value(2))
+                .andExpect(jsonPath("$.bookings[0].status").value("active"));
+    }
+
+    @Test
+    void createBookings_BatchWithConflicts_ShouldReturn409AndCreateNothing() throws Exception {
+        String spaceId = uniqueSpaceId();
+        OffsetDateTime start = OffsetDateTime.now().plusDays(1);
+        String existingId = createBooking(spaceId, start.plusDays(14), start.plusDays(14).plusHours(1));
+
+        BatchBookingRequest request = new BatchBookingRequest();
+        request.setBookings(List.of(
+                bookingRequest(spaceId, start, start.plusHours(1)),
+                bookingRequest(spaceId, start.plusMinutes(30), start.plusMinutes(90)),
+                bookingRequest(spaceId, start.plusDays(14), start.plusDays(14).plusHours(1))));
+
+        mockMvc.perform(post("/api/v1/bookings:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("conflict_detected"))
+                .andExpect(jsonPath("$.conflictingBookings.length()").value(2))
+                .andExpect(jsonPath("$.conflictingBookings[0].requestIndex").value(1))
+                .andExpect(jsonPath("$.conflictingBookings[1].requestIndex").value(2))
+                .andExpect(jsonPath("$.conflictingBookings[1].bookingId").value(existingId));
+
+        mockMvc.perform(get("/api/v1/spaces/{spaceId}/availability", spaceId)
+                        .param("startTime", start.toString())
+                        .param("endTime", start.plusHours(2).toString()))
+                .andExpect(jsonPath("$.available").value(true));
+    }
+
+    @Test
+    void createBookings_EmptyBatch_ShouldReturn400() throws Exception {
+        mockMvc.perform(post("/api/v1/bookings:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookings\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getBookings_ShouldReturn200() throws Exception {
-        String spaceId = "space-123";
-        String startTime = OffsetDateTime.now().toString();
-        String endTime = OffsetDateTime.now().plusDays(1).toString();
+        String spaceId = uniqueSpaceId();
+        OffsetDateTime now = OffsetDateTime.now();
+        String bookingId = createBooking(spaceId, now.plusHours(1), now.plusHours(2));
 
         mockMvc.perform(get("/api/v1/bookings")
                         .param("spaceId", spaceId)
-                        .param("startTime", startTime)
-                        .param("endTime", endTime))
+                        .param("startTime", now.toString())
+                        .param("endTime", now.plusDays(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.bookings.length()").value(1))
+                .andExpect(jsonPath("$.bookings[0].bookingId").value(bookingId));
+    }
+
+    @Test
+    void getBookings_WithRecurringSeries_ShouldExpandOnlyOccurrencesInWindow() throws Exception {
+        String spaceId = uniqueSpaceId();
+        OffsetDateTime start = OffsetDateTime.parse("2031-01-06T09:00:00Z");
+        BookingRequest request = bookingRequest(spaceId, start, start.plusHours(1));
+        request.setRecurrence(weekly(52));
+        createBooking(request);
+
+        mockMvc.perform(get("/api/v1/bookings")
+                        .param("spaceId", spaceId)
+                        .param("startTime", start.plusWeeks(10).minusDays(1).toString())
+                        .param("endTime", start.plusWeeks(12).minusDays(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookings.length()").value(2))
+                .andExpect(jsonPath("$.bookings[0].startTime").value("2031-03-17T09:00:00Z"))
+                .andExpect(jsonPath("$.bookings[1].startTime").value("2031-03-24T09:00:00Z"))
+                .andExpect(jsonPath("$.bookings[0].recurrence.frequency").value("weekly"));
+    }
+
+    @Test
+    void getBookings_WithLimit_ShouldPageThroughBookingsAndOccurrencesInOrder() throws Exception {
+        String spaceId = uniqueSpaceId();
+        OffsetDateTime start = OffsetDateTime.parse("2031-01-06T09:00:00Z");
+        BookingRequest series = bookingRequest(spaceId, start, start.plusHours(1));
+        series.setRecurrence(weekly(3));
+        createBooking(series);
+        for (int week = 0; week < 3; week++) {
+            createBooking(spaceId, start.plusWeeks(week).plusHours(1), start.plusWeeks(week).plusHours(2));
+        }
+
+        String body = mockMvc.perform(get("/api/v1/bookings")
+                        .param("spaceId", spaceId)
+                        .param("startTime", start.toString())
+                        .param("endTime", start.plusWeeks(3).toString())
+                        .param("limit", "4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookings.length()").value(4))
+                .andExpect(jsonPath("$.bookings[0].startTime").value("2031-01-06T09:00:00Z"))
+                .andExpect(jsonPath("$.bookings[1].startTime").value("2031-01-06T10:00:00Z"))
+                .andExpect(jsonPath("$.bookings[3].startTime").value("2031-01-13T10:00:00Z"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/v1/bookings")
+                        .param("spaceId", spaceId)
+                        .param("startTime", start.toString())
+                        .param("endTime", start.plusWeeks(3).toString())
+                        .param("limit", "4")
+                        .param("cursor", objectMapper.readTree(body).get("nextCursor").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookings.length()").value(2))
+                .andExpect(jsonPath("$.bookings[0].startTime").value("2031-01-20T09:00:00Z"))
+                .andExpect(jsonPath("$.bookings[1].startTime").value("2031-01-20T10:00:00Z"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getBookings_WithInvalidCursor_ShouldReturn400() throws Exception {
+        OffsetDateTime now = OffsetDateTime.now();
+        mockMvc.perform(get("/api/v1/bookings")
+                        .param("spaceId", uniqueSpaceId())
+                        .param("startTime", now.toString())
+                        .param("endTime", now.plusDays(1).toString())
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+
+    @Test
+    void getBookings_AsNdjson_ShouldStreamOneBookingPerLine() throws Exception {
+        String spaceId = uniqueSpaceId();
+        OffsetDateTime start = OffsetDateTime.parse("2031-02-03T09:00:00Z");
+        BookingRequest series = bookingRequest(spaceId, start, start.plusHours(1));
+        series.setRecurrence(weekly(3));
+        String seriesId = createBooking(series);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/bookings")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("spaceId", spaceId)
+                        .param("startTime", start.toString())
+                        .param("endTime", start.plusWeeks(3).toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
-        // TODO: Verify bookings response structure when business logic is implemented
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        for (int week = 0; week < 3; week++) {
+            JsonNode booking = objectMapper.readTree(lines[week]);
+            assertEquals(seriesId, booking.get("bookingId").asText());
+            assertEquals(start.plusWeeks(week).toInstant(),
+                    OffsetDateTime.parse(booking.get("startTime").asText()).toInstant());
+        }
+    }
+
+    @Test
+    void createBooking_OverlappingRecurringOccurrence_ShouldReturn409() throws Exception {
+        String spaceId = uniqueSpaceId();
+        OffsetDateTime start = OffsetDateTime.parse("2031-01-06T09:00:00Z");
+        BookingRequest series = bookingRequest(spaceId, start, start.plusHours(1));
+        series.setRecurrence(weekly(52));
+        String seriesId = createBooking(series);
+
+        BookingRequest request = bookingRequest(spaceId, start.plusWeeks(30).plusMinutes(30),
+                start.plusWeeks(30).plusMinutes(90));
+        mockMvc.perform(post("/api/v1/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.conflictingBookings[0].bookingId").value(seriesId))
+                .andExpect(jsonPath("$.conflictingBookings[0].startTime").value("2031-08-04T09:00:00Z"));
+
+        BookingRequest between = bookingRequest(spaceId, start.plusWeeks(30).plusDays(1),
+                start.plusWeeks(30).plusDays(1).plusHours(1));
+        createBooking(between);
+    }
+
+    @Test
+    void createBooking_RecurringSeriesOverlappingAnotherSeries_ShouldReturn409() throws Exception {
+        String spaceId = uniqueSpaceId();
+        OffsetDateTime start = OffsetDateTime.parse("2031-01-06T09:00:00Z");
+        BookingRequest weekly = bookingRequest(spaceId, start, start.plusHours(1));
+        weekly.setRecurrence(weekly(10));
+        createBooking(weekly);
+
+        // Daily series starting mid-week first collides with the weekly one on the next Monday.
+        BookingRequest daily = bookingRequest(spaceId, start.plusDays(3).plusMinutes(30),
+                start.plusDays(3).plusMinutes(90));
+        RecurrenceRule rule = new RecurrenceRule();
+        rule.setFrequency("daily");
+        rule.setCount(5);
+        daily.setRecurrence(rule);
+
+        mockMvc.perform(post("/api/v1/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(daily)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.conflictingBookings.length()").value(1))
+                .andExpect(jsonPath("$.conflictingBookings[0].startTime").value("2031-01-13T09:00:00Z"));
+    }
+
+    @Test
+    void createBooking_RecurrenceWithoutEnd_ShouldReturn400() throws Exception {
+        OffsetDateTime start = OffsetDateTime.now().plusDays(1);
+        BookingRequest request = bookingRequest(uniqueSpaceId(), start, start.plusHours(1));
+        RecurrenceRule rule = new RecurrenceRule();
+        rule.setFrequency("weekly");
+        request.setRecurrence(rule);
+
+        mockMvc.perform(post("/api/v1/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("recurrence requires either until or count"));
     }
 
     @Test
@@ -75,7 +353,8 @@ class BookingControllerTest {
 
     @Test
     void updateBooking_ShouldReturn200() throws Exception {
-        String bookingId = "booking-123";
+        OffsetDateTime start = OffsetDateTime.now().plusHours(1);
+        String bookingId = createBooking(uniqueSpaceId(), start, start.plusHours(1));
         BookingUpdateRequest request = new BookingUpdateRequest();
         request.setPurpose("Updated purpose");
 
@@ -83,9 +362,75 @@ class BookingControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
-        // TODO: Verify booking update response when business logic is implemented
-        // TODO: Test conflict detection when modification logic is added
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.bookingId").value(bookingId))
+                .andExpect(jsonPath("$.purpose").value("Updated purpose"))
+                .andExpect(jsonPath("$.updatedAt").isNotEmpty());
+    }
+
+    @Test
+    void updateBooking_WithMatchingIfMatch_ShouldBumpVersionAndETag() throws Exception {
+        OffsetDateTime start = OffsetDateTime.now().plusHours(1);
+        BookingRequest create = bookingRequest(uniqueSpaceId(), start, start.plusHours(1));
+        String bookingId = objectMapper.readTree(mockMvc.perform(post("/api/v1/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(create)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.version").value(1))
+                .andReturn().getResponse().getContentAsString()).get("bookingId").asText();
+        BookingUpdateRequest request = new BookingUpdateRequest();
+        request.setPurpose("Planning");
+
+        mockMvc.perform(patch("/api/v1/bookings/{bookingId}", bookingId)
+                        .header("If-Match", "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""))
+                .andExpect(jsonPath("$.version").value(2));
+    }
+
+    @Test
+    void updateBooking_WithStaleVersion_ShouldReturn422() throws Exception {
+        OffsetDateTime start = OffsetDateTime.now().plusHours(1);
+        String bookingId = createBooking(uniqueSpaceId(), start, start.plusHours(1));
+        BookingUpdateRequest first = new BookingUpdateRequest();
+        first.setPurpose("Owner edit");
+        first.setVersion(1L);
+        mockMvc.perform(patch("/api/v1/bookings/{bookingId}", bookingId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(first)))
+                .andExpect(status().isOk());
+
+        BookingUpdateRequest stale = new BookingUpdateRequest();
+        stale.setPurpose("Admin edit");
+        mockMvc.perform(patch("/api/v1/bookings/{bookingId}", bookingId)
+                        .header("If-Match", "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(stale)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error").value("invalid_booking_state"))
+                .andExpect(jsonPath("$.message").value(
+                        "Booking " + bookingId + " is at version 2, not the expected version 1"));
+    }
+
+    @Test
+    void updateBooking_IntoOverlappingSlot_ShouldReturn409() throws Exception {
+        String spaceId = uniqueSpaceId();
+        OffsetDateTime start = OffsetDateTime.now().plusHours(1);
+        String blockingId = createBooking(spaceId, start, start.plusHours(1));
+        String movedId = createBooking(spaceId, start.plusHours(2), start.plusHours(3));
+
+        BookingUpdateRequest request = new BookingUpdateRequest();
+        request.setStartTime(start.plusMinutes(30));
+        request.setEndTime(start.plusMinutes(90));
+
+        mockMvc.perform(patch("/api/v1/bookings/{bookingId}", movedId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.conflictingBookings[0].bookingId").value(blockingId));
     }
 
     @Test
@@ -96,13 +441,14 @@ class BookingControllerTest {
         mockMvc.perform(patch("/api/v1/bookings/{bookingId}", "non-existent")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
-                .andExpect(status().isOk()); // Currently returns 200 with stubbed implementation
-        // TODO: Return 404 when booking not found logic is implemented
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("booking_not_found"));
     }
 
     @Test
     void cancelBooking_ShouldReturn200() throws Exception {
-        String bookingId = "booking-123";
+        OffsetDateTime start = OffsetDateTime.now().plusHours(1);
+        String bookingId = createBooking(uniqueSpaceId(), start, start.plusHours(1));
 
         mockMvc.perform(delete("/api/v1/bookings/{bookingId}", bookingId))
                 .andExpect(status().isOk())
@@ -114,13 +460,209 @@ class BookingControllerTest {
     @Test
     void cancelBooking_WithInvalidBookingId_ShouldReturn404() throws Exception {
         mockMvc.perform(delete("/api/v1/bookings/{bookingId}", "non-existent"))
-                .andExpect(status().isOk()); // Currently returns 200 with stubbed implementation
-        // TODO: Return 404 when booking not found logic is implemented
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("booking_not_found"));
+    }
+
+    @Test
+    void cancelBooking_AlreadyCanceled_ShouldReturn422() throws Exception {
+        OffsetDateTime start = OffsetDateTime.now().plusHours(1);
+        String bookingId = createBooking(uniqueSpaceId(), start, start.plusHours(1));
+        mockMvc.perform(delete("/api/v1/bookings/{bookingId}", bookingId))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/v1/bookings/{bookingId}", bookingId))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error").value("invalid_booking_state"));
+    }
+
+    @Test
+    void checkIn_ShouldStampBookingOnce() throws Exception {
+        OffsetDateTime start = OffsetDateTime.now().minusMinutes(5);
+        String bookingId = createBooking(uniqueSpaceId(), start, start.plusHours(1));
+
+        String checkedInAt = objectMapper.readTree(mockMvc.perform(post("/api/v1/bookings/{bookingId}/check-in", bookingId))
+                        .andExpect(status().isOk())
+                        .andExpect(header().string("ETag", "\"2\""))
+                        .andExpect(jsonPath("$.checkedInAt").isNotEmpty())
+                        .andReturn().getResponse().getContentAsString())
+                .get("checkedInAt").asText();
+
+        mockMvc.perform(post("/api/v1/bookings/{bookingId}/check-in", bookingId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(2))
+                .andExpect(jsonPath("$.checkedInAt").value(checkedInAt));
+    }
+
+    @Test
+    void checkIn_AfterBookingEnded_ShouldReturn422() throws Exception {
+        OffsetDateTime start = OffsetDateTime.now().minusHours(2);
+        String bookingId = createBooking(uniqueSpaceId(), start, start.plusHours(1));
+
+        mockMvc.perform(post("/api/v1/bookings/{bookingId}/check-in", bookingId))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error").value("invalid_booking_state"));
+    }
+
+    @Test
+    void createBooking_RetriedWithIdempotencyKey_ShouldReplayOriginalResponse() throws Exception {
+        String spaceId = uniqueSpaceId();
+        OffsetDateTime start = OffsetDateTime.now().plusDays(3);
+        String body = objectMapper.writeValueAsString(bookingRequest(spaceId, start, start.plusHours(1)));
+        String key = UUID.randomUUID().toString();
+
+        String first = mockMvc.perform(post("/api/v1/bookings")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn().getResponse().getContentAsString();
+        String bookingId = objectMapper.readTree(first).get("bookingId").asText();
+
+        mockMvc.perform(post("/api/v1/bookings")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.bookingId").value(bookingId));
+
+        mockMvc.perform(get("/api/v1/bookings")
+                        .param("spaceId", spaceId)
+                        .param("startTime", start.toString())
+                        .param("endTime", start.plusHours(1).toString()))
+                .andExpect(jsonPath("$.bookings.length()").value(1));
+    }
+
+    @Test
+    void createBooking_IdempotencyKeyReusedForDifferentRequest_ShouldReturn400() throws Exception {
+        OffsetDateTime start = OffsetDateTime.now().plusDays(3);
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(post("/api/v1/bookings")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookingRequest(uniqueSpaceId(), start, start.plusHours(1)))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/v1/bookings")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookingRequest(uniqueSpaceId(), start, start.plusHours(1)))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Idempotency-Key was already used for a different request"));
+    }
+
+    @Test
+    void cancelBooking_RetriedWithIdempotencyKey_ShouldReturn200Again() throws Exception {
+        OffsetDateTime start = OffsetDateTime.now().plusDays(3);
+        String bookingId = createBooking(uniqueSpaceId(), start, start.plusHours(1));
+        String key = UUID.randomUUID().toString();
+
+        mockMvc.perform(delete("/api/v1/bookings/{bookingId}", bookingId).header("Idempotency-Key", key))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/v1/bookings/{bookingId}", bookingId).header("Idempotency-Key", key))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("canceled"));
+    }
+
+    @Test
+    void getBookingChanges_ShouldListCreateUpdateAndCancelInOrder() throws Exception {
+        OffsetDateTime start = OffsetDateTime.now().plusDays(2);
+        String bookingId = createBooking(uniqueSpaceId(), start, start.plusHours(1));
+        BookingUpdateRequest update = new BookingUpdateRequest();
+        update.setPurpose("Retro");
+        mockMvc.perform(patch("/api/v1/bookings/{bookingId}", bookingId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/v1/bookings/{bookingId}", bookingId))
+                .andExpect(status().isOk());
+
+        List<String> types = new ArrayList<>();
+        long offset = 0;
+        while (true) {
+            String body = mockMvc.perform(get("/api/v1/bookings/changes")
+                            .param("fromOffset", String.valueOf(offset))
+                            .param("limit", "50"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode batch = objectMapper.readTree(body);
+            for (JsonNode change : batch.get("changes")) {
+                if (bookingId.equals(change.get("booking").get("bookingId").asText())) {
+                    types.add(change.get("type").asText());
+                }
+            }
+            if (batch.get("changes").isEmpty()) {
+                break;
+            }
+            offset = batch.get("nextOffset").asLong();
+        }
+
+        assertEquals(List.of("created", "updated", "canceled"), types);
+    }
+
+    @Test
+    void getBookingChanges_BeyondEnd_ShouldReturn410() throws Exception {
+        mockMvc.perform(get("/api/v1/bookings/changes")
+                        .param("fromOffset", String.valueOf(Long.MAX_VALUE)))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.error").value("offset_out_of_range"));
+    }
+
+    @Test
+    void cancelBooking_WithWaitlistedRequest_ShouldPromoteOldestCompatibleEntry() throws Exception {
+        String spaceId = uniqueSpaceId();
+        OffsetDateTime start = OffsetDateTime.now().plusDays(4);
+        String bookingId = createBooking(spaceId, start, start.plusHours(2));
+
+        String tooLong = joinWaitlist(bookingRequest(spaceId, start, start.plusHours(3)), "waiting");
+        String first = joinWaitlist(bookingRequest(spaceId, start, start.plusHours(1)), "waiting");
+        String second = joinWaitlist(bookingRequest(spaceId, start.plusMinutes(30), start.plusHours(1)), "waiting");
+        createBooking(spaceId, start.plusHours(2), start.plusHours(3));
+
+        mockMvc.perform(delete("/api/v1/bookings/{bookingId}", bookingId))
+                .andExpect(status().isOk());
+
+        String promoted = mockMvc.perform(get("/api/v1/waitlist/{entryId}", first))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("promoted"))
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(get("/api/v1/waitlist/{entryId}", second))
+                .andExpect(jsonPath("$.status").value("waiting"));
+        mockMvc.perform(get("/api/v1/waitlist/{entryId}", tooLong))
+                .andExpect(jsonPath("$.status").value("waiting"));
+        mockMvc.perform(get("/api/v1/bookings")
+                        .param("spaceId", spaceId)
+                        .param("startTime", start.toString())
+                        .param("endTime", start.plusHours(1).toString()))
+                .andExpect(jsonPath("$.bookings.length()").value(1))
+                .andExpect(jsonPath("$.bookings[0].bookingId")
+                        .value(objectMapper.readTree(promoted).get("bookingId").asText()));
+
+        mockMvc.perform(delete("/api/v1/waitlist/{entryId}", second))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("withdrawn"));
+        mockMvc.perform(delete("/api/v1/waitlist/{entryId}", second))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void joinWaitlist_ForFreeSlot_ShouldBookImmediately() throws Exception {
+        OffsetDateTime start = OffsetDateTime.now().plusDays(4);
+        joinWaitlist(bookingRequest(uniqueSpaceId(), start, start.plusHours(1)), "promoted");
+    }
+
+    @Test
+    void getWaitlistEntry_WithUnknownId_ShouldReturn404() throws Exception {
+        mockMvc.perform(get("/api/v1/waitlist/{entryId}", "missing"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("waitlist_entry_not_found"));
     }
 
     @Test
     void checkAvailability_ShouldReturn200() throws Exception {
-        String spaceId = "space-123";
+        String spaceId = uniqueSpaceId();
         String startTime = OffsetDateTime.now().toString();
         String endTime = OffsetDateTime.now().plusHours(2).toString();
 
@@ -128,9 +670,60 @@ class BookingControllerTest {
                         .param("startTime", startTime)
                         .param("endTime", endTime))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
-        // TODO: Verify availability response structure when business logic is implemented
-        // TODO: Test conflict detection when availability logic is added
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.available").value(true))
+                .andExpect(jsonPath("$.spaceId").value(spaceId))
+                .andExpect(jsonPath("$.conflictingBookings").isEmpty());
+    }
+
+    @Test
+    void checkAvailability_WithOverlappingBooking_ShouldReturnConflicts() throws Exception {
+        String spaceId = uniqueSpaceId();
+        OffsetDateTime start = OffsetDateTime.now().plusHours(1);
+        String bookingId = createBooking(spaceId, start, start.plusHours(1));
+
+        mockMvc.perform(get("/api/v1/spaces/{spaceId}/availability", spaceId)
+                        .param("startTime", start.minusMinutes(30).toString())
+                        .param("endTime", start.plusMinutes(30).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(false))
+                .andExpect(jsonPath("$.conflictingBookings[0].bookingId").value(bookingId));
+    }
+
+    @Test
+    void createBooking_InSharedSpace_ShouldAdmitOverlapsUpToCapacity() throws Exception {
+        OffsetDateTime start = OffsetDateTime.parse("2032-06-01T09:00:00Z");
+        BookingRequest team = bookingRequest("zone-shared", start, start.plusHours(1));
+        team.setAttendeeCount(3);
+        String teamId = createBooking(team);
+        createBooking("zone-shared", start.plusMinutes(30), start.plusMinutes(90));
+
+        BookingRequest overflow = bookingRequest("zone-shared", start.plusMinutes(45), start.plusMinutes(75));
+        mockMvc.perform(post("/api/v1/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(overflow)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("conflict_detected"))
+                .andExpect(jsonPath("$.conflictingBookings.length()").value(2));
+
+        mockMvc.perform(get("/api/v1/spaces/{spaceId}/availability", "zone-shared")
+                        .param("startTime", start.plusMinutes(30).toString())
+                        .param("endTime", start.plusMinutes(45).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(false))
+                .andExpect(jsonPath("$.capacity").value(4))
+                .andExpect(jsonPath("$.remainingCapacity").value(0));
+
+        mockMvc.perform(delete("/api/v1/bookings/{bookingId}", teamId))
+                .andExpect(status().isOk());
+        createBooking(overflow);
+        mockMvc.perform(get("/api/v1/spaces/{spaceId}/availability", "zone-shared")
+                        .param("startTime", start.toString())
+                        .param("endTime", start.plusHours(2).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(true))
+                .andExpect(jsonPath("$.remainingCapacity").value(2))
+                .andExpect(jsonPath("$.conflictingBookings").isEmpty());
     }
 
     @Test
@@ -151,8 +744,91 @@ class BookingControllerTest {
         mockMvc.perform(get("/api/v1/spaces/{spaceId}/availability", spaceId)
                         .param("startTime", startTime)
                         .param("endTime", endTime))
-                .andExpect(status().isOk()); // Currently returns 200 with stubbed implementation
-        // TODO: Return 400 when time period validation logic is implemented
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("invalid_request"));
+    }
+
+    @Test
+    void searchAvailability_ShouldReturnOnlyFreeSpacesRanked() throws Exception {
+        OffsetDateTime start = OffsetDateTime.parse("2031-03-04T14:00:00Z");
+        String busy = uniqueSpaceId();
+        String edgeOnly = uniqueSpaceId();
+        String tight = uniqueSpaceId();
+        String open = uniqueSpaceId();
+        createBooking(busy, start.plusMinutes(15), start.plusMinutes(30));
+        // Shares the 13:45 slot with the window but ends before it starts.
+        createBooking(edgeOnly, start.minusMinutes(10), start.minusMinutes(5));
+        createBooking(tight, start.minusHours(1), start);
+
+        mockMvc.perform(get("/api/v1/spaces/availability")
+                        .param("spaceIds", String.join(",", busy, edgeOnly, tight, open))
+                        .param("startTime", start.plusMinutes(5).toString())
+                        .param("endTime", start.plusHours(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.candidates.length()").value(3))
+                .andExpect(jsonPath("$.candidates[0].spaceId").value(open))
+                .andExpect(jsonPath("$.candidates[0].available").value(true))
+                .andExpect(jsonPath("$.candidates[?(@.spaceId == '" + busy + "')]").isEmpty())
+                .andExpect(jsonPath("$.candidates[?(@.spaceId == '" + edgeOnly + "')].available").value(true));
+    }
+
+    @Test
+    void searchAvailability_IncludeUnavailable_ShouldReturnConflicts() throws Exception {
+        OffsetDateTime start = OffsetDateTime.parse("2031-03-05T14:00:00Z");
+        String busy = uniqueSpaceId();
+        String bookingId = createBooking(busy, start, start.plusMinutes(30));
+
+        mockMvc.perform(get("/api/v1/spaces/availability")
+                        .param("spaceIds", busy)
+                        .param("startTime", start.toString())
+                        .param("endTime", start.plusHours(1).toString())
+                        .param("includeUnavailable", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.candidates[0].available").value(false))
+                .andExpect(jsonPath("$.candidates[0].conflictingBookings[0].bookingId").value(bookingId));
+    }
+
+    private String createBooking(String spaceId, OffsetDateTime start, OffsetDateTime end) throws Exception {
+        return createBooking(bookingRequest(spaceId, start, end));
+    }
+
+    private String createBooking(BookingRequest request) throws Exception {
+        String body = mockMvc.perform(post("/api/v1/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode created = objectMapper.readTree(body);
+        return created.get("bookingId").asText();
+    }
+
+    private String joinWaitlist(BookingRequest request, String expectedStatus) throws Exception {
+        String body = mockMvc.perform(post("/api/v1/waitlist")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value(expectedStatus))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("entryId").asText();
+    }
+
+    private static BookingRequest bookingRequest(String spaceId, OffsetDateTime start, OffsetDateTime end) {
+        BookingRequest request = new BookingRequest();
+        request.setSpaceId(spaceId);
+        request.setStartTime(start);
+        request.setEndTime(end);
+        return request;
+    }
+
+    private static RecurrenceRule weekly(int count) {
+        RecurrenceRule rule = new RecurrenceRule();
+        rule.setFrequency("weekly");
+        rule.setCount(count);
+        return rule;
+    }
+
+    private static String uniqueSpaceId() {
+        return "space-" + UUID.randomUUID();
     }
 }
 
@@ -0,0 +1,149 @@
+package com.spaceflow.booking.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    @Test
+    void execute_ConcurrentRetries_ShouldRunActionOnce() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(100, Duration.ofMinutes(1), System::nanoTime);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<String>> original = executor.submit(() -> cache.execute("key", "op", () -> {
+                runs.incrementAndGet();
+                await(release);
+                return ResponseEntity.ok("done");
+            }));
+            while (runs.get() == 0) {
+                Thread.onSpinWait();
+            }
+            Future<ResponseEntity<String>> retry = executor.submit(() -> cache.execute("key", "op", () -> {
+                runs.incrementAndGet();
+                return ResponseEntity.ok("again");
+            }));
+            release.countDown();
+
+            assertEquals("done", original.get(5, TimeUnit.SECONDS).getBody());
+            ResponseEntity<String> replayed = retry.get(5, TimeUnit.SECONDS);
+            assertEquals("done", replayed.getBody());
+            assertEquals("true", replayed.getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER));
+            assertEquals(1, runs.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_ErrorInOriginal_ShouldReleaseWaitingRetries() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(100, Duration.ofMinutes(1), System::nanoTime);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<String>> original = executor.submit(() -> cache.execute("key", "op", () -> {
+                runs.incrementAndGet();
+                await(release);
+                throw new StackOverflowError();
+            }));
+            while (runs.get() == 0) {
+                Thread.onSpinWait();
+            }
+            AtomicReference<Thread> retrying = new AtomicReference<>();
+            Future<ResponseEntity<String>> retry = executor.submit(() -> {
+                retrying.set(Thread.currentThread());
+                return cache.execute("key", "op", () -> ResponseEntity.ok("again"));
+            });
+            // Let the retry block on the original before the original fails.
+            while (retrying.get() == null || retrying.get().getState() != Thread.State.WAITING) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            ExecutionException failed = assertThrows(ExecutionException.class, () -> original.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, failed.getCause());
+            ExecutionException waited = assertThrows(ExecutionException.class, () -> retry.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, waited.getCause());
+            assertEquals("again", cache.execute("key", "op", () -> ResponseEntity.ok("again")).getBody());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_FillingTheCacheWhileARequestRuns_ShouldNotEvictIt() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(2, Duration.ofMinutes(1), System::nanoTime);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<String>> original = executor.submit(() -> cache.execute("pending", "op", () -> {
+                runs.incrementAndGet();
+                await(release);
+                return ResponseEntity.ok("done");
+            }));
+            while (runs.get() == 0) {
+                Thread.onSpinWait();
+            }
+            for (int i = 0; i < 5; i++) {
+                cache.execute("other-" + i, "op", () -> ResponseEntity.ok("other"));
+            }
+            Future<ResponseEntity<String>> retry = executor.submit(() -> cache.execute("pending", "op", () -> {
+                runs.incrementAndGet();
+                return ResponseEntity.ok("again");
+            }));
+            release.countDown();
+
+            assertEquals("done", original.get(5, TimeUnit.SECONDS).getBody());
+            assertEquals("done", retry.get(5, TimeUnit.SECONDS).getBody());
+            assertEquals(1, runs.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_ShouldForgetFailuresExpiredAndEvictedKeys() {
+        AtomicLong now = new AtomicLong();
+        IdempotencyCache cache = new IdempotencyCache(2, Duration.ofNanos(100), now::get);
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> cache.execute("failed", "op", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        cache.execute("failed", "op", () -> ResponseEntity.ok(runs.incrementAndGet()));
+        assertEquals(1, runs.get());
+
+        now.set(100);
+        cache.execute("failed", "op", () -> ResponseEntity.ok(runs.incrementAndGet()));
+        assertEquals(2, runs.get());
+
+        cache.execute("a", "op", () -> ResponseEntity.ok(runs.incrementAndGet()));
+        cache.execute("b", "op", () -> ResponseEntity.ok(runs.incrementAndGet()));
+        cache.execute("failed", "op", () -> ResponseEntity.ok(runs.incrementAndGet()));
+        assertEquals(5, runs.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
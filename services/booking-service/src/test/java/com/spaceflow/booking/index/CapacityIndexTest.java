@@ -0,0 +1,95 @@
+package com.spaceflow.booking.index;
+
+import com.spaceflow.booking.dto.Booking;
+import com.spaceflow.booking.dto.RecurrenceRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapacityIndexTest {
+
+    private static final OffsetDateTime START = OffsetDateTime.parse("2031-01-06T09:00:00Z");
+    private static final long MINUTE = 60 * 1000L;
+    private static final long HOUR = 60 * MINUTE;
+
+    @Test
+    void peakLoad_ShouldMatchBruteForceExpansionOfSeriesAndSingles() {
+        CapacityIndex index = new CapacityIndex();
+        List<Booking> bookings = new ArrayList<>();
+        bookings.add(series("daily-1", 0, 60, "daily", 1, 30, 3));
+        bookings.add(series("daily-2", 30, 90, "daily", 2, 15, 2));
+        bookings.add(series("weekly", 45, 30, "weekly", 1, 8, 5));
+        bookings.add(single("single-1", 15, 60, 4));
+        bookings.add(single("single-2", 24 * 60 + 50, 40, 1));
+        bookings.add(single("single-3", 7 * 24 * 60 + 60, 120, 6));
+        bookings.forEach(index::add);
+
+        long first = START.toInstant().toEpochMilli();
+        for (long offset = -HOUR; offset < 40 * 24 * HOUR; offset += 35 * MINUTE) {
+            long start = first + offset;
+            long end = start + 50 * MINUTE;
+            assertEquals(bruteForcePeak(bookings, start, end), index.peakLoad("space-1", start, end),
+                    "window starting at offset " + offset);
+        }
+    }
+
+    @Test
+    void remove_ShouldDropSeriesLoadWithoutExpandingIt() {
+        CapacityIndex index = new CapacityIndex();
+        Booking longSeries = series("long", 0, 60, "daily", 1, 100_000, 2);
+        Booking meeting = single("single", 0, 60, 3);
+        index.add(longSeries);
+        index.add(meeting);
+        long occurrence = START.plusDays(20_000).toInstant().toEpochMilli();
+
+        assertEquals(2, index.peakLoad("space-1", occurrence, occurrence + HOUR));
+        assertEquals(5, index.peakLoad(meeting));
+        index.remove(longSeries);
+        assertEquals(0, index.peakLoad("space-1", occurrence, occurrence + HOUR));
+        assertEquals(3, index.peakLoad(meeting));
+        index.remove(meeting);
+        assertEquals(0, index.peakLoad(meeting));
+    }
+
+    private static int bruteForcePeak(List<Booking> bookings, long start, long end) {
+        int peak = 0;
+        for (long instant = start; instant < end; instant += MINUTE) {
+            int load = 0;
+            for (Booking booking : bookings) {
+                SeriesSchedule schedule = SeriesSchedule.of(booking);
+                for (long k = 0; k < schedule.count(); k++) {
+                    if (schedule.startOf(k) <= instant && instant < schedule.endOf(k)) {
+                        load += CapacityIndex.weightOf(booking);
+                    }
+                }
+            }
+            peak = Math.max(peak, load);
+        }
+        return peak;
+    }
+
+    private static Booking single(String bookingId, int startMinutes, int durationMinutes, int attendees) {
+        Booking booking = new Booking();
+        booking.setBookingId(bookingId);
+        booking.setSpaceId("space-1");
+        booking.setStartTime(START.plusMinutes(startMinutes));
+        booking.setEndTime(START.plusMinutes(startMinutes + durationMinutes));
+        booking.setAttendeeCount(attendees);
+        return booking;
+    }
+
+    private static Booking series(String bookingId, int startMinutes, int durationMinutes, String frequency,
+                                  int interval, int count, int attendees) {
+        RecurrenceRule rule = new RecurrenceRule();
+        rule.setFrequency(frequency);
+        rule.setInterval(interval);
+        rule.setCount(count);
+        Booking booking = single(bookingId, startMinutes, durationMinutes, attendees);
+        booking.setRecurrence(rule);
+        return booking;
+    }
+}
@@ -0,0 +1,84 @@
+package com.spaceflow.booking.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FreeBusyIndexTest {
+
+    private static final long SLOT = FreeBusyIndex.SLOT_MILLIS;
+    private static final long DAY = SLOT * FreeBusyIndex.SLOTS_PER_DAY;
+
+    @Test
+    void anyBusy_ShouldHandleWordAndDayBoundaries() {
+        FreeBusyIndex index = new FreeBusyIndex(7);
+        long day = 20_000 * DAY;
+        // Slots 63 and 64 straddle the two words of a day; slot 95 is the last slot of the day.
+        index.add("space-1", day + 63 * SLOT, day + 65 * SLOT);
+        index.add("space-1", day + 95 * SLOT, day + DAY + SLOT);
+
+        long base = FreeBusyIndex.slotOf(day);
+        assertFalse(index.anyBusy("space-1", base, base + 63));
+        assertTrue(index.anyBusy("space-1", base + 63, base + 64));
+        assertTrue(index.anyBusy("space-1", base + 64, base + 65));
+        assertFalse(index.anyBusy("space-1", base + 65, base + 95));
+        assertTrue(index.anyBusy("space-1", base + 90, base + 100));
+        assertTrue(index.anyBusy("space-1", base + 96, base + 97));
+        assertFalse(index.anyBusy("space-1", base + 97, base + 200));
+    }
+
+    @Test
+    void remove_ShouldKeepSlotBusyWhileAnotherBookingSharesIt() {
+        FreeBusyIndex index = new FreeBusyIndex(7);
+        index.add("space-1", 0, SLOT / 3);
+        index.add("space-1", SLOT / 2, SLOT);
+
+        index.remove("space-1", 0, SLOT / 3);
+        assertTrue(index.anyBusy("space-1", 0, 1));
+
+        index.remove("space-1", SLOT / 2, SLOT);
+        assertFalse(index.anyBusy("space-1", 0, 1));
+    }
+
+    @Test
+    void screen_ShouldMarkBusyAndTakenSpacesAcrossDays() {
+        FreeBusyIndex index = new FreeBusyIndex(7);
+        long day = 20_000 * DAY;
+        // Window: 23:50 on day 0 to 00:40 on day 1, fully covering slots 96..97 (relative to day).
+        long base = FreeBusyIndex.slotOf(day);
+        index.add("edge", day + 95 * SLOT, day + 95 * SLOT + SLOT / 3);
+        index.add("inside", day + DAY, day + DAY + SLOT);
+        index.add("free", day + 90 * SLOT, day + 91 * SLOT);
+        index.add("long", day - 30 * DAY, day + 30 * DAY);
+
+        FreeBusyIndex.Screen screen = index.screen(List.of("edge", "inside", "free", "long", "unknown"),
+                base + 95, base + 99, base + 96, base + 98);
+
+        assertEquals("{0, 1, 3}", screen.busy().toString());
+        assertEquals("{1}", screen.taken().toString());
+        assertFalse(index.anyBusy("long", base, base + 1));
+        index.remove("long", day - 30 * DAY, day + 30 * DAY);
+        assertFalse(index.screen(List.of("long"), base + 95, base + 99, base + 96, base + 98).busy().get(0));
+    }
+
+    @Test
+    void remove_ShouldKeepOverlapsOfSharedSpacesBusy() {
+        FreeBusyIndex index = new FreeBusyIndex(7);
+        index.add("space-1", 0, 4 * SLOT);
+        index.add("space-1", SLOT, 3 * SLOT);
+        index.add("space-1", 2 * SLOT, 6 * SLOT);
+
+        index.remove("space-1", 0, 4 * SLOT);
+        assertFalse(index.anyBusy("space-1", 0, 1));
+        assertTrue(index.anyBusy("space-1", 1, 2));
+        assertTrue(index.anyBusy("space-1", 5, 6));
+
+        index.remove("space-1", 2 * SLOT, 6 * SLOT);
+        assertTrue(index.anyBusy("space-1", 2, 3));
+        assertFalse(index.anyBusy("space-1", 3, 6));
+        index.remove("space-1", SLOT, 3 * SLOT);
+        assertFalse(index.anyBusy("space-1", 0, 10));
+    }
+}
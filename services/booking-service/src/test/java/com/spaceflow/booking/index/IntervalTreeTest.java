@@ -0,0 +1,107 @@
+package com.spaceflow.booking.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest {
+
+    @Test
+    void findOverlapping_ShouldTreatIntervalsAsHalfOpen() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(10, 20, "a", "a");
+        tree.insert(20, 30, "b", "b");
+
+        List<String> result = new ArrayList<>();
+        tree.findOverlapping(15, 20, result);
+
+        assertEquals(List.of("a"), result);
+        assertFalse(tree.hasOverlap(30, 40));
+        assertTrue(tree.hasOverlap(29, 40));
+    }
+
+    @Test
+    void remove_ShouldOnlyRemoveMatchingInterval() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(10, 20, "a", "a");
+        tree.insert(10, 25, "b", "b");
+
+        assertTrue(tree.remove(10, "a"));
+        assertFalse(tree.remove(10, "a"));
+        assertEquals(1, tree.size());
+
+        List<String> result = new ArrayList<>();
+        tree.findOverlapping(0, 100, result);
+        assertEquals(List.of("b"), result);
+    }
+
+    @Test
+    void findOverlapping_ShouldMatchLinearScanForRandomIntervals() {
+        Random random = new Random(42);
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        long[][] intervals = new long[500][];
+        boolean[] removed = new boolean[intervals.length];
+
+        for (int i = 0; i < intervals.length; i++) {
+            long start = random.nextInt(10_000);
+            long end = start + 1 + random.nextInt(300);
+            intervals[i] = new long[]{start, end};
+            tree.insert(start, end, "id-" + i, i);
+        }
+        for (int i = 0; i < intervals.length; i += 3) {
+            assertTrue(tree.remove(intervals[i][0], "id-" + i));
+            removed[i] = true;
+        }
+
+        for (int q = 0; q < 200; q++) {
+            long start = random.nextInt(10_000);
+            long end = start + 1 + random.nextInt(500);
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < intervals.length; i++) {
+                if (!removed[i] && intervals[i][0] < end && intervals[i][1] > start) {
+                    expected.add(i);
+                }
+            }
+            List<Integer> actual = new ArrayList<>();
+            tree.findOverlapping(start, end, actual);
+
+            assertEquals(expected.size(), actual.size());
+            assertTrue(actual.containsAll(expected));
+            assertEquals(!expected.isEmpty(), tree.hasOverlap(start, end));
+        }
+    }
+
+    @Test
+    void findOverlappingAfter_ShouldPageThroughAllOverlapsInKeyOrder() {
+        Random random = new Random(7);
+        IntervalTree<String> tree = new IntervalTree<>();
+        for (int i = 0; i < 300; i++) {
+            long start = random.nextInt(1_000);
+            tree.insert(start, start + 1 + random.nextInt(100), String.format("id-%03d", i), start + "/" + i);
+        }
+        List<String> all = new ArrayList<>();
+        tree.findOverlapping(200, 600, all);
+
+        List<String> paged = new ArrayList<>();
+        long afterStart = 0;
+        String afterId = null;
+        while (true) {
+            List<String> page = new ArrayList<>();
+            tree.findOverlappingAfter(200, 600, afterStart, afterId, 7, page);
+            paged.addAll(page);
+            if (page.size() < 7) {
+                break;
+            }
+            String last = page.get(page.size() - 1);
+            afterStart = Long.parseLong(last.substring(0, last.indexOf('/')));
+            afterId = String.format("id-%03d", Integer.parseInt(last.substring(last.indexOf('/') + 1)));
+        }
+
+        assertEquals(all, paged);
+    }
+}
@@ -0,0 +1,61 @@
+package com.spaceflow.booking.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadTreeTest {
+
+    @Test
+    void max_ShouldTreatIntervalsAsHalfOpen() {
+        LoadTree tree = new LoadTree();
+        tree.add(10, 20, 2);
+        tree.add(20, 30, 3);
+
+        assertEquals(2, tree.max(15, 20));
+        assertEquals(3, tree.max(15, 21));
+        assertEquals(0, tree.max(30, 40));
+    }
+
+    @Test
+    void add_WithNegatedLoad_ShouldLeaveTreeEmpty() {
+        LoadTree tree = new LoadTree();
+        tree.add(1_000, 5_000, 4);
+        tree.add(2_000, 3_000, 1);
+
+        tree.add(2_000, 3_000, -1);
+        tree.add(1_000, 5_000, -4);
+
+        assertTrue(tree.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> tree.add(0, LoadTree.MAX_TIME + 1, 1));
+    }
+
+    @Test
+    void max_ShouldMatchLinearScanForRandomLoads() {
+        Random random = new Random(42);
+        LoadTree tree = new LoadTree();
+        int[] load = new int[2_000];
+
+        for (int i = 0; i < 1_000; i++) {
+            int start = random.nextInt(load.length - 1);
+            int end = start + 1 + random.nextInt(Math.min(200, load.length - start));
+            int delta = random.nextInt(5) - 1;
+            tree.add(start, end, delta);
+            for (int t = start; t < end; t++) {
+                load[t] += delta;
+            }
+        }
+
+        for (int q = 0; q < 500; q++) {
+            int start = random.nextInt(load.length - 1);
+            int end = start + 1 + random.nextInt(load.length - start);
+            int expected = Integer.MIN_VALUE;
+            for (int t = start; t < end; t++) {
+                expected = Math.max(expected, load[t]);
+            }
+            assertEquals(expected, tree.max(start, end), "max over [" + start + ", " + end + ")");
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.spaceflow.booking.index;
+
+import com.spaceflow.booking.dto.Booking;
+import com.spaceflow.booking.dto.RecurrenceRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeriesScheduleTest {
+
+    private static final OffsetDateTime START = OffsetDateTime.parse("2031-01-06T09:00:00Z");
+    private static final long HOUR = 60 * 60 * 1000L;
+    private static final long DAY = 24 * HOUR;
+
+    @Test
+    void forEachOverlapping_ShouldMatchBruteForceExpansion() {
+        SeriesSchedule schedule = SeriesSchedule.of(series("daily", 3, null, 40));
+        long first = START.toInstant().toEpochMilli();
+
+        for (long offset = -5 * DAY; offset < 130 * DAY; offset += 7 * HOUR) {
+            long start = first + offset;
+            long end = start + 5 * HOUR;
+            List<Long> expected = new ArrayList<>();
+            for (long k = 0; k < 40; k++) {
+                long occurrenceStart = first + k * 3 * DAY;
+                if (occurrenceStart < end && occurrenceStart + HOUR > start) {
+                    expected.add(k);
+                }
+            }
+            List<Long> actual = new ArrayList<>();
+            schedule.forEachOverlapping(start, end, actual::add);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void of_ShouldUseEarliestOfUntilAndCount() {
+        SeriesSchedule byUntil = SeriesSchedule.of(series("weekly", 1, START.plusWeeks(3), 10));
+        assertEquals(4, byUntil.count());
+
+        SeriesSchedule byCount = SeriesSchedule.of(series("weekly", 1, START.plusWeeks(30), 2));
+        assertEquals(2, byCount.count());
+        assertEquals(START.plusWeeks(1).plusHours(1).toInstant().toEpochMilli(), byCount.spanEnd());
+    }
+
+    @Test
+    void of_ShouldRejectOccurrencesLongerThanInterval() {
+        Booking booking = series("daily", 1, null, 3);
+        booking.setEndTime(START.plusHours(25));
+        assertThrows(IllegalArgumentException.class, () -> SeriesSchedule.of(booking));
+    }
+
+    private static Booking series(String frequency, int interval, OffsetDateTime until, Integer count) {
+        RecurrenceRule rule = new RecurrenceRule();
+        rule.setFrequency(frequency);
+        rule.setInterval(interval);
+        rule.setUntil(until);
+        rule.setCount(count);
+
+        Booking booking = new Booking();
+        booking.setBookingId("series-1");
+        booking.setSpaceId("space-1");
+        booking.setStartTime(START);
+        booking.setEndTime(START.plusHours(1));
+        booking.setRecurrence(rule);
+        return booking;
+    }
+}
@@ -0,0 +1,129 @@
+package com.spaceflow.booking.schedule;
+
+import com.spaceflow.booking.dto.Booking;
+import com.spaceflow.booking.dto.BookingChange;
+import com.spaceflow.booking.dto.BookingRequest;
+import com.spaceflow.booking.dto.BookingUpdateRequest;
+import com.spaceflow.booking.exception.BookingStateException;
+import com.spaceflow.booking.index.CapacityIndex;
+import com.spaceflow.booking.index.ConflictIndex;
+import com.spaceflow.booking.index.FreeBusyIndex;
+import com.spaceflow.booking.index.WaitlistIndex;
+import com.spaceflow.booking.service.BookingService;
+import com.spaceflow.booking.service.SpaceCatalog;
+import com.spaceflow.booking.service.SpaceLockStripes;
+import com.spaceflow.booking.store.BookingChangeLog;
+import com.spaceflow.booking.store.BookingJournal;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NoShowSchedulerTest {
+
+    private final OffsetDateTime start = OffsetDateTime.now().plusMinutes(1).withNano(0);
+    private final AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+    private final NoShowScheduler scheduler = new NoShowScheduler(Duration.ofMinutes(15).toMillis(), 1_000,
+            new OccupancyProbe("", 0), clock::get);
+    private final BookingService bookingService = new BookingService(new ConflictIndex(), new FreeBusyIndex(7),
+            new WaitlistIndex(), new CapacityIndex(), new SpaceCatalog("", 0, false), scheduler,
+            new SpaceLockStripes(16), new BookingJournal("", 0, 0), new BookingChangeLog(64),
+            500, 1000, 1000, 1000);
+
+    @Test
+    void tick_AfterGraceDeadline_ShouldReleaseOnlyBookingsWithoutCheckIn() {
+        Booking absent = bookingService.createBooking(request("space-absent"));
+        Booking present = bookingService.createBooking(request("space-present"));
+        bookingService.checkIn(present.getBookingId());
+
+        clock.set(start.plusMinutes(14).toInstant().toEpochMilli());
+        scheduler.tick();
+        assertEquals(List.of(), released());
+
+        clock.set(start.plusMinutes(15).toInstant().toEpochMilli());
+        scheduler.tick();
+        assertEquals(List.of(absent.getBookingId()), released());
+        assertTrue(bookingService.checkAvailability("space-absent", start.toString(), start.plusHours(1).toString())
+                .getAvailable());
+        assertThrows(BookingStateException.class, () -> bookingService.cancelBooking(absent.getBookingId(), null));
+    }
+
+    @Test
+    void track_ShouldKeepOneEntryPerBookingAndDropCanceledAndCheckedIn() {
+        Booking moved = bookingService.createBooking(request("space-1"));
+        Booking canceled = bookingService.createBooking(request("space-2"));
+        Booking checkedIn = bookingService.createBooking(request("space-3"));
+        assertEquals(3, scheduler.trackedCount());
+
+        BookingUpdateRequest update = new BookingUpdateRequest();
+        update.setPurpose("Moved");
+        bookingService.updateBooking(moved.getBookingId(), update, null);
+        bookingService.cancelBooking(canceled.getBookingId(), null);
+        bookingService.checkIn(checkedIn.getBookingId());
+        assertEquals(1, scheduler.trackedCount());
+
+        clock.set(start.plusMinutes(15).toInstant().toEpochMilli());
+        scheduler.tick();
+        assertEquals(List.of(moved.getBookingId()), released());
+        assertEquals(0, scheduler.trackedCount());
+    }
+
+    @Test
+    void tick_ShouldAskForAllExpiredSpacesAtOnceAndKeepThoseInUse() {
+        AtomicInteger lookups = new AtomicInteger();
+        long startMillis = start.toInstant().toEpochMilli();
+        OccupancyProbe probe = new OccupancyProbe("", 0) {
+            @Override
+            public Map<String, Long> vacantSince(Collection<String> spaceIds) {
+                lookups.incrementAndGet();
+                assertEquals(Set.of("space-empty", "space-occupied", "space-left"), Set.copyOf(spaceIds));
+                // Nobody since before the start; someone now; someone who left after the start.
+                return Map.of("space-empty", startMillis - 60_000, "space-left", startMillis + 60_000);
+            }
+        };
+        NoShowScheduler probed = new NoShowScheduler(Duration.ofMinutes(15).toMillis(), 1_000, probe, clock::get);
+        BookingService service = new BookingService(new ConflictIndex(), new FreeBusyIndex(7), new WaitlistIndex(),
+                new CapacityIndex(), new SpaceCatalog("", 0, false), probed, new SpaceLockStripes(16),
+                new BookingJournal("", 0, 0), new BookingChangeLog(64), 500, 1000, 1000, 1000);
+        Booking empty = service.createBooking(request("space-empty"));
+        service.createBooking(request("space-occupied"));
+        service.createBooking(request("space-left"));
+
+        clock.set(start.plusMinutes(15).toInstant().toEpochMilli());
+        probed.tick();
+        assertEquals(1, lookups.get());
+        assertEquals(List.of(empty.getBookingId()), service.getChanges(0, null).getChanges().stream()
+                .filter(change -> BookingChange.RELEASED.equals(change.getType()))
+                .map(change -> change.getBooking().getBookingId())
+                .toList());
+    }
+
+    @Test
+    void constructor_ShouldRefuseReleaseWithoutAnOccupancySource() {
+        assertThrows(IllegalStateException.class, () -> new NoShowScheduler(15, 1_000, new OccupancyProbe("", 0)));
+    }
+
+    private List<String> released() {
+        return bookingService.getChanges(0, null).getChanges().stream()
+                .filter(change -> BookingChange.RELEASED.equals(change.getType()))
+                .map(change -> change.getBooking().getBookingId())
+                .collect(Collectors.toList());
+    }
+
+    private BookingRequest request(String spaceId) {
+        BookingRequest request = new BookingRequest();
+        request.setSpaceId(spaceId);
+        request.setStartTime(start);
+        request.setEndTime(start.plusHours(1));
+        return request;
+    }
+}
@@ -0,0 +1,79 @@
+package com.spaceflow.booking.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void advance_ShouldExpireOnFirstTickAtOrAfterDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(1_000, 10_000);
+        wheel.schedule(12_000, "exact");
+        wheel.schedule(12_001, "rounded-up");
+        wheel.schedule(5_000, "overdue");
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(11_999, expired::add);
+        assertEquals(List.of("overdue"), expired);
+
+        wheel.advance(12_000, expired::add);
+        assertEquals(List.of("overdue", "exact"), expired);
+
+        wheel.advance(13_000, expired::add);
+        assertEquals(List.of("overdue", "exact", "rounded-up"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_ShouldMatchSortedDeadlinesAcrossLevels() {
+        Random random = new Random(42);
+        long start = 1_000_000;
+        TimingWheel<Long> wheel = new TimingWheel<>(1, start);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            // Spread over several levels: up to 64^3 ticks ahead.
+            long deadline = start + 1 + random.nextInt(1 << (6 * (1 + random.nextInt(3))));
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+
+        List<Long> expired = new ArrayList<>();
+        long now = start;
+        while (wheel.size() > 0) {
+            now += 1 + random.nextInt(5_000);
+            long clock = now;
+            wheel.advance(now, deadline -> {
+                assertTrue(deadline <= clock, "expired early");
+                expired.add(deadline);
+            });
+        }
+
+        deadlines.sort(null);
+        assertEquals(deadlines, expired);
+    }
+
+    @Test
+    void cancel_ShouldRemoveEntriesFromAnyLevel() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        TimingWheel.Entry<String> near = wheel.schedule(10, "near");
+        TimingWheel.Entry<String> far = wheel.schedule(100_000, "far");
+        wheel.schedule(10, "kept");
+        wheel.schedule(100_000, "kept-far");
+
+        assertTrue(wheel.cancel(near));
+        wheel.advance(5_000, value -> { });
+        assertTrue(wheel.cancel(far));
+        assertFalse(wheel.cancel(far));
+        assertEquals(1, wheel.size());
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(200_000, expired::add);
+        assertEquals(List.of("kept-far"), expired);
+        assertEquals(0, wheel.size());
+    }
+}
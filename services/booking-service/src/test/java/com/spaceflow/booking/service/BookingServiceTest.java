@@ -0,0 +1,191 @@
+package com.spaceflow.booking.service;
+
+import com.spaceflow.booking.dto.Booking;
+import com.spaceflow.booking.dto.BookingChangesResponse;
+import com.spaceflow.booking.dto.BookingRequest;
+import com.spaceflow.booking.dto.BookingUpdateRequest;
+import com.spaceflow.booking.exception.BookingConflictException;
+import com.spaceflow.booking.exception.BookingStateException;
+import com.spaceflow.booking.index.CapacityIndex;
+import com.spaceflow.booking.index.ConflictIndex;
+import com.spaceflow.booking.index.FreeBusyIndex;
+import com.spaceflow.booking.index.WaitlistIndex;
+import com.spaceflow.booking.schedule.NoShowScheduler;
+import com.spaceflow.booking.schedule.OccupancyProbe;
+import com.spaceflow.booking.store.BookingChangeLog;
+import com.spaceflow.booking.store.BookingJournal;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingServiceTest {
+
+    private static final OffsetDateTime NINE_AM = OffsetDateTime.of(2030, 1, 7, 9, 0, 0, 0, ZoneOffset.UTC);
+
+    private final BookingService bookingService = new BookingService(new ConflictIndex(), new FreeBusyIndex(7),
+            new WaitlistIndex(), new CapacityIndex(), new SpaceCatalog("", 0, false),
+            new NoShowScheduler(0, 1000, new OccupancyProbe("", 0)), new SpaceLockStripes(16),
+            new BookingJournal("", 0, 0), new BookingChangeLog(64),
+            500, 1000, 1000, 1000);
+
+    @Test
+    void createBooking_ConcurrentOverlappingRequests_ShouldAdmitExactlyOne() throws Exception {
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                int offset = i % 4;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        bookingService.createBooking(request("space-rush", offset * 10, 60));
+                        created.incrementAndGet();
+                    } catch (BookingConflictException ex) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, created.get());
+        assertEquals(threads - 1, conflicts.get());
+    }
+
+    @Test
+    void createBooking_ConcurrentRequestsForDifferentSpaces_ShouldAllSucceed() throws Exception {
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                String spaceId = "space-" + i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return bookingService.createBooking(request(spaceId, 0, 60));
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                assertNotNull(future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void updateBooking_ConcurrentUpdatesOfSameVersion_ShouldAdmitExactlyOne() throws Exception {
+        String bookingId = bookingService.createBooking(request("space-cas", 0, 60)).getBookingId();
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger updated = new AtomicInteger();
+        AtomicInteger stale = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                BookingUpdateRequest update = new BookingUpdateRequest();
+                update.setPurpose("edit-" + i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        bookingService.updateBooking(bookingId, update, 1L);
+                        updated.incrementAndGet();
+                    } catch (BookingStateException ex) {
+                        stale.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, updated.get());
+        assertEquals(threads - 1, stale.get());
+    }
+
+    @Test
+    void writes_ShouldStayInvisibleWhenTheJournalCannotBeSynced() {
+        AtomicBoolean failing = new AtomicBoolean();
+        BookingJournal journal = new BookingJournal("", 0, 0) {
+            @Override
+            public void sync() {
+                if (failing.get()) {
+                    throw new UncheckedIOException("Booking log is not writable", new IOException("disk full"));
+                }
+            }
+        };
+        BookingService service = new BookingService(new ConflictIndex(), new FreeBusyIndex(7), new WaitlistIndex(),
+                new CapacityIndex(), new SpaceCatalog("", 0, false),
+                new NoShowScheduler(0, 1000, new OccupancyProbe("", 0)), new SpaceLockStripes(16), journal,
+                new BookingChangeLog(64), 500, 1000, 1000, 1000);
+        Booking kept = service.createBooking(request("space-1", 0, 60));
+
+        failing.set(true);
+        assertThrows(UncheckedIOException.class, () -> service.createBooking(request("space-1", 60, 60)));
+        BookingUpdateRequest move = new BookingUpdateRequest();
+        move.setStartTime(NINE_AM.plusHours(2));
+        move.setEndTime(NINE_AM.plusHours(3));
+        assertThrows(UncheckedIOException.class, () -> service.updateBooking(kept.getBookingId(), move, null));
+        assertThrows(UncheckedIOException.class, () -> service.cancelBooking(kept.getBookingId(), null));
+
+        failing.set(false);
+        List<Booking> stored = service.getBookings("space-1", NINE_AM.toString(), NINE_AM.plusDays(1).toString());
+        assertEquals(List.of(kept.getBookingId()), stored.stream().map(Booking::getBookingId).toList());
+        assertEquals(NINE_AM, stored.get(0).getStartTime());
+        assertEquals(1, service.getChanges(0, null).getChanges().size());
+        assertFalse(service.checkAvailability("space-1", NINE_AM.toString(), NINE_AM.plusMinutes(30).toString())
+                .getAvailable());
+        assertTrue(service.checkAvailability("space-1", NINE_AM.plusHours(1).toString(), NINE_AM.plusHours(3).toString())
+                .getAvailable());
+
+        // The offsets the failed writes took are skipped, so later changes still reach the feed.
+        Booking next = service.createBooking(request("space-1", 60, 60));
+        BookingChangesResponse feed = service.getChanges(0, null);
+        assertEquals(List.of(kept.getBookingId(), next.getBookingId()),
+                feed.getChanges().stream().map(change -> change.getBooking().getBookingId()).toList());
+        assertEquals(5, feed.getNextOffset());
+    }
+
+    private static BookingRequest request(String spaceId, int startOffsetMinutes, int durationMinutes) {
+        BookingRequest request = new BookingRequest();
+        request.setSpaceId(spaceId);
+        request.setStartTime(NINE_AM.plusMinutes(startOffsetMinutes));
+        request.setEndTime(NINE_AM.plusMinutes(startOffsetMinutes + durationMinutes));
+        return request;
+    }
+}
@@ -0,0 +1,85 @@
+package com.spaceflow.booking.service;
+
+import com.spaceflow.booking.dto.BookingRequest;
+import com.spaceflow.booking.exception.BookingConflictException;
+import com.spaceflow.booking.exception.SpaceNotFoundException;
+import com.spaceflow.booking.index.CapacityIndex;
+import com.spaceflow.booking.index.ConflictIndex;
+import com.spaceflow.booking.index.FreeBusyIndex;
+import com.spaceflow.booking.index.WaitlistIndex;
+import com.spaceflow.booking.schedule.NoShowScheduler;
+import com.spaceflow.booking.schedule.OccupancyProbe;
+import com.spaceflow.booking.store.BookingChangeLog;
+import com.spaceflow.booking.store.BookingJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceCatalogTest {
+
+    private static final OffsetDateTime NINE_AM = OffsetDateTime.of(2030, 1, 7, 9, 0, 0, 0, ZoneOffset.UTC);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reload_ShouldOnlyApplyNewerVersions() throws Exception {
+        Path file = write(2, "{\"spaceId\": \"room-a\", \"capacity\": 8, \"building\": \"HQ\", \"floor\": \"1\", \"type\": \"meeting-room\"}");
+        SpaceCatalog catalog = new SpaceCatalog(file.toString(), 0, false);
+
+        assertEquals(2, catalog.version());
+        assertEquals("HQ", catalog.find("room-a").getBuilding());
+        assertNull(catalog.capacityOf("room-a"));
+        assertThrows(SpaceNotFoundException.class, () -> catalog.requireKnown("room-b"));
+
+        write(1, "{\"spaceId\": \"room-b\", \"capacity\": 4, \"type\": \"meeting-room\"}");
+        assertFalse(catalog.reload());
+        assertNull(catalog.find("room-b"));
+
+        write(3, "{\"spaceId\": \"room-b\", \"capacity\": 4, \"type\": \"meeting-room\"}");
+        assertTrue(catalog.reload());
+        catalog.requireKnown("room-b");
+        assertNull(catalog.find("room-a"));
+    }
+
+    @Test
+    void reload_ShouldRebuildCapacityOfSpacesThatBecomeShared() throws Exception {
+        Path file = write(1, "{\"spaceId\": \"zone-x\", \"capacity\": 4, \"type\": \"meeting-room\"}");
+        SpaceCatalog catalog = new SpaceCatalog(file.toString(), 0, false);
+        BookingService service = new BookingService(new ConflictIndex(), new FreeBusyIndex(7), new WaitlistIndex(),
+                new CapacityIndex(), catalog, new NoShowScheduler(0, 1000, new OccupancyProbe("", 0)),
+                new SpaceLockStripes(16), new BookingJournal("", 0, 0), new BookingChangeLog(16),
+                500, 1000, 1000, 1000);
+        service.createBooking(request("zone-x", 3));
+        assertThrows(SpaceNotFoundException.class, () -> service.createBooking(request("zone-y", 1)));
+
+        write(2, "{\"spaceId\": \"zone-x\", \"capacity\": 4, \"type\": \"shared\"}");
+        assertTrue(catalog.reload());
+
+        assertThrows(BookingConflictException.class, () -> service.createBooking(request("zone-x", 2)));
+        service.createBooking(request("zone-x", 1));
+        assertEquals(0, service.checkAvailability("zone-x", NINE_AM.toString(), NINE_AM.plusHours(1).toString())
+                .getRemainingCapacity());
+    }
+
+    private Path write(long version, String... spaces) throws Exception {
+        Path file = dir.resolve("spaces.json");
+        Files.writeString(file, "{\"version\": " + version + ", \"spaces\": [" + String.join(",", spaces) + "]}");
+        return file;
+    }
+
+    private static BookingRequest request(String spaceId, int attendees) {
+        BookingRequest request = new BookingRequest();
+        request.setSpaceId(spaceId);
+        request.setStartTime(NINE_AM);
+        request.setEndTime(NINE_AM.plusHours(1));
+        request.setAttendeeCount(attendees);
+        return request;
+    }
+}
@@ -0,0 +1,90 @@
+package com.spaceflow.booking.store;
+
+import com.spaceflow.booking.dto.Booking;
+import com.spaceflow.booking.dto.BookingChange;
+import com.spaceflow.booking.dto.BookingChangesResponse;
+import com.spaceflow.booking.exception.ChangeOffsetOutOfRangeException;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingChangeLogTest {
+
+    @Test
+    void read_ShouldReturnBatchesInOffsetOrder() {
+        BookingChangeLog log = new BookingChangeLog(8);
+        for (int i = 0; i < 5; i++) {
+            log.publish(change(i, BookingChange.CREATED, "booking-" + i));
+        }
+
+        BookingChangesResponse first = log.read(0, 3);
+        assertEquals(3, first.getChanges().size());
+        assertEquals(3, first.getNextOffset());
+        assertEquals("booking-2", first.getChanges().get(2).getBooking().getBookingId());
+
+        BookingChangesResponse rest = log.read(first.getNextOffset(), 3);
+        assertEquals(2, rest.getChanges().size());
+        assertEquals(4, rest.getChanges().get(1).getOffset());
+        assertTrue(log.read(rest.getNextOffset(), 3).getChanges().isEmpty());
+    }
+
+    @Test
+    void read_ShouldRejectEvictedAndFutureOffsets() {
+        BookingChangeLog log = new BookingChangeLog(4);
+        for (int i = 0; i < 10; i++) {
+            log.publish(change(i, BookingChange.UPDATED, "booking-" + i));
+        }
+
+        assertThrows(ChangeOffsetOutOfRangeException.class, () -> log.read(5, 10));
+        assertThrows(ChangeOffsetOutOfRangeException.class, () -> log.read(11, 10));
+        BookingChangesResponse retained = log.read(6, 10);
+        assertEquals(6, retained.getEarliestOffset());
+        assertEquals(4, retained.getChanges().size());
+        assertEquals("booking-9", retained.getChanges().get(3).getBooking().getBookingId());
+    }
+
+    @Test
+    void read_ShouldOnlyExposeChangesUpToTheFirstGap() {
+        BookingChangeLog log = new BookingChangeLog(8);
+        log.open("stream-1", 10);
+        log.publish(change(10, BookingChange.CREATED, "booking-10"));
+        log.publish(change(12, BookingChange.CREATED, "booking-12"));
+
+        BookingChangesResponse beforeGap = log.read(10, 5);
+        assertEquals("stream-1", beforeGap.getStreamId());
+        assertEquals(10, beforeGap.getEarliestOffset());
+        assertEquals(1, beforeGap.getChanges().size());
+        assertEquals(11, beforeGap.getNextOffset());
+        assertThrows(ChangeOffsetOutOfRangeException.class, () -> log.read(9, 5));
+
+        log.publish(change(11, BookingChange.CREATED, "booking-11"));
+        BookingChangesResponse filled = log.read(11, 5);
+        assertEquals(2, filled.getChanges().size());
+        assertEquals("booking-12", filled.getChanges().get(1).getBooking().getBookingId());
+        assertEquals(13, filled.getNextOffset());
+    }
+
+    @Test
+    void skip_ShouldLetReadsPassOffsetsWhoseChangesFailed() {
+        BookingChangeLog log = new BookingChangeLog(8);
+        log.publish(change(0, BookingChange.CREATED, "booking-0"));
+        log.publish(change(2, BookingChange.CREATED, "booking-2"));
+        assertEquals(1, log.read(0, 5).getNextOffset());
+
+        log.skip(1);
+        BookingChangesResponse read = log.read(0, 5);
+        assertEquals(3, read.getNextOffset());
+        assertEquals(2, read.getChanges().size());
+        assertEquals(2, read.getChanges().get(1).getOffset());
+        assertTrue(log.read(1, 1).getChanges().isEmpty());
+        assertEquals(2, log.read(1, 1).getNextOffset());
+    }
+
+    private static BookingChange change(long offset, String type, String bookingId) {
+        Booking booking = new Booking();
+        booking.setBookingId(bookingId);
+        return new BookingChange(offset, type, OffsetDateTime.now(), booking);
+    }
+}
@@ -0,0 +1,181 @@
+package com.spaceflow.booking.store;
+
+import com.spaceflow.booking.dto.Booking;
+import com.spaceflow.booking.dto.BookingChange;
+import com.spaceflow.booking.dto.BookingChangesResponse;
+import com.spaceflow.booking.dto.BookingRequest;
+import com.spaceflow.booking.dto.BookingUpdateRequest;
+import com.spaceflow.booking.dto.WaitlistEntry;
+import com.spaceflow.booking.exception.BookingConflictException;
+import com.spaceflow.booking.exception.ChangeOffsetOutOfRangeException;
+import com.spaceflow.booking.index.CapacityIndex;
+import com.spaceflow.booking.index.ConflictIndex;
+import com.spaceflow.booking.index.FreeBusyIndex;
+import com.spaceflow.booking.index.WaitlistIndex;
+import com.spaceflow.booking.schedule.NoShowScheduler;
+import com.spaceflow.booking.schedule.OccupancyProbe;
+import com.spaceflow.booking.service.BookingService;
+import com.spaceflow.booking.service.SpaceCatalog;
+import com.spaceflow.booking.service.SpaceLockStripes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingJournalTest {
+
+    private static final OffsetDateTime NINE_AM = OffsetDateTime.of(2030, 1, 7, 9, 0, 0, 0, ZoneOffset.UTC);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recover_ShouldRestoreLatestStateOfEveryBooking() {
+        BookingJournal journal = journal(0);
+        BookingService service = service(journal);
+        Booking kept = service.createBooking(request("space-1", 0, 60));
+        Booking moved = service.createBooking(request("space-1", 60, 60));
+        Booking canceled = service.createBooking(request("space-2", 0, 60));
+        BookingUpdateRequest update = new BookingUpdateRequest();
+        update.setStartTime(NINE_AM.plusMinutes(180));
+        update.setEndTime(NINE_AM.plusMinutes(240));
+        service.updateBooking(moved.getBookingId(), update, null);
+        service.cancelBooking(canceled.getBookingId(), null);
+        journal.destroy();
+
+        BookingService restarted = service(journal(0));
+        List<Booking> spaceOne = restarted.getBookings("space-1", NINE_AM.toString(), NINE_AM.plusDays(1).toString());
+        assertEquals(2, spaceOne.size());
+        assertEquals(kept.getBookingId(), spaceOne.get(0).getBookingId());
+        assertEquals(NINE_AM.plusMinutes(180).toInstant(), spaceOne.get(1).getStartTime().toInstant());
+        assertTrue(restarted.getBookings("space-2", NINE_AM.toString(), NINE_AM.plusDays(1).toString()).isEmpty());
+        // The rebuilt conflict index rejects overlaps with recovered bookings.
+        assertThrows(BookingConflictException.class, () -> restarted.createBooking(request("space-1", 30, 60)));
+    }
+
+    @Test
+    void recover_ShouldIgnoreTornLastRecord() throws Exception {
+        BookingJournal journal = journal(0);
+        service(journal).createBooking(request("space-1", 0, 60));
+        journal.destroy();
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.getFileName().toString().startsWith("wal-"))
+                    .filter(path -> path.toFile().length() > 0)
+                    .findFirst().orElseThrow();
+        }
+        Files.write(segment, "{\"bookingId\":\"torn".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        BookingService restarted = service(journal(0));
+        assertEquals(1, restarted.getBookings("space-1", NINE_AM.toString(), NINE_AM.plusDays(1).toString()).size());
+    }
+
+    @Test
+    void snapshot_ShouldReplaceOlderSegmentsAndStillRecoverEverything() throws Exception {
+        BookingJournal journal = journal(0);
+        BookingService service = service(journal);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(service.createBooking(request("space-" + i, 0, 60)).getBookingId());
+        }
+        List<Booking> state = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            state.addAll(service.getBookings("space-" + i, NINE_AM.toString(), NINE_AM.plusDays(1).toString()));
+        }
+        journal.snapshot(() -> new BookingJournal.State(state, List.of()));
+        ids.add(service.createBooking(request("space-10", 0, 60)).getBookingId());
+        journal.destroy();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(path -> path.getFileName().toString().startsWith("snapshot-")).count());
+        }
+        BookingService restarted = service(journal(0));
+        for (int i = 0; i <= 10; i++) {
+            List<Booking> bookings = restarted.getBookings("space-" + i, NINE_AM.toString(), NINE_AM.plusDays(1).toString());
+            assertEquals(1, bookings.size());
+            assertEquals(ids.get(i), bookings.get(0).getBookingId());
+        }
+    }
+
+    @Test
+    void recover_ShouldContinueTheChangeFeedWithTheSameStreamAndOffsets() {
+        BookingJournal journal = journal(0);
+        BookingService service = service(journal);
+        Booking first = service.createBooking(request("space-1", 0, 60));
+        service.createBooking(request("space-2", 0, 60));
+        String streamId = service.getChanges(0, null).getStreamId();
+        List<Booking> state = new ArrayList<>(service.getBookings("space-1", NINE_AM.toString(), NINE_AM.plusDays(1).toString()));
+        state.addAll(service.getBookings("space-2", NINE_AM.toString(), NINE_AM.plusDays(1).toString()));
+        journal.snapshot(() -> new BookingJournal.State(state, List.of()));
+        service.cancelBooking(first.getBookingId(), null);
+        journal.destroy();
+
+        BookingService restarted = service(journal(0));
+        BookingChangesResponse changes = restarted.getChanges(2, null);
+        assertEquals(streamId, changes.getStreamId());
+        assertEquals(2, changes.getEarliestOffset());
+        assertEquals(1, changes.getChanges().size());
+        assertEquals(BookingChange.CANCELED, changes.getChanges().get(0).getType());
+        assertEquals(first.getBookingId(), changes.getChanges().get(0).getBooking().getBookingId());
+        assertThrows(ChangeOffsetOutOfRangeException.class, () -> restarted.getChanges(1, null));
+
+        restarted.createBooking(request("space-3", 0, 60));
+        assertEquals(4, restarted.getChanges(3, null).getNextOffset());
+    }
+
+    @Test
+    void recover_ShouldRestoreWaitersAndPromoteThemLater() {
+        BookingJournal journal = journal(0);
+        BookingService service = service(journal);
+        Booking taken = service.createBooking(request("space-1", 0, 60));
+        WaitlistEntry first = service.joinWaitlist(request("space-1", 0, 60));
+        WaitlistEntry withdrawn = service.joinWaitlist(request("space-1", 0, 60));
+        WaitlistEntry withdrawnState = service.withdrawWaitlistEntry(withdrawn.getEntryId());
+        journal.snapshot(() -> new BookingJournal.State(List.of(taken), List.of(first, withdrawnState)));
+        WaitlistEntry second = service.joinWaitlist(request("space-1", 0, 60));
+        journal.destroy();
+
+        BookingJournal restartedJournal = journal(0);
+        BookingService restarted = service(restartedJournal);
+        assertEquals(BookingService.WAITLIST_WITHDRAWN, restarted.getWaitlistEntry(withdrawn.getEntryId()).getStatus());
+        restarted.cancelBooking(taken.getBookingId(), null);
+        WaitlistEntry promoted = restarted.getWaitlistEntry(first.getEntryId());
+        assertEquals(BookingService.WAITLIST_PROMOTED, promoted.getStatus());
+        assertEquals(BookingService.WAITLIST_WAITING, restarted.getWaitlistEntry(second.getEntryId()).getStatus());
+        restartedJournal.destroy();
+
+        BookingService again = service(journal(0));
+        assertEquals(promoted.getBookingId(), again.getWaitlistEntry(first.getEntryId()).getBookingId());
+        assertEquals(1, again.getBookings("space-1", NINE_AM.toString(), NINE_AM.plusDays(1).toString()).size());
+    }
+
+    private BookingJournal journal(long snapshotEvery) {
+        return new BookingJournal(directory.toString(), 0, snapshotEvery);
+    }
+
+    private static BookingService service(BookingJournal journal) {
+        BookingService service = new BookingService(new ConflictIndex(), new FreeBusyIndex(7), new WaitlistIndex(),
+                new CapacityIndex(), new SpaceCatalog("", 0, false), new NoShowScheduler(0, 1000, new OccupancyProbe("", 0)),
+                new SpaceLockStripes(16), journal, new BookingChangeLog(16), 500, 1000, 1000, 1000);
+        service.recover();
+        return service;
+    }
+
+    private static BookingRequest request(String spaceId, int startOffsetMinutes, int durationMinutes) {
+        BookingRequest request = new BookingRequest();
+        request.setSpaceId(spaceId);
+        request.setStartTime(NINE_AM.plusMinutes(startOffsetMinutes));
+        request.setEndTime(NINE_AM.plusMinutes(startOffsetMinutes + durationMinutes));
+        return request;
+    }
+}
@@ -0,0 +1,101 @@
+package com.spaceflow.booking.store;
+
+import com.spaceflow.booking.dto.Booking;
+import com.spaceflow.booking.dto.BookingChange;
+import com.spaceflow.booking.index.CapacityIndex;
+import com.spaceflow.booking.index.ConflictIndex;
+import com.spaceflow.booking.index.FreeBusyIndex;
+import com.spaceflow.booking.index.WaitlistIndex;
+import com.spaceflow.booking.schedule.NoShowScheduler;
+import com.spaceflow.booking.schedule.OccupancyProbe;
+import com.spaceflow.booking.service.BookingService;
+import com.spaceflow.booking.service.SpaceCatalog;
+import com.spaceflow.booking.service.SpaceLockStripes;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures service restart time (journal replay plus index rebuild) against booking count,
+ * once with every booking in the write-ahead log and once from a snapshot.
+ *
+ * Excluded from the default build; run with {@code mvn -Pbenchmark test}. Counts can be
+ * overridden with {@code -Dbenchmark.counts=10000,100000}.
+ */
+@Tag("benchmark")
+class BookingRecoveryBenchmark {
+
+    private static final OffsetDateTime START = OffsetDateTime.of(2030, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final int SPACES = 1_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restartTime() throws Exception {
+        String counts = System.getProperty("benchmark.counts", "10000,100000,1000000");
+        System.out.printf("%12s %14s %14s%n", "bookings", "wal replay ms", "snapshot ms");
+        for (String value : counts.split(",")) {
+            int count = Integer.parseInt(value.trim());
+            Path walDir = Files.createDirectory(directory.resolve("wal-" + count));
+            Path snapshotDir = Files.createDirectory(directory.resolve("snapshot-" + count));
+
+            List<Booking> bookings = generate(count);
+            write(walDir, bookings, false);
+            write(snapshotDir, bookings, true);
+
+            System.out.printf("%12d %14d %14d%n", count, restart(walDir), restart(snapshotDir));
+        }
+    }
+
+    private static List<Booking> generate(int count) {
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Back-to-back hour slots per space, so nothing conflicts.
+            OffsetDateTime start = START.plusHours(i / SPACES);
+            Booking booking = new Booking();
+            booking.setBookingId("booking-" + i);
+            booking.setSpaceId("space-" + (i % SPACES));
+            booking.setStartTime(start);
+            booking.setEndTime(start.plusHours(1));
+            booking.setPurpose("Benchmark");
+            booking.setAttendeeCount(4);
+            booking.setStatus(BookingService.STATUS_ACTIVE);
+            booking.setCreatedAt(START);
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    private static void write(Path dir, List<Booking> bookings, boolean snapshot) {
+        BookingJournal journal = new BookingJournal(dir.toString(), 0, 0);
+        journal.recover(new BookingJournal.RecoverySink() { });
+        if (snapshot) {
+            journal.snapshot(() -> new BookingJournal.State(bookings, List.of()));
+        } else {
+            bookings.forEach(booking -> journal.append(BookingChange.CREATED, booking));
+            journal.sync();
+        }
+        journal.destroy();
+    }
+
+    private static long restart(Path dir) {
+        System.gc();
+        long started = System.nanoTime();
+        BookingJournal journal = new BookingJournal(dir.toString(), 0, 0);
+        new BookingService(new ConflictIndex(), new FreeBusyIndex(7), new WaitlistIndex(),
+                new CapacityIndex(), new SpaceCatalog("", 0, false), new NoShowScheduler(0, 1000, new OccupancyProbe("", 0)),
+                new SpaceLockStripes(64),
+                journal, new BookingChangeLog(16), 500, 1000, 1000, 1000).recover();
+        long elapsed = (System.nanoTime() - started) / 1_000_000;
+        journal.destroy();
+        return elapsed;
+    }
+}
@@ -1,11 +1,21 @@
 package com.spaceflow.occupancy.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.spaceflow.occupancy.dto.Observation;
+import com.spaceflow.occupancy.dto.ObservationBatchResponse;
 import com.spaceflow.occupancy.dto.ObservationCreateRequest;
+import com.spaceflow.occupancy.dto.ObservationRollup;
+import com.spaceflow.occupancy.dto.ObservationSummariesResponse;
+import com.spaceflow.occupancy.dto.ObservationSummary;
 import com.spaceflow.occupancy.dto.ObservationUpdateRequest;
 import com.spaceflow.occupancy.dto.ObservationsResponse;
+import com.spaceflow.occupancy.ingest.BinaryObservationReader;
+import com.spaceflow.occupancy.service.OccupancyObservationService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -16,31 +26,62 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.OffsetDateTime;
-import java.util.Collections;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/occupancy")
 public class OccupancyObservationController {
 
+    private final OccupancyObservationService observationService;
+    private final ObjectMapper objectMapper;
+
+    public OccupancyObservationController(OccupancyObservationService observationService, ObjectMapper objectMapper) {
+        this.observationService = observationService;
+        this.objectMapper = objectMapper;
+    }
+
     @PostMapping("/observations")
     public ResponseEntity<Observation> recordObservation(
             @Valid @RequestBody ObservationCreateRequest request) {
 
-        // TODO: Implement recording of occupancy observation
+        Observation observation = observationService.recordObservation(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(observation);
+    }
+
+    @PostMapping(value = "/observations:batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ObservationBatchResponse> recordObservations(
+            @RequestBody List<ObservationCreateRequest> requests) {
 
-        Observation observation = new Observation();
-        observation.setObservationId(UUID.randomUUID().toString());
-        observation.setSpaceId(request.getSpaceId());
-        observation.setObservedStartTime(request.getObservedStartTime());
-        observation.setObservedEndTime(request.getObservedEndTime());
-        observation.setOccupancyStatus(request.getOccupancyStatus());
-        observation.setNotes(request.getNotes());
-        observation.setRecordedAt(OffsetDateTime.now());
-        observation.setUpdatedAt(null);
+        int accepted = observationService.recordObservations(requests);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new ObservationBatchResponse(accepted));
+    }
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(observation);
+    @PostMapping(value = "/observations:batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ObservationBatchResponse> recordObservationsNdjson(InputStream body) throws IOException {
+        List<ObservationCreateRequest> requests = new ArrayList<>();
+        try (MappingIterator<ObservationCreateRequest> lines = objectMapper
+                .readerFor(ObservationCreateRequest.class)
+                .readValues(body)) {
+            while (lines.hasNext()) {
+                requests.add(lines.next());
+            }
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Malformed NDJSON at line " + ex.getLocation().getLineNr());
+        }
+
+        int accepted = observationService.recordObservations(requests);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new ObservationBatchResponse(accepted));
+    }
+
+    @PostMapping(value = "/observations:batch", consumes = BinaryObservationReader.MEDIA_TYPE)
+    public ResponseEntity<ObservationBatchResponse> recordObservationsBinary(InputStream body) throws IOException {
+        int accepted = observationService.recordObservations(body);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new ObservationBatchResponse(accepted));
     }
 
     @GetMapping("/observations")
@@ -49,39 +90,56 @@ public class OccupancyObservationController {
             @RequestParam("startTime") OffsetDateTime startTime,
             @RequestParam("endTime") OffsetDateTime endTime) {
 
-        // TODO: Implement retrieval of occupancy observations
+        List<Observation> observations = observationService.getObservations(spaceId, startTime, endTime);
+        return ResponseEntity.ok(new ObservationsResponse(observations));
+    }
+
+    @GetMapping("/observations:search")
+    public ResponseEntity<ObservationsResponse> searchObservations(
+            @RequestParam("spaceIds") List<String> spaceIds,
+            @RequestParam("startTime") OffsetDateTime startTime,
+            @RequestParam("endTime") OffsetDateTime endTime) {
+
+        List<Observation> observations = observationService.getObservations(new LinkedHashSet<>(spaceIds),
+                startTime, endTime);
+        return ResponseEntity.ok(new ObservationsResponse(observations));
+    }
+
+    @GetMapping("/observations:summaries")
+    public ResponseEntity<ObservationSummariesResponse> summarizeSpaces(
+            @RequestParam("spaceIds") List<String> spaceIds,
+            @RequestParam("startTime") OffsetDateTime startTime,
+            @RequestParam("endTime") OffsetDateTime endTime) {
+
+        return ResponseEntity.ok(new ObservationSummariesResponse(observationService.summarizeObservations(
+                new LinkedHashSet<>(spaceIds), startTime, endTime)));
+    }
+
+    @GetMapping("/observations:summary")
+    public ResponseEntity<ObservationSummary> summarizeObservations(
+            @RequestParam("spaceId") String spaceId,
+            @RequestParam("startTime") OffsetDateTime startTime,
+            @RequestParam("endTime") OffsetDateTime endTime) {
+
+        return ResponseEntity.ok(observationService.summarizeObservations(spaceId, startTime, endTime));
+    }
+
+    @GetMapping("/observations:rollup")
+    public ResponseEntity<ObservationRollup> rollUpObservations(
+            @RequestParam("spaceId") String spaceId,
+            @RequestParam("startTime") OffsetDateTime startTime,
+            @RequestParam("endTime") OffsetDateTime endTime,
+            @RequestParam("resolutionMinutes") int resolutionMinutes) {
 
-        ObservationsResponse response = new ObservationsResponse(Collections.emptyList());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(observationService.rollUpObservations(spaceId, startTime, endTime,
+                resolutionMinutes));
     }
 
     @PatchMapping("/observations/{observationId}")
-    public ResponseEntity<?> updateObservation(
+    public ResponseEntity<Observation> updateObservation(
             @PathVariable("observationId") String observationId,
             @Valid @RequestBody ObservationUpdateRequest request) {
 
-        // TODO: Implement update/correction of occupancy observation
-        // For now, always return a stub Observation and HTTP 200.
-        // In a real implementation, this would return 404 when the observation is not found.
-
-        Observation observation = new Observation();
-        observation.setObservationId(observationId);
-        observation.setSpaceId("stub-space-id");
-        observation.setObservedStartTime(request.getObservedStartTime() != null
-                ? request.getObservedStartTime()
-                : OffsetDateTime.now());
-        observation.setObservedEndTime(request.getObservedEndTime() != null
-                ? request.getObservedEndTime()
-                : OffsetDateTime.now());
-        observation.setOccupancyStatus(request.getOccupancyStatus() != null
-                ? request.getOccupancyStatus()
-                : "occupied");
-        observation.setNotes(request.getNotes());
-        observation.setRecordedAt(OffsetDateTime.now().minusMinutes(5));
-        observation.setUpdatedAt(OffsetDateTime.now());
-
-        return ResponseEntity.ok(observation);
+        return ResponseEntity.ok(observationService.correctObservation(observationId, request));
     }
 }
-
-
@@ -0,0 +1,30 @@
+package com.spaceflow.occupancy.controller;
+
+import com.spaceflow.occupancy.dto.CurrentOccupancyResponse;
+import com.spaceflow.occupancy.state.SpaceStateTracker;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/occupancy")
+public class OccupancyStateController {
+
+    private final SpaceStateTracker spaceStates;
+
+    public OccupancyStateController(SpaceStateTracker spaceStates) {
+        this.spaceStates = spaceStates;
+    }
+
+    @GetMapping("/current")
+    public ResponseEntity<CurrentOccupancyResponse> getCurrentOccupancy(
+            @RequestParam("spaceIds") List<String> spaceIds) {
+
+        return ResponseEntity.ok(new CurrentOccupancyResponse(spaceStates.current(new LinkedHashSet<>(spaceIds))));
+    }
+}
@@ -0,0 +1,32 @@
+package com.spaceflow.occupancy.controller;
+
+import com.spaceflow.occupancy.stream.ObservationBroadcaster;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/v1/occupancy")
+public class OccupancyStreamController {
+
+    private final ObservationBroadcaster broadcaster;
+
+    public OccupancyStreamController(ObservationBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamObservations(
+            @RequestParam(value = "spaceIds", required = false) List<String> spaceIds,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+
+        return broadcaster.subscribe(spaceIds == null ? Set.of() : Set.copyOf(spaceIds), lastEventId);
+    }
+}
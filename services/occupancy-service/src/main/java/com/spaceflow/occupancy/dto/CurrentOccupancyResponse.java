@@ -0,0 +1,23 @@
+package com.spaceflow.occupancy.dto;
+
+import java.util.List;
+
+public class CurrentOccupancyResponse {
+
+    private List<SpaceOccupancy> spaces;
+
+    public CurrentOccupancyResponse() {
+    }
+
+    public CurrentOccupancyResponse(List<SpaceOccupancy> spaces) {
+        this.spaces = spaces;
+    }
+
+    public List<SpaceOccupancy> getSpaces() {
+        return spaces;
+    }
+
+    public void setSpaces(List<SpaceOccupancy> spaces) {
+        this.spaces = spaces;
+    }
+}
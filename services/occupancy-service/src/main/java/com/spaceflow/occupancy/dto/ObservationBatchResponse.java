@@ -0,0 +1,21 @@
+package com.spaceflow.occupancy.dto;
+
+public class ObservationBatchResponse {
+
+    private int accepted;
+
+    public ObservationBatchResponse() {
+    }
+
+    public ObservationBatchResponse(int accepted) {
+        this.accepted = accepted;
+    }
+
+    public int getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(int accepted) {
+        this.accepted = accepted;
+    }
+}
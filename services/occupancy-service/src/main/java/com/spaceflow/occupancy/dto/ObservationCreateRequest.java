@@ -2,6 +2,7 @@ package com.spaceflow.occupancy.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 
 import java.time.OffsetDateTime;
 
@@ -17,10 +18,15 @@ public class ObservationCreateRequest {
     private OffsetDateTime observedEndTime;
 
     @NotBlank
+    @Pattern(regexp = "occupied|unoccupied", message = "occupancyStatus must be occupied or unoccupied")
     private String occupancyStatus;
 
     private String notes;
 
+    private String sensorId;
+
+    private Long sequence;
+
     public String getSpaceId() {
         return spaceId;
     }
@@ -60,6 +66,20 @@ public class ObservationCreateRequest {
     public void setNotes(String notes) {
         this.notes = notes;
     }
-}
 
+    public String getSensorId() {
+        return sensorId;
+    }
+
+    public void setSensorId(String sensorId) {
+        this.sensorId = sensorId;
+    }
+
+    public Long getSequence() {
+        return sequence;
+    }
 
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+}
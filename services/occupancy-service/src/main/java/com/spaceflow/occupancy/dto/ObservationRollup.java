@@ -0,0 +1,67 @@
+package com.spaceflow.occupancy.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public class ObservationRollup {
+
+    private String spaceId;
+
+    private OffsetDateTime startTime;
+
+    private OffsetDateTime endTime;
+
+    private int resolutionMinutes;
+
+    private String tier;
+
+    private List<ObservationRollupBucket> buckets;
+
+    public String getSpaceId() {
+        return spaceId;
+    }
+
+    public void setSpaceId(String spaceId) {
+        this.spaceId = spaceId;
+    }
+
+    public OffsetDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(OffsetDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public OffsetDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(OffsetDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public int getResolutionMinutes() {
+        return resolutionMinutes;
+    }
+
+    public void setResolutionMinutes(int resolutionMinutes) {
+        this.resolutionMinutes = resolutionMinutes;
+    }
+
+    public String getTier() {
+        return tier;
+    }
+
+    public void setTier(String tier) {
+        this.tier = tier;
+    }
+
+    public List<ObservationRollupBucket> getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(List<ObservationRollupBucket> buckets) {
+        this.buckets = buckets;
+    }
+}
@@ -0,0 +1,76 @@
+package com.spaceflow.occupancy.dto;
+
+import java.time.OffsetDateTime;
+
+public class ObservationRollupBucket {
+
+    private OffsetDateTime startTime;
+
+    private OffsetDateTime endTime;
+
+    private long observationCount;
+
+    private double occupiedMinutes;
+
+    private long transitionCount;
+
+    private double minOccupiedMinutes;
+
+    private double maxOccupiedMinutes;
+
+    public OffsetDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(OffsetDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public OffsetDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(OffsetDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public long getObservationCount() {
+        return observationCount;
+    }
+
+    public void setObservationCount(long observationCount) {
+        this.observationCount = observationCount;
+    }
+
+    public double getOccupiedMinutes() {
+        return occupiedMinutes;
+    }
+
+    public void setOccupiedMinutes(double occupiedMinutes) {
+        this.occupiedMinutes = occupiedMinutes;
+    }
+
+    public long getTransitionCount() {
+        return transitionCount;
+    }
+
+    public void setTransitionCount(long transitionCount) {
+        this.transitionCount = transitionCount;
+    }
+
+    public double getMinOccupiedMinutes() {
+        return minOccupiedMinutes;
+    }
+
+    public void setMinOccupiedMinutes(double minOccupiedMinutes) {
+        this.minOccupiedMinutes = minOccupiedMinutes;
+    }
+
+    public double getMaxOccupiedMinutes() {
+        return maxOccupiedMinutes;
+    }
+
+    public void setMaxOccupiedMinutes(double maxOccupiedMinutes) {
+        this.maxOccupiedMinutes = maxOccupiedMinutes;
+    }
+}
@@ -0,0 +1,23 @@
+package com.spaceflow.occupancy.dto;
+
+import java.util.List;
+
+public class ObservationSummariesResponse {
+
+    private List<ObservationSummary> summaries;
+
+    public ObservationSummariesResponse() {
+    }
+
+    public ObservationSummariesResponse(List<ObservationSummary> summaries) {
+        this.summaries = summaries;
+    }
+
+    public List<ObservationSummary> getSummaries() {
+        return summaries;
+    }
+
+    public void setSummaries(List<ObservationSummary> summaries) {
+        this.summaries = summaries;
+    }
+}
@@ -0,0 +1,66 @@
+package com.spaceflow.occupancy.dto;
+
+import java.time.OffsetDateTime;
+
+public class ObservationSummary {
+
+    private String spaceId;
+
+    private OffsetDateTime startTime;
+
+    private OffsetDateTime endTime;
+
+    private long observationCount;
+
+    private long occupiedObservationCount;
+
+    private double occupiedMinutes;
+
+    public String getSpaceId() {
+        return spaceId;
+    }
+
+    public void setSpaceId(String spaceId) {
+        this.spaceId = spaceId;
+    }
+
+    public OffsetDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(OffsetDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public OffsetDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(OffsetDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public long getObservationCount() {
+        return observationCount;
+    }
+
+    public void setObservationCount(long observationCount) {
+        this.observationCount = observationCount;
+    }
+
+    public long getOccupiedObservationCount() {
+        return occupiedObservationCount;
+    }
+
+    public void setOccupiedObservationCount(long occupiedObservationCount) {
+        this.occupiedObservationCount = occupiedObservationCount;
+    }
+
+    public double getOccupiedMinutes() {
+        return occupiedMinutes;
+    }
+
+    public void setOccupiedMinutes(double occupiedMinutes) {
+        this.occupiedMinutes = occupiedMinutes;
+    }
+}
@@ -1,5 +1,7 @@
 package com.spaceflow.occupancy.dto;
 
+import jakarta.validation.constraints.Pattern;
+
 import java.time.OffsetDateTime;
 
 public class ObservationUpdateRequest {
@@ -8,6 +10,7 @@ public class ObservationUpdateRequest {
 
     private OffsetDateTime observedEndTime;
 
+    @Pattern(regexp = "occupied|unoccupied", message = "occupancyStatus must be occupied or unoccupied")
     private String occupancyStatus;
 
     private String notes;
@@ -0,0 +1,68 @@
+package com.spaceflow.occupancy.dto;
+
+import java.time.OffsetDateTime;
+
+public class OccupancyTransition {
+
+    private String spaceId;
+
+    private String previousStatus;
+
+    private String occupancyStatus;
+
+    private OffsetDateTime since;
+
+    private String observationId;
+
+    public OccupancyTransition() {
+    }
+
+    public OccupancyTransition(String spaceId, String previousStatus, String occupancyStatus,
+                               OffsetDateTime since, String observationId) {
+        this.spaceId = spaceId;
+        this.previousStatus = previousStatus;
+        this.occupancyStatus = occupancyStatus;
+        this.since = since;
+        this.observationId = observationId;
+    }
+
+    public String getSpaceId() {
+        return spaceId;
+    }
+
+    public void setSpaceId(String spaceId) {
+        this.spaceId = spaceId;
+    }
+
+    public String getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public void setPreviousStatus(String previousStatus) {
+        this.previousStatus = previousStatus;
+    }
+
+    public String getOccupancyStatus() {
+        return occupancyStatus;
+    }
+
+    public void setOccupancyStatus(String occupancyStatus) {
+        this.occupancyStatus = occupancyStatus;
+    }
+
+    public OffsetDateTime getSince() {
+        return since;
+    }
+
+    public void setSince(OffsetDateTime since) {
+        this.since = since;
+    }
+
+    public String getObservationId() {
+        return observationId;
+    }
+
+    public void setObservationId(String observationId) {
+        this.observationId = observationId;
+    }
+}
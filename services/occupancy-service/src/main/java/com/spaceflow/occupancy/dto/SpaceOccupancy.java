@@ -0,0 +1,68 @@
+package com.spaceflow.occupancy.dto;
+
+import java.time.OffsetDateTime;
+
+public class SpaceOccupancy {
+
+    private String spaceId;
+
+    private String occupancyStatus;
+
+    private OffsetDateTime since;
+
+    private String lastObservationId;
+
+    private OffsetDateTime lastObservedAt;
+
+    public SpaceOccupancy() {
+    }
+
+    public SpaceOccupancy(String spaceId, String occupancyStatus, OffsetDateTime since, String lastObservationId,
+                          OffsetDateTime lastObservedAt) {
+        this.spaceId = spaceId;
+        this.occupancyStatus = occupancyStatus;
+        this.since = since;
+        this.lastObservationId = lastObservationId;
+        this.lastObservedAt = lastObservedAt;
+    }
+
+    public String getSpaceId() {
+        return spaceId;
+    }
+
+    public void setSpaceId(String spaceId) {
+        this.spaceId = spaceId;
+    }
+
+    public String getOccupancyStatus() {
+        return occupancyStatus;
+    }
+
+    public void setOccupancyStatus(String occupancyStatus) {
+        this.occupancyStatus = occupancyStatus;
+    }
+
+    public OffsetDateTime getSince() {
+        return since;
+    }
+
+    public void setSince(OffsetDateTime since) {
+        this.since = since;
+    }
+
+    public String getLastObservationId() {
+        return lastObservationId;
+    }
+
+    public void setLastObservationId(String lastObservationId) {
+        this.lastObservationId = lastObservationId;
+    }
+
+    public OffsetDateTime getLastObservedAt() {
+        return lastObservedAt;
+    }
+
+    public void setLastObservedAt(OffsetDateTime lastObservedAt) {
+        this.lastObservedAt = lastObservedAt;
+    }
+}
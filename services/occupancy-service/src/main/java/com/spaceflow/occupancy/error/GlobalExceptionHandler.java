@@ -56,6 +56,32 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgument(IllegalArgumentException ex) {
+        ErrorResponse body = new ErrorResponse("INVALID_REQUEST", ex.getMessage());
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ObservationNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleObservationNotFound(ObservationNotFoundException ex) {
+        ErrorResponse body = new ErrorResponse("NOT_FOUND", ex.getMessage());
+        return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(IngestBufferFullException.class)
+    public ResponseEntity<ErrorResponse> handleIngestBufferFull(IngestBufferFullException ex) {
+        ErrorResponse body = new ErrorResponse("TOO_MANY_REQUESTS", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(body);
+    }
+
+    @ExceptionHandler(ObservationNotPersistedException.class)
+    public ResponseEntity<ErrorResponse> handleObservationNotPersisted(ObservationNotPersistedException ex) {
+        ErrorResponse body = new ErrorResponse("SERVICE_UNAVAILABLE", ex.getMessage());
+        return new ResponseEntity<>(body, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
         ErrorResponse body = new ErrorResponse("INTERNAL_ERROR", "An unexpected error occurred");
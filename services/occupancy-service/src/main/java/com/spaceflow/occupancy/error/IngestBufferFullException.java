@@ -0,0 +1,18 @@
+package com.spaceflow.occupancy.error;
+
+/**
+ * Thrown when the ingest buffer cannot take more observations; mapped to 429 with Retry-After.
+ */
+public class IngestBufferFullException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public IngestBufferFullException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
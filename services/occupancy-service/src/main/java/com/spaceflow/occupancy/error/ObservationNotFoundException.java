@@ -0,0 +1,11 @@
+package com.spaceflow.occupancy.error;
+
+/**
+ * Thrown when no stored observation has the requested id; mapped to 404.
+ */
+public class ObservationNotFoundException extends RuntimeException {
+
+    public ObservationNotFoundException(String message) {
+        super(message);
+    }
+}
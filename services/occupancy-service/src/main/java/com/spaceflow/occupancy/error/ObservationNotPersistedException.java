@@ -0,0 +1,12 @@
+package com.spaceflow.occupancy.error;
+
+/**
+ * Thrown when an accepted observation was not persisted within the write timeout; mapped to
+ * 503. The observation may still be stored later.
+ */
+public class ObservationNotPersistedException extends RuntimeException {
+
+    public ObservationNotPersistedException(String message) {
+        super(message);
+    }
+}
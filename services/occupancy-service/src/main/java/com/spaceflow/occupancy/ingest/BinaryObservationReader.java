@@ -0,0 +1,128 @@
+package com.spaceflow.occupancy.ingest;
+
+import com.spaceflow.occupancy.store.ObservationRow;
+import com.spaceflow.occupancy.store.ObservationStore;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes the binary observation batch format into ingest records, without JSON parsing,
+ * request DTOs or timestamp strings. Each record becomes an {@link ObservationRow} holding its
+ * fields as they were read (epoch milliseconds, a shared status constant and random id bits),
+ * which the store appends to its columns as is. All numbers are big-endian:
+ *
+ * <pre>
+ * int32   magic "OBS1"
+ * uint16  space count, then per space:  uint16 byte length, UTF-8 space id
+ * uint16  sensor count, then per sensor: uint16 byte length, UTF-8 sensor id
+ * records until the end of the stream, 29 bytes each:
+ *   uint16  space index
+ *   uint16  sensor index, or 0xFFFF when the sender has no sensor sequence
+ *   int64   sensor sequence number (ignored without a sensor)
+ *   int64   observed start, epoch milliseconds
+ *   int64   observed end, epoch milliseconds
+ *   uint8   status: 0 unoccupied, 1 occupied
+ * </pre>
+ *
+ * Records are validated as they are read, with the same rules as JSON items.
+ */
+public final class BinaryObservationReader {
+
+    public static final String MEDIA_TYPE = "application/vnd.spaceflow.observations";
+
+    static final int MAGIC = 0x4F425331;
+    static final int RECORD_BYTES = 29;
+    static final int NO_SENSOR = 0xFFFF;
+
+    private static final String[] STATUSES = {"unoccupied", "occupied"};
+
+    private BinaryObservationReader() {
+    }
+
+    /**
+     * Reads a whole batch; either every record is valid or an exception is thrown.
+     *
+     * @throws IllegalArgumentException if the batch is malformed, holds an invalid record or
+     *                                  more than {@code maxRecords} records
+     */
+    public static List<IngestRecord> read(InputStream body, int maxRecords, long recordedAtMillis)
+            throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(body));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a binary observation batch");
+            }
+            String[] spaces = readTable(in, "spaces");
+            String[] sensors = readTable(in, "sensors");
+            List<IngestRecord> records = new ArrayList<>();
+            byte[] bytes = new byte[RECORD_BYTES];
+            ByteBuffer record = ByteBuffer.wrap(bytes);
+            for (int index = 0; ; index++) {
+                int read = in.readNBytes(bytes, 0, RECORD_BYTES);
+                if (read == 0) {
+                    return records;
+                }
+                if (read < RECORD_BYTES) {
+                    throw new IllegalArgumentException("records[" + index + "] is truncated");
+                }
+                if (index == maxRecords) {
+                    throw new IllegalArgumentException("A batch may contain at most " + maxRecords + " observations");
+                }
+                records.add(decode(record.clear(), index, spaces, sensors, recordedAtMillis));
+            }
+        } catch (EOFException ex) {
+            throw new IllegalArgumentException("Binary observation batch header is truncated");
+        }
+    }
+
+    private static IngestRecord decode(ByteBuffer record, int index, String[] spaces, String[] sensors,
+                                       long recordedAtMillis) {
+        int space = Short.toUnsignedInt(record.getShort());
+        int sensor = Short.toUnsignedInt(record.getShort());
+        long sequence = record.getLong();
+        long start = record.getLong();
+        long end = record.getLong();
+        int status = Byte.toUnsignedInt(record.get());
+        if (space >= spaces.length) {
+            throw new IllegalArgumentException("records[" + index + "]: unknown space index " + space);
+        }
+        if (sensor != NO_SENSOR && sensor >= sensors.length) {
+            throw new IllegalArgumentException("records[" + index + "]: unknown sensor index " + sensor);
+        }
+        if (status >= STATUSES.length) {
+            throw new IllegalArgumentException("records[" + index + "]: unknown status " + status);
+        }
+        if (end <= start) {
+            throw new IllegalArgumentException("records[" + index + "]: observedEndTime must be after observedStartTime");
+        }
+        if (end - start > ObservationStore.MAX_OBSERVED_PERIOD.toMillis()) {
+            throw new IllegalArgumentException("records[" + index + "]: An observed period may span at most "
+                    + ObservationStore.MAX_OBSERVED_PERIOD.toDays() + " days");
+        }
+        ObservationRow row = ObservationRow.create(spaces[space], start, end, STATUSES[status], recordedAtMillis, null);
+        return sensor == NO_SENSOR
+                ? IngestRecord.fromContent(row)
+                : IngestRecord.fromSensor(row, sensors[sensor], sequence);
+    }
+
+    private static String[] readTable(DataInputStream in, String name) throws IOException {
+        String[] entries = new String[in.readUnsignedShort()];
+        for (int i = 0; i < entries.length; i++) {
+            byte[] bytes = new byte[in.readUnsignedShort()];
+            in.readFully(bytes);
+            entries[i] = new String(bytes, StandardCharsets.UTF_8);
+            if (entries[i].isBlank()) {
+                throw new IllegalArgumentException(name + "[" + i + "] must not be blank");
+            }
+        }
+        return entries;
+    }
+}
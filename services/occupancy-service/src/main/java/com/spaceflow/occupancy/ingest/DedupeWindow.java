@@ -0,0 +1,61 @@
+package com.spaceflow.occupancy.ingest;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Remembers the dedupe keys of the last {@code size} observations accepted per space.
+ *
+ * Each space has a ring of keys plus a set for lookup; recording a key beyond the window
+ * forgets the oldest one. Not thread-safe: only the ingest consumer thread uses it.
+ */
+class DedupeWindow {
+
+    private final int size;
+    private final Map<String, SpaceWindow> windows = new HashMap<>();
+
+    DedupeWindow(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Records {@code key} for the space.
+     *
+     * @return false if the key is already in the space's window
+     */
+    boolean add(String spaceId, long key) {
+        if (size <= 0) {
+            return true;
+        }
+        return windows.computeIfAbsent(spaceId, id -> new SpaceWindow(size)).add(key);
+    }
+
+    private static final class SpaceWindow {
+
+        private final long[] ring;
+        private final Set<Long> keys;
+        private int next;
+        private int count;
+
+        SpaceWindow(int size) {
+            this.ring = new long[size];
+            this.keys = new HashSet<>();
+        }
+
+        boolean add(long key) {
+            if (!keys.add(key)) {
+                return false;
+            }
+            if (count == ring.length) {
+                keys.remove(ring[next]);
+            } else {
+                count++;
+            }
+            ring[next] = key;
+            next = (next + 1) % ring.length;
+            return true;
+        }
+    }
+}
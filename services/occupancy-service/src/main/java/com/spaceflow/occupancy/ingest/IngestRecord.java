@@ -0,0 +1,52 @@
+package com.spaceflow.occupancy.ingest;
+
+import com.spaceflow.occupancy.store.ObservationRow;
+
+/**
+ * An observation queued for persistence, with the 64-bit key that identifies resends of it.
+ */
+public record IngestRecord(ObservationRow row, long dedupeKey) {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Keys an observation by the sensor that sent it and the sensor's sequence number.
+     */
+    public static IngestRecord fromSensor(ObservationRow row, String sensorId, long sequence) {
+        return new IngestRecord(row, mix(hash(hash(FNV_OFFSET, sensorId), sequence)));
+    }
+
+    /**
+     * Keys an observation by what it reports, for senders without sequence numbers.
+     */
+    public static IngestRecord fromContent(ObservationRow row) {
+        long hash = hash(FNV_OFFSET, row.startMillis());
+        hash = hash(hash, row.endMillis());
+        hash = hash(hash, row.status());
+        hash = hash(hash, row.notes() == null ? "" : row.notes());
+        return new IngestRecord(row, mix(hash));
+    }
+
+    private static long hash(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        // Terminate the field so adjacent strings cannot shift into each other.
+        return (hash ^ 0xFFFF) * FNV_PRIME;
+    }
+
+    private static long hash(long hash, long value) {
+        for (int shift = 0; shift < 64; shift += 8) {
+            hash = (hash ^ (value >>> shift & 0xFF)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
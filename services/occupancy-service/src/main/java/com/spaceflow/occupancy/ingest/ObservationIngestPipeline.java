@@ -0,0 +1,186 @@
+package com.spaceflow.occupancy.ingest;
+
+import com.spaceflow.occupancy.error.IngestBufferFullException;
+import com.spaceflow.occupancy.store.ObservationRow;
+import com.spaceflow.occupancy.store.ObservationStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Decouples accepting observations from persisting them.
+ *
+ * Request threads put observations into a bounded {@link RingBuffer} without locking; one
+ * consumer thread drains it and hands the {@link ObservationStore} batches of up to
+ * {@code flushBatchSize} observations, so storage cost is paid per batch rather than per
+ * observation. When the buffer cannot take a request's observations the request is rejected
+ * with an {@link IngestBufferFullException} (429 with Retry-After) instead of queueing
+ * without bound.
+ *
+ * A batch the store fails to take is kept and retried with backoff up to
+ * {@value #MAX_RETRY_MILLIS} ms rather than dropped: nothing after it counts as persisted in the
+ * meantime, so waiters time out and the buffer fills up until requests are rejected.
+ *
+ * The consumer drops resent observations: a record whose dedupe key is among the last
+ * {@code dedupeWindow} keys accepted for its space is not stored. Sealing later orders each
+ * day partition by observed start, so late arrivals need no reordering here.
+ */
+@Component
+public class ObservationIngestPipeline implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObservationIngestPipeline.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MIN_RETRY_MILLIS = 10;
+    private static final long MAX_RETRY_MILLIS = 1000;
+
+    private final ObservationStore store;
+    private final RingBuffer<IngestRecord> buffer;
+    private final DedupeWindow dedupeWindow;
+    private final int flushBatchSize;
+    private final long retryAfterSeconds;
+    private final Object persistLock = new Object();
+    private final Thread consumer;
+    private volatile Consumer<List<ObservationRow>> persistedHandler = rows -> { };
+    private volatile boolean running = true;
+    /** Sequence up to which observations have been handed to the store; guarded by persistLock. */
+    private long persistedSequence;
+
+    public ObservationIngestPipeline(ObservationStore store,
+                                     @Value("${occupancy.ingest.buffer-size:65536}") int bufferSize,
+                                     @Value("${occupancy.ingest.flush-batch-size:4096}") int flushBatchSize,
+                                     @Value("${occupancy.ingest.retry-after-seconds:1}") long retryAfterSeconds,
+                                     @Value("${occupancy.ingest.dedupe-window:4096}") int dedupeWindow) {
+        this.store = store;
+        this.buffer = new RingBuffer<>(bufferSize);
+        this.dedupeWindow = new DedupeWindow(dedupeWindow);
+        this.flushBatchSize = flushBatchSize;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.consumer = new Thread(this::drainLoop, "occupancy-ingest");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * Sets what to do with each batch after the store has taken it. Runs on the consumer
+     * thread, one batch at a time; the list is only valid during the call.
+     */
+    public void setPersistedHandler(Consumer<List<ObservationRow>> persistedHandler) {
+        this.persistedHandler = persistedHandler;
+    }
+
+    /**
+     * Queues all observations or none of them.
+     *
+     * @return sequence to pass to {@link #awaitPersisted} to wait for these observations
+     * @throws IngestBufferFullException if the buffer cannot take them right now
+     */
+    public long submit(List<IngestRecord> records) {
+        long sequence = buffer.offer(records);
+        if (sequence < 0) {
+            throw new IngestBufferFullException("Ingest buffer is full, retry later", retryAfterSeconds);
+        }
+        LockSupport.unpark(consumer);
+        return sequence;
+    }
+
+    /**
+     * Waits until every observation up to {@code sequence} has been handed to the store.
+     *
+     * @return false if the timeout elapsed first
+     */
+    public boolean awaitPersisted(long sequence, long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (persistLock) {
+            while (persistedSequence < sequence) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    persistLock.wait(remaining);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public int queued() {
+        return buffer.size();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void drainLoop() {
+        List<IngestRecord> drained = new ArrayList<>(flushBatchSize);
+        List<ObservationRow> batch = new ArrayList<>(flushBatchSize);
+        while (running || buffer.size() > 0) {
+            drained.clear();
+            batch.clear();
+            if (buffer.drainTo(drained, flushBatchSize) == 0) {
+                if (!running) {
+                    // A producer claimed slots but never filled them; nothing more will arrive.
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            for (IngestRecord record : drained) {
+                if (dedupeWindow.add(record.row().spaceId(), record.dedupeKey())) {
+                    batch.add(record.row());
+                }
+            }
+            if (!persist(batch)) {
+                return;
+            }
+            try {
+                persistedHandler.accept(batch);
+            } catch (RuntimeException ex) {
+                logger.warn("Persisted handler failed for {} observations", batch.size(), ex);
+            }
+            synchronized (persistLock) {
+                persistedSequence = buffer.consumedSequence();
+                persistLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Hands a batch to the store, retrying until it is taken.
+     *
+     * @return false if the pipeline was shut down before the store took it
+     */
+    private boolean persist(List<ObservationRow> batch) {
+        long backoffMillis = MIN_RETRY_MILLIS;
+        while (true) {
+            try {
+                store.appendRows(batch);
+                return true;
+            } catch (RuntimeException ex) {
+                if (!running) {
+                    logger.error("Failed to persist {} observations before shutdown", batch.size(), ex);
+                    return false;
+                }
+                logger.warn("Failed to persist {} observations, retrying in {} ms", batch.size(), backoffMillis, ex);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+                backoffMillis = Math.min(backoffMillis * 2, MAX_RETRY_MILLIS);
+            }
+        }
+    }
+}
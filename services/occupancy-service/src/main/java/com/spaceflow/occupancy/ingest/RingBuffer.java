@@ -0,0 +1,99 @@
+package com.spaceflow.occupancy.ingest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer.
+ *
+ * Producers claim a contiguous range of sequences with one CAS and then fill the claimed
+ * slots; the consumer takes slots in sequence order as soon as they are filled. Claims are
+ * all-or-nothing, so when the buffer cannot take a whole batch the batch is rejected and
+ * nobody blocks or takes a lock.
+ */
+public class RingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int capacity;
+    private final int mask;
+    /** Next sequence to hand out to a producer. */
+    private final AtomicLong claimed = new AtomicLong();
+    /** Next sequence the consumer will take; written by the consumer only. */
+    private volatile long consumed;
+
+    public RingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a positive power of two");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Number of claimed sequences not yet taken by the consumer.
+     */
+    public int size() {
+        return (int) (claimed.get() - consumed);
+    }
+
+    /**
+     * Appends all {@code items} or none of them.
+     *
+     * @return the sequence following the last appended item, or -1 if the buffer is too full
+     */
+    public long offer(List<? extends T> items) {
+        int count = items.size();
+        if (count > capacity) {
+            return -1;
+        }
+        long start;
+        do {
+            start = claimed.get();
+            if (start + count - consumed > capacity) {
+                return -1;
+            }
+        } while (!claimed.compareAndSet(start, start + count));
+        for (int i = 0; i < count; i++) {
+            slots.lazySet((int) ((start + i) & mask), items.get(i));
+        }
+        return start + count;
+    }
+
+    /**
+     * Consumer only: moves up to {@code max} items, in sequence order, into {@code out}. Stops
+     * at the first claimed slot that its producer has not filled yet.
+     *
+     * @return number of items moved
+     */
+    public int drainTo(List<? super T> out, int max) {
+        long next = consumed;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (next & mask);
+            T item = slots.get(index);
+            if (item == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            out.add(item);
+            next++;
+            drained++;
+        }
+        // Publishing the new position frees the slots for producers.
+        consumed = next;
+        return drained;
+    }
+
+    /**
+     * Sequence of the next item the consumer will take.
+     */
+    public long consumedSequence() {
+        return consumed;
+    }
+}
@@ -0,0 +1,133 @@
+package com.spaceflow.occupancy.query;
+
+import com.spaceflow.occupancy.dto.Observation;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Runs a per-space query for many spaces at once.
+ *
+ * The spaces are split in halves until each task holds one space, on a dedicated
+ * {@link ForkJoinPool} so that long building-wide queries cannot starve other users of the
+ * common pool. Per-space reads only take their own space's locks, so they proceed in parallel
+ * with each other and with ingest. Per-space results, each already ordered by observed start,
+ * are merged with a k-way heap merge instead of being concatenated and sorted again.
+ */
+@Component
+public class MultiSpaceQuery implements DisposableBean {
+
+    private final ForkJoinPool pool;
+
+    public MultiSpaceQuery(@Value("${occupancy.query.parallelism:0}") int parallelism) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("occupancy-query-" + thread.getPoolIndex());
+                    thread.setDaemon(true);
+                    return thread;
+                }, null, false);
+    }
+
+    /**
+     * Applies {@code query} to every space in parallel.
+     *
+     * @return the results in the order of {@code spaceIds}
+     */
+    public <T> List<T> forEachSpace(List<String> spaceIds, Function<String, T> query) {
+        Object[] results = new Object[spaceIds.size()];
+        pool.invoke(new SpaceTask<>(spaceIds, query, results, 0, results.length));
+        @SuppressWarnings("unchecked")
+        List<T> ordered = (List<T>) Arrays.asList(results);
+        return ordered;
+    }
+
+    /**
+     * Merges lists each ordered by observed start into one list ordered by observed start. Ties
+     * keep the order of the lists, then of the observations within a list.
+     */
+    public static List<Observation> mergeByStart(List<List<Observation>> sorted) {
+        int total = 0;
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(Math.max(1, sorted.size()));
+        for (int i = 0; i < sorted.size(); i++) {
+            List<Observation> list = sorted.get(i);
+            total += list.size();
+            if (!list.isEmpty()) {
+                heads.add(new Cursor(list, i));
+            }
+        }
+        List<Observation> merged = new ArrayList<>(total);
+        while (!heads.isEmpty()) {
+            Cursor head = heads.poll();
+            merged.add(head.list.get(head.position));
+            if (++head.position < head.list.size()) {
+                head.startMillis = head.list.get(head.position).getObservedStartTime().toInstant().toEpochMilli();
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    private static final class SpaceTask<T> extends RecursiveAction {
+
+        private final List<String> spaceIds;
+        private final Function<String, T> query;
+        private final Object[] results;
+        private final int from;
+        private final int to;
+
+        SpaceTask(List<String> spaceIds, Function<String, T> query, Object[] results, int from, int to) {
+            this.spaceIds = spaceIds;
+            this.query = query;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                results[from] = query.apply(spaceIds.get(from));
+            } else if (to > from) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SpaceTask<>(spaceIds, query, results, from, middle),
+                        new SpaceTask<>(spaceIds, query, results, middle, to));
+            }
+        }
+    }
+
+    /** Next unmerged observation of one list. */
+    private static final class Cursor implements Comparable<Cursor> {
+
+        final List<Observation> list;
+        final int listIndex;
+        int position;
+        long startMillis;
+
+        Cursor(List<Observation> list, int listIndex) {
+            this.list = list;
+            this.listIndex = listIndex;
+            this.startMillis = list.get(0).getObservedStartTime().toInstant().toEpochMilli();
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            int byStart = Long.compare(startMillis, other.startMillis);
+            return byStart != 0 ? byStart : Integer.compare(listIndex, other.listIndex);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.spaceflow.occupancy.service;
+
+import com.spaceflow.occupancy.dto.Observation;
+import com.spaceflow.occupancy.dto.ObservationCreateRequest;
+import com.spaceflow.occupancy.dto.ObservationRollup;
+import com.spaceflow.occupancy.dto.ObservationRollupBucket;
+import com.spaceflow.occupancy.dto.ObservationSummary;
+import com.spaceflow.occupancy.dto.ObservationUpdateRequest;
+import com.spaceflow.occupancy.error.ObservationNotFoundException;
+import com.spaceflow.occupancy.error.ObservationNotPersistedException;
+import com.spaceflow.occupancy.ingest.BinaryObservationReader;
+import com.spaceflow.occupancy.ingest.IngestRecord;
+import com.spaceflow.occupancy.ingest.ObservationIngestPipeline;
+import com.spaceflow.occupancy.query.MultiSpaceQuery;
+import com.spaceflow.occupancy.store.ObservationRow;
+import com.spaceflow.occupancy.store.ObservationStore;
+import com.spaceflow.occupancy.store.RangeAggregate;
+import com.spaceflow.occupancy.store.RollupBucket;
+import com.spaceflow.occupancy.store.RollupTier;
+import com.spaceflow.occupancy.state.SpaceStateTracker;
+import com.spaceflow.occupancy.stream.ObservationBroadcaster;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records and retrieves occupancy observations.
+ *
+ * All writes go through the {@link ObservationIngestPipeline}. Bulk ingestion returns as soon
+ * as the observations are queued; a single recorded observation waits for the batch it is
+ * persisted with, so that a following read sees it, and fails with 503 if that takes longer
+ * than the write timeout.
+ *
+ * Persisted observations are handed to the {@link ObservationBroadcaster} for streaming.
+ *
+ * Each observation carries a dedupe key so that resends are dropped at ingest: the sensor id
+ * and sequence number when the sender supplies them, otherwise a hash of what it reports.
+ *
+ * A correction replaces the stored observation in place as far as readers can tell; see
+ * {@link ObservationStore#correct} for how it is stored without rewriting sealed data.
+ *
+ * Queries over many spaces run the single-space query of each space in parallel on the
+ * {@link MultiSpaceQuery} pool.
+ *
+ * Bucketed rollups are answered from the coarsest {@link RollupTier} whose buckets tile the
+ * requested resolution, so that long ranges read hourly rollups rather than raw rows.
+ */
+@Service
+public class OccupancyObservationService {
+
+    private final ObservationIngestPipeline pipeline;
+    private final ObservationStore store;
+    private final SpaceStateTracker stateTracker;
+    private final MultiSpaceQuery multiSpaceQuery;
+    private final Validator validator;
+    private final int maxBatchSize;
+    private final long writeTimeoutMillis;
+    private final int maxRollupBuckets;
+    private final int maxQuerySpaceIds;
+
+    public OccupancyObservationService(ObservationIngestPipeline pipeline,
+                                       ObservationStore store,
+                                       SpaceStateTracker stateTracker,
+                                       MultiSpaceQuery multiSpaceQuery,
+                                       ObservationBroadcaster broadcaster,
+                                       Validator validator,
+                                       @Value("${occupancy.ingest.max-batch-size:10000}") int maxBatchSize,
+                                       @Value("${occupancy.ingest.write-timeout-ms:5000}") long writeTimeoutMillis,
+                                       @Value("${occupancy.rollups.max-buckets:10000}") int maxRollupBuckets,
+                                       @Value("${occupancy.query.max-space-ids:1000}") int maxQuerySpaceIds) {
+        this.pipeline = pipeline;
+        this.store = store;
+        this.stateTracker = stateTracker;
+        this.multiSpaceQuery = multiSpaceQuery;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
+        this.writeTimeoutMillis = writeTimeoutMillis;
+        this.maxRollupBuckets = maxRollupBuckets;
+        this.maxQuerySpaceIds = maxQuerySpaceIds;
+        // The stream and the current-state tracker work with observations; rows are only
+        // materialized for them once stored, off the request path.
+        pipeline.setPersistedHandler(rows -> broadcaster.publish(rows.stream().map(ObservationRow::toObservation)
+                .toList()));
+    }
+
+    public Observation recordObservation(ObservationCreateRequest request) {
+        String error = requestError(request);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        ObservationRow row = newRow(request, System.currentTimeMillis());
+        long sequence = pipeline.submit(List.of(ingestRecord(request, row)));
+        Observation observation = row.toObservation();
+        if (!pipeline.awaitPersisted(sequence, writeTimeoutMillis)) {
+            throw new ObservationNotPersistedException("Observation " + observation.getObservationId()
+                    + " was accepted but not persisted within " + writeTimeoutMillis + " ms");
+        }
+        return observation;
+    }
+
+    /**
+     * Validates and queues a batch; either every observation is accepted or none is.
+     *
+     * @return number of accepted observations
+     */
+    public int recordObservations(List<ObservationCreateRequest> requests) {
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("A batch must contain at least one observation");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxBatchSize + " observations");
+        }
+        long recordedAt = System.currentTimeMillis();
+        List<IngestRecord> records = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            ObservationCreateRequest request = requests.get(i);
+            if (request == null) {
+                throw new IllegalArgumentException("observations[" + i + "] must not be null");
+            }
+            Set<ConstraintViolation<ObservationCreateRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                ConstraintViolation<ObservationCreateRequest> violation = violations.iterator().next();
+                throw new IllegalArgumentException("observations[" + i + "]." + violation.getPropertyPath()
+                        + ": " + violation.getMessage());
+            }
+            String error = requestError(request);
+            if (error != null) {
+                throw new IllegalArgumentException("observations[" + i + "]: " + error);
+            }
+            records.add(ingestRecord(request, newRow(request, recordedAt)));
+        }
+        pipeline.submit(records);
+        return records.size();
+    }
+
+    /**
+     * Decodes and queues a batch in the {@link BinaryObservationReader} format; either every
+     * record is accepted or none is.
+     *
+     * @return number of accepted observations
+     */
+    public int recordObservations(InputStream binaryBatch) throws IOException {
+        List<IngestRecord> records = BinaryObservationReader.read(binaryBatch, maxBatchSize,
+                System.currentTimeMillis());
+        if (records.isEmpty()) {
+            throw new IllegalArgumentException("A batch must contain at least one observation");
+        }
+        pipeline.submit(records);
+        return records.size();
+    }
+
+    public List<Observation> getObservations(String spaceId, OffsetDateTime startTime, OffsetDateTime endTime) {
+        if (!startTime.isBefore(endTime)) {
+            throw new IllegalArgumentException("startTime must be before endTime");
+        }
+        return store.find(spaceId, startTime, endTime);
+    }
+
+    public ObservationSummary summarizeObservations(String spaceId, OffsetDateTime startTime, OffsetDateTime endTime) {
+        if (!startTime.isBefore(endTime)) {
+            throw new IllegalArgumentException("startTime must be before endTime");
+        }
+        return summary(spaceId, startTime, endTime, store.summarize(spaceId, startTime, endTime));
+    }
+
+    /**
+     * Returns the observations of all of {@code spaceIds} overlapping the window, ordered by
+     * observed start time and, for equal starts, by the order of {@code spaceIds}.
+     */
+    public List<Observation> getObservations(Collection<String> spaceIds, OffsetDateTime startTime,
+                                             OffsetDateTime endTime) {
+        List<String> spaces = querySpaces(spaceIds, startTime, endTime);
+        return MultiSpaceQuery.mergeByStart(multiSpaceQuery.forEachSpace(spaces,
+                spaceId -> store.find(spaceId, startTime, endTime)));
+    }
+
+    /**
+     * Summarizes each of {@code spaceIds} over the window, in the order of {@code spaceIds}.
+     */
+    public List<ObservationSummary> summarizeObservations(Collection<String> spaceIds, OffsetDateTime startTime,
+                                                          OffsetDateTime endTime) {
+        List<String> spaces = querySpaces(spaceIds, startTime, endTime);
+        return multiSpaceQuery.forEachSpace(spaces,
+                spaceId -> summary(spaceId, startTime, endTime, store.summarize(spaceId, startTime, endTime)));
+    }
+
+    /**
+     * Applies the fields given in {@code request} to a stored observation.
+     *
+     * @return the corrected observation
+     * @throws ObservationNotFoundException if no stored observation has that id
+     */
+    public Observation correctObservation(String observationId, ObservationUpdateRequest request) {
+        Observation corrected = store.correct(observationId, current -> {
+            Observation replacement = new Observation();
+            replacement.setObservedStartTime(request.getObservedStartTime() != null
+                    ? request.getObservedStartTime() : current.getObservedStartTime());
+            replacement.setObservedEndTime(request.getObservedEndTime() != null
+                    ? request.getObservedEndTime() : current.getObservedEndTime());
+            replacement.setOccupancyStatus(request.getOccupancyStatus() != null
+                    ? request.getOccupancyStatus() : current.getOccupancyStatus());
+            replacement.setNotes(request.getNotes() != null ? request.getNotes() : current.getNotes());
+            replacement.setRecordedAt(current.getRecordedAt());
+            String error = periodError(replacement.getObservedStartTime(), replacement.getObservedEndTime());
+            if (error != null) {
+                throw new IllegalArgumentException(error);
+            }
+            return replacement;
+        });
+        if (corrected == null) {
+            throw new ObservationNotFoundException("Observation not found: " + observationId);
+        }
+        stateTracker.correct(corrected);
+        return corrected;
+    }
+
+    /**
+     * Aggregates a space's observations into buckets of {@code resolutionMinutes}. The first
+     * bucket starts at {@code startTime} rounded down to the chosen tier's bucket, and the last
+     * one ends at or after {@code endTime}.
+     */
+    public ObservationRollup rollUpObservations(String spaceId, OffsetDateTime startTime, OffsetDateTime endTime,
+                                                int resolutionMinutes) {
+        if (!startTime.isBefore(endTime)) {
+            throw new IllegalArgumentException("startTime must be before endTime");
+        }
+        Duration resolution = Duration.ofMinutes(resolutionMinutes);
+        RollupTier tier = RollupTier.coarsestFor(resolution);
+        if (tier == null) {
+            throw new IllegalArgumentException("resolutionMinutes must be a positive multiple of "
+                    + RollupTier.FIVE_MINUTES.bucket().toMinutes());
+        }
+        long tierMillis = tier.bucket().toMillis();
+        long from = Math.floorDiv(startTime.toInstant().toEpochMilli(), tierMillis) * tierMillis;
+        long span = endTime.toInstant().toEpochMilli() - from;
+        long bucketCount = (span + resolution.toMillis() - 1) / resolution.toMillis();
+        if (bucketCount > maxRollupBuckets) {
+            throw new IllegalArgumentException("A rollup may contain at most " + maxRollupBuckets + " buckets");
+        }
+        OffsetDateTime start = Instant.ofEpochMilli(from).atOffset(ZoneOffset.UTC);
+        OffsetDateTime retainedSince = store.retainedSince(tier);
+        if (retainedSince != null && start.isBefore(retainedSince)) {
+            throw new IllegalArgumentException("Observations before " + retainedSince + " are not kept at "
+                    + resolutionMinutes + "-minute resolution");
+        }
+        List<ObservationRollupBucket> buckets = new ArrayList<>((int) bucketCount);
+        for (RollupBucket bucket : store.rollup(spaceId, start, resolution, (int) bucketCount, tier)) {
+            ObservationRollupBucket response = new ObservationRollupBucket();
+            response.setStartTime(Instant.ofEpochMilli(bucket.getStartMillis()).atOffset(ZoneOffset.UTC));
+            response.setEndTime(response.getStartTime().plus(resolution));
+            response.setObservationCount(bucket.getObservations());
+            response.setOccupiedMinutes(bucket.getOccupiedMillis() / 60_000.0);
+            response.setTransitionCount(bucket.getTransitions());
+            response.setMinOccupiedMinutes(bucket.getMinOccupiedMillis() / 60_000.0);
+            response.setMaxOccupiedMinutes(bucket.getMaxOccupiedMillis() / 60_000.0);
+            buckets.add(response);
+        }
+        ObservationRollup rollup = new ObservationRollup();
+        rollup.setSpaceId(spaceId);
+        rollup.setStartTime(start);
+        rollup.setEndTime(start.plus(resolution.multipliedBy(bucketCount)));
+        rollup.setResolutionMinutes(resolutionMinutes);
+        rollup.setTier(tier.name());
+        rollup.setBuckets(buckets);
+        return rollup;
+    }
+
+    private List<String> querySpaces(Collection<String> spaceIds, OffsetDateTime startTime, OffsetDateTime endTime) {
+        if (spaceIds.isEmpty()) {
+            throw new IllegalArgumentException("spaceIds must name at least one space");
+        }
+        if (spaceIds.size() > maxQuerySpaceIds) {
+            throw new IllegalArgumentException("At most " + maxQuerySpaceIds + " spaceIds may be queried at once");
+        }
+        if (!startTime.isBefore(endTime)) {
+            throw new IllegalArgumentException("startTime must be before endTime");
+        }
+        return List.copyOf(spaceIds);
+    }
+
+    private static ObservationSummary summary(String spaceId, OffsetDateTime startTime, OffsetDateTime endTime,
+                                              RangeAggregate aggregate) {
+        ObservationSummary summary = new ObservationSummary();
+        summary.setSpaceId(spaceId);
+        summary.setStartTime(startTime);
+        summary.setEndTime(endTime);
+        summary.setObservationCount(aggregate.getObservations());
+        summary.setOccupiedObservationCount(aggregate.getOccupiedObservations());
+        summary.setOccupiedMinutes(aggregate.getOccupiedMillis() / 60_000.0);
+        return summary;
+    }
+
+    private static String requestError(ObservationCreateRequest request) {
+        if ((request.getSensorId() == null) != (request.getSequence() == null)) {
+            return "sensorId and sequence must be given together";
+        }
+        return periodError(request.getObservedStartTime(), request.getObservedEndTime());
+    }
+
+    private static String periodError(OffsetDateTime start, OffsetDateTime end) {
+        Duration period = Duration.between(start, end);
+        if (period.isNegative() || period.isZero()) {
+            return "observedEndTime must be after observedStartTime";
+        }
+        if (period.compareTo(ObservationStore.MAX_OBSERVED_PERIOD) > 0) {
+            return "An observed period may span at most " + ObservationStore.MAX_OBSERVED_PERIOD.toDays() + " days";
+        }
+        return null;
+    }
+
+    private static IngestRecord ingestRecord(ObservationCreateRequest request, ObservationRow row) {
+        return request.getSensorId() != null
+                ? IngestRecord.fromSensor(row, request.getSensorId(), request.getSequence())
+                : IngestRecord.fromContent(row);
+    }
+
+    private static ObservationRow newRow(ObservationCreateRequest request, long recordedAtMillis) {
+        return ObservationRow.create(request.getSpaceId(), request.getObservedStartTime().toInstant().toEpochMilli(),
+                request.getObservedEndTime().toInstant().toEpochMilli(), request.getOccupancyStatus(),
+                recordedAtMillis, request.getNotes());
+    }
+}
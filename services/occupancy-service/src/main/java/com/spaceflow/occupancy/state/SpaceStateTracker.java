@@ -0,0 +1,111 @@
+package com.spaceflow.occupancy.state;
+
+import com.spaceflow.occupancy.dto.Observation;
+import com.spaceflow.occupancy.dto.OccupancyTransition;
+import com.spaceflow.occupancy.dto.SpaceOccupancy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Current occupancy of each space: the status reported by its latest observation (by observed
+ * start), since when the space has had that status, and which observation said so.
+ *
+ * States are immutable values in a {@link ConcurrentHashMap}, replaced atomically per space,
+ * so a lookup is a single map read without locking. An observation starting before the
+ * space's latest one is older news and leaves the state unchanged. States are rebuilt from
+ * new observations after a restart.
+ *
+ * A correction of the observation a state was taken from rewrites that state in place; a
+ * correction of any other observation counts like a newly recorded one.
+ */
+@Component
+public class SpaceStateTracker {
+
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+    private final int maxSpaceIds;
+
+    public SpaceStateTracker(@Value("${occupancy.current.max-space-ids:1000}") int maxSpaceIds) {
+        this.maxSpaceIds = maxSpaceIds;
+    }
+
+    /**
+     * Advances the state of the observation's space.
+     *
+     * @return the change of status it caused, or null if the status did not change
+     */
+    public OccupancyTransition record(Observation observation) {
+        String status = observation.getOccupancyStatus();
+        OffsetDateTime start = observation.getObservedStartTime();
+        OccupancyTransition[] transition = new OccupancyTransition[1];
+        states.compute(observation.getSpaceId(), (spaceId, current) -> {
+            if (current != null && start.isBefore(current.observedAt())) {
+                return current;
+            }
+            if (current != null && current.status().equals(status)) {
+                return new State(status, current.since(), observation.getObservationId(), start);
+            }
+            transition[0] = new OccupancyTransition(spaceId, current == null ? null : current.status(), status,
+                    start, observation.getObservationId());
+            return new State(status, start, observation.getObservationId(), start);
+        });
+        return transition[0];
+    }
+
+    /**
+     * Applies a corrected observation.
+     *
+     * @return the change of status it caused, or null if the status did not change
+     */
+    public OccupancyTransition correct(Observation corrected) {
+        String status = corrected.getOccupancyStatus();
+        OffsetDateTime start = corrected.getObservedStartTime();
+        OccupancyTransition[] transition = new OccupancyTransition[1];
+        State state = states.computeIfPresent(corrected.getSpaceId(), (spaceId, current) -> {
+            if (!current.observationId().equals(corrected.getObservationId())) {
+                return current;
+            }
+            if (current.status().equals(status)) {
+                return new State(status, current.since(), current.observationId(), start);
+            }
+            transition[0] = new OccupancyTransition(spaceId, current.status(), status, start,
+                    corrected.getObservationId());
+            return new State(status, start, current.observationId(), start);
+        });
+        if (state == null || !state.observationId().equals(corrected.getObservationId())) {
+            return record(corrected);
+        }
+        return transition[0];
+    }
+
+    /**
+     * Returns the current state of each of {@code spaceIds} that has been observed, in request
+     * order; spaces never observed are left out.
+     */
+    public List<SpaceOccupancy> current(Collection<String> spaceIds) {
+        if (spaceIds.isEmpty()) {
+            throw new IllegalArgumentException("spaceIds must name at least one space");
+        }
+        if (spaceIds.size() > maxSpaceIds) {
+            throw new IllegalArgumentException("At most " + maxSpaceIds + " spaceIds may be requested at once");
+        }
+        List<SpaceOccupancy> result = new ArrayList<>(spaceIds.size());
+        for (String spaceId : spaceIds) {
+            State state = states.get(spaceId);
+            if (state != null) {
+                result.add(new SpaceOccupancy(spaceId, state.status(), state.since(), state.observationId(),
+                        state.observedAt()));
+            }
+        }
+        return result;
+    }
+
+    private record State(String status, OffsetDateTime since, String observationId, OffsetDateTime observedAt) {
+    }
+}
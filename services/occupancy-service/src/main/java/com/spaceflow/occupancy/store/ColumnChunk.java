@@ -0,0 +1,221 @@
+package com.spaceflow.occupancy.store;
+
+import com.spaceflow.occupancy.dto.Observation;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Append-only columns holding the observations of one space whose observed start falls in
+ * one UTC day.
+ *
+ * Rows are spread over primitive arrays rather than kept as objects: the observed start is
+ * stored as milliseconds since the start of the day, the observed end as milliseconds since
+ * the start, the status as a {@link StatusDictionary} code and the observation id as the two
+ * halves of its UUID. Notes and the versions of corrected rows are rare and kept in sparse
+ * maps. About 33 bytes per row, where an {@link Observation} with its timestamps and strings
+ * takes several hundred.
+ *
+ * Access must be synchronized on the chunk.
+ */
+final class ColumnChunk {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final long baseMillis;
+    private int size;
+    private int[] startOffsets = new int[INITIAL_CAPACITY];
+    private int[] durations = new int[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    private long[] idHigh = new long[INITIAL_CAPACITY];
+    private long[] idLow = new long[INITIAL_CAPACITY];
+    private long[] recordedAt = new long[INITIAL_CAPACITY];
+    private final Map<Integer, String> notes = new HashMap<>();
+    private final Map<Integer, Long> versions = new HashMap<>();
+
+    ColumnChunk(long baseMillis) {
+        this.baseMillis = baseMillis;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long baseMillis() {
+        return baseMillis;
+    }
+
+    int startOffset(int row) {
+        return startOffsets[row];
+    }
+
+    int duration(int row) {
+        return durations[row];
+    }
+
+    byte status(int row) {
+        return statuses[row];
+    }
+
+    long idHigh(int row) {
+        return idHigh[row];
+    }
+
+    long idLow(int row) {
+        return idLow[row];
+    }
+
+    long recordedAt(int row) {
+        return recordedAt[row];
+    }
+
+    String note(int row) {
+        return notes.get(row);
+    }
+
+    /**
+     * Version of a row: its updatedAt in epoch milliseconds, or 0 if it was never corrected.
+     */
+    long version(int row) {
+        return versions.isEmpty() ? 0 : versions.getOrDefault(row, 0L);
+    }
+
+    /**
+     * Row numbers ordered by observed start, ties in append order.
+     */
+    int[] rowsByStart() {
+        // Offsets are non-negative ints, so (offset, row) packs into one sortable long.
+        long[] keys = new long[size];
+        for (int row = 0; row < size; row++) {
+            keys[row] = (long) startOffsets[row] << 32 | row;
+        }
+        Arrays.sort(keys);
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = (int) keys[i];
+        }
+        return rows;
+    }
+
+    void append(long start, long end, byte status, long high, long low, long recordedAtMillis, String note,
+                long version) {
+        if (size == startOffsets.length) {
+            grow();
+        }
+        startOffsets[size] = Math.toIntExact(start - baseMillis);
+        durations[size] = Math.toIntExact(end - start);
+        statuses[size] = status;
+        idHigh[size] = high;
+        idLow[size] = low;
+        recordedAt[size] = recordedAtMillis;
+        if (note != null) {
+            notes.put(size, note);
+        }
+        if (version != 0) {
+            versions.put(size, version);
+        }
+        size++;
+    }
+
+    /**
+     * Appends every live row of {@code other}, which must cover the same day and use the same
+     * status codes, and adds the ids of the rows left out to {@code dropped}.
+     */
+    void appendAll(ColumnChunk other, RowFilter live, List<UUID> dropped) {
+        for (int row = 0; row < other.size; row++) {
+            if (!live.isLive(other.idHigh[row], other.idLow[row], other.version(row))) {
+                dropped.add(new UUID(other.idHigh[row], other.idLow[row]));
+                continue;
+            }
+            long start = other.baseMillis + other.startOffsets[row];
+            append(start, start + other.durations[row], other.statuses[row], other.idHigh[row], other.idLow[row],
+                    other.recordedAt[row], other.notes.get(row), other.version(row));
+        }
+    }
+
+    Observation read(int row, StatusDictionary dictionary) {
+        return materialize(row, dictionary);
+    }
+
+    /**
+     * Visits the id and version of every row.
+     */
+    void forEachRow(RowVisitor visitor) {
+        for (int row = 0; row < size; row++) {
+            visitor.visit(idHigh[row], idLow[row], version(row));
+        }
+    }
+
+    /**
+     * Adds to {@code out} every live row whose observed period overlaps [from, to).
+     */
+    void collectOverlapping(long from, long to, RowFilter live, StatusDictionary dictionary, List<Observation> out) {
+        for (int row = 0; row < size; row++) {
+            long start = baseMillis + startOffsets[row];
+            if (start < to && start + durations[row] > from && live.isLive(idHigh[row], idLow[row], version(row))) {
+                out.add(materialize(row, dictionary));
+            }
+        }
+    }
+
+    /**
+     * Adds every live row overlapping [from, to) to {@code aggregate}.
+     */
+    void aggregate(long from, long to, RowFilter live, int occupiedCode, RangeAggregate aggregate) {
+        for (int row = 0; row < size; row++) {
+            long start = baseMillis + startOffsets[row];
+            long end = start + durations[row];
+            if (start < to && end > from && live.isLive(idHigh[row], idLow[row], version(row))) {
+                aggregate.addClipped(start, end, (statuses[row] & 0xFF) == occupiedCode, from, to);
+            }
+        }
+    }
+
+    /**
+     * Adds every live row overlapping [from, to) to {@code rows}.
+     */
+    void collectRows(long from, long to, RowFilter live, int occupiedCode, RawRows rows) {
+        for (int row = 0; row < size; row++) {
+            long start = baseMillis + startOffsets[row];
+            long end = start + durations[row];
+            if (start < to && end > from && live.isLive(idHigh[row], idLow[row], version(row))) {
+                rows.add(start, end, (statuses[row] & 0xFF) == occupiedCode);
+            }
+        }
+    }
+
+    private Observation materialize(int row, StatusDictionary dictionary) {
+        long start = baseMillis + startOffsets[row];
+        Observation observation = new Observation();
+        observation.setObservationId(new UUID(idHigh[row], idLow[row]).toString());
+        observation.setObservedStartTime(utc(start));
+        observation.setObservedEndTime(utc(start + durations[row]));
+        observation.setOccupancyStatus(dictionary.decode(statuses[row]));
+        observation.setNotes(notes.get(row));
+        observation.setRecordedAt(utc(recordedAt[row]));
+        if (versions.containsKey(row)) {
+            observation.setUpdatedAt(utc(versions.get(row)));
+        }
+        return observation;
+    }
+
+    private void grow() {
+        int capacity = startOffsets.length * 2;
+        startOffsets = Arrays.copyOf(startOffsets, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        recordedAt = Arrays.copyOf(recordedAt, capacity);
+    }
+
+    private static OffsetDateTime utc(long millis) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,277 @@
+package com.spaceflow.occupancy.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log of the rows the store holds in memory only, so that rows of days not sealed
+ * yet survive a restart.
+ *
+ * The log is a sequence of files {@code ingest-<n>.log}, each a sequence of frames
+ * {@code [int length][int crc32][superseded day][rows]}, one frame per stored batch or
+ * correction; the superseded day is where a correction hid the version it replaced. A frame
+ * counts only once it is fully written; replay stops reading a file at the first frame that is
+ * cut short or fails its checksum, which is where a crash interrupted the write. Every start
+ * and every {@link #rotate} begins a new file, so nothing is ever appended after a torn frame.
+ *
+ * A closed file is deleted once none of the days its rows belong to is still held in memory
+ * and none of the days its corrections superseded rows in still holds those rows, which is
+ * when every row in it has been sealed and every replaced version dropped. Files are deleted
+ * oldest first only, so whenever a row is replayed, every later version of it is replayed too.
+ */
+final class IngestLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestLog.class);
+
+    private static final String PREFIX = "ingest-";
+    private static final String SUFFIX = ".log";
+    /** Superseded day of frames that are not corrections. */
+    static final long NO_DAY = Long.MIN_VALUE;
+
+    private final Path directory;
+    private final boolean force;
+    /** Days of the rows in each closed file, by file number. */
+    private final Map<Long, Set<Long>> closed = new TreeMap<>();
+    private long current;
+    private FileChannel channel;
+    private Set<Long> currentDays = new HashSet<>();
+
+    private IngestLog(Path directory, boolean force) {
+        this.directory = directory;
+        this.force = force;
+    }
+
+    /**
+     * Replays every file in {@code directory}, oldest first, one frame at a time, and starts a
+     * new file for what is logged next.
+     *
+     * @param force whether to force each frame to disk before {@link #append} returns
+     */
+    static IngestLog open(Path directory, boolean force, Replay replay) throws IOException {
+        IngestLog log = new IngestLog(directory, force);
+        List<Long> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                    numbers.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                }
+            }
+        }
+        numbers.sort(null);
+        long replayed = 0;
+        for (long number : numbers) {
+            Set<Long> days = new HashSet<>();
+            replayed += log.replay(log.path(number), (rows, supersededDay) -> {
+                addDays(days, rows, supersededDay);
+                replay.frame(rows, supersededDay);
+            });
+            log.closed.put(number, days);
+        }
+        if (!numbers.isEmpty()) {
+            logger.info("Replayed {} logged observations from {} ingest log files", replayed, numbers.size());
+        }
+        log.current = numbers.isEmpty() ? 0 : numbers.get(numbers.size() - 1) + 1;
+        log.channel = log.create(log.current);
+        return log;
+    }
+
+    /**
+     * Logs rows before they are stored, with the day of the version a correction replaces or
+     * {@link #NO_DAY}. If the write fails, the file is cut back to its last complete frame and
+     * nothing counts as logged.
+     */
+    synchronized void append(List<ObservationRow> rows, long supersededDay) throws IOException {
+        ByteBuffer frame = encode(rows, supersededDay);
+        long position = channel.position();
+        try {
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+            if (force) {
+                channel.force(false);
+            }
+        } catch (IOException ex) {
+            try {
+                channel.truncate(position);
+                channel.position(position);
+            } catch (IOException truncateFailure) {
+                ex.addSuppressed(truncateFailure);
+            }
+            throw ex;
+        }
+        addDays(currentDays, rows, supersededDay);
+    }
+
+    /**
+     * Closes the current file and starts a new one. Caller ensures every row logged so far has
+     * also been stored.
+     */
+    synchronized void rotate() throws IOException {
+        FileChannel next = create(current + 1);
+        channel.close();
+        closed.put(current, currentDays);
+        current++;
+        channel = next;
+        currentDays = new HashSet<>();
+    }
+
+    /**
+     * Deletes closed files, oldest first, up to the first one with a day {@code pending} accepts.
+     *
+     * @return number of files deleted
+     */
+    synchronized int deleteSealed(LongPredicate pending) {
+        int deleted = 0;
+        for (var iterator = closed.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<Long, Set<Long>> file = iterator.next();
+            if (file.getValue().stream().anyMatch(pending::test)) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(path(file.getKey()));
+                iterator.remove();
+                deleted++;
+            } catch (IOException ex) {
+                logger.warn("Failed to delete ingest log {}", path(file.getKey()), ex);
+                break;
+            }
+        }
+        return deleted;
+    }
+
+    synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private Path path(long number) {
+        return directory.resolve(PREFIX + number + SUFFIX);
+    }
+
+    private FileChannel create(long number) throws IOException {
+        return FileChannel.open(path(number), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private static void addDays(Set<Long> days, List<ObservationRow> rows, long supersededDay) {
+        for (ObservationRow row : rows) {
+            days.add(Math.floorDiv(row.startMillis(), ObservationStore.DAY_MILLIS));
+        }
+        if (supersededDay != NO_DAY) {
+            days.add(supersededDay);
+        }
+    }
+
+    private long replay(Path file, Replay replay) throws IOException {
+        long replayed = 0;
+        long remaining = Files.size(file);
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            while (remaining >= 8) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                remaining -= 8;
+                if (length < 0 || length > remaining) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                remaining -= length;
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    logger.warn("Ignoring the rest of ingest log {}: checksum mismatch", file);
+                    break;
+                }
+                DataInputStream frame = new DataInputStream(new ByteArrayInputStream(payload));
+                long supersededDay = frame.readLong();
+                List<ObservationRow> rows = decode(frame);
+                replay.frame(rows, supersededDay);
+                replayed += rows.size();
+            }
+        }
+        return replayed;
+    }
+
+    private static ByteBuffer encode(List<ObservationRow> rows, long supersededDay) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * rows.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(supersededDay);
+        out.writeInt(rows.size());
+        for (ObservationRow row : rows) {
+            writeString(out, row.spaceId());
+            out.writeLong(row.startMillis());
+            out.writeLong(row.endMillis());
+            writeString(out, row.status());
+            out.writeLong(row.idHigh());
+            out.writeLong(row.idLow());
+            out.writeLong(row.recordedAtMillis());
+            out.writeBoolean(row.notes() != null);
+            if (row.notes() != null) {
+                writeString(out, row.notes());
+            }
+            out.writeLong(row.version());
+        }
+        byte[] payload = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return ByteBuffer.allocate(8 + payload.length).putInt(payload.length).putInt((int) crc.getValue())
+                .put(payload).flip();
+    }
+
+    private static List<ObservationRow> decode(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<ObservationRow> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String spaceId = readString(in);
+            long start = in.readLong();
+            long end = in.readLong();
+            String status = readString(in);
+            long high = in.readLong();
+            long low = in.readLong();
+            long recordedAt = in.readLong();
+            String notes = in.readBoolean() ? readString(in) : null;
+            rows.add(new ObservationRow(spaceId, start, end, status, high, low, recordedAt, notes, in.readLong()));
+        }
+        return rows;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    interface Replay {
+        void frame(List<ObservationRow> rows, long supersededDay);
+    }
+}
@@ -0,0 +1,387 @@
+package com.spaceflow.occupancy.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * On-disk index from the id of every sealed observation to the space and day of the segment
+ * holding it, so finding a sealed row reads one slot here and one segment, and an unknown id
+ * reads no segment at all.
+ *
+ * The index is an open-addressing hash table in {@code locations.idx}: a header of magic,
+ * format version, slot count, live slots and used slots, then slots of (long id high bits,
+ * long id low bits, int space code, int day). A space code of 0 marks an empty slot and -1 a
+ * removed one; the spaces themselves are appended to {@code locations.spaces} as (length,
+ * UTF-8 bytes), code n being the n-th. Slots are read and written with positional file I/O,
+ * so the table costs neither heap nor a mapping, whatever its size; only the space names are
+ * held in memory.
+ *
+ * Sealing a day writes its rows' locations and forces the table before the segment is swapped
+ * in, and rows of days whose segments expire are removed. When more than half the slots are
+ * used the table is rebuilt at twice the size into a new file, which then replaces the old
+ * one. A crash can leave the header counts a batch behind, and the locations of a segment
+ * sealed just before it unwritten; replaying the ingest log, which still holds that segment's
+ * rows, writes them again.
+ */
+final class LocationIndex {
+
+    private static final String TABLE = "locations.idx";
+    private static final String SPACES = "locations.spaces";
+    private static final int MAGIC = 0x4F4C4F43;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+    private static final int SLOT_BYTES = 24;
+    private static final int INITIAL_SLOTS = 1 << 16;
+    private static final int MAX_SLOTS = 1 << 30;
+    private static final int EMPTY = 0;
+    private static final int REMOVED = -1;
+
+    private final Path directory;
+    private final FileChannel spaceChannel;
+    private final List<String> spaces = new ArrayList<>();
+    private final Map<String, Integer> codes = new HashMap<>();
+    /** Shared by lookups, exclusive while slots are written. */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final boolean created;
+    private FileChannel table;
+    private int slots;
+    private int live;
+    private int used;
+
+    private LocationIndex(Path directory) throws IOException {
+        this.directory = directory;
+        Path tablePath = directory.resolve(TABLE);
+        Files.deleteIfExists(directory.resolve(TABLE + ".tmp"));
+        this.created = !Files.exists(tablePath);
+        if (created) {
+            // Without a table, names of spaces whose locations are gone are of no use either.
+            Files.deleteIfExists(directory.resolve(SPACES));
+            writeTable(tablePath, INITIAL_SLOTS);
+        }
+        this.table = FileChannel.open(tablePath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        readHeader(tablePath);
+        this.spaceChannel = FileChannel.open(directory.resolve(SPACES), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        readSpaces();
+    }
+
+    /**
+     * Opens the index in {@code directory}, creating an empty one if there is none.
+     */
+    static LocationIndex open(Path directory) throws IOException {
+        return new LocationIndex(directory);
+    }
+
+    /**
+     * Whether the index was created by {@link #open}, so the locations of segments sealed
+     * before still have to be added.
+     */
+    boolean created() {
+        return created;
+    }
+
+    /**
+     * Space and day of the segment holding an observation, or null if no sealed row has that
+     * id.
+     */
+    Sealed find(long high, long low) throws IOException {
+        lock.readLock().lock();
+        try {
+            ByteBuffer slot = ByteBuffer.allocate(SLOT_BYTES);
+            for (int i = home(high, low, slots), probes = 0; probes < slots; i = (i + 1) & (slots - 1), probes++) {
+                readSlot(table, i, slot);
+                int code = slot.getInt(16);
+                if (code == EMPTY) {
+                    return null;
+                }
+                if (code != REMOVED && slot.getLong(0) == high && slot.getLong(8) == low) {
+                    return new Sealed(spaces.get(code - 1), slot.getInt(20));
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records that every row of {@code segment} is held in the segment of its space for
+     * {@code day}, replacing where the index had them before, and forces the table.
+     */
+    void put(SegmentFile segment, long day) throws IOException {
+        List<long[]> ids = new ArrayList<>(segment.rowCount());
+        segment.forEachRow((high, low, version) -> ids.add(new long[]{high, low}));
+        put(segment.spaceId(), day, ids);
+    }
+
+    /**
+     * Records that the observations with {@code ids}, as (high, low) pairs, are held in the
+     * segment of {@code spaceId} for {@code day}, and forces the table if that changed anything.
+     */
+    void put(String spaceId, long day, List<long[]> ids) throws IOException {
+        lock.writeLock().lock();
+        try {
+            int code = codeOf(spaceId);
+            boolean changed = false;
+            if ((long) used + ids.size() > slots / 2) {
+                resize((long) live + ids.size());
+            }
+            ByteBuffer slot = ByteBuffer.allocate(SLOT_BYTES);
+            for (long[] id : ids) {
+                int target = -1;
+                int i = home(id[0], id[1], slots);
+                for (int probes = 0; probes < slots; i = (i + 1) & (slots - 1), probes++) {
+                    readSlot(table, i, slot);
+                    int slotCode = slot.getInt(16);
+                    if (slotCode == EMPTY) {
+                        break;
+                    }
+                    if (slotCode == REMOVED) {
+                        target = target < 0 ? i : target;
+                    } else if (slot.getLong(0) == id[0] && slot.getLong(8) == id[1]) {
+                        break;
+                    }
+                }
+                int existing = slot.getInt(16);
+                if (existing != EMPTY && existing != REMOVED) {
+                    if (existing != code || slot.getInt(20) != (int) day) {
+                        writeSlot(table, i, id[0], id[1], code, (int) day);
+                        changed = true;
+                    }
+                    continue;
+                }
+                if (target < 0) {
+                    target = i;
+                    used++;
+                }
+                writeSlot(table, target, id[0], id[1], code, (int) day);
+                live++;
+                changed = true;
+            }
+            if (changed) {
+                writeCounts();
+                table.force(false);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets the locations of the rows of an expired segment that still point to it.
+     */
+    void remove(SegmentFile segment, long day) throws IOException {
+        List<long[]> ids = new ArrayList<>(segment.rowCount());
+        segment.forEachRow((high, low, version) -> ids.add(new long[]{high, low}));
+        lock.writeLock().lock();
+        try {
+            Integer code = codes.get(segment.spaceId());
+            if (code == null) {
+                return;
+            }
+            boolean changed = false;
+            ByteBuffer slot = ByteBuffer.allocate(SLOT_BYTES);
+            for (long[] id : ids) {
+                for (int i = home(id[0], id[1], slots), probes = 0; probes < slots;
+                     i = (i + 1) & (slots - 1), probes++) {
+                    readSlot(table, i, slot);
+                    int slotCode = slot.getInt(16);
+                    if (slotCode == EMPTY) {
+                        break;
+                    }
+                    if (slotCode != REMOVED && slot.getLong(0) == id[0] && slot.getLong(8) == id[1]) {
+                        if (slotCode == code && slot.getInt(20) == (int) day) {
+                            writeSlot(table, i, id[0], id[1], REMOVED, 0);
+                            live--;
+                            changed = true;
+                        }
+                        break;
+                    }
+                }
+            }
+            if (changed) {
+                writeCounts();
+                table.force(false);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            table.close();
+            spaceChannel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Code of a space, appending its name if it has none yet; caller holds the write lock.
+     */
+    private int codeOf(String spaceId) throws IOException {
+        Integer code = codes.get(spaceId);
+        if (code != null) {
+            return code;
+        }
+        byte[] bytes = spaceId.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(4 + bytes.length).putInt(bytes.length).put(bytes).flip();
+        long position = spaceChannel.size();
+        while (record.hasRemaining()) {
+            position += spaceChannel.write(record, position);
+        }
+        // The name must be durable before any slot refers to it.
+        spaceChannel.force(false);
+        spaces.add(spaceId);
+        codes.put(spaceId, spaces.size());
+        return spaces.size();
+    }
+
+    /**
+     * Rebuilds the table with room for twice {@code entries}, leaving out removed slots.
+     */
+    private void resize(long entries) throws IOException {
+        int size = slots;
+        while (size < entries * 2 && size < MAX_SLOTS) {
+            size *= 2;
+        }
+        if (size < entries * 2) {
+            throw new IOException("Observation location index is full");
+        }
+        Path tablePath = directory.resolve(TABLE);
+        Path temporary = directory.resolve(TABLE + ".tmp");
+        writeTable(temporary, size);
+        int copied = 0;
+        try (FileChannel resized = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer slot = ByteBuffer.allocate(SLOT_BYTES);
+            ByteBuffer target = ByteBuffer.allocate(SLOT_BYTES);
+            for (int i = 0; i < slots; i++) {
+                readSlot(table, i, slot);
+                int code = slot.getInt(16);
+                if (code == EMPTY || code == REMOVED) {
+                    continue;
+                }
+                int j = home(slot.getLong(0), slot.getLong(8), size);
+                while (true) {
+                    readSlot(resized, j, target);
+                    if (target.getInt(16) == EMPTY) {
+                        break;
+                    }
+                    j = (j + 1) & (size - 1);
+                }
+                writeSlot(resized, j, slot.getLong(0), slot.getLong(8), code, slot.getInt(20));
+                copied++;
+            }
+            resized.write(ByteBuffer.allocate(8).putInt(copied).putInt(copied).flip(), 12);
+            resized.force(true);
+        }
+        table.close();
+        Files.move(temporary, tablePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        table = FileChannel.open(tablePath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        slots = size;
+        live = copied;
+        used = copied;
+    }
+
+    private static void writeTable(Path path, int slotCount) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC).putInt(VERSION).putInt(slotCount).putInt(0).putInt(0).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            // Extending the file leaves every slot zeroed, that is empty.
+            channel.write(ByteBuffer.allocate(1), HEADER_BYTES + (long) slotCount * SLOT_BYTES - 1);
+            channel.force(true);
+        }
+    }
+
+    private void readHeader(Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining()) {
+            if (table.read(header, header.position()) < 0) {
+                throw new IOException("Truncated observation location index: " + path);
+            }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not an observation location index: " + path);
+        }
+        slots = header.getInt();
+        live = header.getInt();
+        used = header.getInt();
+    }
+
+    private void readSpaces() throws IOException {
+        ByteBuffer names = ByteBuffer.allocate((int) spaceChannel.size());
+        while (names.hasRemaining() && spaceChannel.read(names, names.position()) >= 0) {
+            // Read to the end.
+        }
+        names.flip();
+        while (names.remaining() >= 4) {
+            int length = names.getInt(names.position());
+            if (length < 0 || names.remaining() < 4 + length) {
+                break;
+            }
+            byte[] bytes = new byte[length];
+            names.position(names.position() + 4).get(bytes);
+            spaces.add(new String(bytes, StandardCharsets.UTF_8));
+            codes.put(spaces.get(spaces.size() - 1), spaces.size());
+        }
+        // A name cut short by a crash was never referred to; drop it so the next one follows.
+        spaceChannel.truncate(names.position());
+    }
+
+    private void writeCounts() throws IOException {
+        ByteBuffer counts = ByteBuffer.allocate(8).putInt(live).putInt(used).flip();
+        while (counts.hasRemaining()) {
+            table.write(counts, 12 + counts.position());
+        }
+    }
+
+    private static void readSlot(FileChannel channel, int index, ByteBuffer slot) throws IOException {
+        slot.clear();
+        long position = HEADER_BYTES + (long) index * SLOT_BYTES;
+        while (slot.hasRemaining()) {
+            if (channel.read(slot, position + slot.position()) < 0) {
+                throw new IOException("Truncated observation location index");
+            }
+        }
+    }
+
+    private static void writeSlot(FileChannel channel, int index, long high, long low, int code, int day)
+            throws IOException {
+        ByteBuffer slot = ByteBuffer.allocate(SLOT_BYTES).putLong(high).putLong(low).putInt(code).putInt(day).flip();
+        long position = HEADER_BYTES + (long) index * SLOT_BYTES;
+        while (slot.hasRemaining()) {
+            channel.write(slot, position + slot.position());
+        }
+    }
+
+    private static int home(long high, long low, int slotCount) {
+        long hash = high * 0x9E3779B97F4A7C15L ^ low;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (int) hash & (slotCount - 1);
+    }
+
+    /** Space and UTC day of the segment holding a sealed observation. */
+    record Sealed(String spaceId, long day) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.spaceflow.occupancy.store;
+
+import com.spaceflow.occupancy.dto.Observation;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * One observation in the primitive form the store appends: times in epoch milliseconds, the
+ * id as the two halves of its UUID, and a version that is the row's updatedAt, or 0 if it was
+ * never corrected. Ingest builds rows directly, so no {@link Observation} with its timestamp
+ * objects and id string is made on the way into storage.
+ */
+public record ObservationRow(String spaceId, long startMillis, long endMillis, String status, long idHigh,
+                             long idLow, long recordedAtMillis, String notes, long version) {
+
+    /**
+     * A newly recorded observation with a fresh random id.
+     */
+    public static ObservationRow create(String spaceId, long startMillis, long endMillis, String status,
+                                        long recordedAtMillis, String notes) {
+        UUID id = UUID.randomUUID();
+        return new ObservationRow(spaceId, startMillis, endMillis, status, id.getMostSignificantBits(),
+                id.getLeastSignificantBits(), recordedAtMillis, notes, 0);
+    }
+
+    static ObservationRow of(Observation observation, long version) {
+        UUID id = UUID.fromString(observation.getObservationId());
+        return new ObservationRow(observation.getSpaceId(),
+                observation.getObservedStartTime().toInstant().toEpochMilli(),
+                observation.getObservedEndTime().toInstant().toEpochMilli(),
+                observation.getOccupancyStatus(), id.getMostSignificantBits(), id.getLeastSignificantBits(),
+                observation.getRecordedAt().toInstant().toEpochMilli(), observation.getNotes(), version);
+    }
+
+    public Observation toObservation() {
+        Observation observation = new Observation();
+        observation.setObservationId(id().toString());
+        observation.setSpaceId(spaceId);
+        observation.setObservedStartTime(utc(startMillis));
+        observation.setObservedEndTime(utc(endMillis));
+        observation.setOccupancyStatus(status);
+        observation.setNotes(notes);
+        observation.setRecordedAt(utc(recordedAtMillis));
+        if (version != 0) {
+            observation.setUpdatedAt(utc(version));
+        }
+        return observation;
+    }
+
+    UUID id() {
+        return new UUID(idHigh, idLow);
+    }
+
+    private static OffsetDateTime utc(long millis) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+}
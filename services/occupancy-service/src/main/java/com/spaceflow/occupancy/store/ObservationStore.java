@@ -0,0 +1,1140 @@
+package com.spaceflow.occupancy.store;
+
+import com.spaceflow.occupancy.dto.Observation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Columnar in-memory store of recorded observations.
+ *
+ * Each space's observations are partitioned by the UTC day of their observed start into
+ * {@link ColumnChunk}s of primitive columns, so storage grows by a few dozen bytes per row and
+ * a query only scans the days it can overlap. Timestamps are kept at millisecond precision
+ * and returned in UTC. Observation ids must be UUIDs, as assigned by the service.
+ *
+ * Writes arrive in batches of {@link ObservationRow}s from the ingest pipeline, so each chunk is
+ * locked once per batch rather than once per observation, and rows go into the columns without
+ * passing through {@link Observation} objects.
+ *
+ * Writes to a day and the sealing of that day are serialized by a partition lock, one of
+ * {@value #PARTITION_STRIPES} per space striped by day. A correction locks the days it reads
+ * and writes only, so it waits for neither the ingest of other days nor any other day's seal.
+ * Locks are taken in the order log gate, partition locks by stripe, series lock, chunk monitor.
+ * Sealing copies a chunk under its monitor and writes the copy without holding it, so reads of
+ * a day being sealed never wait for the segment write.
+ *
+ * When a {@link SegmentDirectory} is configured, day partitions are sealed once their day has
+ * been over for the seal delay: each is written to an immutable {@link SegmentFile} and
+ * dropped from the heap, and queries read it through a memory map. Segments are only opened
+ * (headers read) at startup, never reloaded into memory. Observations arriving later for a
+ * sealed day start a new in-memory partition, which is merged with the day's segment into a
+ * replacement segment when it is sealed.
+ *
+ * Sealing a day also writes its five-minute and hourly {@link Rollup}s. The same background
+ * job deletes raw segments once they are older than the raw retention, and each tier's rollups
+ * once older than that tier's retention, so old days are answered from rollups alone.
+ * Retention only applies with a segment directory; a retention of zero keeps data forever.
+ *
+ * A correction never rewrites stored rows on the request path. The corrected observation is
+ * appended as a new version of the row (its version is its updatedAt), and a per-space
+ * tombstone names the live version so that reads skip the superseded one. Sealing the day of a
+ * superseded row, or resealing an already sealed one, drops it for good and clears the
+ * tombstone once no superseded version is left.
+ *
+ * Finding the row to correct costs no scan. Rows not sealed yet are found through an index from
+ * id to partition row, which only covers the in-memory days and shrinks as they are sealed.
+ * Sealed rows are found through the on-disk {@link LocationIndex}, which names the one segment
+ * to binary search, so an unknown id reads no segment at all. Nothing is read at startup beyond
+ * the segment headers and the index's space names.
+ *
+ * With a segment directory, every batch and every correction is first written to the
+ * {@link IngestLog} and only then stored, both under the shared side of the log gate; starting
+ * a new log file takes the exclusive side, so every row logged before it is stored by then.
+ * Startup replays the log after opening the segments, skipping rows whose version the segment
+ * of their day already holds, so rows of days not sealed yet survive a restart. A logged correction also names the
+ * day of the version it replaced, so replay restores the tombstone while that day's segment
+ * still holds the old row. Each sealing pass starts a new log file and deletes the files whose
+ * days have all been sealed, and whose superseded rows dropped, since.
+ */
+@Component
+public class ObservationStore implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObservationStore.class);
+
+    /** Longest observed period a row can hold; durations are stored as int milliseconds. */
+    public static final Duration MAX_OBSERVED_PERIOD = Duration.ofMillis(Integer.MAX_VALUE);
+
+    private static final String OCCUPIED = "occupied";
+    static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+    private static final int PARTITION_STRIPES = 16;
+
+    private static final Comparator<Observation> BY_START = Comparator
+            .comparing(Observation::getObservedStartTime)
+            .thenComparing(Observation::getObservationId);
+
+    private final Map<String, SpaceSeries> seriesBySpace = new ConcurrentHashMap<>();
+    /** Partition row of the live version of every observation held in memory. */
+    private final Map<UUID, Location> memoryIndex = new ConcurrentHashMap<>();
+    private final StatusDictionary statuses = new StatusDictionary();
+    private final SegmentDirectory segmentDirectory;
+    private final long sealDelayMillis;
+    private final long rawRetentionMillis;
+    private final Map<RollupTier, Long> rollupRetentionMillis = new EnumMap<>(RollupTier.class);
+    private final LongSupplier clock;
+    /** Held shared while a write is logged and stored, exclusively while the log rotates. */
+    private final ReadWriteLock logGate = new ReentrantReadWriteLock();
+    /** Log of the rows not sealed yet; null without a segment directory. */
+    private final IngestLog log;
+    /** Segment of every sealed observation; null without a segment directory. */
+    private final LocationIndex locations;
+    private ScheduledExecutorService sealer;
+
+    @Autowired
+    public ObservationStore(SegmentDirectory segmentDirectory,
+                            @Value("${occupancy.segments.seal-delay-minutes:60}") long sealDelayMinutes,
+                            @Value("${occupancy.segments.seal-interval-ms:60000}") long sealIntervalMillis,
+                            @Value("${occupancy.retention.raw-days:0}") long rawDays,
+                            @Value("${occupancy.retention.five-minute-days:0}") long fiveMinuteDays,
+                            @Value("${occupancy.retention.hourly-days:0}") long hourlyDays) {
+        this(segmentDirectory, TimeUnit.MINUTES.toMillis(sealDelayMinutes), TimeUnit.DAYS.toMillis(rawDays),
+                TimeUnit.DAYS.toMillis(fiveMinuteDays), TimeUnit.DAYS.toMillis(hourlyDays), System::currentTimeMillis);
+        if (segmentDirectory.isEnabled() && sealIntervalMillis > 0) {
+            sealer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "occupancy-sealer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sealer.scheduleWithFixedDelay(this::compact, sealIntervalMillis, sealIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    ObservationStore(SegmentDirectory segmentDirectory, long sealDelayMillis, LongSupplier clock) {
+        this(segmentDirectory, sealDelayMillis, 0, 0, 0, clock);
+    }
+
+    ObservationStore(SegmentDirectory segmentDirectory, long sealDelayMillis, long rawRetentionMillis,
+                     long fiveMinuteRetentionMillis, long hourlyRetentionMillis, LongSupplier clock) {
+        this.segmentDirectory = segmentDirectory;
+        this.sealDelayMillis = sealDelayMillis;
+        this.rawRetentionMillis = rawRetentionMillis;
+        this.rollupRetentionMillis.put(RollupTier.FIVE_MINUTES, fiveMinuteRetentionMillis);
+        this.rollupRetentionMillis.put(RollupTier.HOURLY, hourlyRetentionMillis);
+        for (long retention : rollupRetentionMillis.values()) {
+            if (retention > 0 && (rawRetentionMillis == 0 || retention < rawRetentionMillis)) {
+                throw new IllegalArgumentException("Rollups must be retained at least as long as raw observations");
+            }
+        }
+        this.clock = clock;
+        for (SegmentFile segment : segmentDirectory.load()) {
+            SpaceSeries series = seriesBySpace.computeIfAbsent(segment.spaceId(), id -> new SpaceSeries());
+            SegmentFile other = series.segments.get(series.dayOf(segment));
+            if (other == null || other.rowCount() < segment.rowCount()) {
+                series.putSegment(segment);
+            }
+            // Two segments for one day mean a crash between sealing a merged segment and deleting
+            // the one it replaced; the merged one holds every row of the other.
+            SegmentFile replaced = other == null ? null : other.rowCount() < segment.rowCount() ? other : segment;
+            if (replaced != null) {
+                segmentDirectory.delete(replaced);
+            }
+        }
+        this.locations = segmentDirectory.isEnabled() ? segmentDirectory.openLocations() : null;
+        if (locations != null && locations.created()) {
+            // A new index misses the segments sealed before it was created; add them once.
+            seriesBySpace.values().forEach(series -> series.segments.forEach((day, segment) -> {
+                try {
+                    locations.put(segment, day);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException("Failed to index observation segment " + segment.path(), ex);
+                }
+            }));
+        }
+        this.log = segmentDirectory.isEnabled() ? segmentDirectory.openLog(this::replay) : null;
+        for (RollupFile rollup : segmentDirectory.loadRollups()) {
+            SpaceSeries series = seriesBySpace.computeIfAbsent(rollup.spaceId(), id -> new SpaceSeries());
+            NavigableMap<Long, RollupFile> days = series.rollups.get(rollup.tier());
+            long day = Math.floorDiv(rollup.dayStart(), DAY_MILLIS);
+            RollupFile other = days.get(day);
+            // Same crash window as for segments: the later computation covers more rows.
+            if (other == null || observationsIn(other) < observationsIn(rollup)) {
+                days.put(day, rollup);
+            }
+            RollupFile replaced = other == null ? null : days.get(day) == rollup ? other : rollup;
+            if (replaced != null) {
+                segmentDirectory.delete(replaced);
+            }
+        }
+    }
+
+    /**
+     * Observations a rollup file counts, or -1 if it cannot be read.
+     */
+    private static long observationsIn(RollupFile file) {
+        try {
+            return file.read().totalObservations();
+        } catch (IOException ex) {
+            logger.warn("Failed to read occupancy rollup {}", file.path(), ex);
+            return -1;
+        }
+    }
+
+    /**
+     * Stores a batch of new rows, as they come from the ingest pipeline.
+     */
+    public void appendRows(List<ObservationRow> rows) {
+        logGate.readLock().lock();
+        try {
+            log(rows, IngestLog.NO_DAY);
+            appendBatch(rows);
+        } finally {
+            logGate.readLock().unlock();
+        }
+    }
+
+    public void appendAll(List<Observation> observations) {
+        List<ObservationRow> rows = new ArrayList<>(observations.size());
+        for (Observation observation : observations) {
+            rows.add(ObservationRow.of(observation, 0));
+        }
+        appendRows(rows);
+    }
+
+    /**
+     * Stores a frame read back from the ingest log. Rows whose version is already in memory or
+     * in the segment of their day are skipped, as are rows of days past the raw retention. A
+     * replayed correction hides the older version in memory, or else the live one still in the
+     * segment of the day it superseded. Because every later frame is replayed as well, a version
+     * replayed after its day was resealed without it is hidden again by the correction after it.
+     *
+     * Rows already sealed have their locations written again, in case a crash came between
+     * sealing their segment and indexing it; later frames relocate whatever was corrected since.
+     */
+    private void replay(List<ObservationRow> rows, long supersededDay) {
+        long firstRetainedDay = rawRetentionMillis == 0 ? Long.MIN_VALUE
+                : Math.floorDiv(clock.getAsLong() - rawRetentionMillis, DAY_MILLIS);
+        List<ObservationRow> fresh = new ArrayList<>();
+        Map<String, Map<Long, List<long[]>>> sealedIds = new HashMap<>();
+        for (ObservationRow row : rows) {
+            long day = Math.floorDiv(row.startMillis(), DAY_MILLIS);
+            Location previous = memoryIndex.get(row.id());
+            if (previous != null && previous.version() >= row.version() || day < firstRetainedDay) {
+                continue;
+            }
+            SpaceSeries series = seriesBySpace.computeIfAbsent(row.spaceId(), id -> new SpaceSeries());
+            boolean sealed = sealedVersion(series, day, row.idHigh(), row.idLow(), false) >= row.version();
+            if (sealed) {
+                sealedIds.computeIfAbsent(row.spaceId(), id -> new HashMap<>())
+                        .computeIfAbsent(day, d -> new ArrayList<>()).add(new long[]{row.idHigh(), row.idLow()});
+            }
+            if (row.version() == 0) {
+                if (!sealed) {
+                    fresh.add(row);
+                }
+                continue;
+            }
+            long hidden = previous != null ? previous.day()
+                    : sealedVersion(series, supersededDay, row.idHigh(), row.idLow(), true) >= 0 ? supersededDay
+                    : IngestLog.NO_DAY;
+            if (!sealed) {
+                replace(row, hidden);
+            } else if (hidden != IngestLog.NO_DAY) {
+                memoryIndex.remove(row.id(), previous);
+                series.lock.writeLock().lock();
+                try {
+                    series.supersede(row.id(), row.version(), hidden);
+                } finally {
+                    series.lock.writeLock().unlock();
+                }
+            }
+        }
+        sealedIds.forEach((spaceId, days) -> days.forEach((day, ids) -> {
+            try {
+                locations.put(spaceId, day, ids);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to index observations of " + spaceId + " for day " + day, ex);
+            }
+        }));
+        appendBatch(fresh);
+    }
+
+    /**
+     * Version of an observation in the segment of {@code day}, or -1 if it holds none; with
+     * {@code live}, only a version that is not superseded counts.
+     */
+    private long sealedVersion(SpaceSeries series, long day, long high, long low, boolean live) {
+        series.lock.readLock().lock();
+        try {
+            SegmentFile segment = series.segments.get(day);
+            if (segment == null) {
+                return -1;
+            }
+            if (!live) {
+                return segment.latestVersion(high, low);
+            }
+            int row = segment.findRow(high, low, series.filterFor(day));
+            return row < 0 ? -1 : segment.version(row);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read observation segment " + series.segments.get(day).path(), ex);
+        } finally {
+            series.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes rows to the ingest log, if there is one, before they are stored; caller holds the
+     * log gate.
+     */
+    private void log(List<ObservationRow> rows, long supersededDay) {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.append(rows, supersededDay);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to log " + rows.size() + " observations", ex);
+        }
+    }
+
+    private void appendBatch(List<ObservationRow> rows) {
+        Map<SpaceSeries, Map<Long, List<ObservationRow>>> byPartition = new IdentityHashMap<>();
+        for (ObservationRow row : rows) {
+            SpaceSeries series = seriesBySpace.computeIfAbsent(row.spaceId(), id -> new SpaceSeries());
+            // Widen the read-side lookback before the row becomes visible.
+            series.noteDuration(row.endMillis() - row.startMillis());
+            byPartition.computeIfAbsent(series, s -> new HashMap<>())
+                    .computeIfAbsent(Math.floorDiv(row.startMillis(), DAY_MILLIS), day -> new ArrayList<>()).add(row);
+        }
+        byPartition.forEach((series, days) -> days.forEach((day, batch) -> {
+            Lock partition = series.partition(day);
+            partition.lock();
+            try {
+                // Taken under the partition lock, so the chunk cannot be sealed and dropped meanwhile.
+                ColumnChunk chunk = series.chunkFor(batch.get(0).startMillis());
+                synchronized (chunk) {
+                    for (ObservationRow row : batch) {
+                        memoryIndex.put(row.id(), new Location(row.spaceId(), day, row.version(), chunk.size()));
+                        chunk.append(row.startMillis(), row.endMillis(), statuses.encode(row.status()),
+                                row.idHigh(), row.idLow(), row.recordedAtMillis(), row.notes(), row.version());
+                    }
+                }
+            } finally {
+                partition.unlock();
+            }
+        }));
+    }
+
+    /**
+     * Replaces the live version of an observation with what {@code corrector} makes of it. The
+     * replacement keeps the observation's id and space and is stored as a new version; the old
+     * version is hidden at once and dropped when its day is next sealed.
+     *
+     * @return the stored replacement, or null if no stored observation has that id
+     */
+    public Observation correct(String observationId, UnaryOperator<Observation> corrector) {
+        UUID id;
+        try {
+            id = UUID.fromString(observationId);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        while (true) {
+            Observation current = findLive(id);
+            if (current == null) {
+                return null;
+            }
+            String spaceId = current.getSpaceId();
+            long day = Math.floorDiv(current.getObservedStartTime().toInstant().toEpochMilli(), DAY_MILLIS);
+            long currentVersion = versionOf(current);
+            Observation replacement = corrector.apply(current);
+            long version = Math.max(clock.getAsLong(), currentVersion + 1);
+            replacement.setObservationId(observationId);
+            replacement.setSpaceId(spaceId);
+            replacement.setUpdatedAt(Instant.ofEpochMilli(version).atOffset(ZoneOffset.UTC));
+            ObservationRow row = ObservationRow.of(replacement, version);
+            // Only the day read and the day written are locked; ingest of other days and the
+            // sealing of other days go on meanwhile.
+            SpaceSeries series = seriesBySpace.get(spaceId);
+            Lock[] partitions = series.partitions(day, Math.floorDiv(row.startMillis(), DAY_MILLIS));
+            logGate.readLock().lock();
+            try {
+                for (Lock partition : partitions) {
+                    partition.lock();
+                }
+                // The live version only changes under the lock of its day; if it changed while
+                // unlocked, correct what is live now instead.
+                Observation live = findLive(id);
+                if (live != null && versionOf(live) == currentVersion && live.getSpaceId().equals(spaceId)
+                        && Math.floorDiv(live.getObservedStartTime().toInstant().toEpochMilli(), DAY_MILLIS) == day) {
+                    log(List.of(row), day);
+                    replace(row, day);
+                    return replacement;
+                }
+            } finally {
+                for (int i = partitions.length - 1; i >= 0; i--) {
+                    partitions[i].unlock();
+                }
+                logGate.readLock().unlock();
+            }
+        }
+    }
+
+    private static long versionOf(Observation observation) {
+        return observation.getUpdatedAt() == null ? 0 : observation.getUpdatedAt().toInstant().toEpochMilli();
+    }
+
+    /**
+     * Stores a new version of an observation and hides the one stored for {@code supersededDay},
+     * unless that is {@link IngestLog#NO_DAY}, atomically for readers; caller holds the partition
+     * locks of both days or is replaying the log.
+     */
+    private void replace(ObservationRow row, long supersededDay) {
+        SpaceSeries series = seriesBySpace.computeIfAbsent(row.spaceId(), id -> new SpaceSeries());
+        series.lock.writeLock().lock();
+        try {
+            series.noteDuration(row.endMillis() - row.startMillis());
+            ColumnChunk chunk = series.chunkFor(row.startMillis());
+            synchronized (chunk) {
+                memoryIndex.put(row.id(), new Location(row.spaceId(), Math.floorDiv(chunk.baseMillis(), DAY_MILLIS),
+                        row.version(), chunk.size()));
+                chunk.append(row.startMillis(), row.endMillis(), statuses.encode(row.status()), row.idHigh(),
+                        row.idLow(), row.recordedAtMillis(), row.notes(), row.version());
+            }
+            if (supersededDay != IngestLog.NO_DAY) {
+                series.supersede(row.id(), row.version(), supersededDay);
+            }
+        } finally {
+            series.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the live version of an observation with its space set, or null if none is stored.
+     * An in-memory row is read at the partition row the index names; a sealed one is looked up
+     * in the one segment the location index names.
+     */
+    private Observation findLive(UUID id) {
+        long high = id.getMostSignificantBits();
+        long low = id.getLeastSignificantBits();
+        Location location = memoryIndex.get(id);
+        if (location != null) {
+            SpaceSeries series = seriesBySpace.get(location.spaceId());
+            series.lock.readLock().lock();
+            try {
+                ColumnChunk chunk = series.days.get(location.day());
+                if (chunk != null) {
+                    synchronized (chunk) {
+                        int row = location.row();
+                        if (row < chunk.size() && chunk.idHigh(row) == high && chunk.idLow(row) == low
+                                && series.filterFor(location.day()).isLive(high, low, chunk.version(row))) {
+                            return withSpace(chunk.read(row, statuses), location.spaceId());
+                        }
+                    }
+                }
+            } finally {
+                series.lock.readLock().unlock();
+            }
+        }
+        if (locations == null) {
+            return null;
+        }
+        LocationIndex.Sealed sealed;
+        try {
+            sealed = locations.find(high, low);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to look up observation " + id, ex);
+        }
+        SpaceSeries series = sealed == null ? null : seriesBySpace.get(sealed.spaceId());
+        return series == null ? null : findSealed(sealed.spaceId(), series, sealed.day(), high, low);
+    }
+
+    private Observation findSealed(String spaceId, SpaceSeries series, long day, long high, long low) {
+        series.lock.readLock().lock();
+        try {
+            SegmentFile segment = series.segments.get(day);
+            int row = segment == null ? -1 : segment.findRow(high, low, series.filterFor(day));
+            return row < 0 ? null : withSpace(segment.read(row), spaceId);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read observation segment of " + spaceId + " for day " + day, ex);
+        } finally {
+            series.lock.readLock().unlock();
+        }
+    }
+
+    private static Observation withSpace(Observation observation, String spaceId) {
+        observation.setSpaceId(spaceId);
+        return observation;
+    }
+
+    /**
+     * Returns the observations of a space whose observed period overlaps [start, end), ordered
+     * by observed start time.
+     */
+    public List<Observation> find(String spaceId, OffsetDateTime start, OffsetDateTime end) {
+        List<Observation> result = new ArrayList<>();
+        long from = start.toInstant().toEpochMilli();
+        long to = end.toInstant().toEpochMilli();
+        scan(spaceId, from, to,
+                (chunk, live) -> chunk.collectOverlapping(from, to, live, statuses, result),
+                (segment, live) -> segment.collectOverlapping(from, to, live, result));
+        for (Observation observation : result) {
+            observation.setSpaceId(spaceId);
+        }
+        result.sort(BY_START);
+        return result;
+    }
+
+    /**
+     * Aggregates the observations of a space overlapping [start, end) without materializing
+     * them; sealed blocks lying wholly inside the window are answered from their index.
+     */
+    public RangeAggregate summarize(String spaceId, OffsetDateTime start, OffsetDateTime end) {
+        RangeAggregate aggregate = new RangeAggregate();
+        long from = start.toInstant().toEpochMilli();
+        long to = end.toInstant().toEpochMilli();
+        int occupiedCode = statuses.codeOf(OCCUPIED);
+        scan(spaceId, from, to,
+                (chunk, live) -> chunk.aggregate(from, to, live, occupiedCode, aggregate),
+                (segment, live) -> segment.aggregate(from, to, live, aggregate));
+        return aggregate;
+    }
+
+    /**
+     * Aggregates the observations of a space into {@code bucketCount} consecutive buckets of
+     * {@code resolution} starting at {@code start}. Days with {@code tier} rollups are read from
+     * them; other days are computed from raw rows. {@code start} and {@code resolution} must be
+     * multiples of the tier's bucket.
+     */
+    public RollupBucket[] rollup(String spaceId, OffsetDateTime start, Duration resolution, int bucketCount,
+                                 RollupTier tier) {
+        long from = start.toInstant().toEpochMilli();
+        long step = resolution.toMillis();
+        long to = from + step * bucketCount;
+        RollupBucket[] buckets = new RollupBucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new RollupBucket(from + i * step);
+        }
+        SpaceSeries series = seriesBySpace.get(spaceId);
+        if (series == null) {
+            return buckets;
+        }
+        for (long day = Math.floorDiv(from, DAY_MILLIS); day <= Math.floorDiv(to - 1, DAY_MILLIS); day++) {
+            Rollup rollup = null;
+            boolean stored = false;
+            series.lock.readLock().lock();
+            try {
+                // Late arrivals and corrections not yet sealed make the day's rollup stale.
+                boolean pending = series.days.containsKey(day) || series.supersededRows.containsKey(day);
+                RollupFile file = pending ? null : series.rollups.get(tier).get(day);
+                if (file != null) {
+                    // Read under the lock, before a resealed day's rollup can replace and delete it.
+                    rollup = file.read();
+                    stored = true;
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to read occupancy rollup of " + spaceId + " for day " + day, ex);
+            } finally {
+                series.lock.readLock().unlock();
+            }
+            if (!stored) {
+                rollup = compute(spaceId, day)[tier.ordinal()];
+            }
+            if (rollup != null) {
+                rollup.addTo(from, to, from, step, buckets);
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Earliest time still answerable at {@code tier} resolution, or null if nothing has expired.
+     */
+    public OffsetDateTime retainedSince(RollupTier tier) {
+        long retention = rollupRetentionMillis.get(tier);
+        if (!segmentDirectory.isEnabled() || retention == 0) {
+            return null;
+        }
+        long firstRetainedDay = Math.floorDiv(clock.getAsLong() - retention, DAY_MILLIS);
+        return Instant.ofEpochMilli(firstRetainedDay * DAY_MILLIS).atOffset(ZoneOffset.UTC);
+    }
+
+    /**
+     * Computes both tiers' rollups of one day from the raw rows overlapping it.
+     *
+     * @return the rollups indexed by {@link RollupTier#ordinal()}, or nulls if no row overlaps
+     */
+    private Rollup[] compute(String spaceId, long day) {
+        long dayStart = day * DAY_MILLIS;
+        long dayEnd = dayStart + DAY_MILLIS;
+        RawRows rows = new RawRows();
+        int occupiedCode = statuses.codeOf(OCCUPIED);
+        scan(spaceId, dayStart, dayEnd,
+                (chunk, live) -> chunk.collectRows(dayStart, dayEnd, live, occupiedCode, rows),
+                (segment, live) -> segment.collectRows(dayStart, dayEnd, live, rows));
+        return rows.isEmpty() ? new Rollup[RollupTier.values().length] : Rollup.compute(rows, dayStart);
+    }
+
+    /**
+     * Visits every in-memory partition and segment of a space that can overlap [from, to), each
+     * with the filter for its day's live rows.
+     */
+    private void scan(String spaceId, long from, long to, BiConsumer<ColumnChunk, RowFilter> chunkVisitor,
+                      SegmentVisitor segmentVisitor) {
+        SpaceSeries series = seriesBySpace.get(spaceId);
+        if (series == null) {
+            return;
+        }
+        // Observations starting up to the longest stored duration earlier can still overlap.
+        long firstDay = Math.floorDiv(from - series.maxDurationMillis, DAY_MILLIS);
+        long lastDay = Math.floorDiv(to - 1, DAY_MILLIS);
+        series.lock.readLock().lock();
+        try {
+            for (Map.Entry<Long, ColumnChunk> day : series.days.subMap(firstDay, true, lastDay, true).entrySet()) {
+                synchronized (day.getValue()) {
+                    chunkVisitor.accept(day.getValue(), series.filterFor(day.getKey()));
+                }
+            }
+            for (Map.Entry<Long, SegmentFile> day : series.segments.subMap(firstDay, true, lastDay, true).entrySet()) {
+                segmentVisitor.visit(day.getValue(), series.filterFor(day.getKey()));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read observation segment for " + spaceId, ex);
+        } finally {
+            series.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (sealer != null) {
+            sealer.shutdownNow();
+        }
+        if (log != null) {
+            logGate.writeLock().lock();
+            try {
+                log.close();
+            } finally {
+                logGate.writeLock().unlock();
+            }
+        }
+        if (locations != null) {
+            locations.close();
+        }
+    }
+
+    void compact() {
+        try {
+            long now = clock.getAsLong();
+            sealBefore(now - sealDelayMillis);
+            expireBefore(now);
+        } catch (RuntimeException ex) {
+            // An exception would cancel the periodic task; log it and retry on the next run.
+            logger.warn("Failed to compact observation partitions", ex);
+        }
+    }
+
+    /**
+     * Writes every in-memory partition whose day ended at or before {@code cutoffMillis} to a
+     * segment file and drops it from the heap. A partition that fails to write stays in memory
+     * and is retried by the next call. Afterwards deletes the ingest log files closed so far
+     * whose days are all sealed.
+     *
+     * @return number of partitions sealed
+     */
+    int sealBefore(long cutoffMillis) {
+        if (!segmentDirectory.isEnabled()) {
+            return 0;
+        }
+        try {
+            // Every row logged before the rotation is stored, so closed files can be checked
+            // against what is still in memory.
+            logGate.writeLock().lock();
+            try {
+                log.rotate();
+            } finally {
+                logGate.writeLock().unlock();
+            }
+        } catch (IOException ex) {
+            logger.warn("Failed to start a new ingest log file", ex);
+        }
+        int sealed = sealDays(cutoffMillis);
+        log.deleteSealed(this::pending);
+        return sealed;
+    }
+
+    /**
+     * Whether any space still holds rows of {@code day} in memory, or superseded rows of it in
+     * its segment.
+     */
+    private boolean pending(long day) {
+        for (SpaceSeries series : seriesBySpace.values()) {
+            if (series.days.containsKey(day)) {
+                return true;
+            }
+            series.lock.readLock().lock();
+            try {
+                if (series.supersededRows.containsKey(day)) {
+                    return true;
+                }
+            } finally {
+                series.lock.readLock().unlock();
+            }
+        }
+        return false;
+    }
+
+    private int sealDays(long cutoffMillis) {
+        long lastSealableDay = Math.floorDiv(cutoffMillis, DAY_MILLIS) - 1;
+        int sealed = 0;
+        for (Map.Entry<String, SpaceSeries> entry : seriesBySpace.entrySet()) {
+            SpaceSeries series = entry.getValue();
+            for (long day : series.sealableDays(lastSealableDay)) {
+                SegmentFile segment = seal(entry.getKey(), series, day);
+                if (segment == null) {
+                    continue;
+                }
+                sealed++;
+                // Rows running past midnight also count towards the following days' buckets.
+                long lastTouchedDay = segment.rowCount() == 0 ? day
+                        : Math.floorDiv(segment.maxEndMillis() - 1, DAY_MILLIS);
+                for (long touched = day; touched <= lastTouchedDay; touched++) {
+                    if (touched == day || series.hasSegment(touched)) {
+                        rollUp(entry.getKey(), series, touched);
+                    }
+                }
+            }
+        }
+        return sealed;
+    }
+
+    /**
+     * Seals a day's in-memory partition, merged with the segment already sealed for the day, or
+     * reseals the segment alone if it holds superseded rows. Superseded rows are left out.
+     */
+    private SegmentFile seal(String spaceId, SpaceSeries series, long day) {
+        // Only writes to this day, or a day sharing its stripe, wait for the file write.
+        Lock partition = series.partition(day);
+        partition.lock();
+        try {
+            ColumnChunk chunk = series.days.get(day);
+            // Which rows of a day are live only changes under its partition lock, so the filter
+            // is stable here.
+            RowFilter live = series.filterFor(day);
+            if (chunk == null && live == RowFilter.ALL) {
+                return null;
+            }
+            SegmentFile previous = series.segments.get(day);
+            List<UUID> dropped = new ArrayList<>();
+            SegmentFile segment;
+            try {
+                ColumnChunk frozen = new ColumnChunk(day * DAY_MILLIS);
+                if (chunk != null) {
+                    // Writes to the day wait for the partition lock, so the copy stays current;
+                    // readers only wait for the copy, not for the file write.
+                    synchronized (chunk) {
+                        frozen.appendAll(chunk, RowFilter.ALL, dropped);
+                    }
+                }
+                segment = segmentDirectory.write(spaceId, merge(frozen, previous, live, dropped), statuses.values());
+            } catch (IOException ex) {
+                logger.warn("Failed to seal observations of {} for day {}", spaceId, day, ex);
+                return null;
+            }
+            try {
+                // Indexed before it is swapped in, so no sealed row is ever missing from the index.
+                locations.put(segment, day);
+            } catch (IOException ex) {
+                logger.warn("Failed to index sealed observations of {} for day {}", spaceId, day, ex);
+                segmentDirectory.delete(segment);
+                return null;
+            }
+            series.lock.writeLock().lock();
+            try {
+                series.putSegment(segment);
+                series.days.remove(day);
+                series.dropSuperseded(day, dropped);
+            } finally {
+                series.lock.writeLock().unlock();
+            }
+            if (chunk != null) {
+                unindexMemory(spaceId, day, chunk);
+            }
+            if (previous != null) {
+                segmentDirectory.delete(previous);
+            }
+            return segment;
+        } finally {
+            partition.unlock();
+        }
+    }
+
+    /**
+     * Writes the rollups of one day from its raw rows, replacing any written before. Rollups
+     * are only read by rollup queries, so appends need not wait for this.
+     *
+     * @return false if they could not be written
+     */
+    private boolean rollUp(String spaceId, SpaceSeries series, long day) {
+        Rollup[] computed = compute(spaceId, day);
+        if (computed[0] == null) {
+            // Still write empty rollups, so the day's raw segment can expire.
+            computed = Rollup.compute(new RawRows(), day * DAY_MILLIS);
+        }
+        List<RollupFile> written = new ArrayList<>();
+        try {
+            for (Rollup rollup : computed) {
+                written.add(segmentDirectory.writeRollup(spaceId, rollup));
+            }
+        } catch (IOException ex) {
+            logger.warn("Failed to write rollups of {} for day {}", spaceId, day, ex);
+            written.forEach(segmentDirectory::delete);
+            return false;
+        }
+        List<RollupFile> replaced = new ArrayList<>();
+        series.lock.writeLock().lock();
+        try {
+            for (RollupFile file : written) {
+                RollupFile previous = series.rollups.get(file.tier()).put(day, file);
+                if (previous != null) {
+                    replaced.add(previous);
+                }
+            }
+        } finally {
+            series.lock.writeLock().unlock();
+        }
+        replaced.forEach(segmentDirectory::delete);
+        return true;
+    }
+
+    /**
+     * Deletes raw segments whose day ended more than the raw retention before {@code nowMillis},
+     * rolling them up first if that has not happened yet, and rollups past their tier's
+     * retention.
+     *
+     * @return number of files deleted
+     */
+    int expireBefore(long nowMillis) {
+        if (!segmentDirectory.isEnabled()) {
+            return 0;
+        }
+        int expired = 0;
+        for (Map.Entry<String, SpaceSeries> entry : seriesBySpace.entrySet()) {
+            SpaceSeries series = entry.getValue();
+            if (rawRetentionMillis > 0) {
+                long lastExpiredDay = Math.floorDiv(nowMillis - rawRetentionMillis, DAY_MILLIS) - 1;
+                for (long day : series.sealedDaysThrough(series.segments, lastExpiredDay)) {
+                    // Never drop raw rows that nothing summarizes yet.
+                    if (!series.hasRollups(day) && !rollUp(entry.getKey(), series, day)) {
+                        continue;
+                    }
+                    SegmentFile segment = series.remove(series.segments, day);
+                    if (segment != null) {
+                        unindex(entry.getKey(), series, day, segment);
+                        try {
+                            locations.remove(segment, day);
+                        } catch (IOException ex) {
+                            // Lookups of the rows left behind find no segment and miss, as they should.
+                            logger.warn("Failed to unindex expired observations of {} for day {}", entry.getKey(),
+                                    day, ex);
+                        }
+                        segmentDirectory.delete(segment);
+                        expired++;
+                    }
+                }
+            }
+            for (Map.Entry<RollupTier, Long> retention : rollupRetentionMillis.entrySet()) {
+                if (retention.getValue() == 0) {
+                    continue;
+                }
+                NavigableMap<Long, RollupFile> rollups = series.rollups.get(retention.getKey());
+                long lastExpiredDay = Math.floorDiv(nowMillis - retention.getValue(), DAY_MILLIS) - 1;
+                for (long day : series.sealedDaysThrough(rollups, lastExpiredDay)) {
+                    RollupFile rollup = series.remove(rollups, day);
+                    if (rollup != null) {
+                        segmentDirectory.delete(rollup);
+                        expired++;
+                    }
+                }
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Removes the index entries of a partition's rows once it has been sealed; caller holds the
+     * partition lock.
+     */
+    private void unindexMemory(String spaceId, long day, ColumnChunk chunk) {
+        synchronized (chunk) {
+            for (int row = 0; row < chunk.size(); row++) {
+                memoryIndex.remove(new UUID(chunk.idHigh(row), chunk.idLow(row)),
+                        new Location(spaceId, day, chunk.version(row), row));
+            }
+        }
+    }
+
+    /**
+     * Forgets the superseded versions an expired segment held, so they no longer need their
+     * tombstones.
+     */
+    private void unindex(String spaceId, SpaceSeries series, long day, SegmentFile segment) {
+        Lock partition = series.partition(day);
+        partition.lock();
+        try {
+            series.lock.writeLock().lock();
+            try {
+                RowFilter live = series.filterFor(day);
+                List<UUID> superseded = new ArrayList<>();
+                if (live != RowFilter.ALL) {
+                    try {
+                        segment.forEachRow((high, low, version) -> {
+                            if (!live.isLive(high, low, version)) {
+                                superseded.add(new UUID(high, low));
+                            }
+                        });
+                    } catch (IOException ex) {
+                        logger.warn("Failed to read superseded observations of {} for day {}", spaceId, day, ex);
+                    }
+                }
+                series.dropSuperseded(day, superseded);
+            } finally {
+                series.lock.writeLock().unlock();
+            }
+        } finally {
+            partition.unlock();
+        }
+    }
+
+    /**
+     * Combines a partition with the segment already sealed for its day, if any, so late
+     * arrivals end up in the day's single segment, in order, instead of in fragments. Rows that
+     * {@code live} rejects are left out and their ids added to {@code dropped}. {@code chunk}
+     * must be a copy no other thread reaches.
+     */
+    private ColumnChunk merge(ColumnChunk chunk, SegmentFile previous, RowFilter live, List<UUID> dropped)
+            throws IOException {
+        if (previous == null && live == RowFilter.ALL) {
+            return chunk;
+        }
+        ColumnChunk merged = new ColumnChunk(chunk.baseMillis());
+        if (previous != null) {
+            previous.copyTo(merged, statuses, live, dropped);
+        }
+        merged.appendAll(chunk, live, dropped);
+        return merged;
+    }
+
+    @FunctionalInterface
+    private interface SegmentVisitor {
+        void visit(SegmentFile segment, RowFilter live) throws IOException;
+    }
+
+    private record Location(String spaceId, long day, long version, int row) {
+    }
+
+    /** Live version of a corrected observation and how many superseded versions are still stored. */
+    private static final class Tombstone {
+
+        final long liveVersion;
+        int supersededRows;
+
+        Tombstone(long liveVersion, int supersededRows) {
+            this.liveVersion = liveVersion;
+            this.supersededRows = supersededRows;
+        }
+    }
+
+    private static final class SpaceSeries {
+
+        final NavigableMap<Long, ColumnChunk> days = new ConcurrentSkipListMap<>();
+        /** Sealed partition of each day; guarded by {@link #lock}. */
+        final NavigableMap<Long, SegmentFile> segments = new TreeMap<>();
+        /**
+         * Corrected observations with superseded versions still stored; written under
+         * {@link #lock}, read by sealing without it.
+         */
+        final Map<UUID, Tombstone> tombstones = new ConcurrentHashMap<>();
+        /** Number of superseded rows stored for each day; written under {@link #lock}. */
+        final Map<Long, Integer> supersededRows = new ConcurrentHashMap<>();
+        /** Rollups of each sealed day, per tier; guarded by {@link #lock}. */
+        final Map<RollupTier, NavigableMap<Long, RollupFile>> rollups = new EnumMap<>(RollupTier.class);
+        /** Makes moving a partition from {@link #days} to {@link #segments} atomic for readers. */
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        /** Serialize the writes to each day with its sealing, striped by day. */
+        final Lock[] partitions = new Lock[PARTITION_STRIPES];
+        volatile long maxDurationMillis;
+
+        SpaceSeries() {
+            for (RollupTier tier : RollupTier.values()) {
+                rollups.put(tier, new TreeMap<>());
+            }
+            for (int i = 0; i < partitions.length; i++) {
+                partitions[i] = new ReentrantLock();
+            }
+        }
+
+        Lock partition(long day) {
+            return partitions[(int) Math.floorMod(day, (long) PARTITION_STRIPES)];
+        }
+
+        /**
+         * Partition locks of two days, each once, in the order they are taken.
+         */
+        Lock[] partitions(long day, long otherDay) {
+            int stripe = (int) Math.floorMod(day, (long) PARTITION_STRIPES);
+            int otherStripe = (int) Math.floorMod(otherDay, (long) PARTITION_STRIPES);
+            if (stripe == otherStripe) {
+                return new Lock[]{partitions[stripe]};
+            }
+            return new Lock[]{partitions[Math.min(stripe, otherStripe)], partitions[Math.max(stripe, otherStripe)]};
+        }
+
+        ColumnChunk chunkFor(long start) {
+            long day = Math.floorDiv(start, DAY_MILLIS);
+            return days.computeIfAbsent(day, d -> new ColumnChunk(d * DAY_MILLIS));
+        }
+
+        void noteDuration(long durationMillis) {
+            if (durationMillis > maxDurationMillis) {
+                synchronized (this) {
+                    maxDurationMillis = Math.max(maxDurationMillis, durationMillis);
+                }
+            }
+        }
+
+        long dayOf(SegmentFile segment) {
+            return Math.floorDiv(segment.baseMillis(), DAY_MILLIS);
+        }
+
+        void putSegment(SegmentFile segment) {
+            noteDuration(segment.maxDurationMillis());
+            segments.put(dayOf(segment), segment);
+        }
+
+        /**
+         * Filter for the rows stored for {@code day}; caller holds the lock or the day's
+         * partition lock.
+         */
+        RowFilter filterFor(long day) {
+            if (!supersededRows.containsKey(day)) {
+                return RowFilter.ALL;
+            }
+            return (high, low, version) -> {
+                Tombstone tombstone = tombstones.get(new UUID(high, low));
+                return tombstone == null || tombstone.liveVersion == version;
+            };
+        }
+
+        /**
+         * Records that {@code liveVersion} of an observation replaces a version stored for
+         * {@code supersededDay}; caller holds the write lock and the partition lock of that day.
+         */
+        void supersede(UUID id, long liveVersion, long supersededDay) {
+            Tombstone previous = tombstones.get(id);
+            tombstones.put(id, new Tombstone(liveVersion, previous == null ? 1 : previous.supersededRows + 1));
+            supersededRows.merge(supersededDay, 1, Integer::sum);
+        }
+
+        /**
+         * Records that the superseded rows of {@code day} are gone; caller holds the write lock.
+         */
+        void dropSuperseded(long day, List<UUID> dropped) {
+            for (UUID id : dropped) {
+                Tombstone tombstone = tombstones.get(id);
+                if (tombstone != null && --tombstone.supersededRows == 0) {
+                    tombstones.remove(id);
+                }
+            }
+            supersededRows.remove(day);
+        }
+
+        /**
+         * Days up to {@code lastDay} with an in-memory partition or superseded sealed rows.
+         */
+        List<Long> sealableDays(long lastDay) {
+            NavigableSet<Long> sealable = new TreeSet<>(days.headMap(lastDay, true).keySet());
+            lock.readLock().lock();
+            try {
+                for (long day : supersededRows.keySet()) {
+                    if (day <= lastDay) {
+                        sealable.add(day);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            return new ArrayList<>(sealable);
+        }
+
+        boolean hasSegment(long day) {
+            lock.readLock().lock();
+            try {
+                return segments.containsKey(day);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        boolean hasRollups(long day) {
+            lock.readLock().lock();
+            try {
+                return rollups.values().stream().allMatch(days -> days.containsKey(day));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<Long> sealedDaysThrough(NavigableMap<Long, ?> files, long lastDay) {
+            lock.readLock().lock();
+            try {
+                return new ArrayList<>(files.headMap(lastDay, true).keySet());
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        <T> T remove(NavigableMap<Long, T> files, long day) {
+            lock.writeLock().lock();
+            try {
+                return files.remove(day);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.spaceflow.occupancy.store;
+
+/**
+ * Counts and occupied time of the observations overlapping a window. Occupied time is clipped
+ * to the window; overlapping occupied observations each contribute their own time.
+ */
+public final class RangeAggregate {
+
+    private long observations;
+    private long occupiedObservations;
+    private long occupiedMillis;
+
+    public long getObservations() {
+        return observations;
+    }
+
+    public long getOccupiedObservations() {
+        return occupiedObservations;
+    }
+
+    public long getOccupiedMillis() {
+        return occupiedMillis;
+    }
+
+    void add(long count, long occupiedCount, long occupiedMillis) {
+        this.observations += count;
+        this.occupiedObservations += occupiedCount;
+        this.occupiedMillis += occupiedMillis;
+    }
+
+    void addClipped(long start, long end, boolean occupied, long from, long to) {
+        observations++;
+        if (occupied) {
+            occupiedObservations++;
+            occupiedMillis += Math.min(end, to) - Math.max(start, from);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.spaceflow.occupancy.store;
+
+import java.util.Arrays;
+
+/**
+ * Growable (start, end, occupied) rows gathered from partitions and segments to compute
+ * rollups, without materializing observations.
+ */
+final class RawRows {
+
+    private long[] starts = new long[64];
+    private long[] ends = new long[64];
+    private boolean[] occupied = new boolean[64];
+    private int size;
+
+    void add(long start, long end, boolean isOccupied) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+            occupied = Arrays.copyOf(occupied, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        occupied[size] = isOccupied;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long start(int row) {
+        return starts[row];
+    }
+
+    long end(int row) {
+        return ends[row];
+    }
+
+    boolean occupied(int row) {
+        return occupied[row];
+    }
+
+    /**
+     * Row numbers ordered by start, ties in insertion order.
+     */
+    int[] byStart() {
+        Integer[] order = new Integer[size];
+        for (int row = 0; row < size; row++) {
+            order[row] = row;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(starts[a], starts[b]));
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = order[i];
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,110 @@
+package com.spaceflow.occupancy.store;
+
+import java.time.Duration;
+
+/**
+ * Bucketed aggregates of one space over one UTC day in one {@link RollupTier}, as parallel int
+ * columns (see {@link RollupBucket} for what each means).
+ */
+final class Rollup {
+
+    static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+
+    final long dayStart;
+    final RollupTier tier;
+    final int[] observations;
+    final int[] occupiedMillis;
+    final int[] transitions;
+    final int[] minOccupiedMillis;
+    final int[] maxOccupiedMillis;
+
+    Rollup(long dayStart, RollupTier tier) {
+        this.dayStart = dayStart;
+        this.tier = tier;
+        int buckets = (int) (DAY_MILLIS / tier.bucketMillis());
+        this.observations = new int[buckets];
+        this.occupiedMillis = new int[buckets];
+        this.transitions = new int[buckets];
+        this.minOccupiedMillis = new int[buckets];
+        this.maxOccupiedMillis = new int[buckets];
+    }
+
+    int buckets() {
+        return observations.length;
+    }
+
+    long totalObservations() {
+        long total = 0;
+        for (int count : observations) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Computes the five-minute and hourly rollups of the day starting at {@code dayStart} from
+     * every row overlapping it.
+     *
+     * @return the rollups indexed by {@link RollupTier#ordinal()}
+     */
+    static Rollup[] compute(RawRows rows, long dayStart) {
+        Rollup fiveMinutes = new Rollup(dayStart, RollupTier.FIVE_MINUTES);
+        Rollup hourly = new Rollup(dayStart, RollupTier.HOURLY);
+        int[] order = rows.byStart();
+        for (int i = 0; i < order.length; i++) {
+            int row = order[i];
+            long start = Math.max(rows.start(row), dayStart);
+            long end = Math.min(rows.end(row), dayStart + DAY_MILLIS);
+            boolean transition = i > 0 && rows.occupied(row) != rows.occupied(order[i - 1]);
+            fiveMinutes.addRow(start, end, rows.occupied(row), transition);
+            hourly.addRow(start, end, rows.occupied(row), transition);
+        }
+        int perHour = (int) (RollupTier.HOURLY.bucketMillis() / RollupTier.FIVE_MINUTES.bucketMillis());
+        for (int bucket = 0; bucket < fiveMinutes.buckets(); bucket++) {
+            fiveMinutes.minOccupiedMillis[bucket] = fiveMinutes.occupiedMillis[bucket];
+            fiveMinutes.maxOccupiedMillis[bucket] = fiveMinutes.occupiedMillis[bucket];
+        }
+        for (int hour = 0; hour < hourly.buckets(); hour++) {
+            int min = Integer.MAX_VALUE;
+            int max = 0;
+            for (int bucket = hour * perHour; bucket < (hour + 1) * perHour; bucket++) {
+                min = Math.min(min, fiveMinutes.occupiedMillis[bucket]);
+                max = Math.max(max, fiveMinutes.occupiedMillis[bucket]);
+            }
+            hourly.minOccupiedMillis[hour] = min;
+            hourly.maxOccupiedMillis[hour] = max;
+        }
+        return new Rollup[]{fiveMinutes, hourly};
+    }
+
+    /**
+     * Adds the buckets overlapping [from, to) to {@code out}, merged into the result bucket
+     * each one falls in: result bucket k starts at {@code origin + k * resolution}.
+     */
+    void addTo(long from, long to, long origin, long resolution, RollupBucket[] out) {
+        long bucketMillis = tier.bucketMillis();
+        int first = (int) Math.max(0, Math.floorDiv(from - dayStart, bucketMillis));
+        int last = (int) Math.min(buckets() - 1, Math.floorDiv(to - 1 - dayStart, bucketMillis));
+        for (int bucket = first; bucket <= last; bucket++) {
+            int target = (int) ((dayStart + bucket * bucketMillis - origin) / resolution);
+            out[target].add(observations[bucket], occupiedMillis[bucket], transitions[bucket],
+                    minOccupiedMillis[bucket], maxOccupiedMillis[bucket]);
+        }
+    }
+
+    private void addRow(long start, long end, boolean occupied, boolean transition) {
+        long bucketMillis = tier.bucketMillis();
+        int first = (int) ((start - dayStart) / bucketMillis);
+        int last = (int) ((end - 1 - dayStart) / bucketMillis);
+        for (int bucket = first; bucket <= last; bucket++) {
+            observations[bucket]++;
+            if (occupied) {
+                long bucketStart = dayStart + bucket * bucketMillis;
+                occupiedMillis[bucket] += (int) (Math.min(end, bucketStart + bucketMillis) - Math.max(start, bucketStart));
+            }
+        }
+        if (transition) {
+            transitions[first]++;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.spaceflow.occupancy.store;
+
+/**
+ * Aggregates of one space over one time bucket.
+ *
+ * Observations are counted in every bucket they overlap, and occupied time is clipped to the
+ * bucket; overlapping occupied observations each contribute their own time. A transition is a
+ * status change between consecutive observations (by observed start), counted in the bucket
+ * where the later one starts. The minimum and maximum are the occupied time of the quietest
+ * and busiest five-minute bucket within this one.
+ */
+public final class RollupBucket {
+
+    private final long startMillis;
+    private long observations;
+    private long occupiedMillis;
+    private long transitions;
+    private long minOccupiedMillis = Long.MAX_VALUE;
+    private long maxOccupiedMillis;
+
+    public RollupBucket(long startMillis) {
+        this.startMillis = startMillis;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getObservations() {
+        return observations;
+    }
+
+    public long getOccupiedMillis() {
+        return occupiedMillis;
+    }
+
+    public long getTransitions() {
+        return transitions;
+    }
+
+    /**
+     * Occupied time of the quietest five-minute bucket, or 0 if nothing was added.
+     */
+    public long getMinOccupiedMillis() {
+        return minOccupiedMillis == Long.MAX_VALUE ? 0 : minOccupiedMillis;
+    }
+
+    public long getMaxOccupiedMillis() {
+        return maxOccupiedMillis;
+    }
+
+    public void add(long observations, long occupiedMillis, long transitions, long minOccupiedMillis,
+                    long maxOccupiedMillis) {
+        this.observations += observations;
+        this.occupiedMillis += occupiedMillis;
+        this.transitions += transitions;
+        this.minOccupiedMillis = Math.min(this.minOccupiedMillis, minOccupiedMillis);
+        this.maxOccupiedMillis = Math.max(this.maxOccupiedMillis, maxOccupiedMillis);
+    }
+
+    public void add(RollupBucket other) {
+        add(other.observations, other.occupiedMillis, other.transitions, other.getMinOccupiedMillis(),
+                other.maxOccupiedMillis);
+    }
+}
@@ -0,0 +1,122 @@
+package com.spaceflow.occupancy.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Immutable file holding one {@link Rollup}: magic, format version, space id, day start, tier,
+ * bucket count, then the five int columns. Opening the file reads only what precedes the
+ * columns and keeps neither a mapping nor a descriptor; the columns, a few kilobytes, are read
+ * from the file each time a query needs the day and left to the page cache in between.
+ */
+final class RollupFile {
+
+    private static final int MAGIC = 0x4F525550;
+    private static final int VERSION = 1;
+    private static final int COLUMNS = 5;
+
+    private final Path path;
+    private final String spaceId;
+    private final long dayStart;
+    private final RollupTier tier;
+    private final int buckets;
+    private final int columnsOffset;
+
+    private RollupFile(Path path, ByteBuffer header) throws IOException {
+        this.path = path;
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not an occupancy rollup: " + path);
+        }
+        byte[] space = new byte[header.getInt()];
+        header.get(space);
+        this.spaceId = new String(space, StandardCharsets.UTF_8);
+        this.dayStart = header.getLong();
+        this.tier = RollupTier.values()[header.get()];
+        this.buckets = header.getInt();
+        this.columnsOffset = header.position();
+    }
+
+    static RollupFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer length = readFully(channel, 0, 12, path);
+            length.position(8);
+            int headerBytes = 12 + length.getInt() + 8 + 1 + 4;
+            return new RollupFile(path, readFully(channel, 0, headerBytes, path));
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length, Path path)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated occupancy rollup: " + path);
+            }
+        }
+        return buffer.flip();
+    }
+
+    static RollupFile write(Path path, String spaceId, Rollup rollup) throws IOException {
+        byte[] space = spaceId.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 4 + space.length + 8 + 1 + 4 + COLUMNS * 4 * rollup.buckets());
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(space.length).put(space);
+        buffer.putLong(rollup.dayStart).put((byte) rollup.tier.ordinal()).putInt(rollup.buckets());
+        for (int[] column : new int[][]{rollup.observations, rollup.occupiedMillis, rollup.transitions,
+                rollup.minOccupiedMillis, rollup.maxOccupiedMillis}) {
+            for (int value : column) {
+                buffer.putInt(value);
+            }
+        }
+        buffer.flip();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+        return open(path);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    String spaceId() {
+        return spaceId;
+    }
+
+    long dayStart() {
+        return dayStart;
+    }
+
+    RollupTier tier() {
+        return tier;
+    }
+
+    /**
+     * Reads the rollup from the file, which must not have been deleted yet.
+     */
+    Rollup read() throws IOException {
+        ByteBuffer columns;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            columns = readFully(channel, columnsOffset, COLUMNS * 4 * buckets, path);
+        }
+        Rollup rollup = new Rollup(dayStart, tier);
+        for (int[] column : new int[][]{rollup.observations, rollup.occupiedMillis, rollup.transitions,
+                rollup.minOccupiedMillis, rollup.maxOccupiedMillis}) {
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                column[bucket] = columns.getInt();
+            }
+        }
+        return rollup;
+    }
+}
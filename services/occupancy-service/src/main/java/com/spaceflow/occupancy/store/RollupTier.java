@@ -0,0 +1,47 @@
+package com.spaceflow.occupancy.store;
+
+import java.time.Duration;
+
+/**
+ * Pre-aggregated resolutions kept alongside, and eventually instead of, raw observations.
+ */
+public enum RollupTier {
+
+    FIVE_MINUTES(Duration.ofMinutes(5), ".r5m"),
+    HOURLY(Duration.ofHours(1), ".r1h");
+
+    private final Duration bucket;
+    private final String suffix;
+
+    RollupTier(Duration bucket, String suffix) {
+        this.bucket = bucket;
+        this.suffix = suffix;
+    }
+
+    public Duration bucket() {
+        return bucket;
+    }
+
+    long bucketMillis() {
+        return bucket.toMillis();
+    }
+
+    String suffix() {
+        return suffix;
+    }
+
+    /**
+     * Coarsest tier whose buckets tile {@code resolution} exactly, or null if none does.
+     */
+    public static RollupTier coarsestFor(Duration resolution) {
+        if (resolution.isZero() || resolution.isNegative()) {
+            return null;
+        }
+        for (int i = values().length - 1; i >= 0; i--) {
+            if (resolution.toMillis() % values()[i].bucketMillis() == 0) {
+                return values()[i];
+            }
+        }
+        return null;
+    }
+}
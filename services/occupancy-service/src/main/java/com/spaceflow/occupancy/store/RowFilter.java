@@ -0,0 +1,14 @@
+package com.spaceflow.occupancy.store;
+
+/**
+ * Decides which stored rows are visible. Correcting an observation appends a new version of it
+ * and leaves the superseded version in place until compaction drops it. A row's version is its
+ * updatedAt in epoch milliseconds, or 0 if it was never corrected.
+ */
+@FunctionalInterface
+interface RowFilter {
+
+    RowFilter ALL = (idHigh, idLow, version) -> true;
+
+    boolean isLive(long idHigh, long idLow, long version);
+}
@@ -0,0 +1,10 @@
+package com.spaceflow.occupancy.store;
+
+/**
+ * Receives the id halves and version of stored rows.
+ */
+@FunctionalInterface
+interface RowVisitor {
+
+    void visit(long idHigh, long idLow, long version);
+}
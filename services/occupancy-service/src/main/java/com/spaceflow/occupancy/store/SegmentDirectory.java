@@ -0,0 +1,189 @@
+package com.spaceflow.occupancy.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Directory of sealed observation segments ({@code <day>-<uuid>.seg}, one per sealed day
+ * partition of one space) and of the rollups computed from them ({@code <day>-<uuid>.r5m} and
+ * {@code <day>-<uuid>.r1h}, one per tier, day and space).
+ *
+ * The directory also holds the {@link IngestLog} of rows not sealed yet ({@code ingest-<n>.log})
+ * and the {@link LocationIndex} of the sealed ones ({@code locations.idx}).
+ * With {@code occupancy.segments.log-fsync} each logged batch is forced to disk before it counts
+ * as persisted; without it a crash can lose what the operating system had not written out yet.
+ *
+ * Segments keep no mapping while idle; at most {@code occupancy.segments.max-mapped} segment
+ * bodies are mapped at once, so the number of segments is not limited by the process's
+ * memory map count.
+ *
+ * When {@code occupancy.segments.directory} is blank segments are disabled and observations
+ * stay in memory only (as in tests).
+ */
+@Component
+public class SegmentDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentDirectory.class);
+
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final boolean logFsync;
+    private final SegmentMappings mappings;
+
+    @Autowired
+    public SegmentDirectory(@Value("${occupancy.segments.directory:}") String directory,
+                            @Value("${occupancy.segments.log-fsync:true}") boolean logFsync,
+                            @Value("${occupancy.segments.max-mapped:1024}") int maxMapped) {
+        this.directory = directory == null || directory.isBlank() ? null : Paths.get(directory);
+        this.logFsync = logFsync;
+        this.mappings = new SegmentMappings(maxMapped);
+    }
+
+    public SegmentDirectory(String directory) {
+        this(directory, true, 1024);
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Opens every segment in the directory, reading only headers. Unreadable files and
+     * leftovers of interrupted writes are skipped.
+     */
+    List<SegmentFile> load() {
+        List<SegmentFile> segments = new ArrayList<>();
+        if (!isEnabled()) {
+            return segments;
+        }
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(SUFFIX + ".tmp")) {
+                        Files.deleteIfExists(file);
+                    } else if (name.endsWith(SUFFIX)) {
+                        try {
+                            segments.add(SegmentFile.open(file, mappings));
+                        } catch (IOException | RuntimeException ex) {
+                            logger.warn("Skipping unreadable observation segment {}", file, ex);
+                        }
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to load observation segments from " + directory, ex);
+        }
+        logger.info("Opened {} observation segments from {}", segments.size(), directory);
+        return segments;
+    }
+
+    /**
+     * Opens every rollup file in the directory. Unreadable files and leftovers of interrupted
+     * writes are skipped.
+     */
+    List<RollupFile> loadRollups() {
+        List<RollupFile> rollups = new ArrayList<>();
+        if (!isEnabled()) {
+            return rollups;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                for (RollupTier tier : RollupTier.values()) {
+                    if (name.endsWith(tier.suffix() + ".tmp")) {
+                        Files.deleteIfExists(file);
+                    } else if (name.endsWith(tier.suffix())) {
+                        try {
+                            rollups.add(RollupFile.open(file));
+                        } catch (IOException | RuntimeException ex) {
+                            logger.warn("Skipping unreadable occupancy rollup {}", file, ex);
+                        }
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to load occupancy rollups from " + directory, ex);
+        }
+        logger.info("Opened {} occupancy rollups from {}", rollups.size(), directory);
+        return rollups;
+    }
+
+    /**
+     * Replays the ingest log into {@code replay}, one logged batch at a time, and opens it for
+     * appending.
+     */
+    IngestLog openLog(IngestLog.Replay replay) {
+        try {
+            Files.createDirectories(directory);
+            return IngestLog.open(directory, logFsync, replay);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to open the ingest log in " + directory, ex);
+        }
+    }
+
+    /**
+     * Opens the index of where sealed observations are, creating it if there is none.
+     */
+    LocationIndex openLocations() {
+        try {
+            Files.createDirectories(directory);
+            return LocationIndex.open(directory);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to open the observation location index in " + directory, ex);
+        }
+    }
+
+    /**
+     * Deletes a segment that has been replaced or expired and can no longer be reached by scans.
+     */
+    void delete(SegmentFile segment) {
+        mappings.remove(segment);
+        delete(segment.path());
+    }
+
+    /**
+     * Deletes a rollup that has been replaced or expired and can no longer be reached by queries.
+     */
+    void delete(RollupFile rollup) {
+        delete(rollup.path());
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            logger.warn("Failed to delete {}", file, ex);
+        }
+    }
+
+    SegmentFile write(String spaceId, ColumnChunk chunk, String[] statuses) throws IOException {
+        LocalDate day = Instant.ofEpochMilli(chunk.baseMillis()).atOffset(ZoneOffset.UTC).toLocalDate();
+        Path file = directory.resolve(day + "-" + UUID.randomUUID() + SUFFIX);
+        return SegmentFile.write(file, mappings, spaceId, chunk, statuses);
+    }
+
+    RollupFile writeRollup(String spaceId, Rollup rollup) throws IOException {
+        LocalDate day = Instant.ofEpochMilli(rollup.dayStart).atOffset(ZoneOffset.UTC).toLocalDate();
+        Path file = directory.resolve(day + "-" + UUID.randomUUID() + rollup.tier.suffix());
+        return RollupFile.write(file, spaceId, rollup);
+    }
+}
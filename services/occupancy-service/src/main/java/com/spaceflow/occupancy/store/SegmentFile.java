@@ -0,0 +1,575 @@
+package com.spaceflow.occupancy.store;
+
+import com.spaceflow.occupancy.dto.Observation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable file holding one sealed day partition of one space, read through memory maps.
+ *
+ * Layout:
+ * - prefix: magic, format version, header length
+ * - header: space id, day start, row count, earliest start, latest end, longest duration,
+ *   status dictionary, block count
+ * - body: the block index, then the {@link ColumnChunk} columns, n entries each (int start
+ *   offsets, int durations,
+ *   byte statuses, long id high bits, long id low bits, long recordedAt), then the row numbers
+ *   ordered by id, then the notes as (row, length, UTF-8 bytes), then the versions of corrected
+ *   rows as (row, updatedAt)
+ *
+ * Rows are sorted by observed start and grouped into blocks of {@value #BLOCK_ROWS}. The
+ * block index holds, per block, its first start, its latest end, the latest end of it and all
+ * earlier blocks, and its occupied row count and occupied milliseconds. A range scan binary
+ * searches the running latest end for the first block that can reach the window, stops at the
+ * first block starting after it, and aggregates blocks lying wholly inside the window from
+ * the index alone.
+ *
+ * The rows ordered by id let {@link #findRow} binary search the mapped id columns for one
+ * observation, so finding a row to correct costs no heap and no scan.
+ *
+ * Opening a segment reads its prefix and header onto the heap and maps nothing, so an open
+ * segment holds neither a mapping nor a file descriptor. The body is mapped by the scans and
+ * lookups that reach it, through {@link SegmentMappings}, which bounds how many bodies stay
+ * mapped at once; reads are then served from the page cache rather than the heap.
+ */
+final class SegmentFile {
+
+    private static final int MAGIC = 0x4F534547;
+    private static final int VERSION = 5;
+    private static final int PREFIX_BYTES = 12;
+    private static final int ROW_BYTES = 4 + 4 + 1 + 8 + 8 + 8;
+    static final int BLOCK_ROWS = 128;
+    private static final int BLOCK_BYTES = 8 + 8 + 8 + 4 + 8;
+    private static final String OCCUPIED = "occupied";
+
+    private final Path path;
+    private final SegmentMappings mappings;
+    private final long bodyOffset;
+    private final String spaceId;
+    private final long baseMillis;
+    private final int rowCount;
+    private final long minStart;
+    private final long maxEnd;
+    private final long maxDurationMillis;
+    private final String[] statuses;
+    private final int occupiedCode;
+    private final int blockCount;
+
+    private SegmentFile(Path path, SegmentMappings mappings, long bodyOffset, ByteBuffer header) {
+        this.path = path;
+        this.mappings = mappings;
+        this.bodyOffset = bodyOffset;
+        this.spaceId = readString(header);
+        this.baseMillis = header.getLong();
+        this.rowCount = header.getInt();
+        this.minStart = header.getLong();
+        this.maxEnd = header.getLong();
+        this.maxDurationMillis = header.getLong();
+        this.statuses = new String[header.get() & 0xFF];
+        int occupied = -1;
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = readString(header);
+            if (statuses[i].equals(OCCUPIED)) {
+                occupied = i;
+            }
+        }
+        this.occupiedCode = occupied;
+        this.blockCount = header.getInt();
+    }
+
+    static SegmentFile open(Path path, SegmentMappings mappings) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer prefix = readFully(channel, 0, PREFIX_BYTES, path);
+            if (prefix.getInt() != MAGIC || prefix.getInt() != VERSION) {
+                throw new IOException("Not an observation segment: " + path);
+            }
+            int headerBytes = prefix.getInt();
+            ByteBuffer header = readFully(channel, PREFIX_BYTES, headerBytes, path);
+            return new SegmentFile(path, mappings, PREFIX_BYTES + headerBytes, header);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length, Path path)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated observation segment: " + path);
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Writes the rows of {@code chunk} to {@code path}, sorted by observed start, and opens the
+     * result. The file only appears under its final name once fully written and forced.
+     */
+    static SegmentFile write(Path path, SegmentMappings mappings, String spaceId, ColumnChunk chunk,
+                             String[] statuses) throws IOException {
+        int n = chunk.size();
+        int[] rows = chunk.rowsByStart();
+        long minStart = Long.MAX_VALUE;
+        long maxEnd = Long.MIN_VALUE;
+        long maxDuration = 0;
+        for (int row = 0; row < n; row++) {
+            long start = chunk.baseMillis() + chunk.startOffset(row);
+            minStart = Math.min(minStart, start);
+            maxEnd = Math.max(maxEnd, start + chunk.duration(row));
+            maxDuration = Math.max(maxDuration, chunk.duration(row));
+        }
+
+        int blockCount = (n + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        ByteBuffer index = ByteBuffer.allocate(blockCount * BLOCK_BYTES);
+        long runningMaxEnd = Long.MIN_VALUE;
+        for (int block = 0; block < blockCount; block++) {
+            long blockMaxEnd = Long.MIN_VALUE;
+            int occupiedRows = 0;
+            long occupiedMillis = 0;
+            for (int i = block * BLOCK_ROWS; i < Math.min(n, (block + 1) * BLOCK_ROWS); i++) {
+                int row = rows[i];
+                blockMaxEnd = Math.max(blockMaxEnd, chunk.baseMillis() + chunk.startOffset(row) + chunk.duration(row));
+                if (OCCUPIED.equals(statuses[chunk.status(row) & 0xFF])) {
+                    occupiedRows++;
+                    occupiedMillis += chunk.duration(row);
+                }
+            }
+            runningMaxEnd = Math.max(runningMaxEnd, blockMaxEnd);
+            index.putLong(chunk.baseMillis() + chunk.startOffset(rows[block * BLOCK_ROWS]))
+                    .putLong(blockMaxEnd).putLong(runningMaxEnd).putInt(occupiedRows).putLong(occupiedMillis);
+        }
+
+        byte[] space = spaceId.getBytes(StandardCharsets.UTF_8);
+        int headerBytes = 4 + space.length + 8 + 4 + 8 + 8 + 8 + 1 + 4;
+        byte[][] dictionary = new byte[statuses.length][];
+        for (int i = 0; i < statuses.length; i++) {
+            dictionary[i] = statuses[i].getBytes(StandardCharsets.UTF_8);
+            headerBytes += 4 + dictionary[i].length;
+        }
+        ByteBuffer header = ByteBuffer.allocate(PREFIX_BYTES + headerBytes);
+        header.putInt(MAGIC).putInt(VERSION).putInt(headerBytes);
+        header.putInt(space.length).put(space);
+        header.putLong(chunk.baseMillis()).putInt(n).putLong(minStart).putLong(maxEnd).putLong(maxDuration);
+        header.put((byte) statuses.length);
+        for (byte[] status : dictionary) {
+            header.putInt(status.length).put(status);
+        }
+        header.putInt(blockCount);
+
+        Map<Integer, byte[]> notes = new HashMap<>();
+        int notesBytes = 4;
+        for (int i = 0; i < n; i++) {
+            String note = chunk.note(rows[i]);
+            if (note != null) {
+                byte[] bytes = note.getBytes(StandardCharsets.UTF_8);
+                notes.put(i, bytes);
+                notesBytes += 8 + bytes.length;
+            }
+        }
+        Map<Integer, Long> versions = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            long version = chunk.version(rows[i]);
+            if (version != 0) {
+                versions.put(i, version);
+            }
+        }
+        Integer[] byId = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            byId[i] = i;
+        }
+        Arrays.sort(byId, (a, b) -> {
+            int high = Long.compare(chunk.idHigh(rows[a]), chunk.idHigh(rows[b]));
+            return high != 0 ? high : Long.compare(chunk.idLow(rows[a]), chunk.idLow(rows[b]));
+        });
+        ByteBuffer body = ByteBuffer.allocate(index.capacity() + (ROW_BYTES + 4) * n + notesBytes + 4
+                + 12 * versions.size());
+        body.put(index.flip());
+        for (int row : rows) {
+            body.putInt(chunk.startOffset(row));
+        }
+        for (int row : rows) {
+            body.putInt(chunk.duration(row));
+        }
+        for (int row : rows) {
+            body.put(chunk.status(row));
+        }
+        for (int row : rows) {
+            body.putLong(chunk.idHigh(row));
+        }
+        for (int row : rows) {
+            body.putLong(chunk.idLow(row));
+        }
+        for (int row : rows) {
+            body.putLong(chunk.recordedAt(row));
+        }
+        for (int row : byId) {
+            body.putInt(row);
+        }
+        body.putInt(notes.size());
+        notes.forEach((row, bytes) -> body.putInt(row).putInt(bytes.length).put(bytes));
+        body.putInt(versions.size());
+        versions.forEach((row, version) -> body.putInt(row).putLong(version));
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            header.flip();
+            body.flip();
+            while (header.hasRemaining() || body.hasRemaining()) {
+                channel.write(new ByteBuffer[]{header, body});
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+        return open(path, mappings);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    String spaceId() {
+        return spaceId;
+    }
+
+    long baseMillis() {
+        return baseMillis;
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    long maxEndMillis() {
+        return maxEnd;
+    }
+
+    long maxDurationMillis() {
+        return maxDurationMillis;
+    }
+
+    /**
+     * Adds to {@code out} every live row whose observed period overlaps [from, to).
+     */
+    void collectOverlapping(long from, long to, RowFilter live, List<Observation> out) throws IOException {
+        if (!mayOverlap(from, to)) {
+            return;
+        }
+        Body mapped = body();
+        ByteBuffer columns = mapped.columns;
+        int n = rowCount;
+        for (int block = firstBlockEndingAfter(mapped, from); block < blockCount && blockStart(mapped, block) < to;
+             block++) {
+            if (blockMaxEnd(mapped, block) <= from) {
+                continue;
+            }
+            for (int row = block * BLOCK_ROWS; row < Math.min(n, (block + 1) * BLOCK_ROWS); row++) {
+                long start = baseMillis + columns.getInt(row * 4);
+                if (start >= to) {
+                    return;
+                }
+                long end = start + columns.getInt(4 * n + row * 4);
+                if (end > from && mapped.isLive(row, live)) {
+                    out.add(materialize(mapped, row));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the row holding the live version of an observation, or -1 if this segment does
+     * not hold it.
+     */
+    int findRow(long high, long low, RowFilter live) throws IOException {
+        Body mapped = body();
+        for (int i = firstById(mapped, high, low); i < rowCount; i++) {
+            int row = mapped.columns.getInt(ROW_BYTES * rowCount + i * 4);
+            if (idHigh(mapped, row) != high || idLow(mapped, row) != low) {
+                break;
+            }
+            if (mapped.isLive(row, live)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Latest version of an observation held here, live or not, or -1 if there is none.
+     */
+    long latestVersion(long high, long low) throws IOException {
+        Body mapped = body();
+        long latest = -1;
+        for (int i = firstById(mapped, high, low); i < rowCount; i++) {
+            int row = mapped.columns.getInt(ROW_BYTES * rowCount + i * 4);
+            if (idHigh(mapped, row) != high || idLow(mapped, row) != low) {
+                break;
+            }
+            latest = Math.max(latest, mapped.version(row));
+        }
+        return latest;
+    }
+
+    Observation read(int row) throws IOException {
+        return materialize(body(), row);
+    }
+
+    long version(int row) throws IOException {
+        return body().version(row);
+    }
+
+    /**
+     * Visits the id and version of every row.
+     */
+    void forEachRow(RowVisitor visitor) throws IOException {
+        Body mapped = body();
+        ByteBuffer columns = mapped.columns;
+        int n = rowCount;
+        for (int row = 0; row < n; row++) {
+            visitor.visit(columns.getLong(9 * n + row * 8), columns.getLong(17 * n + row * 8), mapped.version(row));
+        }
+    }
+
+    /**
+     * Adds the live rows overlapping [from, to) to {@code aggregate}. Unless some rows are
+     * filtered out, blocks lying wholly inside the window are taken from the index without
+     * reading their rows.
+     */
+    void aggregate(long from, long to, RowFilter live, RangeAggregate aggregate) throws IOException {
+        if (!mayOverlap(from, to)) {
+            return;
+        }
+        Body mapped = body();
+        for (int block = firstBlockEndingAfter(mapped, from); block < blockCount && blockStart(mapped, block) < to;
+             block++) {
+            long blockMaxEnd = blockMaxEnd(mapped, block);
+            if (blockMaxEnd <= from) {
+                continue;
+            }
+            int firstRow = block * BLOCK_ROWS;
+            int lastRow = Math.min(rowCount, firstRow + BLOCK_ROWS);
+            if (live == RowFilter.ALL && blockStart(mapped, block) >= from && blockMaxEnd <= to) {
+                int offset = block * BLOCK_BYTES;
+                aggregate.add(lastRow - firstRow, mapped.index.getInt(offset + 24), mapped.index.getLong(offset + 28));
+                continue;
+            }
+            ByteBuffer columns = mapped.columns;
+            int n = rowCount;
+            for (int row = firstRow; row < lastRow; row++) {
+                long start = baseMillis + columns.getInt(row * 4);
+                if (start >= to) {
+                    return;
+                }
+                long end = start + columns.getInt(4 * n + row * 4);
+                if (end > from && mapped.isLive(row, live)) {
+                    aggregate.addClipped(start, end, (columns.get(8 * n + row) & 0xFF) == occupiedCode, from, to);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds every live row overlapping [from, to) to {@code rows}.
+     */
+    void collectRows(long from, long to, RowFilter live, RawRows rows) throws IOException {
+        if (!mayOverlap(from, to)) {
+            return;
+        }
+        Body mapped = body();
+        ByteBuffer columns = mapped.columns;
+        int n = rowCount;
+        for (int block = firstBlockEndingAfter(mapped, from); block < blockCount && blockStart(mapped, block) < to;
+             block++) {
+            if (blockMaxEnd(mapped, block) <= from) {
+                continue;
+            }
+            for (int row = block * BLOCK_ROWS; row < Math.min(n, (block + 1) * BLOCK_ROWS); row++) {
+                long start = baseMillis + columns.getInt(row * 4);
+                if (start >= to) {
+                    return;
+                }
+                long end = start + columns.getInt(4 * n + row * 4);
+                if (end > from && mapped.isLive(row, live)) {
+                    rows.add(start, end, (columns.get(8 * n + row) & 0xFF) == occupiedCode);
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends every live row to {@code chunk}, re-encoding statuses with {@code dictionary}, and
+     * adds the ids of the rows left out to {@code dropped}.
+     */
+    void copyTo(ColumnChunk chunk, StatusDictionary dictionary, RowFilter live, List<UUID> dropped)
+            throws IOException {
+        Body mapped = body();
+        ByteBuffer columns = mapped.columns;
+        int n = rowCount;
+        for (int row = 0; row < n; row++) {
+            long high = columns.getLong(9 * n + row * 8);
+            long low = columns.getLong(17 * n + row * 8);
+            if (!mapped.isLive(row, live)) {
+                dropped.add(new UUID(high, low));
+                continue;
+            }
+            long start = baseMillis + columns.getInt(row * 4);
+            chunk.append(start, start + columns.getInt(4 * n + row * 4),
+                    dictionary.encode(statuses[columns.get(8 * n + row) & 0xFF]), high, low,
+                    columns.getLong(25 * n + row * 8), mapped.notes.get(row), mapped.version(row));
+        }
+    }
+
+    private Observation materialize(Body mapped, int row) {
+        ByteBuffer columns = mapped.columns;
+        int n = rowCount;
+        long start = baseMillis + columns.getInt(row * 4);
+        Observation observation = new Observation();
+        observation.setObservationId(new UUID(columns.getLong(9 * n + row * 8),
+                columns.getLong(17 * n + row * 8)).toString());
+        observation.setSpaceId(spaceId);
+        observation.setObservedStartTime(utc(start));
+        observation.setObservedEndTime(utc(start + columns.getInt(4 * n + row * 4)));
+        observation.setOccupancyStatus(statuses[columns.get(8 * n + row) & 0xFF]);
+        observation.setNotes(mapped.notes.get(row));
+        observation.setRecordedAt(utc(columns.getLong(25 * n + row * 8)));
+        long version = mapped.version(row);
+        if (version != 0) {
+            observation.setUpdatedAt(utc(version));
+        }
+        return observation;
+    }
+
+    /**
+     * Position in id order of the first row whose id is not below (high, low).
+     */
+    private int firstById(Body mapped, long high, long low) {
+        int lowIndex = 0;
+        int highIndex = rowCount;
+        while (lowIndex < highIndex) {
+            int mid = (lowIndex + highIndex) >>> 1;
+            int row = mapped.columns.getInt(ROW_BYTES * rowCount + mid * 4);
+            int order = Long.compare(idHigh(mapped, row), high);
+            if (order < 0 || order == 0 && Long.compare(idLow(mapped, row), low) < 0) {
+                lowIndex = mid + 1;
+            } else {
+                highIndex = mid;
+            }
+        }
+        return lowIndex;
+    }
+
+    private long idHigh(Body mapped, int row) {
+        return mapped.columns.getLong(9 * rowCount + row * 8);
+    }
+
+    private long idLow(Body mapped, int row) {
+        return mapped.columns.getLong(17 * rowCount + row * 8);
+    }
+
+    private boolean mayOverlap(long from, long to) {
+        return rowCount > 0 && minStart < to && maxEnd > from;
+    }
+
+    /**
+     * First block whose running latest end is after {@code from}; no earlier block can overlap.
+     */
+    private int firstBlockEndingAfter(Body mapped, long from) {
+        int low = 0;
+        int high = blockCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mapped.index.getLong(mid * BLOCK_BYTES + 16) > from) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private static long blockStart(Body mapped, int block) {
+        return mapped.index.getLong(block * BLOCK_BYTES);
+    }
+
+    private static long blockMaxEnd(Body mapped, int block) {
+        return mapped.index.getLong(block * BLOCK_BYTES + 8);
+    }
+
+    /**
+     * Body of this segment, mapping it unless it is still mapped from an earlier read. Callers
+     * keep the returned body for the length of one read only.
+     */
+    private Body body() throws IOException {
+        Body mapped = mappings.get(this);
+        return mapped != null ? mapped : mappings.put(this, new Body(path, bodyOffset, blockCount, rowCount));
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static OffsetDateTime utc(long millis) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    /**
+     * Mapped block index and columns plus the decoded notes and versions, which are few. Reads
+     * use absolute offsets only.
+     */
+    static final class Body {
+
+        final ByteBuffer index;
+        final ByteBuffer columns;
+        final Map<Integer, String> notes = new HashMap<>();
+        final Map<Integer, Long> versions = new HashMap<>();
+        private final int rowCount;
+
+        private Body(Path path, long offset, int blockCount, int rowCount) throws IOException {
+            this.rowCount = rowCount;
+            MappedByteBuffer mapped;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, channel.size() - offset);
+            }
+            int indexBytes = blockCount * BLOCK_BYTES;
+            index = mapped.slice(0, indexBytes);
+            columns = mapped.slice(indexBytes, mapped.capacity() - indexBytes);
+            ByteBuffer notesSection = columns.duplicate().position((ROW_BYTES + 4) * rowCount);
+            int count = notesSection.getInt();
+            for (int i = 0; i < count; i++) {
+                int row = notesSection.getInt();
+                notes.put(row, readString(notesSection));
+            }
+            int versionCount = notesSection.getInt();
+            for (int i = 0; i < versionCount; i++) {
+                versions.put(notesSection.getInt(), notesSection.getLong());
+            }
+        }
+
+        long version(int row) {
+            return versions.isEmpty() ? 0 : versions.getOrDefault(row, 0L);
+        }
+
+        boolean isLive(int row, RowFilter live) {
+            int n = rowCount;
+            return live == RowFilter.ALL
+                    || live.isLive(columns.getLong(9 * n + row * 8), columns.getLong(17 * n + row * 8), version(row));
+        }
+    }
+}
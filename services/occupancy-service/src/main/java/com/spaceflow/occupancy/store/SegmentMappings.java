@@ -0,0 +1,45 @@
+package com.spaceflow.occupancy.store;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The segment bodies currently mapped, at most {@code capacity} of them, least recently used
+ * evicted first. However many segments the directory holds, only this many stay mapped: an
+ * evicted body is unmapped once the collector reclaims its buffer, and mapped again by the
+ * next read that reaches it.
+ */
+final class SegmentMappings {
+
+    private final Map<SegmentFile, SegmentFile.Body> mapped;
+
+    SegmentMappings(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("At least one segment must stay mapped");
+        }
+        this.mapped = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SegmentFile, SegmentFile.Body> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    synchronized SegmentFile.Body get(SegmentFile segment) {
+        return mapped.get(segment);
+    }
+
+    /**
+     * Keeps {@code body} for {@code segment}, unless another thread mapped it first.
+     *
+     * @return the body to read from
+     */
+    synchronized SegmentFile.Body put(SegmentFile segment, SegmentFile.Body body) {
+        SegmentFile.Body other = mapped.putIfAbsent(segment, body);
+        return other != null ? other : body;
+    }
+
+    synchronized void remove(SegmentFile segment) {
+        mapped.remove(segment);
+    }
+}
@@ -0,0 +1,60 @@
+package com.spaceflow.occupancy.store;
+
+import java.util.Arrays;
+
+/**
+ * Maps occupancy status strings to one-byte codes so column chunks store a byte per row
+ * instead of a string reference.
+ */
+final class StatusDictionary {
+
+    private static final int MAX_CODES = 256;
+
+    private volatile String[] values = new String[0];
+
+    byte encode(String status) {
+        int code = codeOf(status);
+        if (code >= 0) {
+            return (byte) code;
+        }
+        synchronized (this) {
+            String[] current = values;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].equals(status)) {
+                    return (byte) i;
+                }
+            }
+            if (current.length == MAX_CODES) {
+                throw new IllegalStateException("More than " + MAX_CODES + " distinct occupancy statuses");
+            }
+            String[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = status;
+            values = next;
+            return (byte) current.length;
+        }
+    }
+
+    /**
+     * Code of {@code status}, or -1 if it has not been encoded yet.
+     */
+    int codeOf(String status) {
+        String[] current = values;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].equals(status)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Current values indexed by code; later codes may be added but existing ones never change.
+     */
+    String[] values() {
+        return values.clone();
+    }
+
+    String decode(byte code) {
+        return values[code & 0xFF];
+    }
+}
@@ -0,0 +1,204 @@
+package com.spaceflow.occupancy.stream;
+
+import com.spaceflow.occupancy.dto.Observation;
+import com.spaceflow.occupancy.dto.OccupancyTransition;
+import com.spaceflow.occupancy.state.SpaceStateTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fans recorded observations out to Server-Sent Event subscribers.
+ *
+ * Every persisted observation becomes an {@code observation} event, and a {@code transition}
+ * event is added when it changes the status of its space in the {@link SpaceStateTracker}.
+ * Space states are advanced here, as observations are published, so the stream and the
+ * current-state snapshot agree. Events are written once into a shared ring, numbered
+ * by sequence, and each subscriber only keeps a cursor into it: a small delivery pool walks
+ * each subscriber's cursor forward and sends the events that pass its space filter. There are
+ * no per-subscriber queues, so one change costs one ring write regardless of the number of
+ * subscribers.
+ *
+ * A subscriber that falls a whole ring behind is disconnected; event ids are sequences, so a
+ * client reconnecting with Last-Event-ID resumes where it left off if those events are still
+ * in the ring, and otherwise from the newest event.
+ */
+@Component
+public class ObservationBroadcaster implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObservationBroadcaster.class);
+
+    private final AtomicReferenceArray<StreamEvent> ring;
+    private final int capacity;
+    private final long timeoutMillis;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ExecutorService delivery;
+    private final ScheduledExecutorService heartbeat;
+    private final SpaceStateTracker spaceStates;
+    /** Sequence of the newest event; events are numbered from 1. */
+    private volatile long published;
+
+    public ObservationBroadcaster(SpaceStateTracker spaceStates,
+                                  @Value("${occupancy.stream.buffer-size:4096}") int bufferSize,
+                                  @Value("${occupancy.stream.delivery-threads:4}") int deliveryThreads,
+                                  @Value("${occupancy.stream.timeout-ms:1800000}") long timeoutMillis,
+                                  @Value("${occupancy.stream.heartbeat-ms:15000}") long heartbeatMillis) {
+        this.spaceStates = spaceStates;
+        this.ring = new AtomicReferenceArray<>(bufferSize);
+        this.capacity = bufferSize;
+        this.timeoutMillis = timeoutMillis;
+        this.delivery = Executors.newFixedThreadPool(deliveryThreads, daemon("occupancy-stream"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(daemon("occupancy-stream-heartbeat"));
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream of the events for {@code spaceIds} (all spaces if empty), starting after
+     * {@code lastEventId} when it is still in the ring and with the next event otherwise.
+     */
+    public SseEmitter subscribe(Set<String> spaceIds, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        long newest = published;
+        long cursor = lastEventId != null && lastEventId <= newest && newest - lastEventId < capacity
+                ? lastEventId + 1 : newest + 1;
+        Subscription subscription = new Subscription(emitter, spaceIds, cursor);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(ex -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        schedule(subscription);
+        return emitter;
+    }
+
+    public int subscribers() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Publishes persisted observations. Must only be called from one thread at a time (the
+     * ingest consumer).
+     */
+    public void publish(List<Observation> observations) {
+        long sequence = published;
+        for (Observation observation : observations) {
+            String spaceId = observation.getSpaceId();
+            ring.set(index(++sequence), new StreamEvent(sequence, "observation", spaceId, observation));
+            OccupancyTransition transition = spaceStates.record(observation);
+            if (transition != null) {
+                ring.set(index(++sequence), new StreamEvent(sequence, "transition", spaceId, transition));
+            }
+        }
+        published = sequence;
+        for (Subscription subscription : subscriptions) {
+            schedule(subscription);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        heartbeat.shutdownNow();
+        delivery.shutdownNow();
+        for (Subscription subscription : subscriptions) {
+            subscription.emitter.complete();
+        }
+    }
+
+    private void schedule(Subscription subscription) {
+        if (subscription.cursor <= published && subscription.scheduled.compareAndSet(false, true)) {
+            delivery.execute(() -> deliver(subscription));
+        }
+    }
+
+    private void deliver(Subscription subscription) {
+        try {
+            while (true) {
+                long newest = published;
+                while (subscription.cursor <= newest) {
+                    StreamEvent event = ring.get(index(subscription.cursor));
+                    // The slot was reused if it holds a later event: the subscriber fell a ring behind.
+                    if (newest - subscription.cursor >= capacity || event.sequence() != subscription.cursor) {
+                        logger.info("Disconnecting SSE subscriber that fell {} events behind",
+                                newest - subscription.cursor);
+                        subscriptions.remove(subscription);
+                        subscription.emitter.complete();
+                        return;
+                    }
+                    if (subscription.accepts(event)) {
+                        subscription.emitter.send(SseEmitter.event()
+                                .id(Long.toString(event.sequence()))
+                                .name(event.name())
+                                .data(event.data(), MediaType.APPLICATION_JSON));
+                    }
+                    subscription.cursor++;
+                }
+                subscription.scheduled.set(false);
+                // Events published after the last check would otherwise wait for the next publish.
+                if (published == newest || !subscription.scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        } catch (IOException | IllegalStateException ex) {
+            subscriptions.remove(subscription);
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (Subscription subscription : subscriptions) {
+            try {
+                subscription.emitter.send(SseEmitter.event().comment("keepalive"));
+            } catch (IOException | IllegalStateException ex) {
+                subscriptions.remove(subscription);
+            }
+        }
+    }
+
+    private int index(long sequence) {
+        return (int) Math.floorMod(sequence, (long) capacity);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record StreamEvent(long sequence, String name, String spaceId, Object data) {
+    }
+
+    private static final class Subscription {
+
+        final SseEmitter emitter;
+        final Set<String> spaceIds;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        /** Next sequence to deliver; only advanced by the delivery task holding {@link #scheduled}. */
+        volatile long cursor;
+
+        Subscription(SseEmitter emitter, Set<String> spaceIds, long cursor) {
+            this.emitter = emitter;
+            this.spaceIds = spaceIds;
+            this.cursor = cursor;
+        }
+
+        boolean accepts(StreamEvent event) {
+            return spaceIds.isEmpty() || spaceIds.contains(event.spaceId());
+        }
+    }
+}
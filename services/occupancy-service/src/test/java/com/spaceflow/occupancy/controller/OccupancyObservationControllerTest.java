@@ -1,5 +1,6 @@
 package com.spaceflow.occupancy.controller;
 
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,7 +8,14 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.time.OffsetDateTime;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.fail;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -91,29 +99,410 @@ class OccupancyObservationControllerTest {
     }
 
     @Test
-    @DisplayName("PATCH /api/v1/occupancy/observations/{id} returns 200 and Observation payload for valid request")
+    @DisplayName("PATCH /api/v1/occupancy/observations/{id} returns 200 and replaces the stored observation")
     void updateObservation_validRequest_returnsOkObservation() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/v1/occupancy/observations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"spaceId": "correct-space-1", "observedStartTime": "2024-01-01T09:00:00Z", "observedEndTime": "2024-01-01T10:00:00Z", "occupancyStatus": "unoccupied", "notes": "raw"}
+                                """))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String observationId = JsonPath.read(created.getResponse().getContentAsString(), "$.observationId");
+
         String requestBody = """
                 {
                   "observedStartTime": "2024-01-01T09:15:00Z",
                   "observedEndTime": "2024-01-01T10:15:00Z",
-                  "occupancyStatus": "occupied",
-                  "notes": "corrected times"
+                  "occupancyStatus": "occupied"
                 }
                 """;
 
-        mockMvc.perform(patch("/api/v1/occupancy/observations/{observationId}", "obs-123")
+        mockMvc.perform(patch("/api/v1/occupancy/observations/{observationId}", observationId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestBody))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.observationId").value("obs-123"))
+                .andExpect(jsonPath("$.observationId").value(observationId))
                 .andExpect(jsonPath("$.occupancyStatus").value("occupied"))
-                .andExpect(jsonPath("$.spaceId").isNotEmpty())
+                .andExpect(jsonPath("$.spaceId").value("correct-space-1"))
+                .andExpect(jsonPath("$.notes").value("raw"))
                 .andExpect(jsonPath("$.recordedAt").isNotEmpty())
                 .andExpect(jsonPath("$.updatedAt").isNotEmpty());
 
-        // TODO: add tests for not-found and correction logic once implemented
+        mockMvc.perform(get("/api/v1/occupancy/observations")
+                        .param("spaceId", "correct-space-1")
+                        .param("startTime", "2024-01-01T00:00:00Z")
+                        .param("endTime", "2024-01-02T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.observations.length()").value(1))
+                .andExpect(jsonPath("$.observations[0].observationId").value(observationId))
+                .andExpect(jsonPath("$.observations[0].observedStartTime").value(startsWith("2024-01-01T09:15")))
+                .andExpect(jsonPath("$.observations[0].occupancyStatus").value("occupied"));
     }
-}
 
+    @Test
+    @DisplayName("PATCH /api/v1/occupancy/observations/{id} returns 404 for an unknown observation")
+    void updateObservation_unknownId_returnsNotFound() throws Exception {
+        mockMvc.perform(patch("/api/v1/occupancy/observations/{observationId}", "obs-123")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"occupancyStatus": "occupied"}
+                                """))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("NOT_FOUND"));
+    }
 
+    @Test
+    @DisplayName("PATCH /api/v1/occupancy/observations/{id} returns 400 when the corrected period is empty")
+    void updateObservation_endBeforeStart_returnsBadRequest() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/v1/occupancy/observations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"spaceId": "correct-space-2", "observedStartTime": "2024-01-01T09:00:00Z", "observedEndTime": "2024-01-01T10:00:00Z", "occupancyStatus": "occupied"}
+                                """))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String observationId = JsonPath.read(created.getResponse().getContentAsString(), "$.observationId");
+
+        mockMvc.perform(patch("/api/v1/occupancy/observations/{observationId}", observationId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"observedEndTime": "2024-01-01T08:00:00Z"}
+                                """))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("observedEndTime must be after observedStartTime"));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/occupancy/observations:batch accepts a JSON array and the observations become readable")
+    void recordObservations_jsonArray_returnsAcceptedAndPersists() throws Exception {
+        String requestBody = """
+                [
+                  {
+                    "spaceId": "batch-space-1",
+                    "observedStartTime": "2024-02-01T10:00:00Z",
+                    "observedEndTime": "2024-02-01T11:00:00Z",
+                    "occupancyStatus": "occupied"
+                  },
+                  {
+                    "spaceId": "batch-space-1",
+                    "observedStartTime": "2024-02-01T09:00:00Z",
+                    "observedEndTime": "2024-02-01T10:00:00Z",
+                    "occupancyStatus": "unoccupied"
+                  }
+                ]
+                """;
+
+        mockMvc.perform(post("/api/v1/occupancy/observations:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").value(2));
+
+        awaitObservations("batch-space-1", 2);
+        mockMvc.perform(get("/api/v1/occupancy/observations")
+                        .param("spaceId", "batch-space-1")
+                        .param("startTime", "2024-02-01T00:00:00Z")
+                        .param("endTime", "2024-02-02T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.observations[0].occupancyStatus").value("unoccupied"))
+                .andExpect(jsonPath("$.observations[1].occupancyStatus").value("occupied"));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/occupancy/observations:batch accepts newline-delimited JSON")
+    void recordObservations_ndjson_returnsAccepted() throws Exception {
+        String requestBody = """
+                {"spaceId": "batch-space-2", "observedStartTime": "2024-02-01T09:00:00Z", "observedEndTime": "2024-02-01T09:15:00Z", "occupancyStatus": "occupied"}
+                {"spaceId": "batch-space-2", "observedStartTime": "2024-02-01T09:15:00Z", "observedEndTime": "2024-02-01T09:30:00Z", "occupancyStatus": "occupied"}
+                {"spaceId": "batch-space-2", "observedStartTime": "2024-02-01T09:30:00Z", "observedEndTime": "2024-02-01T09:45:00Z", "occupancyStatus": "unoccupied"}
+                """;
+
+        mockMvc.perform(post("/api/v1/occupancy/observations:batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(requestBody))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").value(3));
+
+        awaitObservations("batch-space-2", 3);
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/occupancy/observations:batch returns 400 and accepts nothing when one item is invalid")
+    void recordObservations_invalidItem_returnsBadRequest() throws Exception {
+        String requestBody = """
+                {"spaceId": "batch-space-3", "observedStartTime": "2024-02-01T09:00:00Z", "observedEndTime": "2024-02-01T09:15:00Z", "occupancyStatus": "occupied"}
+                {"observedStartTime": "2024-02-01T09:15:00Z", "observedEndTime": "2024-02-01T09:30:00Z", "occupancyStatus": "occupied"}
+                """;
+
+        mockMvc.perform(post("/api/v1/occupancy/observations:batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(requestBody))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("INVALID_REQUEST"))
+                .andExpect(jsonPath("$.message").value(startsWith("observations[1].spaceId")));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/occupancy/observations:batch returns 400 when an observed period ends before it starts")
+    void recordObservations_invertedPeriod_returnsBadRequest() throws Exception {
+        String requestBody = """
+                [
+                  {
+                    "spaceId": "batch-space-4",
+                    "observedStartTime": "2024-02-01T10:00:00Z",
+                    "observedEndTime": "2024-02-01T09:00:00Z",
+                    "occupancyStatus": "occupied"
+                  }
+                ]
+                """;
+
+        mockMvc.perform(post("/api/v1/occupancy/observations:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("observations[0]: observedEndTime must be after observedStartTime"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/occupancy/observations:summary returns counts and occupied minutes clipped to the window")
+    void summarizeObservations_returnsAggregates() throws Exception {
+        String requestBody = """
+                [
+                  {"spaceId": "summary-space-1", "observedStartTime": "2024-03-01T09:00:00Z", "observedEndTime": "2024-03-01T10:00:00Z", "occupancyStatus": "occupied"},
+                  {"spaceId": "summary-space-1", "observedStartTime": "2024-03-01T10:00:00Z", "observedEndTime": "2024-03-01T10:30:00Z", "occupancyStatus": "unoccupied"}
+                ]
+                """;
+        mockMvc.perform(post("/api/v1/occupancy/observations:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isAccepted());
+        awaitObservations("summary-space-1", 2);
+
+        mockMvc.perform(get("/api/v1/occupancy/observations:summary")
+                        .param("spaceId", "summary-space-1")
+                        .param("startTime", "2024-03-01T09:30:00Z")
+                        .param("endTime", "2024-03-01T11:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.spaceId").value("summary-space-1"))
+                .andExpect(jsonPath("$.observationCount").value(2))
+                .andExpect(jsonPath("$.occupiedObservationCount").value(1))
+                .andExpect(jsonPath("$.occupiedMinutes").value(30.0));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/occupancy/observations:rollup returns buckets from the coarsest fitting tier")
+    void rollUpObservations_returnsBuckets() throws Exception {
+        String requestBody = """
+                [
+                  {"spaceId": "rollup-space-1", "observedStartTime": "2024-03-02T09:00:00Z", "observedEndTime": "2024-03-02T09:30:00Z", "occupancyStatus": "occupied"},
+                  {"spaceId": "rollup-space-1", "observedStartTime": "2024-03-02T09:30:00Z", "observedEndTime": "2024-03-02T10:10:00Z", "occupancyStatus": "unoccupied"}
+                ]
+                """;
+        mockMvc.perform(post("/api/v1/occupancy/observations:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isAccepted());
+        awaitObservations("rollup-space-1", 2);
+
+        mockMvc.perform(get("/api/v1/occupancy/observations:rollup")
+                        .param("spaceId", "rollup-space-1")
+                        .param("startTime", "2024-03-02T09:10:00Z")
+                        .param("endTime", "2024-03-02T10:30:00Z")
+                        .param("resolutionMinutes", "60"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tier").value("HOURLY"))
+                .andExpect(jsonPath("$.startTime").value("2024-03-02T09:00:00Z"))
+                .andExpect(jsonPath("$.endTime").value("2024-03-02T11:00:00Z"))
+                .andExpect(jsonPath("$.buckets.length()").value(2))
+                .andExpect(jsonPath("$.buckets[0].observationCount").value(2))
+                .andExpect(jsonPath("$.buckets[0].occupiedMinutes").value(30.0))
+                .andExpect(jsonPath("$.buckets[0].transitionCount").value(1))
+                .andExpect(jsonPath("$.buckets[0].minOccupiedMinutes").value(0.0))
+                .andExpect(jsonPath("$.buckets[0].maxOccupiedMinutes").value(5.0))
+                .andExpect(jsonPath("$.buckets[1].observationCount").value(1))
+                .andExpect(jsonPath("$.buckets[1].occupiedMinutes").value(0.0));
+
+        mockMvc.perform(get("/api/v1/occupancy/observations:rollup")
+                        .param("spaceId", "rollup-space-1")
+                        .param("startTime", "2024-03-02T09:00:00Z")
+                        .param("endTime", "2024-03-02T10:00:00Z")
+                        .param("resolutionMinutes", "15"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tier").value("FIVE_MINUTES"))
+                .andExpect(jsonPath("$.buckets.length()").value(4))
+                .andExpect(jsonPath("$.buckets[1].occupiedMinutes").value(15.0))
+                .andExpect(jsonPath("$.buckets[2].occupiedMinutes").value(0.0));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/occupancy/observations:rollup rejects resolutions no tier can serve")
+    void rollUpObservations_resolutionNotMultipleOfTier_returns400() throws Exception {
+        mockMvc.perform(get("/api/v1/occupancy/observations:rollup")
+                        .param("spaceId", "rollup-space-2")
+                        .param("startTime", "2024-03-02T09:00:00Z")
+                        .param("endTime", "2024-03-02T10:00:00Z")
+                        .param("resolutionMinutes", "7"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("resolutionMinutes must be a positive multiple of 5"));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/occupancy/observations:batch accepts binary records")
+    void recordObservations_binaryBatch_returnsAccepted() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x4F425331);
+        out.writeShort(1);
+        out.writeShort("binary-space-1".length());
+        out.writeBytes("binary-space-1");
+        out.writeShort(0);
+        long start = OffsetDateTime.parse("2024-03-03T09:00:00Z").toInstant().toEpochMilli();
+        for (int i = 0; i < 3; i++) {
+            out.writeShort(0);
+            out.writeShort(0xFFFF);
+            out.writeLong(0);
+            out.writeLong(start + i * 300_000L);
+            out.writeLong(start + (i + 1) * 300_000L);
+            out.writeByte(i % 2);
+        }
+
+        mockMvc.perform(post("/api/v1/occupancy/observations:batch")
+                        .contentType("application/vnd.spaceflow.observations")
+                        .content(bytes.toByteArray()))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").value(3));
+        awaitObservations("binary-space-1", 3);
+
+        mockMvc.perform(get("/api/v1/occupancy/observations:summary")
+                        .param("spaceId", "binary-space-1")
+                        .param("startTime", "2024-03-03T09:00:00Z")
+                        .param("endTime", "2024-03-03T10:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.occupiedObservationCount").value(1))
+                .andExpect(jsonPath("$.occupiedMinutes").value(5.0));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/occupancy/observations:batch drops resent observations")
+    void recordObservations_resentSensorSequence_storedOnce() throws Exception {
+        String requestBody = """
+                {"spaceId": "dedupe-space-1", "sensorId": "pir-7", "sequence": 41, "observedStartTime": "2024-04-01T09:00:00Z", "observedEndTime": "2024-04-01T09:05:00Z", "occupancyStatus": "occupied"}
+                {"spaceId": "dedupe-space-1", "sensorId": "pir-7", "sequence": 42, "observedStartTime": "2024-04-01T09:05:00Z", "observedEndTime": "2024-04-01T09:10:00Z", "occupancyStatus": "occupied"}
+                """;
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/v1/occupancy/observations:batch")
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content(requestBody))
+                    .andExpect(status().isAccepted());
+        }
+        mockMvc.perform(post("/api/v1/occupancy/observations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"spaceId": "dedupe-space-1", "sensorId": "pir-7", "sequence": 43, "observedStartTime": "2024-04-01T09:10:00Z", "observedEndTime": "2024-04-01T09:15:00Z", "occupancyStatus": "unoccupied"}
+                                """))
+                .andExpect(status().isCreated());
+
+        awaitObservations("dedupe-space-1", 3);
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/occupancy/observations returns 400 when sensorId is given without sequence")
+    void recordObservation_sensorIdWithoutSequence_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/occupancy/observations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"spaceId": "dedupe-space-2", "sensorId": "pir-7", "observedStartTime": "2024-04-01T09:10:00Z", "observedEndTime": "2024-04-01T09:15:00Z", "occupancyStatus": "unoccupied"}
+                                """))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("sensorId and sequence must be given together"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/occupancy/observations:search merges the observations of several spaces in time order")
+    void searchObservations_severalSpaces_returnsTimeOrderedObservations() throws Exception {
+        mockMvc.perform(post("/api/v1/occupancy/observations:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [
+                                  {"spaceId": "multi-space-1", "observedStartTime": "2024-05-01T09:00:00Z", "observedEndTime": "2024-05-01T09:30:00Z", "occupancyStatus": "occupied"},
+                                  {"spaceId": "multi-space-2", "observedStartTime": "2024-05-01T09:10:00Z", "observedEndTime": "2024-05-01T09:40:00Z", "occupancyStatus": "unoccupied"},
+                                  {"spaceId": "multi-space-1", "observedStartTime": "2024-05-01T09:30:00Z", "observedEndTime": "2024-05-01T10:00:00Z", "occupancyStatus": "unoccupied"},
+                                  {"spaceId": "multi-space-3", "observedStartTime": "2024-05-01T11:00:00Z", "observedEndTime": "2024-05-01T12:00:00Z", "occupancyStatus": "occupied"}
+                                ]
+                                """))
+                .andExpect(status().isAccepted());
+        awaitObservations("multi-space-1", 2);
+        awaitObservations("multi-space-2", 1);
+
+        mockMvc.perform(get("/api/v1/occupancy/observations:search")
+                        .param("spaceIds", "multi-space-2,multi-space-1,multi-space-unknown")
+                        .param("startTime", "2024-05-01T00:00:00Z")
+                        .param("endTime", "2024-05-02T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.observations.length()").value(3))
+                .andExpect(jsonPath("$.observations[0].spaceId").value("multi-space-1"))
+                .andExpect(jsonPath("$.observations[1].spaceId").value("multi-space-2"))
+                .andExpect(jsonPath("$.observations[2].observedStartTime").value(startsWith("2024-05-01T09:30")));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/occupancy/observations:summaries returns occupied minutes per space in request order")
+    void summarizeSpaces_severalSpaces_returnsSummaryPerSpace() throws Exception {
+        mockMvc.perform(post("/api/v1/occupancy/observations:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [
+                                  {"spaceId": "multi-summary-1", "observedStartTime": "2024-05-02T09:00:00Z", "observedEndTime": "2024-05-02T09:30:00Z", "occupancyStatus": "occupied"},
+                                  {"spaceId": "multi-summary-2", "observedStartTime": "2024-05-02T09:00:00Z", "observedEndTime": "2024-05-02T10:00:00Z", "occupancyStatus": "occupied"},
+                                  {"spaceId": "multi-summary-2", "observedStartTime": "2024-05-02T10:00:00Z", "observedEndTime": "2024-05-02T11:00:00Z", "occupancyStatus": "unoccupied"}
+                                ]
+                                """))
+                .andExpect(status().isAccepted());
+        awaitObservations("multi-summary-2", 2);
+
+        mockMvc.perform(get("/api/v1/occupancy/observations:summaries")
+                        .param("spaceIds", "multi-summary-2", "multi-summary-1", "multi-summary-3")
+                        .param("startTime", "2024-05-02T00:00:00Z")
+                        .param("endTime", "2024-05-03T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.summaries.length()").value(3))
+                .andExpect(jsonPath("$.summaries[0].spaceId").value("multi-summary-2"))
+                .andExpect(jsonPath("$.summaries[0].observationCount").value(2))
+                .andExpect(jsonPath("$.summaries[0].occupiedMinutes").value(60.0))
+                .andExpect(jsonPath("$.summaries[1].occupiedMinutes").value(30.0))
+                .andExpect(jsonPath("$.summaries[2].observationCount").value(0));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/occupancy/observations:search returns 400 when the window is empty")
+    void searchObservations_emptyWindow_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/occupancy/observations:search")
+                        .param("spaceIds", "multi-space-1")
+                        .param("startTime", "2024-05-02T00:00:00Z")
+                        .param("endTime", "2024-05-01T00:00:00Z"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("INVALID_REQUEST"));
+    }
+
+    private void awaitObservations(String spaceId, int expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            MvcResult result = mockMvc.perform(get("/api/v1/occupancy/observations")
+                            .param("spaceId", spaceId)
+                            .param("startTime", "2024-01-01T00:00:00Z")
+                            .param("endTime", "2025-01-01T00:00:00Z"))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            int found = JsonPath.read(result.getResponse().getContentAsString(), "$.observations.length()");
+            if (found == expected) {
+                return;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                fail("Expected " + expected + " observations for " + spaceId + " but found " + found);
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.spaceflow.occupancy.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OccupancyStateControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("GET /api/v1/occupancy/current returns the latest status of each observed space")
+    void getCurrentOccupancy_returnsLatestStates() throws Exception {
+        record("current-space-1", "2024-06-01T09:00:00Z", "occupied");
+        record("current-space-1", "2024-06-01T09:05:00Z", "occupied");
+        record("current-space-2", "2024-06-01T09:00:00Z", "occupied");
+        record("current-space-2", "2024-06-01T09:05:00Z", "unoccupied");
+
+        mockMvc.perform(get("/api/v1/occupancy/current")
+                        .param("spaceIds", "current-space-2,current-space-unknown,current-space-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.spaces.length()").value(2))
+                .andExpect(jsonPath("$.spaces[0].spaceId").value("current-space-2"))
+                .andExpect(jsonPath("$.spaces[0].occupancyStatus").value("unoccupied"))
+                .andExpect(jsonPath("$.spaces[0].since").value("2024-06-01T09:05:00Z"))
+                .andExpect(jsonPath("$.spaces[1].spaceId").value("current-space-1"))
+                .andExpect(jsonPath("$.spaces[1].occupancyStatus").value("occupied"))
+                .andExpect(jsonPath("$.spaces[1].since").value("2024-06-01T09:00:00Z"))
+                .andExpect(jsonPath("$.spaces[1].lastObservedAt").value("2024-06-01T09:05:00Z"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/occupancy/current without spaceIds returns 400")
+    void getCurrentOccupancy_missingSpaceIds_returns400() throws Exception {
+        mockMvc.perform(get("/api/v1/occupancy/current"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("MISSING_PARAMETER"));
+    }
+
+    private void record(String spaceId, String start, String status) throws Exception {
+        mockMvc.perform(post("/api/v1/occupancy/observations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"spaceId": "%s", "observedStartTime": "%s", "observedEndTime": "2024-06-01T10:00:00Z", "occupancyStatus": "%s"}
+                                """.formatted(spaceId, start, status)))
+                .andExpect(status().isCreated());
+    }
+}
@@ -0,0 +1,76 @@
+package com.spaceflow.occupancy.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OccupancyStreamControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("GET /api/v1/occupancy/stream pushes observations and status transitions for the requested spaces")
+    void streamObservations_filteredBySpace_pushesObservationsAndTransitions() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/api/v1/occupancy/stream")
+                        .param("spaceIds", "stream-space-1", "stream-space-2")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        record("stream-space-1", "2024-05-01T09:00:00Z", "2024-05-01T09:05:00Z", "occupied");
+        record("stream-space-other", "2024-05-01T09:00:00Z", "2024-05-01T09:05:00Z", "occupied");
+        record("stream-space-1", "2024-05-01T09:05:00Z", "2024-05-01T09:10:00Z", "occupied");
+        record("stream-space-1", "2024-05-01T09:10:00Z", "2024-05-01T09:15:00Z", "unoccupied");
+        // Older than the latest observation, so it is streamed but is not a transition.
+        record("stream-space-1", "2024-05-01T08:00:00Z", "2024-05-01T08:05:00Z", "occupied");
+
+        String content = awaitEvents(stream, 6);
+        assertEquals(4, count(content, "event:observation"));
+        assertEquals(2, count(content, "event:transition"));
+        assertFalse(content.contains("stream-space-other"));
+        assertEquals(1, count(content, "\"previousStatus\":\"occupied\",\"occupancyStatus\":\"unoccupied\""));
+    }
+
+    private void record(String spaceId, String start, String end, String status) throws Exception {
+        mockMvc.perform(post("/api/v1/occupancy/observations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"spaceId": "%s", "observedStartTime": "%s", "observedEndTime": "%s", "occupancyStatus": "%s"}
+                                """.formatted(spaceId, start, end, status)))
+                .andExpect(status().isCreated());
+    }
+
+    private static String awaitEvents(MvcResult stream, int expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            String content = stream.getResponse().getContentAsString();
+            if (count(content, "event:") >= expected || System.currentTimeMillis() > deadline) {
+                return content;
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static int count(String content, String token) {
+        int count = 0;
+        for (int i = content.indexOf(token); i >= 0; i = content.indexOf(token, i + token.length())) {
+            count++;
+        }
+        return count;
+    }
+}
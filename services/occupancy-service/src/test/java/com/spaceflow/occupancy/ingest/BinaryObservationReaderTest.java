@@ -0,0 +1,101 @@
+package com.spaceflow.occupancy.ingest;
+
+import com.spaceflow.occupancy.store.ObservationRow;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryObservationReaderTest {
+
+    private static final OffsetDateTime NINE_AM = OffsetDateTime.of(2024, 1, 1, 9, 0, 0, 0, ZoneOffset.UTC);
+    private static final long START = NINE_AM.toInstant().toEpochMilli();
+    private static final long RECORDED_AT = NINE_AM.plusDays(1).toInstant().toEpochMilli();
+
+    @Test
+    void read_ShouldDecodeRecordsWithSensorAndContentKeys() throws Exception {
+        byte[] batch = batch(List.of("room-a", "room-b"), List.of("pir-1"),
+                new long[]{1, 0, 41, START, START + 60_000, 1},
+                new long[]{0, BinaryObservationReader.NO_SENSOR, 0, START, START + 300_000, 0});
+
+        List<IngestRecord> records = read(batch, 10);
+
+        assertEquals(2, records.size());
+        ObservationRow first = records.get(0).row();
+        assertEquals("room-b", first.spaceId());
+        assertEquals(START, first.startMillis());
+        assertEquals(START + 60_000, first.endMillis());
+        assertEquals("occupied", first.status());
+        assertEquals(RECORDED_AT, first.recordedAtMillis());
+        assertEquals(0, first.version());
+        assertEquals(4, first.toObservation().getObservationId().charAt(14) - '0');
+        assertEquals(IngestRecord.fromSensor(first, "pir-1", 41).dedupeKey(), records.get(0).dedupeKey());
+        ObservationRow second = records.get(1).row();
+        assertEquals("room-a", second.spaceId());
+        assertEquals("unoccupied", second.status());
+        assertNotEquals(first.toObservation().getObservationId(), second.toObservation().getObservationId());
+        assertEquals(IngestRecord.fromContent(second).dedupeKey(), records.get(1).dedupeKey());
+    }
+
+    @Test
+    void read_ShouldRejectInvalidBatches() throws Exception {
+        long[] valid = {0, BinaryObservationReader.NO_SENSOR, 0, START, START + 60_000, 1};
+        byte[] batch = batch(List.of("room-a"), List.of(), valid, valid);
+
+        assertEquals("A batch may contain at most 1 observations",
+                assertThrows(IllegalArgumentException.class, () -> read(batch, 1)).getMessage());
+        assertEquals("records[1] is truncated", assertThrows(IllegalArgumentException.class,
+                () -> read(Arrays.copyOf(batch, batch.length - 1), 10)).getMessage());
+        assertEquals("records[0]: unknown space index 1", assertThrows(IllegalArgumentException.class,
+                () -> read(batch(List.of("room-a"), List.of(), new long[]{1, 0xFFFF, 0, START, START + 1, 1}), 10))
+                .getMessage());
+        assertEquals("records[0]: unknown status 2", assertThrows(IllegalArgumentException.class,
+                () -> read(batch(List.of("room-a"), List.of(), new long[]{0, 0xFFFF, 0, START, START + 1, 2}), 10))
+                .getMessage());
+        assertEquals("records[0]: observedEndTime must be after observedStartTime", assertThrows(
+                IllegalArgumentException.class,
+                () -> read(batch(List.of("room-a"), List.of(), new long[]{0, 0xFFFF, 0, START, START, 1}), 10))
+                .getMessage());
+        assertEquals("Not a binary observation batch", assertThrows(IllegalArgumentException.class,
+                () -> read("[{}]".getBytes(StandardCharsets.UTF_8), 10)).getMessage());
+    }
+
+    private static List<IngestRecord> read(byte[] batch, int maxRecords) throws IOException {
+        return BinaryObservationReader.read(new ByteArrayInputStream(batch), maxRecords, RECORDED_AT);
+    }
+
+    /**
+     * Encodes a batch; each record is {space, sensor, sequence, start, end, status}.
+     */
+    private static byte[] batch(List<String> spaces, List<String> sensors, long[]... records) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(BinaryObservationReader.MAGIC);
+        for (List<String> table : List.of(spaces, sensors)) {
+            out.writeShort(table.size());
+            for (String entry : table) {
+                byte[] utf8 = entry.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(utf8.length);
+                out.write(utf8);
+            }
+        }
+        for (long[] record : records) {
+            out.writeShort((int) record[0]);
+            out.writeShort((int) record[1]);
+            out.writeLong(record[2]);
+            out.writeLong(record[3]);
+            out.writeLong(record[4]);
+            out.writeByte((int) record[5]);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,126 @@
+package com.spaceflow.occupancy.ingest;
+
+import com.spaceflow.occupancy.dto.Observation;
+import com.spaceflow.occupancy.error.IngestBufferFullException;
+import com.spaceflow.occupancy.store.ObservationRow;
+import com.spaceflow.occupancy.store.ObservationStore;
+import com.spaceflow.occupancy.store.SegmentDirectory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObservationIngestPipelineTest {
+
+    private static final OffsetDateTime NINE_AM = OffsetDateTime.of(2024, 1, 1, 9, 0, 0, 0, ZoneOffset.UTC);
+
+    private static long sequence;
+
+    @Test
+    void submit_ShouldRejectWhenStoreFallsBehind() throws Exception {
+        CountDownLatch storeBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ObservationStore slowStore = new ObservationStore(new SegmentDirectory(""), 0, 0, 0, 0, 0) {
+            @Override
+            public void appendRows(List<ObservationRow> rows) {
+                storeBlocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                super.appendRows(rows);
+            }
+        };
+        ObservationIngestPipeline pipeline = new ObservationIngestPipeline(slowStore, 4, 4, 7, 16);
+        try {
+            pipeline.submit(observations(4));
+            storeBlocked.await();
+            long sequence = pipeline.submit(observations(4));
+
+            IngestBufferFullException ex = assertThrows(IngestBufferFullException.class,
+                    () -> pipeline.submit(observations(1)));
+            assertEquals(7, ex.getRetryAfterSeconds());
+            assertFalse(pipeline.awaitPersisted(sequence, 10));
+
+            release.countDown();
+            assertTrue(pipeline.awaitPersisted(sequence, 5000));
+            assertEquals(8, slowStore.find("space-1", NINE_AM, NINE_AM.plusDays(1)).size());
+        } finally {
+            release.countDown();
+            pipeline.destroy();
+        }
+    }
+
+    @Test
+    void submit_ShouldDropResendsWithinTheDedupeWindow() throws Exception {
+        ObservationStore store = new ObservationStore(new SegmentDirectory(""), 0, 0, 0, 0, 0);
+        ObservationIngestPipeline pipeline = new ObservationIngestPipeline(store, 16, 16, 1, 2);
+        try {
+            ObservationRow first = row(0);
+            ObservationRow resent = row(0);
+            pipeline.submit(List.of(IngestRecord.fromContent(first), IngestRecord.fromContent(resent),
+                    IngestRecord.fromSensor(row(1), "sensor-1", 7),
+                    IngestRecord.fromSensor(row(2), "sensor-1", 7)));
+            assertTrue(pipeline.awaitPersisted(pipeline.submit(List.of(
+                    IngestRecord.fromSensor(row(3), "sensor-1", 8),
+                    IngestRecord.fromSensor(row(4), "sensor-1", 9),
+                    // Evicted from the two-key window by sequences 8 and 9.
+                    IngestRecord.fromContent(row(0)))), 5000));
+
+            List<String> stored = store.find("space-1", NINE_AM, NINE_AM.plusDays(1)).stream()
+                    .map(Observation::getObservationId).toList();
+            assertTrue(stored.contains(first.toObservation().getObservationId()));
+            assertFalse(stored.contains(resent.toObservation().getObservationId()));
+            assertEquals(5, stored.size());
+        } finally {
+            pipeline.destroy();
+        }
+    }
+
+    @Test
+    void submit_ShouldRetryBatchesTheStoreFailsToTake() throws Exception {
+        AtomicInteger failures = new AtomicInteger(2);
+        ObservationStore failingStore = new ObservationStore(new SegmentDirectory(""), 0, 0, 0, 0, 0) {
+            @Override
+            public void appendRows(List<ObservationRow> rows) {
+                if (failures.getAndDecrement() > 0) {
+                    throw new UncheckedIOException(new IOException("disk full"));
+                }
+                super.appendRows(rows);
+            }
+        };
+        ObservationIngestPipeline pipeline = new ObservationIngestPipeline(failingStore, 16, 16, 1, 16);
+        try {
+            long sequence = pipeline.submit(observations(3));
+
+            assertTrue(pipeline.awaitPersisted(sequence, 5000));
+            assertTrue(failures.get() < 0);
+            assertEquals(3, failingStore.find("space-1", NINE_AM, NINE_AM.plusDays(1)).size());
+        } finally {
+            pipeline.destroy();
+        }
+    }
+
+    private static List<IngestRecord> observations(int count) {
+        List<IngestRecord> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            records.add(IngestRecord.fromSensor(row(i), "sensor-1", sequence++));
+        }
+        return records;
+    }
+
+    private static ObservationRow row(int minute) {
+        long start = NINE_AM.plusMinutes(minute).toInstant().toEpochMilli();
+        return ObservationRow.create("space-1", start, start + 60_000, "occupied", NINE_AM.toInstant().toEpochMilli(),
+                null);
+    }
+}
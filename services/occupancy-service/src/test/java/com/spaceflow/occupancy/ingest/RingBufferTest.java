@@ -0,0 +1,79 @@
+package com.spaceflow.occupancy.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    @Test
+    void offer_ShouldRejectWholeBatchWhenItDoesNotFit() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+
+        assertEquals(3, buffer.offer(List.of(1, 2, 3)));
+        assertEquals(-1, buffer.offer(List.of(4, 5)));
+        assertEquals(3, buffer.size());
+
+        List<Integer> out = new ArrayList<>();
+        assertEquals(2, buffer.drainTo(out, 2));
+        assertEquals(5, buffer.offer(List.of(4, 5)));
+        assertEquals(3, buffer.drainTo(out, 10));
+        assertEquals(List.of(1, 2, 3, 4, 5), out);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void constructor_ShouldRequirePowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(6));
+    }
+
+    @Test
+    void drainTo_ShouldKeepEachProducersBatchContiguousAndInOrder() throws Exception {
+        int producers = 4;
+        int batches = 500;
+        RingBuffer<int[]> buffer = new RingBuffer<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            executor.submit(() -> {
+                start.await();
+                for (int b = 0; b < batches; b++) {
+                    List<int[]> batch = List.of(new int[]{producer, b, 0}, new int[]{producer, b, 1});
+                    while (buffer.offer(batch) < 0) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+
+        int[] lastBatch = {-1, -1, -1, -1};
+        List<int[]> out = new ArrayList<>();
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (received < producers * batches * 2 && System.nanoTime() < deadline) {
+            out.clear();
+            buffer.drainTo(out, 16);
+            for (int[] item : out) {
+                if (item[2] == 0) {
+                    assertEquals(lastBatch[item[0]] + 1, item[1]);
+                    lastBatch[item[0]] = item[1];
+                } else {
+                    assertEquals(lastBatch[item[0]], item[1]);
+                }
+                received++;
+            }
+        }
+        executor.shutdown();
+        assertEquals(producers * batches * 2, received);
+    }
+}
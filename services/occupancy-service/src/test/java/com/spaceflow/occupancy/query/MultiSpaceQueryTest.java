@@ -0,0 +1,81 @@
+package com.spaceflow.occupancy.query;
+
+import com.spaceflow.occupancy.dto.Observation;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiSpaceQueryTest {
+
+    private static final OffsetDateTime NINE_AM = OffsetDateTime.of(2024, 1, 1, 9, 0, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    void forEachSpace_ShouldReturnResultsInSpaceOrder() {
+        MultiSpaceQuery query = new MultiSpaceQuery(4);
+        try {
+            List<String> spaceIds = IntStream.range(0, 300).mapToObj(i -> "room-" + i).toList();
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+
+            List<String> results = query.forEachSpace(spaceIds, spaceId -> {
+                threads.add(Thread.currentThread().getName());
+                return spaceId.toUpperCase();
+            });
+
+            assertEquals(spaceIds.stream().map(String::toUpperCase).toList(), results);
+            assertTrue(threads.stream().allMatch(name -> name.startsWith("occupancy-query-")));
+            assertTrue(query.forEachSpace(List.of(), spaceId -> spaceId).isEmpty());
+        } finally {
+            query.destroy();
+        }
+    }
+
+    @Test
+    void forEachSpace_ShouldPropagateQueryFailures() {
+        MultiSpaceQuery query = new MultiSpaceQuery(2);
+        try {
+            assertThrows(IllegalStateException.class, () -> query.forEachSpace(List.of("room-a", "room-b"),
+                    spaceId -> {
+                        throw new IllegalStateException(spaceId);
+                    }));
+        } finally {
+            query.destroy();
+        }
+    }
+
+    @Test
+    void mergeByStart_ShouldInterleaveSortedListsInTimeOrder() {
+        List<Observation> roomA = List.of(observation("a1", 0), observation("a2", 10), observation("a3", 20));
+        List<Observation> roomB = List.of(observation("b1", 5), observation("b2", 10), observation("b3", 30));
+        List<Observation> roomC = List.of(observation("c1", 10));
+
+        List<Observation> merged = MultiSpaceQuery.mergeByStart(List.of(roomA, Collections.emptyList(), roomB, roomC));
+
+        assertEquals(List.of("a1", "b1", "a2", "b2", "c1", "a3", "b3"), ids(merged));
+        assertTrue(MultiSpaceQuery.mergeByStart(List.of()).isEmpty());
+    }
+
+    private static List<String> ids(List<Observation> observations) {
+        List<String> ids = new ArrayList<>();
+        for (Observation observation : observations) {
+            ids.add(observation.getObservationId());
+        }
+        return ids;
+    }
+
+    private static Observation observation(String id, int startMinute) {
+        Observation observation = new Observation();
+        observation.setObservationId(id);
+        observation.setObservedStartTime(NINE_AM.plusMinutes(startMinute));
+        observation.setObservedEndTime(NINE_AM.plusMinutes(startMinute + 5));
+        return observation;
+    }
+}
@@ -0,0 +1,99 @@
+package com.spaceflow.occupancy.state;
+
+import com.spaceflow.occupancy.dto.Observation;
+import com.spaceflow.occupancy.dto.OccupancyTransition;
+import com.spaceflow.occupancy.dto.SpaceOccupancy;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceStateTrackerTest {
+
+    private static final OffsetDateTime NINE_AM = OffsetDateTime.of(2024, 1, 1, 9, 0, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    void record_ShouldKeepSinceUntilStatusChanges() {
+        SpaceStateTracker tracker = new SpaceStateTracker(10);
+
+        OccupancyTransition first = tracker.record(observation("room-a", NINE_AM, "occupied"));
+        assertNull(first.getPreviousStatus());
+        assertEquals("occupied", first.getOccupancyStatus());
+        Observation repeat = observation("room-a", NINE_AM.plusMinutes(5), "occupied");
+        assertNull(tracker.record(repeat));
+
+        SpaceOccupancy state = tracker.current(List.of("room-a")).get(0);
+        assertEquals("occupied", state.getOccupancyStatus());
+        assertEquals(NINE_AM, state.getSince());
+        assertEquals(repeat.getObservationId(), state.getLastObservationId());
+        assertEquals(NINE_AM.plusMinutes(5), state.getLastObservedAt());
+
+        OccupancyTransition change = tracker.record(observation("room-a", NINE_AM.plusMinutes(10), "unoccupied"));
+        assertEquals("occupied", change.getPreviousStatus());
+        assertEquals(NINE_AM.plusMinutes(10), change.getSince());
+        assertEquals(NINE_AM.plusMinutes(10), tracker.current(List.of("room-a")).get(0).getSince());
+    }
+
+    @Test
+    void record_ShouldIgnoreObservationsOlderThanTheLatest() {
+        SpaceStateTracker tracker = new SpaceStateTracker(10);
+        Observation latest = observation("room-a", NINE_AM, "unoccupied");
+        tracker.record(latest);
+
+        assertNull(tracker.record(observation("room-a", NINE_AM.minusHours(1), "occupied")));
+        SpaceOccupancy state = tracker.current(List.of("room-a")).get(0);
+        assertEquals("unoccupied", state.getOccupancyStatus());
+        assertEquals(latest.getObservationId(), state.getLastObservationId());
+    }
+
+    @Test
+    void correct_ShouldRewriteTheStateTakenFromTheCorrectedObservation() {
+        SpaceStateTracker tracker = new SpaceStateTracker(10);
+        Observation earlier = observation("room-a", NINE_AM, "occupied");
+        Observation latest = observation("room-a", NINE_AM.plusMinutes(5), "occupied");
+        tracker.record(earlier);
+        tracker.record(latest);
+
+        earlier.setOccupancyStatus("unoccupied");
+        assertNull(tracker.correct(earlier));
+        assertEquals(latest.getObservationId(), tracker.current(List.of("room-a")).get(0).getLastObservationId());
+
+        latest.setOccupancyStatus("unoccupied");
+        OccupancyTransition change = tracker.correct(latest);
+        assertEquals("occupied", change.getPreviousStatus());
+        SpaceOccupancy state = tracker.current(List.of("room-a")).get(0);
+        assertEquals("unoccupied", state.getOccupancyStatus());
+        assertEquals(NINE_AM.plusMinutes(5), state.getSince());
+
+        Observation unseen = observation("room-b", NINE_AM, "occupied");
+        assertNotNull(tracker.correct(unseen));
+        assertEquals(unseen.getObservationId(), tracker.current(List.of("room-b")).get(0).getLastObservationId());
+    }
+
+    @Test
+    void current_ShouldOmitUnobservedSpacesAndBoundRequests() {
+        SpaceStateTracker tracker = new SpaceStateTracker(2);
+        tracker.record(observation("room-b", NINE_AM, "occupied"));
+
+        List<SpaceOccupancy> states = tracker.current(List.of("room-a", "room-b"));
+        assertEquals(1, states.size());
+        assertEquals("room-b", states.get(0).getSpaceId());
+        assertThrows(IllegalArgumentException.class, () -> tracker.current(Collections.nCopies(3, "room-b")));
+        assertThrows(IllegalArgumentException.class, () -> tracker.current(List.of()));
+    }
+
+    private static Observation observation(String spaceId, OffsetDateTime start, String status) {
+        Observation observation = new Observation();
+        observation.setObservationId(UUID.randomUUID().toString());
+        observation.setSpaceId(spaceId);
+        observation.setObservedStartTime(start);
+        observation.setObservedEndTime(start.plusMinutes(5));
+        observation.setOccupancyStatus(status);
+        return observation;
+    }
+}
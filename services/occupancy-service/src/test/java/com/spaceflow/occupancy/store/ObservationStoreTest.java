@@ -0,0 +1,456 @@
+package com.spaceflow.occupancy.store;
+
+import com.spaceflow.occupancy.dto.Observation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObservationStoreTest {
+
+    private static final OffsetDateTime NINE_AM = OffsetDateTime.of(2024, 3, 4, 9, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime MIDNIGHT = NINE_AM.truncatedTo(ChronoUnit.DAYS);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void find_ShouldRoundTripColumnsInStartOrder() {
+        ObservationStore store = inMemoryStore();
+        Observation later = observation("room-a", NINE_AM.plusHours(1), NINE_AM.plusHours(2), "occupied");
+        later.setNotes("badge reader");
+        Observation earlier = observation("room-a", NINE_AM.withOffsetSameInstant(ZoneOffset.ofHours(2)),
+                NINE_AM.plusMinutes(30), "unoccupied");
+        store.appendAll(List.of(later, earlier, observation("room-b", NINE_AM, NINE_AM.plusHours(1), "occupied")));
+
+        List<Observation> found = store.find("room-a", NINE_AM, NINE_AM.plusHours(3));
+
+        assertEquals(2, found.size());
+        Observation first = found.get(0);
+        assertEquals(earlier.getObservationId(), first.getObservationId());
+        assertEquals("room-a", first.getSpaceId());
+        assertEquals(NINE_AM, first.getObservedStartTime());
+        assertEquals(NINE_AM.plusMinutes(30), first.getObservedEndTime());
+        assertEquals("unoccupied", first.getOccupancyStatus());
+        assertNull(first.getNotes());
+        assertEquals(earlier.getRecordedAt(), first.getRecordedAt());
+        assertEquals("badge reader", found.get(1).getNotes());
+        assertEquals("occupied", found.get(1).getOccupancyStatus());
+    }
+
+    @Test
+    void find_ShouldOnlyReturnOverlappingObservations() {
+        ObservationStore store = inMemoryStore();
+        store.appendAll(List.of(
+                observation("room-a", NINE_AM, NINE_AM.plusHours(1), "occupied"),
+                observation("room-a", NINE_AM.plusHours(1), NINE_AM.plusHours(2), "occupied")));
+
+        assertEquals(1, store.find("room-a", NINE_AM.plusMinutes(30), NINE_AM.plusHours(1)).size());
+        assertEquals(2, store.find("room-a", NINE_AM.plusMinutes(30), NINE_AM.plusMinutes(61)).size());
+        assertTrue(store.find("room-a", NINE_AM.plusHours(2), NINE_AM.plusHours(3)).isEmpty());
+        assertTrue(store.find("room-c", NINE_AM, NINE_AM.plusHours(3)).isEmpty());
+    }
+
+    @Test
+    void find_ShouldIncludeObservationsStartingOnEarlierDays() {
+        ObservationStore store = inMemoryStore();
+        store.appendAll(List.of(observation("room-a", NINE_AM.minusDays(3), NINE_AM.plusMinutes(1), "occupied")));
+
+        assertEquals(1, store.find("room-a", NINE_AM, NINE_AM.plusHours(1)).size());
+        assertTrue(store.find("room-a", NINE_AM.plusMinutes(1), NINE_AM.plusHours(1)).isEmpty());
+    }
+
+    @Test
+    void appendAll_ShouldGrowChunksBeyondInitialCapacity() {
+        ObservationStore store = inMemoryStore();
+        List<Observation> batch = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            batch.add(observation("room-a", NINE_AM.plusSeconds(i), NINE_AM.plusSeconds(i + 1), "occupied"));
+        }
+        store.appendAll(batch);
+
+        List<Observation> found = store.find("room-a", NINE_AM, NINE_AM.plusHours(1));
+        assertEquals(1000, found.size());
+        assertEquals(NINE_AM.plusSeconds(999), found.get(999).getObservedStartTime());
+    }
+
+    @Test
+    void sealBefore_ShouldServeSealedDaysFromSegmentsAcrossRestarts() throws Exception {
+        ObservationStore store = new ObservationStore(new SegmentDirectory(dir.toString()), 0, () -> 0);
+        Observation noted = observation("room-a", NINE_AM.minusDays(1), NINE_AM.minusDays(1).plusHours(1), "occupied");
+        noted.setNotes("sensor");
+        Observation overnight = observation("room-a", MIDNIGHT.minusHours(1), MIDNIGHT.plusHours(1), "unoccupied");
+        Observation today = observation("room-a", NINE_AM, NINE_AM.plusHours(1), "occupied");
+        store.appendAll(List.of(today, overnight, noted,
+                observation("room-b", NINE_AM.minusDays(1), NINE_AM.minusDays(1).plusHours(1), "occupied")));
+        List<Observation> before = store.find("room-a", MIDNIGHT.minusDays(1), MIDNIGHT.plusDays(1));
+
+        assertEquals(2, store.sealBefore(MIDNIGHT.toInstant().toEpochMilli()));
+        assertEquals(0, store.sealBefore(MIDNIGHT.toInstant().toEpochMilli()));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(2, files.filter(file -> file.toString().endsWith(".seg")).count());
+        }
+        assertSameObservations(before, store.find("room-a", MIDNIGHT.minusDays(1), MIDNIGHT.plusDays(1)));
+        assertEquals(List.of(overnight.getObservationId()), ids(store.find("room-a", MIDNIGHT, NINE_AM)));
+
+        ObservationStore restarted = new ObservationStore(new SegmentDirectory(dir.toString()), 0, () -> 0);
+        List<Observation> sealed = restarted.find("room-a", MIDNIGHT.minusDays(1), MIDNIGHT);
+        assertEquals(List.of(noted.getObservationId(), overnight.getObservationId()), ids(sealed));
+        assertEquals("sensor", sealed.get(0).getNotes());
+        assertEquals(1, restarted.find("room-b", MIDNIGHT.minusDays(1), MIDNIGHT).size());
+
+        Observation late = observation("room-a", NINE_AM.minusDays(1).plusMinutes(30), NINE_AM.minusDays(1).plusMinutes(35), "unoccupied");
+        restarted.appendAll(List.of(late));
+        assertEquals(3, restarted.find("room-a", MIDNIGHT.minusDays(1), MIDNIGHT).size());
+        assertEquals(1, restarted.sealBefore(MIDNIGHT.toInstant().toEpochMilli()));
+        List<Observation> merged = restarted.find("room-a", MIDNIGHT.minusDays(1), MIDNIGHT);
+        assertEquals(List.of(noted.getObservationId(), late.getObservationId(), overnight.getObservationId()), ids(merged));
+        assertEquals("sensor", merged.get(0).getNotes());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(2, files.filter(file -> file.toString().endsWith(".seg")).count());
+        }
+        ObservationStore restartedAgain = new ObservationStore(new SegmentDirectory(dir.toString()), 0, () -> 0);
+        assertEquals(ids(merged), ids(restartedAgain.find("room-a", MIDNIGHT.minusDays(1), MIDNIGHT)));
+    }
+
+    @Test
+    void find_ShouldReadMoreSegmentsThanStayMapped() {
+        ObservationStore store = new ObservationStore(new SegmentDirectory(dir.toString(), true, 2), 0, () -> 0);
+        List<Observation> days = new ArrayList<>();
+        for (int day = 1; day <= 5; day++) {
+            days.add(observation("room-a", NINE_AM.minusDays(day), NINE_AM.minusDays(day).plusHours(1), "occupied"));
+        }
+        store.appendAll(days);
+        assertEquals(5, store.sealBefore(MIDNIGHT.toInstant().toEpochMilli()));
+
+        ObservationStore restarted = new ObservationStore(new SegmentDirectory(dir.toString(), true, 2), 0, () -> 0);
+        for (int pass = 0; pass < 2; pass++) {
+            assertEquals(5, restarted.find("room-a", MIDNIGHT.minusDays(5), MIDNIGHT).size());
+            assertEquals(5, restarted.summarize("room-a", MIDNIGHT.minusDays(5), MIDNIGHT).getObservations());
+        }
+    }
+
+    @Test
+    void summarize_ShouldAgreeBeforeAndAfterSealingIntoIndexedBlocks() {
+        ObservationStore store = new ObservationStore(new SegmentDirectory(dir.toString()), 0, () -> 0);
+        OffsetDateTime dayStart = MIDNIGHT.minusDays(1);
+        List<Observation> batch = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            batch.add(observation("room-a", dayStart.plusMinutes(i), dayStart.plusMinutes(i + 1),
+                    i % 3 == 0 ? "unoccupied" : "occupied"));
+        }
+        batch.add(observation("room-a", dayStart.plusHours(2), dayStart.plusHours(20), "occupied"));
+        store.appendAll(batch);
+
+        List<OffsetDateTime[]> windows = List.of(
+                new OffsetDateTime[]{dayStart, MIDNIGHT},
+                new OffsetDateTime[]{dayStart.plusHours(3), dayStart.plusHours(4)},
+                new OffsetDateTime[]{dayStart.plusMinutes(90).plusSeconds(30), dayStart.plusMinutes(700)},
+                new OffsetDateTime[]{dayStart.plusHours(19), MIDNIGHT.plusHours(1)});
+        List<long[]> inMemory = new ArrayList<>();
+        List<List<String>> inMemoryIds = new ArrayList<>();
+        for (OffsetDateTime[] window : windows) {
+            inMemory.add(totals(store.summarize("room-a", window[0], window[1])));
+            inMemoryIds.add(ids(store.find("room-a", window[0], window[1])));
+        }
+
+        assertEquals(1, store.sealBefore(MIDNIGHT.toInstant().toEpochMilli()));
+
+        for (int i = 0; i < windows.size(); i++) {
+            OffsetDateTime[] window = windows.get(i);
+            assertArrayEquals(inMemory.get(i), totals(store.summarize("room-a", window[0], window[1])));
+            assertEquals(inMemoryIds.get(i), ids(store.find("room-a", window[0], window[1])));
+        }
+        assertArrayEquals(new long[]{1001, 667, (666 + 18 * 60) * 60_000L}, inMemory.get(0));
+        assertArrayEquals(new long[]{61, 41, (40 + 60) * 60_000L}, inMemory.get(1));
+        assertArrayEquals(new long[]{1, 1, 60 * 60_000L}, inMemory.get(3));
+    }
+
+    @Test
+    void rollup_ShouldAnswerDaysWhoseRawObservationsExpired() throws Exception {
+        ObservationStore store = new ObservationStore(new SegmentDirectory(dir.toString()), 0,
+                Duration.ofDays(2).toMillis(), Duration.ofDays(10).toMillis(), 0, () -> 0);
+        store.appendAll(List.of(
+                observation("room-a", NINE_AM, NINE_AM.plusMinutes(30), "occupied"),
+                observation("room-a", NINE_AM.plusMinutes(30), NINE_AM.plusHours(1), "unoccupied"),
+                observation("room-a", NINE_AM.plusHours(1), NINE_AM.plusMinutes(67), "occupied")));
+        long[][] hourly = {{2, 30 * 60_000L, 1, 0, 5 * 60_000L}, {1, 7 * 60_000L, 1, 0, 5 * 60_000L}};
+
+        assertArrayEquals(hourly, totals(store.rollup("room-a", NINE_AM, Duration.ofHours(1), 2, RollupTier.HOURLY)));
+        long dayAfter = MIDNIGHT.plusDays(1).toInstant().toEpochMilli();
+        assertEquals(1, store.sealBefore(dayAfter));
+        assertEquals(0, store.expireBefore(dayAfter + Duration.ofDays(1).toMillis()));
+        assertEquals(1, store.expireBefore(dayAfter + Duration.ofDays(3).toMillis()));
+
+        assertTrue(store.find("room-a", NINE_AM, NINE_AM.plusHours(2)).isEmpty());
+        assertArrayEquals(hourly, totals(store.rollup("room-a", NINE_AM, Duration.ofHours(1), 2, RollupTier.HOURLY)));
+
+        ObservationStore restarted = new ObservationStore(new SegmentDirectory(dir.toString()), 0,
+                Duration.ofDays(2).toMillis(), Duration.ofDays(10).toMillis(), 0, () -> 0);
+        assertArrayEquals(hourly, totals(restarted.rollup("room-a", NINE_AM, Duration.ofHours(1), 2, RollupTier.HOURLY)));
+        assertArrayEquals(new long[][]{{1, 5 * 60_000L, 1, 5 * 60_000L, 5 * 60_000L}, {1, 2 * 60_000L, 0, 2 * 60_000L, 2 * 60_000L}},
+                totals(restarted.rollup("room-a", NINE_AM.plusHours(1), Duration.ofMinutes(5), 2, RollupTier.FIVE_MINUTES)));
+
+        assertEquals(1, restarted.expireBefore(dayAfter + Duration.ofDays(11).toMillis()));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of(".r1h"), files.map(file -> file.getFileName().toString())
+                    .filter(name -> !name.startsWith("locations."))
+                    .map(name -> name.substring(name.lastIndexOf('.'))).filter(suffix -> !suffix.equals(".log"))
+                    .toList());
+        }
+        assertArrayEquals(hourly, totals(restarted.rollup("room-a", NINE_AM, Duration.ofHours(1), 2, RollupTier.HOURLY)));
+    }
+
+    @Test
+    void correct_ShouldHideReplacedVersionsAndDropThemOnSeal() throws Exception {
+        ObservationStore store = new ObservationStore(new SegmentDirectory(dir.toString()), 0, () -> 0);
+        OffsetDateTime yesterday = NINE_AM.minusDays(1);
+        Observation wrong = observation("room-a", yesterday, yesterday.plusHours(1), "unoccupied");
+        Observation other = observation("room-a", yesterday.plusHours(2), yesterday.plusHours(3), "occupied");
+        store.appendAll(List.of(wrong, other));
+        assertEquals(1, store.sealBefore(MIDNIGHT.toInstant().toEpochMilli()));
+
+        Observation corrected = store.correct(wrong.getObservationId(), current -> {
+            current.setObservedStartTime(current.getObservedStartTime().plusMinutes(15));
+            current.setOccupancyStatus("occupied");
+            return current;
+        });
+        assertEquals("room-a", corrected.getSpaceId());
+        assertNotNull(corrected.getUpdatedAt());
+        List<Observation> found = store.find("room-a", MIDNIGHT.minusDays(1), MIDNIGHT);
+        assertEquals(List.of(wrong.getObservationId(), other.getObservationId()), ids(found));
+        assertEquals("occupied", found.get(0).getOccupancyStatus());
+        assertEquals(yesterday.plusMinutes(15), found.get(0).getObservedStartTime());
+        assertEquals(corrected.getUpdatedAt(), found.get(0).getUpdatedAt());
+        long[] summary = totals(store.summarize("room-a", MIDNIGHT.minusDays(1), MIDNIGHT));
+        assertArrayEquals(new long[]{2, 2, 105 * 60_000L}, summary);
+
+        assertEquals(1, store.sealBefore(MIDNIGHT.toInstant().toEpochMilli()));
+        assertSameObservations(found, store.find("room-a", MIDNIGHT.minusDays(1), MIDNIGHT));
+        assertArrayEquals(summary, totals(store.summarize("room-a", MIDNIGHT.minusDays(1), MIDNIGHT)));
+
+        Observation moved = store.correct(wrong.getObservationId(), current -> {
+            current.setObservedStartTime(current.getObservedStartTime().minusDays(1));
+            current.setObservedEndTime(current.getObservedEndTime().minusDays(1));
+            return current;
+        });
+        assertEquals(ids(List.of(other)), ids(store.find("room-a", MIDNIGHT.minusDays(1), MIDNIGHT)));
+        assertEquals(2, store.sealBefore(MIDNIGHT.toInstant().toEpochMilli()));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(2, files.filter(file -> file.toString().endsWith(".seg")).count());
+        }
+
+        ObservationStore restarted = new ObservationStore(new SegmentDirectory(dir.toString()), 0, () -> 0);
+        List<Observation> reloaded = restarted.find("room-a", MIDNIGHT.minusDays(2), MIDNIGHT);
+        assertEquals(List.of(wrong.getObservationId(), other.getObservationId()), ids(reloaded));
+        assertEquals(moved.getUpdatedAt(), reloaded.get(0).getUpdatedAt());
+        assertEquals("note", restarted.correct(wrong.getObservationId(), current -> {
+            current.setNotes("note");
+            return current;
+        }).getNotes());
+        assertNull(restarted.correct(UUID.randomUUID().toString(), current -> current));
+        assertNull(restarted.correct("obs-123", current -> current));
+    }
+
+    @Test
+    void appendAll_ShouldReplayUnsealedRowsFromTheIngestLogAfterRestart() throws Exception {
+        ObservationStore store = new ObservationStore(new SegmentDirectory(dir.toString()), 0, () -> 0);
+        Observation yesterday = observation("room-a", NINE_AM.minusDays(1), NINE_AM.minusDays(1).plusHours(1), "occupied");
+        Observation today = observation("room-a", NINE_AM, NINE_AM.plusHours(1), "unoccupied");
+        today.setNotes("door sensor");
+        store.appendAll(List.of(yesterday));
+        store.appendAll(List.of(today));
+        store.correct(today.getObservationId(), current -> {
+            current.setOccupancyStatus("occupied");
+            return current;
+        });
+        List<Observation> before = store.find("room-a", MIDNIGHT.minusDays(1), MIDNIGHT.plusDays(1));
+        store.destroy();
+        try (Stream<Path> files = Files.list(dir)) {
+            Path log = files.filter(file -> file.toString().endsWith(".log")).findFirst().orElseThrow();
+            // A frame cut short by a crash is ignored.
+            Files.write(log, new byte[]{0, 0, 1, 0, 42}, StandardOpenOption.APPEND);
+        }
+
+        ObservationStore restarted = new ObservationStore(new SegmentDirectory(dir.toString()), 0, () -> 0);
+        List<Observation> replayed = restarted.find("room-a", MIDNIGHT.minusDays(1), MIDNIGHT.plusDays(1));
+        assertSameObservations(before, replayed);
+        assertEquals("occupied", replayed.get(1).getOccupancyStatus());
+        assertEquals(before.get(1).getUpdatedAt(), replayed.get(1).getUpdatedAt());
+
+        assertEquals(1, restarted.sealBefore(MIDNIGHT.toInstant().toEpochMilli()));
+        restarted.destroy();
+        ObservationStore restartedAgain = new ObservationStore(new SegmentDirectory(dir.toString()), 0, () -> 0);
+        assertSameObservations(before, restartedAgain.find("room-a", MIDNIGHT.minusDays(1), MIDNIGHT.plusDays(1)));
+        assertEquals(1, restartedAgain.sealBefore(MIDNIGHT.plusDays(1).toInstant().toEpochMilli()));
+        try (Stream<Path> files = Files.list(dir)) {
+            // Only the file opened by the last rotation is left once every day is sealed.
+            assertEquals(1, files.filter(file -> file.toString().endsWith(".log")).count());
+        }
+        assertSameObservations(before, new ObservationStore(new SegmentDirectory(dir.toString()), 0, () -> 0)
+                .find("room-a", MIDNIGHT.minusDays(1), MIDNIGHT.plusDays(1)));
+    }
+
+    @Test
+    void correct_ShouldFindSealedRowsThroughTheLocationIndexAndKeepMovesAcrossRestarts() throws Exception {
+        ObservationStore store = new ObservationStore(new SegmentDirectory(dir.toString()), 0, () -> 0);
+        long start = NINE_AM.minusDays(1).toInstant().toEpochMilli();
+        ObservationRow row = ObservationRow.create("room-a", start, start + 3_600_000, "unoccupied", start, null);
+        ObservationRow other = ObservationRow.create("room-b", start, start + 3_600_000, "occupied", start, null);
+        store.appendRows(List.of(row, other));
+        assertEquals(2, store.sealBefore(MIDNIGHT.toInstant().toEpochMilli()));
+        store.destroy();
+
+        ObservationStore restarted = new ObservationStore(new SegmentDirectory(dir.toString()), 0, () -> 0);
+        String id = row.toObservation().getObservationId();
+        Observation moved = restarted.correct(id, current -> {
+            current.setObservedStartTime(current.getObservedStartTime().plusDays(1));
+            current.setObservedEndTime(current.getObservedEndTime().plusDays(1));
+            current.setOccupancyStatus("occupied");
+            return current;
+        });
+        assertEquals("room-a", moved.getSpaceId());
+        assertTrue(restarted.find("room-a", MIDNIGHT.minusDays(1), MIDNIGHT).isEmpty());
+        restarted.destroy();
+
+        // The replaced version is still in yesterday's segment; replaying the correction hides it.
+        ObservationStore replayed = new ObservationStore(new SegmentDirectory(dir.toString()), 0, () -> 0);
+        assertTrue(replayed.find("room-a", MIDNIGHT.minusDays(1), MIDNIGHT).isEmpty());
+        List<Observation> today = replayed.find("room-a", MIDNIGHT, MIDNIGHT.plusDays(1));
+        assertEquals(List.of(id), ids(today));
+        assertEquals(moved.getUpdatedAt(), today.get(0).getUpdatedAt());
+        assertEquals(2, replayed.sealBefore(MIDNIGHT.plusDays(1).toInstant().toEpochMilli()));
+        replayed.destroy();
+
+        ObservationStore sealed = new ObservationStore(new SegmentDirectory(dir.toString()), 0, () -> 0);
+        assertEquals("note", sealed.correct(id, current -> {
+            current.setNotes("note");
+            return current;
+        }).getNotes());
+        assertEquals("occupied", sealed.correct(other.toObservation().getObservationId(), current -> current)
+                .getOccupancyStatus());
+        assertEquals(List.of(id), ids(sealed.find("room-a", MIDNIGHT.minusDays(1), MIDNIGHT.plusDays(1))));
+        assertNull(sealed.correct(UUID.randomUUID().toString(), current -> current));
+        sealed.destroy();
+
+        // A lost index is rebuilt from the segments once.
+        Files.delete(dir.resolve("locations.idx"));
+        ObservationStore reindexed = new ObservationStore(new SegmentDirectory(dir.toString()), 0, () -> 0);
+        assertEquals("note", reindexed.correct(id, current -> current).getNotes());
+        assertEquals("room-b", reindexed.correct(other.toObservation().getObservationId(), current -> current)
+                .getSpaceId());
+    }
+
+    @Test
+    void correct_ShouldFindSealedRowsAfterTheLocationIndexGrows() throws Exception {
+        ObservationStore store = new ObservationStore(new SegmentDirectory(dir.toString()), 0, () -> 0);
+        long start = NINE_AM.minusDays(1).toInstant().toEpochMilli();
+        List<ObservationRow> rows = new ArrayList<>();
+        for (int i = 0; i < 40_000; i++) {
+            rows.add(ObservationRow.create(i % 2 == 0 ? "room-a" : "room-b", start + i, start + i + 1, "occupied",
+                    start, null));
+        }
+        store.appendRows(rows);
+        assertEquals(2, store.sealBefore(MIDNIGHT.toInstant().toEpochMilli()));
+
+        for (ObservationRow row : List.of(rows.get(0), rows.get(20_001), rows.get(39_999))) {
+            Observation corrected = store.correct(row.toObservation().getObservationId(), current -> {
+                current.setOccupancyStatus("unoccupied");
+                return current;
+            });
+            assertEquals(row.spaceId(), corrected.getSpaceId());
+        }
+        assertNull(store.correct(UUID.randomUUID().toString(), current -> current));
+    }
+
+    @Test
+    void correct_ShouldApplyConcurrentCorrectionsOfOneObservationInTurn() throws Exception {
+        ObservationStore store = new ObservationStore(new SegmentDirectory(dir.toString()), 0, () -> 0);
+        Observation observation = observation("room-a", NINE_AM, NINE_AM.plusHours(1), "occupied");
+        store.appendAll(List.of(observation));
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 50; j++) {
+                    // Alternate days, so corrections lock two partitions and move the row back and forth.
+                    store.correct(observation.getObservationId(), current -> {
+                        boolean today = !current.getObservedStartTime().isBefore(MIDNIGHT);
+                        current.setObservedStartTime(current.getObservedStartTime().plusDays(today ? -1 : 1));
+                        current.setObservedEndTime(current.getObservedEndTime().plusDays(today ? -1 : 1));
+                        return current;
+                    });
+                    store.appendAll(List.of(observation("room-a", NINE_AM, NINE_AM.plusMinutes(1), "occupied")));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        List<Observation> found = store.find("room-a", MIDNIGHT.minusDays(1), MIDNIGHT.plusDays(1)).stream()
+                .filter(stored -> stored.getObservationId().equals(observation.getObservationId())).toList();
+        assertEquals(1, found.size());
+        // Every correction saw the version before it; versions count up from 1 with a clock at 0.
+        assertEquals(200, found.get(0).getUpdatedAt().toInstant().toEpochMilli());
+        assertEquals(NINE_AM, found.get(0).getObservedStartTime());
+        assertEquals(201, store.find("room-a", MIDNIGHT.minusDays(1), MIDNIGHT.plusDays(1)).size());
+    }
+
+    private static long[][] totals(RollupBucket[] buckets) {
+        long[][] totals = new long[buckets.length][];
+        for (int i = 0; i < buckets.length; i++) {
+            RollupBucket bucket = buckets[i];
+            totals[i] = new long[]{bucket.getObservations(), bucket.getOccupiedMillis(), bucket.getTransitions(),
+                    bucket.getMinOccupiedMillis(), bucket.getMaxOccupiedMillis()};
+        }
+        return totals;
+    }
+
+    private static long[] totals(RangeAggregate aggregate) {
+        return new long[]{aggregate.getObservations(), aggregate.getOccupiedObservations(), aggregate.getOccupiedMillis()};
+    }
+
+    private static ObservationStore inMemoryStore() {
+        return new ObservationStore(new SegmentDirectory(""), 0, 0, 0, 0, 0);
+    }
+
+    private static void assertSameObservations(List<Observation> expected, List<Observation> actual) {
+        assertEquals(ids(expected), ids(actual));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getSpaceId(), actual.get(i).getSpaceId());
+            assertEquals(expected.get(i).getObservedStartTime(), actual.get(i).getObservedStartTime());
+            assertEquals(expected.get(i).getObservedEndTime(), actual.get(i).getObservedEndTime());
+            assertEquals(expected.get(i).getOccupancyStatus(), actual.get(i).getOccupancyStatus());
+            assertEquals(expected.get(i).getNotes(), actual.get(i).getNotes());
+            assertEquals(expected.get(i).getRecordedAt(), actual.get(i).getRecordedAt());
+        }
+    }
+
+    private static List<String> ids(List<Observation> observations) {
+        return observations.stream().map(Observation::getObservationId).toList();
+    }
+
+    private static Observation observation(String spaceId, OffsetDateTime start, OffsetDateTime end, String status) {
+        Observation observation = new Observation();
+        observation.setObservationId(UUID.randomUUID().toString());
+        observation.setSpaceId(spaceId);
+        observation.setObservedStartTime(start);
+        observation.setObservedEndTime(end);
+        observation.setOccupancyStatus(status);
+        observation.setRecordedAt(NINE_AM.plusDays(1));
+        return observation;
+    }
+}